@@ -0,0 +1,112 @@
+package LibBenchmark;
+
+import LibNet.NetLibrary;
+import PetriObj.ElevatorObjModel;
+import PetriObj.NumberingContext;
+import PetriObj.PetriObjModel;
+import PetriObj.PetriSim;
+import java.util.ArrayList;
+
+/**
+ * This class builds the models used by the benchmarks. The size of model is
+ * given by the quantity of channels of transitions and the quantity of
+ * Petri-objects.
+ */
+public class BenchmarkModels {
+
+    public static final String SMO_WITHOUT_QUEUE = "SMOwithoutQueue";
+    public static final String SMO_GROUP = "SMOgroup";
+    public static final String FORK = "Fork";
+    public static final String COURSEWORK = "Coursework";
+    public static final String ELEVATOR = "Elevator";
+
+    /**
+     * @param net the name of model
+     * @param channels the quantity of channels of service transitions (the
+     * capacity of elevator for the elevator model)
+     * @param objects the quantity of service Petri-objects (the quantity of
+     * copies of net for the coursework model, it is ignored for the elevator
+     * model)
+     * @return the new model
+     * @throws Exception if the model can not be created
+     */
+    public static PetriObjModel create(String net, int channels, int objects) throws Exception {
+        return NumberingContext.call(() -> {
+            switch (net) {
+                case SMO_WITHOUT_QUEUE:
+                    return createSMO(channels, objects);
+                case SMO_GROUP:
+                    return createSMOgroup(channels, objects);
+                case FORK:
+                    return createFork(channels, objects);
+                case COURSEWORK:
+                    return createCoursework(objects);
+                case ELEVATOR:
+                    return new ElevatorObjModel(1, 15, 120, 0.7, 0.1, 0.4, channels);
+                default:
+                    throw new IllegalArgumentException("Unknown model " + net);
+            }
+        });
+    }
+
+    /**
+     * The generator and the service objects which take the demands from the
+     * shared place of generator. The load of service is about 0.8.
+     */
+    private static PetriObjModel createSMO(int channels, int objects) throws Exception {
+        ArrayList<PetriSim> list = new ArrayList<>();
+        PetriSim generator = new PetriSim(NetLibrary.CreateNetGenerator(1.0));
+        list.add(generator);
+        for (int i = 0; i < objects; i++) {
+            list.add(new PetriSim(NetLibrary.CreateNetSMOwithoutQueue(channels, 0.8 * channels * objects, "" + i)));
+        }
+        PetriObjModel model = new PetriObjModel(list);
+        for (int i = 1; i < list.size(); i++) {
+            model.linkObjectsCombiningPlaces(list.get(i), 0, generator, 1);
+        }
+        return model;
+    }
+
+    private static PetriObjModel createSMOgroup(int channels, int objects) throws Exception {
+        ArrayList<PetriSim> list = new ArrayList<>();
+        PetriSim generator = new PetriSim(NetLibrary.CreateNetGenerator(1.0));
+        list.add(generator);
+        for (int i = 0; i < objects; i++) {
+            list.add(new PetriSim(NetLibrary.CreateNetSMOgroup(3, channels, 0.8 * channels * objects, "SMOgroup" + i)));
+        }
+        PetriObjModel model = new PetriObjModel(list);
+        for (int i = 1; i < list.size(); i++) {
+            model.linkObjectsCombiningPlaces(list.get(i), 0, generator, 1);
+        }
+        return model;
+    }
+
+    /**
+     * The generator, the fork of four ways and the service objects which take
+     * the demands from the ways of fork in turn.
+     */
+    private static PetriObjModel createFork(int channels, int objects) throws Exception {
+        ArrayList<PetriSim> list = new ArrayList<>();
+        PetriSim generator = new PetriSim(NetLibrary.CreateNetGenerator(1.0));
+        PetriSim fork = new PetriSim(NetLibrary.CreateNetFork(0.25, 0.25, 0.25));
+        list.add(generator);
+        list.add(fork);
+        for (int i = 0; i < objects; i++) {
+            list.add(new PetriSim(NetLibrary.CreateNetSMOwithoutQueue(channels, 0.8 * channels * Math.max(objects, 4) / 4, "" + i)));
+        }
+        PetriObjModel model = new PetriObjModel(list);
+        model.linkObjectsCombiningPlaces(fork, 0, generator, 1);
+        for (int i = 2; i < list.size(); i++) {
+            model.linkObjectsCombiningPlaces(list.get(i), 0, fork, 1 + (i - 2) % 4);
+        }
+        return model;
+    }
+
+    private static PetriObjModel createCoursework(int objects) throws Exception {
+        ArrayList<PetriSim> list = new ArrayList<>();
+        for (int i = 0; i < objects; i++) {
+            list.add(new PetriSim(NetLibrary.CreateNetCoursework()));
+        }
+        return new PetriObjModel(list);
+    }
+}
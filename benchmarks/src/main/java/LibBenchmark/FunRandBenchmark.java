@@ -0,0 +1,62 @@
+package LibBenchmark;
+
+import PetriObj.ExceptionInvalidTimeDelay;
+import PetriObj.FunRand;
+import PetriObj.ModelRandom;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This benchmark measures the generators of random values of FunRand with the
+ * generator of model and with the default generator of thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FunRandBenchmark {
+
+    @Param({"model", "thread"})
+    public String generator;
+
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void createGenerator() {
+        random = generator.equals("model") ? new ModelRandom(1) : FunRand.getRandom();
+    }
+
+    @Benchmark
+    public double exp() {
+        return FunRand.exp(random, 1.0);
+    }
+
+    @Benchmark
+    public double unif() throws ExceptionInvalidTimeDelay {
+        return FunRand.unif(random, 0.5, 1.5);
+    }
+
+    @Benchmark
+    public double norm() throws ExceptionInvalidTimeDelay {
+        return FunRand.norm(random, 10.0, 1.0);
+    }
+
+    @Benchmark
+    public double empiric() throws Exception {
+        return FunRand.empiric(random, new double[]{0, 1, 2, 3}, new double[]{0, 0.3, 0.7, 1.0});
+    }
+}
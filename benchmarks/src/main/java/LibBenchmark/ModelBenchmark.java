@@ -0,0 +1,86 @@
+package LibBenchmark;
+
+import PetriObj.PetriObjModel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This benchmark measures the simulation of whole model by
+ * PetriObjModel.go(). The primary score is the quantity of simulation runs per
+ * second, the counter "events" is the quantity of events per second.<br>
+ * The net of NetLibrary.CreateNetCoursework() can come to the endless cycle of
+ * switching the direction at the same moment of time, so it is not in the
+ * default set of models. It is run by "-p net=Coursework".
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelBenchmark {
+
+    @Param({BenchmarkModels.SMO_WITHOUT_QUEUE, BenchmarkModels.SMO_GROUP, BenchmarkModels.FORK,
+        BenchmarkModels.ELEVATOR})
+    public String net;
+
+    @Param({"1", "4"})
+    public int channels;
+
+    @Param({"1", "8"})
+    public int objects;
+
+    @Param({"false", "true"})
+    public boolean eventCalendar;
+
+    @Param({"false", "true"})
+    public boolean codeGeneration;
+
+    @Param({"1000"})
+    public double timeModeling;
+
+    private PetriObjModel model;
+    private long seed = 1;
+
+    /**
+     * The counter of simulated events, it is reported as the rate per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Events {
+
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createModel() throws Exception {
+        model = BenchmarkModels.create(net, channels, objects);
+        model.setEventCalendar(eventCalendar);
+        model.setCodeGeneration(codeGeneration);
+        model.setSeed(seed++);
+    }
+
+    @Benchmark
+    public PetriObjModel go(Events counter) {
+        model.go(timeModeling);
+        counter.events += model.getEventCount();
+        return model;
+    }
+}
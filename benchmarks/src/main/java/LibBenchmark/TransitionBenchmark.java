@@ -0,0 +1,82 @@
+package LibBenchmark;
+
+import PetriObj.ArcIn;
+import PetriObj.ArcOut;
+import PetriObj.ModelRandom;
+import PetriObj.NumberingContext;
+import PetriObj.PetriNet;
+import PetriObj.PetriP;
+import PetriObj.PetriT;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This benchmark measures the operations of transition: the check of firing
+ * condition, the input and output of markers and the search of the nearest
+ * event. The transition has given quantity of busy channels, the quantity
+ * does not change during the benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransitionBenchmark {
+
+    @Param({"1", "16", "256"})
+    public int channels;
+
+    private PetriP[] places;
+    private PetriT transition;
+
+    @Setup(Level.Trial)
+    public void createTransition() throws Exception {
+        NumberingContext.run(() -> {
+            places = new PetriP[]{new PetriP("Queue", 1000), new PetriP("Channels", channels + 1)};
+            transition = new PetriT("Service", 1.0);
+            transition.setDistribution("exp", 1.0);
+            ArcIn[] in = {new ArcIn(places[0], transition, 1), new ArcIn(places[1], transition, 1)};
+            ArcOut[] out = {new ArcOut(transition, places[0], 1), new ArcOut(transition, places[1], 1)};
+            new PetriNet("Service", places, new PetriT[]{transition}, in, out);
+        });
+        transition.setRandom(new ModelRandom(1));
+        for (int i = 0; i < channels; i++) {
+            transition.actIn(places, 0.0);
+        }
+    }
+
+    @Benchmark
+    public boolean condition() {
+        return transition.condition(places);
+    }
+
+    /**
+     * The output of markers at the nearest moment and the input of markers at
+     * the same moment, so the quantity of busy channels remains the same.
+     */
+    @Benchmark
+    public int actOutActIn() {
+        double time = transition.getMinTime();
+        transition.actOut(places, time);
+        transition.actIn(places, time);
+        return transition.getBuffer();
+    }
+
+    @Benchmark
+    public double minEvent() {
+        transition.minEvent();
+        return transition.getMinTime();
+    }
+}
@@ -0,0 +1,140 @@
+package PetriObj;
+
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * This class reduces the typed events and the trace of Petri-objects to the
+ * event records. The subclass implements only method event() and, if needed,
+ * methods start() (calling super.start()), flush() and close().
+ */
+public abstract class AbstractEventSink implements EventSink {
+
+    private final IdentityHashMap<PetriT, Integer> numT = new IdentityHashMap<>(); // transition -> index in the array of transitions
+
+    /**
+     * @return the name of event type
+     * @param type the type of event
+     */
+    public static String typeName(int type) {
+        switch (type) {
+            case TIME_ADVANCE:
+                return "TIME_ADVANCE";
+            case CONFLICT_SET:
+                return "CONFLICT_SET";
+            case SELECTED_OBJECT:
+                return "SELECTED_OBJECT";
+            case TRANSITION_IN:
+                return "TRANSITION_IN";
+            case TRANSITION_OUT:
+                return "TRANSITION_OUT";
+            case MARKING_DELTA:
+                return "MARKING_DELTA";
+            default:
+                return "UNKNOWN";
+        }
+    }
+
+    /**
+     * Builds the index of transitions of Petri-objects. The number of
+     * transition is not always equal to its index in the array of transitions
+     * of Petri net, the events use the index.
+     *
+     * @param listObj the list of Petri-objects of model
+     */
+    @Override
+    public void start(List<PetriSim> listObj) {
+        numT.clear();
+        for (PetriSim sim : listObj) {
+            PetriT[] listT = sim.getNet().getListT();
+            for (int j = 0; j < listT.length; j++) {
+                numT.put(listT[j], j);
+            }
+        }
+    }
+
+    /**
+     * @param sim the Petri-object
+     * @param transition the transition of Petri-object
+     * @return the index of transition in the array of transitions of Petri net
+     */
+    protected int indexOf(PetriSim sim, PetriT transition) {
+        Integer j = numT.get(transition);
+        if (j != null) {
+            return j;
+        }
+        PetriT[] listT = sim.getNet().getListT();
+        for (int k = 0; k < listT.length; k++) {
+            if (listT[k] == transition) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void timeAdvance(double time) {
+        event(TIME_ADVANCE, time, null, -1, 0);
+    }
+
+    @Override
+    public void conflictSet(double time, List<PetriSim> conflictObj) {
+        int size = conflictObj.size();
+        for (int i = 0; i < size; i++) {
+            event(CONFLICT_SET, time, conflictObj.get(i), i, size);
+        }
+    }
+
+    @Override
+    public void selectedObject(double time, PetriSim sim) {
+        event(SELECTED_OBJECT, time, sim, -1, sim.getPriority());
+    }
+
+    @Override
+    public void inputStarted(PetriSim sim) {
+    }
+
+    @Override
+    public void transitionIn(PetriSim sim, PetriT transition) {
+        event(TRANSITION_IN, sim.getCurrentTime(), sim, indexOf(sim, transition), transition.getBuffer());
+    }
+
+    @Override
+    public void inputFinished(PetriSim sim, int[] markBefore) {
+        markingDelta(sim, markBefore);
+    }
+
+    @Override
+    public void outputStarted(PetriSim sim, PetriT event) {
+    }
+
+    @Override
+    public void transitionOut(PetriSim sim, PetriT transition) {
+        event(TRANSITION_OUT, sim.getCurrentTime(), sim, indexOf(sim, transition), transition.getBuffer());
+    }
+
+    @Override
+    public void outputFinished(PetriSim sim, int[] markBefore) {
+        markingDelta(sim, markBefore);
+    }
+
+    private void markingDelta(PetriSim sim, int[] markBefore) {
+        PetriP[] listP = sim.getNet().getListP();
+        for (int i = 0; i < listP.length; i++) {
+            int delta = listP[i].getMark() - markBefore[i];
+            if (delta != 0) {
+                event(MARKING_DELTA, sim.getCurrentTime(), sim, i, delta);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -21,7 +21,6 @@ public class ArcIn implements Cloneable, Serializable {
     boolean inf;
     private String nameP;
     private String nameT;
-    private static int next = 0;
     private int number;
 
     // whether k and inf are parameters; added by Katya 08.12.2016
@@ -37,8 +36,7 @@ public class ArcIn implements Cloneable, Serializable {
      */
     public ArcIn() {
         k = 1;
-        number = next;
-        next++;
+        number = NumberingContext.current().nextArcIn();
     }
 
     /**
@@ -52,8 +50,7 @@ public class ArcIn implements Cloneable, Serializable {
         numT = T;
         k = K;
         inf = false;
-        number = next;
-        next++;
+        number = NumberingContext.current().nextArcIn();
     }
 
     /**
@@ -68,8 +65,7 @@ public class ArcIn implements Cloneable, Serializable {
         inf = false;
         nameP = P.getName();
         nameT = T.getName();
-        number = next;
-        next++;
+        number = NumberingContext.current().nextArcIn();
     }
 
     /**
@@ -85,8 +81,7 @@ public class ArcIn implements Cloneable, Serializable {
         inf = false;
         nameP = P.getName();
         nameT = T.getName();
-        number = next;
-        next++;
+        number = NumberingContext.current().nextArcIn();
     }
 
     /**
@@ -103,8 +98,7 @@ public class ArcIn implements Cloneable, Serializable {
         inf = isInf;
         nameP = P.getName();
         nameT = T.getName();
-        number = next;
-        next++;
+        number = NumberingContext.current().nextArcIn();
     }
 
     public ArcIn(ArcIn arcIn) {
@@ -153,7 +147,7 @@ public class ArcIn implements Cloneable, Serializable {
      * Set the counter of input arcs to zero.
      */
     public static void initNext(){ //ініціалізація лічильника нульовим значенням
-            next = 0;
+            NumberingContext.current().setNextArcIn(0);
     }
 
     /**
@@ -271,6 +265,17 @@ public class ArcIn implements Cloneable, Serializable {
         }
     }
 
+    /**
+     * @return the copy of this arc with the same fields (see ModelCopier)
+     */
+    ArcIn shallowCopy() {
+        try {
+            return (ArcIn) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
     /**
      *
      * @return ArcIn object with parameters which copy current parameters of
@@ -19,7 +19,6 @@ public class ArcOut implements Cloneable, Serializable {
     private int k;
     private String nameT;
     private String nameP;
-    private static int next = 0;
     private int number;
     
     // whether k is a parameter; added by Katya 08.12.2016
@@ -32,8 +31,7 @@ public class ArcOut implements Cloneable, Serializable {
      */
     public ArcOut() {
         k = 1;
-        number = next;
-        next++;
+        number = NumberingContext.current().nextArcOut();
     }
 
     /**
@@ -45,8 +43,7 @@ public class ArcOut implements Cloneable, Serializable {
         numP = P;
         numT = T;
         k = K;
-        number = next;
-        next++;
+        number = NumberingContext.current().nextArcOut();
     }
 
     /**
@@ -61,8 +58,7 @@ public class ArcOut implements Cloneable, Serializable {
         k = K;
         nameP = P.getName();
         nameT = T.getName();
-        number = next;
-        next++;
+        number = NumberingContext.current().nextArcOut();
     }
 
     public ArcOut(ArcOut arcOut) {
@@ -94,7 +90,7 @@ public class ArcOut implements Cloneable, Serializable {
      */
     public static void initNext() //ініціалізація лічильника нульовим значенням
     {
-        next = 0;
+        NumberingContext.current().setNextArcOut(0);
     }
 
     /**
@@ -188,6 +184,17 @@ public class ArcOut implements Cloneable, Serializable {
         }
     }
 
+    /**
+     * @return the copy of this arc with the same fields (see ModelCopier)
+     */
+    ArcOut shallowCopy() {
+        try {
+            return (ArcOut) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
     /**
      *
      * @return ArcOut object with parameters which copy current parameters of
@@ -0,0 +1,150 @@
+package PetriObj;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class passes the events of simulation to other sink through the ring
+ * buffer of fixed capacity. The records are written by the simulation thread
+ * and are read by the separate writer thread, so the simulation does not wait
+ * for the output. If the buffer is full the simulation waits until the writer
+ * frees the place, so the memory used by the trace is bounded.<br>
+ * The sink is used by one simulation thread at a time.
+ */
+public class AsyncEventSink extends AbstractEventSink {
+
+    private final EventSink sink;
+    private final int mask;
+    private final int[] type;
+    private final double[] time;
+    private final PetriSim[] obj;
+    private final int[] element;
+    private final int[] value;
+
+    private volatile long head = 0; // the quantity of written records
+    private volatile long tail = 0; // the quantity of read records
+    private volatile boolean closed = false;
+    private volatile Throwable failure;
+    private final Thread writer;
+
+    /**
+     * @param sink the sink that receives events in the writer thread
+     */
+    public AsyncEventSink(EventSink sink) {
+        this(sink, 1 << 16);
+    }
+
+    /**
+     * @param sink the sink that receives events in the writer thread
+     * @param capacity the capacity of ring buffer, it is rounded up to the power
+     * of two
+     */
+    public AsyncEventSink(EventSink sink, int capacity) {
+        this.sink = sink;
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        mask = size - 1;
+        type = new int[size];
+        time = new double[size];
+        obj = new PetriSim[size];
+        element = new int[size];
+        value = new int[size];
+        writer = new Thread(this::drain, "AsyncEventSink");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void start(List<PetriSim> listObj) {
+        super.start(listObj);
+        awaitEmpty();
+        sink.start(listObj);
+    }
+
+    @Override
+    public void event(int type, double time, PetriSim sim, int element, int value) {
+        long h = head;
+        while (h - tail > mask) { // the buffer is full
+            checkFailure();
+            Thread.yield();
+        }
+        int i = (int) (h & mask);
+        this.type[i] = type;
+        this.time[i] = time;
+        this.obj[i] = sim;
+        this.element[i] = element;
+        this.value[i] = value;
+        head = h + 1;
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                long t = tail;
+                long h = head;
+                if (t == h) {
+                    if (closed) {
+                        return;
+                    }
+                    LockSupport.parkNanos(100_000L);
+                    continue;
+                }
+                for (; t < h; t++) {
+                    int i = (int) (t & mask);
+                    sink.event(type[i], time[i], obj[i], element[i], value[i]);
+                    obj[i] = null;
+                }
+                tail = t;
+            }
+        } catch (Throwable ex) {
+            failure = ex;
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            if (failure instanceof UncheckedIOException) {
+                throw (UncheckedIOException) failure;
+            }
+            throw new IllegalStateException("The writer of events has failed", failure);
+        }
+    }
+
+    private void awaitEmpty() {
+        while (tail != head) {
+            checkFailure();
+            LockSupport.parkNanos(100_000L);
+        }
+        checkFailure();
+    }
+
+    /**
+     * Waits until all events are passed to the sink and flushes the sink
+     *
+     * @throws IOException if the sink can not be flushed
+     */
+    @Override
+    public void flush() throws IOException {
+        awaitEmpty();
+        sink.flush();
+    }
+
+    /**
+     * Passes the remaining events to the sink, stops the writer thread and
+     * closes the sink
+     *
+     * @throws IOException if the sink can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        awaitEmpty();
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        sink.close();
+    }
+}
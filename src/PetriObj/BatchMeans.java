@@ -0,0 +1,226 @@
+package PetriObj;
+
+import java.util.Arrays;
+
+/**
+ * This class estimates the steady-state means of state metrics in one long
+ * simulation run by the method of batch means and gives the sequential
+ * stopping rule of run.<br>
+ * The run is split into batches of equal length, the time-weighted mean of
+ * each metric over each batch is one value of the sample (see IntervalMeans).
+ * The confidence interval of the mean is calculated from the batch means by
+ * Student's distribution. The quantity of batches is limited: when it
+ * reaches the maximum, each two neighbouring batches are merged into one and
+ * the length of batch is doubled, so the batch means become less correlated
+ * as the run grows and the memory does not grow.<br>
+ * The rule is satisfied when there are at least the minimal quantity of
+ * batches and the half-width of the confidence interval of each metric is
+ * not greater than the target (absolute or relative to the mean). The model
+ * with the stopping rule stops the run at this moment (see
+ * PetriObjModel.setStoppingRule()).
+ */
+public class BatchMeans extends IntervalMeans {
+
+    private double confidence = 0.95;
+    private double halfWidth = 0; // the absolute target
+    private double relativeHalfWidth = 0; // the target relative to the mean value
+    private int minBatches = 10;
+    private final int maxBatches;
+
+    private final double[][] batchMeans; // [metric][batch]
+    private final double[] batchSums; // the sums of interval means of the current batch
+    private int batches;
+    private int intervalsPerBatch = 1;
+    private int inBatch; // the quantity of intervals in the current batch
+    private boolean precise;
+
+    /**
+     * @param interval the length of the first batches (the length of
+     * observation interval)
+     * @param metrics the observed metrics
+     */
+    public BatchMeans(double interval, StateMetric... metrics) {
+        this(interval, 40, metrics);
+    }
+
+    /**
+     * @param interval the length of the first batches (the length of
+     * observation interval)
+     * @param maxBatches the maximal quantity of batches, an even number not
+     * less than 4
+     * @param metrics the observed metrics
+     */
+    public BatchMeans(double interval, int maxBatches, StateMetric... metrics) {
+        super(interval, metrics);
+        if (maxBatches < 4 || maxBatches % 2 != 0) {
+            throw new IllegalArgumentException("The maximal quantity of batches must be even and not less than 4: " + maxBatches);
+        }
+        this.maxBatches = maxBatches;
+        minBatches = Math.min(minBatches, maxBatches / 2);
+        batchMeans = new double[metrics.length][maxBatches];
+        batchSums = new double[metrics.length];
+    }
+
+    @Override
+    public void start(double time) {
+        super.start(time);
+        Arrays.fill(batchSums, 0);
+        batches = 0;
+        intervalsPerBatch = 1;
+        inBatch = 0;
+        precise = false;
+    }
+
+    @Override
+    protected void intervalFinished(double[] means, double end) {
+        for (int i = 0; i < means.length; i++) {
+            batchSums[i] += means[i];
+        }
+        if (++inBatch < intervalsPerBatch) {
+            return;
+        }
+        for (int i = 0; i < means.length; i++) {
+            batchMeans[i][batches] = batchSums[i] / intervalsPerBatch;
+            batchSums[i] = 0;
+        }
+        inBatch = 0;
+        batches++;
+        if (batches == maxBatches) {
+            for (double[] y : batchMeans) {
+                for (int b = 0; b < maxBatches / 2; b++) {
+                    y[b] = (y[2 * b] + y[2 * b + 1]) / 2;
+                }
+            }
+            batches = maxBatches / 2;
+            intervalsPerBatch *= 2;
+        }
+        precise = checkPrecision();
+    }
+
+    private boolean checkPrecision() {
+        if (batches < minBatches) {
+            return false;
+        }
+        for (int i = 0; i < batchMeans.length; i++) {
+            SampleStatistics sample = getSample(i);
+            double target = Math.max(halfWidth, relativeHalfWidth * Math.abs(sample.getMean()));
+            if (!(sample.getHalfWidth(confidence) <= target)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param metric the index of metric
+     * @return the sample of batch means of metric
+     */
+    public SampleStatistics getSample(int metric) {
+        SampleStatistics sample = new SampleStatistics();
+        for (int b = 0; b < batches; b++) {
+            sample.add(batchMeans[metric][b]);
+        }
+        return sample;
+    }
+
+    /**
+     * @param metric the index of metric
+     * @return the estimation of mean value of metric
+     */
+    public double getMean(int metric) {
+        return getSample(metric).getMean();
+    }
+
+    /**
+     * @param metric the index of metric
+     * @return the half-width of confidence interval of mean value of metric
+     * or NaN if there are less than two batches
+     */
+    public double getHalfWidth(int metric) {
+        return getSample(metric).getHalfWidth(confidence);
+    }
+
+    /**
+     * @return true if the precision of all metrics is reached
+     */
+    public boolean isPrecise() {
+        return precise;
+    }
+
+    /**
+     * @return the quantity of batches
+     */
+    public int getBatches() {
+        return batches;
+    }
+
+    /**
+     * @return the current length of batch
+     */
+    public double getBatchLength() {
+        return intervalsPerBatch * getInterval();
+    }
+
+    /**
+     * @return the confidence level
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * @param confidence the confidence level, for example 0.95
+     */
+    public void setConfidence(double confidence) {
+        this.confidence = confidence;
+    }
+
+    /**
+     * @return the absolute target of half-width
+     */
+    public double getTargetHalfWidth() {
+        return halfWidth;
+    }
+
+    /**
+     * @param halfWidth the absolute target of half-width of confidence
+     * interval
+     */
+    public void setTargetHalfWidth(double halfWidth) {
+        this.halfWidth = halfWidth;
+    }
+
+    /**
+     * @return the target of half-width relative to the mean value
+     */
+    public double getRelativeHalfWidth() {
+        return relativeHalfWidth;
+    }
+
+    /**
+     * @param relativeHalfWidth the target of half-width of confidence interval
+     * relative to the absolute mean value, for example 0.05. The rule is
+     * satisfied if either the absolute or the relative target is reached.
+     */
+    public void setRelativeHalfWidth(double relativeHalfWidth) {
+        this.relativeHalfWidth = relativeHalfWidth;
+    }
+
+    /**
+     * @return the least quantity of batches for the stop
+     */
+    public int getMinBatches() {
+        return minBatches;
+    }
+
+    /**
+     * @param minBatches the least quantity of batches for the stop, not greater
+     * than the half of maximal quantity
+     */
+    public void setMinBatches(int minBatches) {
+        if (minBatches < 2 || minBatches > maxBatches / 2) {
+            throw new IllegalArgumentException("The minimal quantity of batches must be from 2 to " + maxBatches / 2);
+        }
+        this.minBatches = minBatches;
+    }
+}
@@ -0,0 +1,98 @@
+package PetriObj;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * This class writes the events of simulation in the compact binary form
+ * through the buffer.<br>
+ * The stream starts with int MAGIC and int VERSION. Method start() writes the
+ * dictionary: int quantity of objects and for each object int number of
+ * object, UTF name, int quantity of places, UTF names of places, int quantity
+ * of transitions, UTF names of transitions. Each event is written as the
+ * record of 21 bytes: byte type, double time, int number of object (-1 if
+ * there is no object), int element, int value.
+ */
+public class BinaryEventSink extends AbstractEventSink {
+
+    public static final int MAGIC = 0x50455653; // "PEVS"
+    public static final int VERSION = 1;
+    public static final int DICTIONARY = -1; // the type of record that precedes the dictionary
+
+    private final DataOutputStream out;
+
+    /**
+     * @param out the stream for events, it is closed by the sink
+     */
+    public BinaryEventSink(OutputStream out) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        try {
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(VERSION);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @param fileName the name of file for events
+     * @throws FileNotFoundException if the file can not be opened for writing
+     */
+    public BinaryEventSink(String fileName) throws FileNotFoundException {
+        this(new FileOutputStream(fileName));
+    }
+
+    @Override
+    public void start(List<PetriSim> listObj) {
+        super.start(listObj);
+        try {
+            out.writeByte(DICTIONARY);
+            out.writeInt(listObj.size());
+            for (PetriSim sim : listObj) {
+                out.writeInt(sim.getNumObj());
+                out.writeUTF(sim.getName());
+                PetriP[] listP = sim.getNet().getListP();
+                out.writeInt(listP.length);
+                for (PetriP position : listP) {
+                    out.writeUTF(position.getName());
+                }
+                PetriT[] listT = sim.getNet().getListT();
+                out.writeInt(listT.length);
+                for (PetriT transition : listT) {
+                    out.writeUTF(transition.getName());
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void event(int type, double time, PetriSim sim, int element, int value) {
+        try {
+            out.writeByte(type);
+            out.writeDouble(time);
+            out.writeInt(sim == null ? -1 : sim.getNumObj());
+            out.writeInt(element);
+            out.writeInt(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,201 @@
+package PetriObj;
+
+import java.util.List;
+
+/**
+ * This class is the compiled form of Petri net for the simulation. The arcs
+ * of transitions are kept in the compressed arrays of int values: for the
+ * transition j the arcs have the indices from start[j] to start[j + 1] - 1 in
+ * the arrays of places and quantities. The ordinary input arcs, the
+ * informational input arcs and the output arcs have separate arrays. The
+ * places are given by their slots in the marking, so the firing condition and
+ * the input and output of markers work only with the arrays of int values.<br>
+ * The places and transitions of Petri net remain the view of compiled net:
+ * the places are bound to the marking, the transitions keep their buffers and
+ * the moments of markers output.<br>
+ * The compiled net can have the generated firing code (see
+ * FiringCodeGenerator), then the firing condition and the input and output of
+ * markers are done by this code.
+ */
+public class CompiledNet {
+
+    private final PetriT[] listT;
+    private final Marking marking;
+    final int numP; // the quantity of places
+    final int numT; // the quantity of transitions
+    final int[] inStart;
+    final int[] inPlace;
+    final int[] inQuant;
+    final int[] infStart;
+    final int[] infPlace;
+    final int[] infQuant;
+    final int[] outStart;
+    final int[] outPlace;
+    final int[] outQuant;
+    private final int version; // the version of marking at the moment of compilation
+    private FiringCode code; // the generated firing code or null
+    private int offset; // the index of code for the first transition
+
+    /**
+     * Compiles Petri net and binds its places to the marking
+     *
+     * @param listP array of places of Petri net
+     * @param listT array of transitions of Petri net
+     * @param marking the marking which keeps the quantities of markers
+     */
+    public CompiledNet(PetriP[] listP, PetriT[] listT, Marking marking) {
+        this.listT = listT;
+        this.marking = marking;
+        int[] slot = new int[listP.length];
+        for (int p = 0; p < listP.length; p++) {
+            slot[p] = marking.bind(listP[p]);
+        }
+        numP = listP.length;
+        numT = listT.length;
+        inStart = new int[numT + 1];
+        infStart = new int[numT + 1];
+        outStart = new int[numT + 1];
+        for (int j = 0; j < numT; j++) {
+            inStart[j + 1] = inStart[j] + listT[j].getInP().size();
+            infStart[j + 1] = infStart[j] + listT[j].getInPwithInf().size();
+            outStart[j + 1] = outStart[j] + listT[j].getOutP().size();
+        }
+        inPlace = new int[inStart[numT]];
+        inQuant = new int[inStart[numT]];
+        infPlace = new int[infStart[numT]];
+        infQuant = new int[infStart[numT]];
+        outPlace = new int[outStart[numT]];
+        outQuant = new int[outStart[numT]];
+        for (int j = 0; j < numT; j++) {
+            fill(listT[j].getInP(), listT[j].getQuantIn(), slot, inPlace, inQuant, inStart[j]);
+            fill(listT[j].getInPwithInf(), listT[j].getQuantInwithInf(), slot, infPlace, infQuant, infStart[j]);
+            fill(listT[j].getOutP(), listT[j].getQuantOut(), slot, outPlace, outQuant, outStart[j]);
+        }
+        version = marking.getVersion();
+    }
+
+    /**
+     * Sets the generated firing code of this net
+     *
+     * @param code the firing code
+     * @param offset the index of code for the first transition of this net
+     */
+    void setCode(FiringCode code, int offset) {
+        this.code = code;
+        this.offset = offset;
+    }
+
+    private static void fill(List<Integer> places, List<Integer> quantities, int[] slot, int[] place, int[] quant, int from) {
+        for (int k = 0; k < places.size(); k++) {
+            place[from + k] = slot[places.get(k)];
+            quant[from + k] = quantities.get(k);
+        }
+    }
+
+    /**
+     * @return the marking which keeps the quantities of markers
+     */
+    public Marking getMarking() {
+        return marking;
+    }
+
+    /**
+     * @return the generated firing code or null if the arrays of arcs are used
+     */
+    public FiringCode getCode() {
+        return code;
+    }
+
+    /**
+     * @return true if no place of this net has been bound to other marking
+     * after the compilation
+     */
+    public boolean isValid() {
+        return marking.getVersion() == version;
+    }
+
+    /**
+     * Determines is firing condition of transition true. The condition is
+     * the same as in PetriT.condition().
+     *
+     * @param j the index of transition
+     * @return true if the quantities of markers in all input places (including
+     * places with informational arcs) are not less than the quantities of arcs
+     */
+    public boolean condition(int j) {
+        int[] marks = marking.marks;
+        if (code != null) {
+            return code.condition(offset + j, marks);
+        }
+        for (int k = inStart[j], end = inStart[j + 1]; k < end; k++) {
+            if (marks[inPlace[k]] < inQuant[k]) {
+                return false;
+            }
+        }
+        for (int k = infStart[j], end = infStart[j + 1]; k < end; k++) {
+            if (marks[infPlace[k]] < infQuant[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Does the input of markers in transition. The firing condition must be
+     * true.
+     *
+     * @param j the index of transition
+     * @param currentTime current time
+     */
+    public void actIn(int j, double currentTime) {
+        int[] marks = marking.marks;
+        int[] observedMin = marking.observedMin;
+        if (code != null) {
+            code.actIn(offset + j, marks, observedMin);
+            listT[j].startChannel(currentTime);
+            return;
+        }
+        for (int k = inStart[j], end = inStart[j + 1]; k < end; k++) {
+            int p = inPlace[k];
+            int m = marks[p] - inQuant[k];
+            marks[p] = m;
+            if (observedMin[p] > m) {
+                observedMin[p] = m;
+            }
+        }
+        listT[j].startChannel(currentTime);
+    }
+
+    /**
+     * Does the output of markers from the channel of transition with the
+     * nearest moment of output. Nothing is done if the buffer of transition is
+     * empty.
+     *
+     * @param j the index of transition
+     * @param currentTime current time
+     */
+    public void actOut(int j, double currentTime) {
+        if (listT[j].getBuffer() > 0) {
+            int[] marks = marking.marks;
+            int[] observedMax = marking.observedMax;
+            if (code != null) {
+                code.actOut(offset + j, marks, observedMax);
+                for (int k = outStart[j], end = outStart[j + 1]; k < end; k++) {
+                    marking.touch(outPlace[k]);
+                }
+                listT[j].finishChannel(currentTime);
+                return;
+            }
+            for (int k = outStart[j], end = outStart[j + 1]; k < end; k++) {
+                int p = outPlace[k];
+                int m = marks[p] + outQuant[k];
+                marks[p] = m;
+                if (observedMax[p] < m) {
+                    observedMax[p] = m;
+                }
+                marking.touch(p);
+            }
+            listT[j].finishChannel(currentTime);
+        }
+    }
+}
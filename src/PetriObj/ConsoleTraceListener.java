@@ -0,0 +1,62 @@
+package PetriObj;
+
+/**
+ * This class prints the trace of Petri-object functioning on console: the
+ * marking before and after the input and output of markers and the places
+ * which marking has been changed.
+ */
+public class ConsoleTraceListener implements SimTraceListener {
+
+    private PetriT event; // the transition of the nearest event of the current output
+
+    @Override
+    public void inputStarted(PetriSim sim) {
+        System.out.printf("\n----INPUT %s, current time: %f%n", sim.getName(), sim.getCurrentTime());
+        sim.printMark();
+        for (PetriT transition : sim.findActiveT()) {
+            System.out.println(transition.getName());
+        }
+    }
+
+    @Override
+    public void transitionIn(PetriSim sim, PetriT transition) {
+    }
+
+    @Override
+    public void inputFinished(PetriSim sim, int[] markBefore) {
+        sim.printMark();
+        printDiff(sim, markBefore);
+    }
+
+    @Override
+    public void outputStarted(PetriSim sim, PetriT event) {
+        this.event = event;
+        System.out.println("\n----OUTPUT current time: " + sim.getCurrentTime());
+        System.out.println("event: " + event.getName());
+        System.out.println("before: ");
+        sim.printMark();
+    }
+
+    @Override
+    public void transitionOut(PetriSim sim, PetriT transition) {
+        if (transition != event) {
+            System.out.println("extra out: " + transition.getName());
+        }
+    }
+
+    @Override
+    public void outputFinished(PetriSim sim, int[] markBefore) {
+        System.out.println("after: ");
+        sim.printMark();
+        printDiff(sim, markBefore);
+    }
+
+    private void printDiff(PetriSim sim, int[] markBefore) {
+        PetriP[] listP = sim.getNet().getListP();
+        for (int i = 0; i < listP.length; i++) {
+            if (listP[i].getMark() != markBefore[i]) {
+                System.out.println(listP[i].getName() + " diff: " + (listP[i].getMark() - markBefore[i]));
+            }
+        }
+    }
+}
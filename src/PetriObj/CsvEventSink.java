@@ -0,0 +1,93 @@
+package PetriObj;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * This class writes the events of simulation as the lines of CSV text:
+ * time, type, object, element, value. The object is the name of Petri-object,
+ * the element is the name of transition or place (the position in the
+ * conflict set for CONFLICT_SET events).
+ */
+public class CsvEventSink extends AbstractEventSink {
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(64);
+
+    /**
+     * @param out the writer for events, it is closed by the sink
+     */
+    public CsvEventSink(Writer out) {
+        this.out = new BufferedWriter(out, 1 << 16);
+    }
+
+    /**
+     * @param fileName the name of file for events
+     * @throws IOException if the file can not be opened for writing
+     */
+    public CsvEventSink(String fileName) throws IOException {
+        this(new FileWriter(fileName));
+    }
+
+    @Override
+    public void start(List<PetriSim> listObj) {
+        super.start(listObj);
+        write("time,type,object,element,value\n");
+    }
+
+    @Override
+    public void event(int type, double time, PetriSim sim, int element, int value) {
+        line.setLength(0);
+        line.append(time).append(',').append(typeName(type)).append(',');
+        if (sim != null) {
+            appendName(sim.getName());
+        }
+        line.append(',');
+        switch (type) {
+            case TRANSITION_IN:
+            case TRANSITION_OUT:
+                appendName(sim.getNet().getListT()[element].getName());
+                break;
+            case MARKING_DELTA:
+                appendName(sim.getNet().getListP()[element].getName());
+                break;
+            case CONFLICT_SET:
+                line.append(element);
+                break;
+            default:
+                break;
+        }
+        line.append(',').append(value).append('\n');
+        write(line);
+    }
+
+    private void appendName(String name) {
+        if (name.indexOf(',') < 0 && name.indexOf('"') < 0) {
+            line.append(name);
+        } else {
+            line.append('"').append(name.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    private void write(CharSequence s) {
+        try {
+            out.append(s);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,227 @@
+package PetriObj;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a binary min-heap of primitive double values.<br>
+ * It is used for the moments of markers output of the transition channels:
+ * the nearest moment is available in O(1), adding and removing of a moment
+ * take O(log n) and no boxing is done.
+ */
+public class DoubleMinHeap implements Serializable {
+
+    private double[] heap;
+    private int size;
+
+    public DoubleMinHeap() {
+        this(4);
+    }
+
+    /**
+     * @param capacity initial capacity of heap
+     */
+    public DoubleMinHeap(int capacity) {
+        heap = new double[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    /**
+     * Constructs the copy of given heap
+     *
+     * @param other the heap to copy
+     */
+    public DoubleMinHeap(DoubleMinHeap other) {
+        heap = Arrays.copyOf(other.heap, Math.max(other.size, 1));
+        size = other.size;
+    }
+
+    /**
+     * @param value the value to add
+     */
+    public void add(double value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        siftUp(size, value);
+        size++;
+    }
+
+    /**
+     * @return the minimal value or Double.MAX_VALUE if the heap is empty
+     */
+    public double peek() {
+        return size > 0 ? heap[0] : Double.MAX_VALUE;
+    }
+
+    /**
+     * Removes the minimal value
+     *
+     * @return the removed value or Double.MAX_VALUE if the heap is empty
+     */
+    public double poll() {
+        if (size == 0) {
+            return Double.MAX_VALUE;
+        }
+        return removeAt(0);
+    }
+
+    /**
+     * Removes the value with given index in the heap array
+     *
+     * @param i the index in the heap array
+     * @return the removed value
+     */
+    public double removeAt(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+        double value = heap[i];
+        size--;
+        if (i < size) {
+            double last = heap[size];
+            siftDown(i, last);
+            if (heap[i] == last) {
+                siftUp(i, last);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @param i the index in the heap array
+     * @return the value with given index in the heap array (the order of
+     * values in the array is the order of heap)
+     */
+    public double get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+        return heap[i];
+    }
+
+    /**
+     * @return the quantity of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the heap has no values
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all values
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Writes the values of heap (see PetriObjModel.snapshot())
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeDouble(heap[i]);
+        }
+    }
+
+    /**
+     * Replaces the values of heap with the values written by writeState()
+     *
+     * @param in the input
+     * @throws IOException if the input fails
+     */
+    void readState(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (heap.length < n) {
+            heap = new double[n];
+        }
+        for (int i = 0; i < n; i++) {
+            heap[i] = in.readDouble();
+        }
+        size = n;
+    }
+
+    /**
+     * @return the list view of this heap. The view supports reading, adding,
+     * removing and clearing, the values are listed in the heap order.
+     */
+    public List<Double> asList() {
+        return new AbstractList<Double>() {
+            @Override
+            public Double get(int index) {
+                return DoubleMinHeap.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Double set(int index, Double element) {
+                double old = removeAt(index);
+                DoubleMinHeap.this.add(element);
+                return old;
+            }
+
+            @Override
+            public void add(int index, Double element) { // the position is determined by the heap
+                DoubleMinHeap.this.add(element);
+            }
+
+            @Override
+            public Double remove(int index) {
+                return removeAt(index);
+            }
+
+            @Override
+            public void clear() {
+                DoubleMinHeap.this.clear();
+            }
+        };
+    }
+
+    private void siftUp(int i, double value) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    private void siftDown(int i, double value) {
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right] < heap[child]) {
+                child = right;
+            }
+            if (value <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = value;
+    }
+}
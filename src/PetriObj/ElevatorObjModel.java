@@ -1,10 +1,36 @@
 package PetriObj;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 
 public class ElevatorObjModel extends PetriObjModel {
+
+    /**
+     * The names of parameters of model in the order of constructor, they are
+     * the names of factors of experiment (see create())
+     */
+    public static final String[] PARAMETERS = {
+        "firstFloorArrivalFrequency",
+        "spendOnFloorTimeLowerLimit",
+        "spendOnFloorTimeUpperLimit",
+        "choose1FloorProbability",
+        "chooseOtherFloorProbability",
+        "floorMoveTime",
+        "liftCapacity"
+    };
+
+    /**
+     * The values of parameters that are used if the point of experiment does
+     * not give them
+     */
+    private static final double[] DEFAULTS = {1, 15, 120, 0.7, 0.1, 0.4, 6};
+
+    private ElevatorStatistics statistics;
+
     public ElevatorObjModel(
             double firstFloorArrivalFrequency,
             double spendOnFloorTimeLowerLimit,
@@ -23,6 +49,24 @@ public class ElevatorObjModel extends PetriObjModel {
                 floorMoveTime,
                 liftCapacity
         ));
+        statistics = new ElevatorStatistics(this, liftCapacity);
+    }
+
+    /**
+     * Builds the model for the point of experiment (see ParameterSweep). The
+     * parameters that are not the factors of experiment have the default
+     * values, the lift capacity is rounded.
+     *
+     * @param point the point of experiment with factors named as PARAMETERS
+     * @return the model
+     * @throws ExceptionInvalidTimeDelay if the time delay is invalid
+     */
+    public static ElevatorObjModel create(ExperimentDesign.Point point) throws ExceptionInvalidTimeDelay {
+        double[] p = new double[PARAMETERS.length];
+        for (int k = 0; k < p.length; k++) {
+            p[k] = point.get(PARAMETERS[k], DEFAULTS[k]);
+        }
+        return new ElevatorObjModel(p[0], p[1], p[2], p[3], p[4], p[5], (int) Math.round(p[6]));
     }
 
     private static ArrayList<PetriSim> getObjects(
@@ -310,322 +354,88 @@ public class ElevatorObjModel extends PetriObjModel {
     }
 
 
-    public void calcStats(double firstFloorArrivalFrequency,
-                          double choose1FloorProbability,
-                          double floorMoveTime,
-                          int elevatorCapacity) {
-        PetriNet floorActivity1 = getListObj().get(5).getNet();
-        PetriNet floorActivity2 = getListObj().get(6).getNet();
-        PetriNet floorActivity3 = getListObj().get(7).getNet();
-        PetriNet floorActivity4 = getListObj().get(8).getNet();
-        PetriNet floorActivity5 = getListObj().get(9).getNet();
-
-
-        ArrayList<PetriNet> floorActivities = new ArrayList<>(Arrays.asList(
-                floorActivity1,
-                floorActivity2,
-                floorActivity3,
-                floorActivity4,
-                floorActivity5
-        ));
-
-        ArrayList<Double> allFloorsEnterElevatorMoments = new ArrayList<>();
-        ArrayList<Double> allFloorsExitElevatorMoments = new ArrayList<>();
-
-        ArrayList<Double> meanWaitingTimes = new ArrayList<>();
-        int maxPassengersNumber;
-        double meanPassengersNumber;
-        double timeDoNotMoveStats;
-        double timeMoveWithPassengersStats;
-        double timeMoveWithoutPassengersStats;
-        double overflowStats;
-
-        int overflowCount = 0;
-        int leftWaitingForElevatorBecauseOfOverflow = 0;
-
-        for (int i = 0; i < floorActivities.size(); i++) {
-            PetriT[] transitions = floorActivities.get(i).getListT();
-            ArrayList<Double> startWaitingUpMoments = null;
-            ArrayList<Double> finishWaitingUpMoments = null;
-            ArrayList<Double> startWaitingDownMoments = null;
-            ArrayList<Double> finishWaitingDownMoments = null;
-            ArrayList<Double> enterElevatorMoments = new ArrayList<>();
-            ArrayList<Double> exitElevatorMoments = new ArrayList<>(transitions[0].getOutMoments());
-
-            int floorNumber = i + 1;
-
-            switch (floorNumber) {
-                case 1:
-                    startWaitingUpMoments = transitions[1].getOutMoments();
-                    finishWaitingUpMoments = transitions[2].getInMoments();
-                    enterElevatorMoments.addAll(transitions[2].getInMoments());
-                    break;
-                case 2:
-                    startWaitingUpMoments = transitions[3].getOutMoments();
-                    finishWaitingUpMoments = transitions[4].getInMoments();
-                    startWaitingDownMoments = transitions[2].getOutMoments();
-                    finishWaitingDownMoments = transitions[8].getInMoments();
-                    enterElevatorMoments.addAll(transitions[4].getInMoments());
-                    enterElevatorMoments.addAll(transitions[8].getInMoments());
-                    break;
-                case 3:
-                    startWaitingUpMoments = transitions[3].getOutMoments();
-                    finishWaitingUpMoments = transitions[4].getInMoments();
-                    startWaitingDownMoments = transitions[2].getOutMoments();
-                    finishWaitingDownMoments = transitions[7].getInMoments();
-                    enterElevatorMoments.addAll(transitions[4].getInMoments());
-                    enterElevatorMoments.addAll(transitions[7].getInMoments());
-                    break;
-                case 4:
-                    startWaitingUpMoments = transitions[3].getOutMoments();
-                    finishWaitingUpMoments = transitions[4].getInMoments();
-                    startWaitingDownMoments = transitions[2].getOutMoments();
-                    finishWaitingDownMoments = transitions[6].getInMoments();
-                    enterElevatorMoments.addAll(transitions[4].getInMoments());
-                    enterElevatorMoments.addAll(transitions[6].getInMoments());
-                    break;
-                case 5:
-                    startWaitingDownMoments = transitions[1].getOutMoments();
-                    finishWaitingDownMoments = transitions[2].getInMoments();
-                    enterElevatorMoments.addAll(transitions[2].getInMoments());
-                    break;
-            }
-
-            allFloorsEnterElevatorMoments.addAll(enterElevatorMoments);
-            allFloorsExitElevatorMoments.addAll(exitElevatorMoments);
-
-            if (startWaitingDownMoments != null && finishWaitingDownMoments != null) {
-                double diffSum = 0.0;
-
-                for (int j = 0; j < finishWaitingDownMoments.size(); j++) {
-                    diffSum += finishWaitingDownMoments.get(i) - startWaitingDownMoments.get(i);
-                }
-
-                System.out.printf("Mean waiting time down %d floor: %f%n", i + 1, diffSum / (double) finishWaitingDownMoments.size());
-
-                meanWaitingTimes.add(diffSum / (double) finishWaitingDownMoments.size());
-            }
-
-
-            if (startWaitingUpMoments != null && finishWaitingUpMoments != null) {
-                double diffSum = 0.0;
-
-                int startIndex = 0;
-                double divider = finishWaitingUpMoments.size();
-
-                if (i == 0) {
-                    startIndex = 1;
-                    divider--;
-                }
-
-
-                for (int j = startIndex; j < finishWaitingUpMoments.size(); j++) {
-                    int startWaitingUpMomentIndex = j;
-                    if (i == 0) {
-                        startWaitingUpMomentIndex = j - 1;
-                    }
-                    diffSum += finishWaitingUpMoments.get(j) - startWaitingUpMoments.get(startWaitingUpMomentIndex);
-                }
-
-                System.out.printf("Mean waiting time up %d floor: %f%n", i + 1, diffSum / divider);
-                meanWaitingTimes.add(diffSum / divider);
-
-
-                // calculate not enter because overflow
-
-                ArrayList<Double> startWaitingMoments = new ArrayList<>();
-                if (floorNumber != 5) {
-                    startWaitingMoments.addAll(startWaitingUpMoments);
-                }
-                if (floorNumber != 1) {
-                    startWaitingMoments.addAll(startWaitingDownMoments);
-                }
-
-
-                int oldWaitingForElevatorNumber = 0;
-                int waitingForElevatorNumber = 0;
-                int enterElevatorIndex = 1;
-
-                Collections.sort(startWaitingMoments);
-                Collections.sort(enterElevatorMoments);
-
-                for (double startWaitingMoment : startWaitingMoments) {
-                    if (enterElevatorIndex >= enterElevatorMoments.size()) {
-                        break;
-                    }
-
-                    double enterElevatorTime = enterElevatorMoments.get(enterElevatorIndex);
-
-                    waitingForElevatorNumber++;
-
-                    if (startWaitingMoment >= enterElevatorTime) {
-                        while (startWaitingMoment >= enterElevatorTime) {
-                            if (oldWaitingForElevatorNumber > 0) {
-                                oldWaitingForElevatorNumber--;
-                            } else {
-                                waitingForElevatorNumber--;
-                            }
-
-                            enterElevatorIndex++;
-                            if (enterElevatorIndex == enterElevatorMoments.size()) {
-                                break;
-                            }
-                            enterElevatorTime = enterElevatorMoments.get(enterElevatorIndex);
-                        }
-
-                        overflowCount += waitingForElevatorNumber - 1;
-                        oldWaitingForElevatorNumber += waitingForElevatorNumber;
-                        waitingForElevatorNumber = 0;
-                    }
-
-                }
-
-                leftWaitingForElevatorBecauseOfOverflow += oldWaitingForElevatorNumber;
-
-            }
-        }
-
-
-        ArrayList<Double> allFloorsStartMoveMoments = new ArrayList<>();
-        ArrayList<Double> allFloorsFinishMoveMoments = new ArrayList<>();
-
-
-        PetriP availablePlacesPlace = getListObj().get(5).getNet().getListP()[15];
-
-        System.out.printf("Max number passengers: %d%n", elevatorCapacity - availablePlacesPlace.getObservedMin());
-        maxPassengersNumber = elevatorCapacity - availablePlacesPlace.getObservedMin();
-        System.out.printf("Mean number passengers: %f%n", elevatorCapacity - availablePlacesPlace.getMean());
-        meanPassengersNumber = elevatorCapacity - availablePlacesPlace.getMean();
-
-
-        Collections.sort(allFloorsEnterElevatorMoments);
-        Collections.sort(allFloorsExitElevatorMoments);
-
-
-        PetriNet floor1DecisionMaker = getListObj().get(0).getNet();
-        PetriNet floor2DecisionMaker = getListObj().get(1).getNet();
-        PetriNet floor3DecisionMaker = getListObj().get(2).getNet();
-        PetriNet floor4DecisionMaker = getListObj().get(3).getNet();
-        PetriNet floor5DecisionMaker = getListObj().get(4).getNet();
-
-
-        ArrayList<PetriNet> floorDecisionMakers = new ArrayList<>(Arrays.asList(
-                floor1DecisionMaker,
-                floor2DecisionMaker,
-                floor3DecisionMaker,
-                floor4DecisionMaker,
-                floor5DecisionMaker
-        ));
-
-        for (int i = 0; i < floorDecisionMakers.size(); i++) {
-            PetriT[] transitions = floorDecisionMakers.get(i).getListT();
-
-            ArrayList<Double> startMoveMoments = new ArrayList<>(transitions[2].getInMoments());
-            ArrayList<Double> finishMoveMoments = new ArrayList<>(transitions[2].getOutMoments());
-
-            int floorNumber = i + 1;
-
-            switch (floorNumber) {
-                case 2:
-                    startMoveMoments.addAll(transitions[5].getInMoments());
-                    finishMoveMoments.addAll(transitions[5].getOutMoments());
-                    break;
-                case 3:
-                    startMoveMoments.addAll(transitions[7].getInMoments());
-                    finishMoveMoments.addAll(transitions[7].getOutMoments());
-                    break;
-                case 4:
-                    startMoveMoments.addAll(transitions[9].getInMoments());
-                    finishMoveMoments.addAll(transitions[9].getOutMoments());
-                    break;
-            }
+    /**
+     * @return the statistics of elevator, which is collected during the
+     * simulation
+     */
+    public ElevatorStatistics getStatistics() {
+        return statistics;
+    }
 
-            allFloorsStartMoveMoments.addAll(startMoveMoments);
-            allFloorsFinishMoveMoments.addAll(finishMoveMoments);
+    @Override
+    protected void copyFields(ModelCopier copier) {
+        super.copyFields(copier);
+        statistics = new ElevatorStatistics(statistics, this, copier);
+    }
 
+    @Override
+    protected SimTraceListener startStatisticsListener() {
+        if (!isStatistics()) {
+            return null;
         }
+        statistics.reset();
+        return statistics;
+    }
 
+    @Override
+    protected void resetStatisticsListener() {
+        statistics.reset();
+    }
 
-        Collections.sort(allFloorsStartMoveMoments);
-        Collections.sort(allFloorsFinishMoveMoments);
-
-        int startMoveIndex = 0;
-        int finishMoveIndex = 0;
-        int enterElevatorIndex = 0;
-        int exitElevatorIndex = 0;
-
-        int availablePlaces = elevatorCapacity;
-
-        double timeMoveWithPassengers = 0;
-        double timeMoveWithoutPassengers = 0;
-        double timeDoNotMove = 0;
-
-        double lastStartMoveTime = 0;
-        double lastFinishMoveTime = 0;
-
-
-        while (true) {
-            if (startMoveIndex == allFloorsStartMoveMoments.size() ||
-                    finishMoveIndex == allFloorsFinishMoveMoments.size() ||
-                    enterElevatorIndex == allFloorsEnterElevatorMoments.size() ||
-                    exitElevatorIndex == allFloorsExitElevatorMoments.size()) {
-                break;
-            }
-
-            double enterElevatorTime = allFloorsEnterElevatorMoments.get(enterElevatorIndex);
-            double startMoveTime = allFloorsStartMoveMoments.get(startMoveIndex);
-            double finishMoveTime = allFloorsFinishMoveMoments.get(finishMoveIndex);
-            double exitElevatorTime = allFloorsExitElevatorMoments.get(exitElevatorIndex);
-
-
-            if (finishMoveTime <= startMoveTime && finishMoveTime <= enterElevatorTime && finishMoveTime <= exitElevatorTime) {
-                lastFinishMoveTime = finishMoveTime;
-                finishMoveIndex++;
-
-
-                if (availablePlaces == elevatorCapacity) {
-                    timeMoveWithoutPassengers += lastFinishMoveTime - lastStartMoveTime;
-                } else {
-                    timeMoveWithPassengers += lastFinishMoveTime - lastStartMoveTime;
-                }
-
-
-                continue;
-            }
-
-            if (exitElevatorTime <= finishMoveTime && exitElevatorTime <= startMoveTime && exitElevatorTime <= enterElevatorTime) {
-                exitElevatorIndex++;
-
-                availablePlaces++;
+    @Override
+    protected SimTraceListener resumeStatisticsListener() {
+        return isStatistics() ? statistics : null;
+    }
 
-                continue;
-            }
+    @Override
+    protected void writeState(DataOutput out) throws IOException {
+        statistics.writeState(out);
+    }
 
-            if (enterElevatorTime <= finishMoveTime && enterElevatorTime <= startMoveTime && enterElevatorTime <= exitElevatorTime) {
-                enterElevatorIndex++;
+    @Override
+    protected void readState(DataInput in) throws IOException {
+        statistics.readState(in);
+    }
 
-                availablePlaces--;
+    /**
+     * Prints the statistics collected during the simulation. The overflow is
+     * the fraction of attempts to enter that failed: the passengers waiting
+     * on the floor are counted at each departure of full elevator, so one
+     * passenger can be counted several times (see
+     * ElevatorStatistics.getOverflow()).
+     */
+    public void calcStats(double firstFloorArrivalFrequency,
+                          double choose1FloorProbability,
+                          double floorMoveTime,
+                          int elevatorCapacity) {
+        ArrayList<Double> meanWaitingTimes = new ArrayList<>();
 
-                continue;
+        for (int floor = 1; floor <= statistics.getFloors(); floor++) {
+            if (floor != 1) {
+                double meanWaitingTime = statistics.getWaitingTimeDown(floor).getMean();
+                System.out.printf("Mean waiting time down %d floor: %f%n", floor, meanWaitingTime);
+                meanWaitingTimes.add(meanWaitingTime);
             }
-
-
-            if (startMoveTime <= finishMoveTime && startMoveTime <= enterElevatorTime && startMoveTime <= exitElevatorTime) {
-                lastStartMoveTime = startMoveTime;
-                startMoveIndex++;
-
-                timeDoNotMove += lastStartMoveTime - lastFinishMoveTime;
+            if (floor != statistics.getFloors()) {
+                double meanWaitingTime = statistics.getWaitingTimeUp(floor).getMean();
+                System.out.printf("Mean waiting time up %d floor: %f%n", floor, meanWaitingTime);
+                meanWaitingTimes.add(meanWaitingTime);
             }
         }
 
-        System.out.println("Time do not move: " + (1 - (timeMoveWithPassengers / getCurrentTime() + timeMoveWithoutPassengers / getCurrentTime())));
-        timeDoNotMoveStats = (1 - (timeMoveWithPassengers / getCurrentTime() + timeMoveWithoutPassengers / getCurrentTime()));
-        System.out.println("Time move with passengers: " + timeMoveWithPassengers / getCurrentTime());
-        timeMoveWithPassengersStats = timeMoveWithPassengers / getCurrentTime();
-        System.out.println("Time move without passengers: " + timeMoveWithoutPassengers / getCurrentTime());
-        timeMoveWithoutPassengersStats = timeMoveWithoutPassengers / getCurrentTime();
+        int maxPassengersNumber = statistics.getMaxPassengers();
+        System.out.printf("Max number passengers: %d%n", maxPassengersNumber);
+        double meanPassengersNumber = statistics.getMeanPassengers();
+        System.out.printf("Mean number passengers: %f%n", meanPassengersNumber);
+
+        double timeDoNotMoveStats = statistics.getTimeDoNotMove();
+        System.out.println("Time do not move: " + timeDoNotMoveStats);
+        double timeMoveWithPassengersStats = statistics.getTimeMoveWithPassengers();
+        System.out.println("Time move with passengers: " + timeMoveWithPassengersStats);
+        double timeMoveWithoutPassengersStats = statistics.getTimeMoveWithoutPassengers();
+        System.out.println("Time move without passengers: " + timeMoveWithoutPassengersStats);
 
-        System.out.println("Overflow: " + overflowCount / (double) (allFloorsEnterElevatorMoments.size() + leftWaitingForElevatorBecauseOfOverflow));
+        System.out.println("Overflow: " + statistics.getOverflowFraction());
 
 
         System.out.print(firstFloorArrivalFrequency + ",");
@@ -0,0 +1,36 @@
+package PetriObj;
+
+/**
+ * This class searches the smallest capacity of elevator (see
+ * ElevatorObjModel) for which the mean waiting time for moving up on the
+ * first floor is not greater than the target, and then selects the capacity
+ * with the least mean waiting time.<br>
+ * Arguments: the target waiting time, the greatest capacity, the simulation
+ * time, the seed. All arguments are optional.
+ */
+public class ElevatorOptimization {
+
+    public static void main(String[] args) throws Exception {
+        double target = args.length > 0 ? Double.parseDouble(args[0]) : 20;
+        int maxCapacity = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        double timeModeling = args.length > 2 ? Double.parseDouble(args[2]) : 5000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+        ExperimentDesign capacities = ExperimentDesign.grid(ExperimentDesign.Factor.integerRange("liftCapacity", 1, maxCapacity));
+        SimulationOptimizer<ElevatorObjModel> optimizer = new SimulationOptimizer<>(ElevatorObjModel::create, capacities,
+                timeModeling, m -> m.getStatistics().getWaitingTimeUp(1).getMean());
+        optimizer.setSeed(seed);
+        optimizer.setPreparation(m -> m.setTransitionStreams(true)); // the same arrivals for all capacities
+        long start = System.nanoTime();
+        OptimizationResult result = optimizer.findFirstFeasible(target);
+        result.print();
+        System.out.printf("%.1f s, the full grid needs %d replications%n",
+                (System.nanoTime() - start) * 1e-9, (long) capacities.size() * optimizer.getMaxReplications());
+
+        start = System.nanoTime();
+        result = optimizer.select();
+        result.print();
+        System.out.printf("%.1f s, the full grid needs %d replications%n",
+                (System.nanoTime() - start) * 1e-9, (long) capacities.size() * optimizer.getMaxReplications());
+    }
+}
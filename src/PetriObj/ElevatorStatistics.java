@@ -0,0 +1,402 @@
+package PetriObj;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class calculates the indicators of elevator model during the
+ * simulation: the mean waiting time up and down for each floor, the quantity
+ * of passengers that could not enter the full elevator, the fractions of time
+ * of moving with and without passengers, the maximal and mean quantity of
+ * passengers.<br>
+ * The statistics is collected by the trace of transitions of the objects
+ * FloorActivity and FloorDecisionMaker, which are found by the names of
+ * transitions. The memory does not depend on the length of simulation.
+ */
+public class ElevatorStatistics implements SimTraceListener, Serializable {
+
+    private static final int START_UP = 0; // the passenger begins to wait the elevator for moving up
+    private static final int FINISH_UP = 1; // the passenger enters the elevator for moving up
+    private static final int START_DOWN = 2;
+    private static final int FINISH_DOWN = 3;
+    private static final int MOVE = 4; // the elevator moves from the floor
+    private static final int ROLES = 5;
+
+    private final PetriObjModel model;
+    private final int capacity;
+    private final int floors;
+    private final IdentityHashMap<PetriT, Integer> roles = new IdentityHashMap<>(); // transition -> role + ROLES * (floor - 1)
+    private final PetriP availablePlaces;
+    private final PetriP[] waiting; // the passengers waiting on the floor
+    private final PetriP[] waitingUp;
+    private final PetriP[] waitingDown;
+
+    private final SojournTracker[] waitingTimeUp;
+    private final SojournTracker[] waitingTimeDown;
+    private final int[] initialUp; // the passengers waiting from the start of simulation, they are not counted
+    private final int[] initialDown;
+    private long entered;
+    private long overflow;
+    private double moveStart;
+    private boolean moveWithPassengers;
+    private double timeMoveWithPassengers;
+    private double timeMoveWithoutPassengers;
+
+    /**
+     * @param model the elevator model
+     * @param capacity the capacity of elevator
+     */
+    public ElevatorStatistics(PetriObjModel model, int capacity) {
+        this.model = model;
+        this.capacity = capacity;
+        List<PetriNet> activities = new ArrayList<>();
+        List<PetriNet> decisionMakers = new ArrayList<>();
+        for (PetriSim sim : model.getListObj()) {
+            if (sim instanceof FloorActivity) {
+                activities.add(sim.getNet());
+            } else if (sim instanceof FloorDecisionMaker) {
+                decisionMakers.add(sim.getNet());
+            }
+        }
+        floors = activities.size();
+        waiting = new PetriP[floors];
+        waitingUp = new PetriP[floors];
+        waitingDown = new PetriP[floors];
+        waitingTimeUp = new SojournTracker[floors];
+        waitingTimeDown = new SojournTracker[floors];
+        initialUp = new int[floors];
+        initialDown = new int[floors];
+        availablePlaces = floors > 0 ? findPlace(activities.get(0), "AvailablePlaces") : null;
+
+        for (int i = 0; i < floors; i++) {
+            int floor = i + 1;
+            PetriNet net = activities.get(i);
+            waiting[i] = findPlace(net, String.format("PassengersWaiting%dFloor", floor));
+            waitingUp[i] = findPlace(net, String.format("PassengersWaitingToMoveUp%dFloor", floor));
+            waitingDown[i] = findPlace(net, String.format("PassengersWaitingToMoveDown%dFloor", floor));
+            waitingTimeUp[i] = new SojournTracker();
+            waitingTimeDown[i] = new SojournTracker();
+
+            PetriT startUp = findTransition(net, String.format("ReadyToMoveUp%dFloor", floor));
+            if (startUp == null) {
+                startUp = findTransition(net, String.format("Arrive%dFloor", floor));
+            }
+            PetriT finishDown = findTransition(net, String.format("EnterToMoveDown%dFloor", floor));
+            PetriT startDown = findTransition(net, String.format("ReadyToMoveDown%dFloor", floor));
+            if (startDown == null && finishDown != null) {
+                startDown = findTransition(net, String.format("SpendTime%dFloor", floor));
+            }
+            putRole(startUp, START_UP, i);
+            putRole(findTransition(net, String.format("EnterToMoveUp%dFloor", floor)), FINISH_UP, i);
+            putRole(startDown, START_DOWN, i);
+            putRole(finishDown, FINISH_DOWN, i);
+        }
+        for (int i = 0; i < decisionMakers.size(); i++) {
+            int floor = i + 1;
+            PetriNet net = decisionMakers.get(i);
+            putRole(findTransition(net, String.format("Move%dTo%d", floor, floor - 1)), MOVE, i);
+            putRole(findTransition(net, String.format("Move%dTo%d", floor, floor + 1)), MOVE, i);
+        }
+        reset();
+    }
+
+    /**
+     * Constructs the copy of statistics for the copy of model
+     *
+     * @param other the statistics of original model
+     * @param model the copy of model
+     * @param copier the copier that has made the copy of model
+     */
+    public ElevatorStatistics(ElevatorStatistics other, PetriObjModel model, ModelCopier copier) {
+        this.model = model;
+        capacity = other.capacity;
+        floors = other.floors;
+        for (Map.Entry<PetriT, Integer> e : other.roles.entrySet()) {
+            roles.put(copier.copy(e.getKey()), e.getValue());
+        }
+        availablePlaces = copier.copy(other.availablePlaces);
+        waiting = copier.copy(other.waiting);
+        waitingUp = copier.copy(other.waitingUp);
+        waitingDown = copier.copy(other.waitingDown);
+        waitingTimeUp = new SojournTracker[floors];
+        waitingTimeDown = new SojournTracker[floors];
+        for (int i = 0; i < floors; i++) {
+            waitingTimeUp[i] = new SojournTracker(other.waitingTimeUp[i]);
+            waitingTimeDown[i] = new SojournTracker(other.waitingTimeDown[i]);
+        }
+        initialUp = other.initialUp.clone();
+        initialDown = other.initialDown.clone();
+        entered = other.entered;
+        overflow = other.overflow;
+        moveStart = other.moveStart;
+        moveWithPassengers = other.moveWithPassengers;
+        timeMoveWithPassengers = other.timeMoveWithPassengers;
+        timeMoveWithoutPassengers = other.timeMoveWithoutPassengers;
+    }
+
+    private void putRole(PetriT transition, int role, int i) {
+        if (transition != null) {
+            roles.put(transition, role + ROLES * i);
+        }
+    }
+
+    private static PetriT findTransition(PetriNet net, String name) {
+        for (PetriT transition : net.getListT()) {
+            if (transition.getName().equals(name)) {
+                return transition;
+            }
+        }
+        return null;
+    }
+
+    private static PetriP findPlace(PetriNet net, String name) {
+        for (PetriP place : net.getListP()) {
+            if (place.getName().equals(name)) {
+                return place;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the collected statistics. The passengers that are waiting at the
+     * moment are not counted in the waiting time.
+     */
+    public final void reset() {
+        for (int i = 0; i < floors; i++) {
+            waitingTimeUp[i].clear();
+            waitingTimeDown[i].clear();
+            initialUp[i] = waitingUp[i] != null ? waitingUp[i].getMark() : 0;
+            initialDown[i] = waitingDown[i] != null ? waitingDown[i].getMark() : 0;
+        }
+        entered = 0;
+        overflow = 0;
+        moveStart = Double.NaN;
+        timeMoveWithPassengers = 0;
+        timeMoveWithoutPassengers = 0;
+    }
+
+    /**
+     * Writes the collected statistics (see PetriObjModel.snapshot())
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        for (int i = 0; i < floors; i++) {
+            waitingTimeUp[i].writeState(out);
+            waitingTimeDown[i].writeState(out);
+            out.writeInt(initialUp[i]);
+            out.writeInt(initialDown[i]);
+        }
+        out.writeLong(entered);
+        out.writeLong(overflow);
+        out.writeDouble(moveStart);
+        out.writeBoolean(moveWithPassengers);
+        out.writeDouble(timeMoveWithPassengers);
+        out.writeDouble(timeMoveWithoutPassengers);
+    }
+
+    /**
+     * Replaces the collected statistics with the statistics written by
+     * writeState()
+     *
+     * @param in the input
+     * @throws IOException if the input fails
+     */
+    void readState(DataInput in) throws IOException {
+        for (int i = 0; i < floors; i++) {
+            waitingTimeUp[i].readState(in);
+            waitingTimeDown[i].readState(in);
+            initialUp[i] = in.readInt();
+            initialDown[i] = in.readInt();
+        }
+        entered = in.readLong();
+        overflow = in.readLong();
+        moveStart = in.readDouble();
+        moveWithPassengers = in.readBoolean();
+        timeMoveWithPassengers = in.readDouble();
+        timeMoveWithoutPassengers = in.readDouble();
+    }
+
+    @Override
+    public void inputStarted(PetriSim sim) {
+    }
+
+    @Override
+    public void transitionIn(PetriSim sim, PetriT transition) {
+        Integer code = roles.get(transition);
+        if (code == null) {
+            return;
+        }
+        int i = code / ROLES;
+        switch (code % ROLES) {
+            case FINISH_UP:
+                entered++;
+                if (initialUp[i] > 0) {
+                    initialUp[i]--;
+                } else {
+                    waitingTimeUp[i].out(sim.getCurrentTime());
+                }
+                break;
+            case FINISH_DOWN:
+                entered++;
+                if (initialDown[i] > 0) {
+                    initialDown[i]--;
+                } else {
+                    waitingTimeDown[i].out(sim.getCurrentTime());
+                }
+                break;
+            case MOVE:
+                int passengers = capacity - availablePlaces.getMark();
+                if (passengers == capacity && waiting[i] != null) {
+                    overflow += waiting[i].getMark();
+                }
+                moveStart = sim.getCurrentTime();
+                moveWithPassengers = passengers > 0;
+                break;
+            default:
+        }
+    }
+
+    @Override
+    public void inputFinished(PetriSim sim, int[] markBefore) {
+    }
+
+    @Override
+    public void outputStarted(PetriSim sim, PetriT event) {
+    }
+
+    @Override
+    public void transitionOut(PetriSim sim, PetriT transition) {
+        Integer code = roles.get(transition);
+        if (code == null) {
+            return;
+        }
+        int i = code / ROLES;
+        switch (code % ROLES) {
+            case START_UP:
+                waitingTimeUp[i].in(sim.getCurrentTime());
+                break;
+            case START_DOWN:
+                waitingTimeDown[i].in(sim.getCurrentTime());
+                break;
+            case MOVE:
+                if (!Double.isNaN(moveStart)) {
+                    if (moveWithPassengers) {
+                        timeMoveWithPassengers += sim.getCurrentTime() - moveStart;
+                    } else {
+                        timeMoveWithoutPassengers += sim.getCurrentTime() - moveStart;
+                    }
+                    moveStart = Double.NaN;
+                }
+                break;
+            default:
+        }
+    }
+
+    @Override
+    public void outputFinished(PetriSim sim, int[] markBefore) {
+    }
+
+    /**
+     * @return the quantity of floors
+     */
+    public int getFloors() {
+        return floors;
+    }
+
+    /**
+     * @param floor the number of floor from 1
+     * @return the statistics of waiting time for moving up on the floor
+     */
+    public SampleStatistics getWaitingTimeUp(int floor) {
+        return waitingTimeUp[floor - 1].getStatistics();
+    }
+
+    /**
+     * @param floor the number of floor from 1
+     * @return the statistics of waiting time for moving down on the floor
+     */
+    public SampleStatistics getWaitingTimeDown(int floor) {
+        return waitingTimeDown[floor - 1].getStatistics();
+    }
+
+    /**
+     * @return the quantity of passengers that have entered the elevator
+     */
+    public long getEntered() {
+        return entered;
+    }
+
+    /**
+     * The passengers waiting on the floor are counted each time the elevator
+     * leaves this floor full. So the passenger that waits for several
+     * departures of full elevator is counted several times.
+     *
+     * @return the quantity of cases when the passenger was waiting on the
+     * floor and the elevator left the floor full
+     */
+    public long getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * @return the fraction of cases when the passenger could not enter the
+     * full elevator among all attempts to enter, the cases are counted as in
+     * getOverflow()
+     */
+    public double getOverflowFraction() {
+        return entered + overflow > 0 ? overflow / (double) (entered + overflow) : 0;
+    }
+
+    /**
+     * The move that is not finished at the current time is not counted.
+     *
+     * @return the fraction of time when the elevator moved with passengers
+     */
+    public double getTimeMoveWithPassengers() {
+        return fraction(timeMoveWithPassengers);
+    }
+
+    /**
+     * The move that is not finished at the current time is not counted.
+     *
+     * @return the fraction of time when the elevator moved without passengers
+     */
+    public double getTimeMoveWithoutPassengers() {
+        return fraction(timeMoveWithoutPassengers);
+    }
+
+    /**
+     * @return the fraction of time when the elevator did not move
+     */
+    public double getTimeDoNotMove() {
+        return 1 - getTimeMoveWithPassengers() - getTimeMoveWithoutPassengers();
+    }
+
+    private double fraction(double time) {
+        double t = model.getCurrentTime() - model.getStatisticsStart();
+        return t > 0 ? time / t : 0;
+    }
+
+    /**
+     * @return the maximal quantity of passengers in the elevator
+     */
+    public int getMaxPassengers() {
+        return capacity - availablePlaces.getStatistics().getMin();
+    }
+
+    /**
+     * @return the time-weighted mean quantity of passengers in the elevator
+     */
+    public double getMeanPassengers() {
+        return capacity - availablePlaces.getStatistics().getMean();
+    }
+}
@@ -0,0 +1,78 @@
+package PetriObj;
+
+/**
+ * This class runs the experiment with the elevator model (see
+ * ElevatorObjModel) in one JVM: the points of design are simulated in
+ * parallel and the results are written to CSV file, or in the binary form
+ * if the name of file ends with ".bin" (see ParameterSweep).<br>
+ * Arguments: the name of file, the design ("grid" or "lhs"), the quantity of
+ * points of Latin hypercube, the simulation time, the quantity of
+ * replications, the seed. All arguments are optional.
+ */
+public class ElevatorSweep {
+
+    /**
+     * Adds the outputs of elevator model to the sweep: the mean waiting time
+     * for moving up and down on each floor, the quantity of passengers in the
+     * elevator, the fractions of time of moving and the overflow
+     *
+     * @param sweep the sweep of elevator model
+     * @param floors the quantity of floors
+     */
+    public static void addOutputs(ParameterSweep<ElevatorObjModel> sweep, int floors) {
+        for (int floor = 1; floor <= floors; floor++) {
+            int f = floor;
+            if (floor != 1) {
+                sweep.addOutput("waitingDown" + floor, m -> m.getStatistics().getWaitingTimeDown(f).getMean());
+            }
+            if (floor != floors) {
+                sweep.addOutput("waitingUp" + floor, m -> m.getStatistics().getWaitingTimeUp(f).getMean());
+            }
+        }
+        sweep.addOutput("maxPassengers", m -> m.getStatistics().getMaxPassengers());
+        sweep.addOutput("meanPassengers", m -> m.getStatistics().getMeanPassengers());
+        sweep.addOutput("timeDoNotMove", m -> m.getStatistics().getTimeDoNotMove());
+        sweep.addOutput("timeMoveWithPassengers", m -> m.getStatistics().getTimeMoveWithPassengers());
+        sweep.addOutput("timeMoveWithoutPassengers", m -> m.getStatistics().getTimeMoveWithoutPassengers());
+        sweep.addOutput("overflow", m -> m.getStatistics().getOverflowFraction());
+    }
+
+    public static void main(String[] args) throws Exception {
+        String fileName = args.length > 0 ? args[0] : "elevator-sweep.csv";
+        String kind = args.length > 1 ? args[1] : "lhs";
+        int points = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        double timeModeling = args.length > 3 ? Double.parseDouble(args[3]) : 10000;
+        int replications = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+
+        ExperimentDesign design;
+        if (kind.equals("grid")) {
+            design = ExperimentDesign.grid(
+                    ExperimentDesign.Factor.levels("firstFloorArrivalFrequency", 0.5, 1, 2),
+                    ExperimentDesign.Factor.levels("choose1FloorProbability", 0.5, 0.7, 0.9),
+                    ExperimentDesign.Factor.levels("floorMoveTime", 0.3, 0.4, 0.5),
+                    ExperimentDesign.Factor.integerRange("liftCapacity", 4, 8));
+        } else {
+            design = ExperimentDesign.latinHypercube(points, seed,
+                    ExperimentDesign.Factor.range("firstFloorArrivalFrequency", 0.5, 2),
+                    ExperimentDesign.Factor.range("spendOnFloorTimeLowerLimit", 10, 20),
+                    ExperimentDesign.Factor.range("spendOnFloorTimeUpperLimit", 90, 150),
+                    ExperimentDesign.Factor.range("choose1FloorProbability", 0.5, 0.9),
+                    ExperimentDesign.Factor.range("chooseOtherFloorProbability", 0.05, 0.2),
+                    ExperimentDesign.Factor.range("floorMoveTime", 0.3, 0.5),
+                    ExperimentDesign.Factor.integerRange("liftCapacity", 4, 8));
+        }
+        ParameterSweep<ElevatorObjModel> sweep = new ParameterSweep<>(ElevatorObjModel::create, design, timeModeling);
+        addOutputs(sweep, 5);
+        sweep.setReplications(replications);
+        sweep.setSeed(seed);
+        long start = System.nanoTime();
+        if (fileName.endsWith(".bin")) {
+            sweep.runBinary(fileName);
+        } else {
+            sweep.run(fileName);
+        }
+        System.out.printf("%d points, %d replications: %.1f s, results in %s%n",
+                design.size(), replications, (System.nanoTime() - start) * 1e-9, fileName);
+    }
+}
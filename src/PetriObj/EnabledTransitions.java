@@ -0,0 +1,297 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class keeps the set of transitions of Petri net for which the firing
+ * condition is true.<br>
+ * The index from places to the transitions that read them is built once from
+ * the input arcs of transitions (including informational arcs). After the
+ * firing of transition only the transitions that read its input places are
+ * checked again. The enabled transitions are grouped into buckets of equal
+ * priority, the buckets are ordered by descending priority.<br>
+ * If the compiled net is given the firing condition is checked by it and the
+ * set watches the places of net in the marking of compiled net: the first
+ * refresh checks all transitions, the next ones check only the transitions
+ * that read the places with increased quantity of markers and the transitions
+ * that were enabled (the markers could be taken by other Petri-objects
+ * through the shared places). The priorities and probabilities of
+ * transitions are read when the set is built and at the full check.
+ */
+public class EnabledTransitions {
+
+    private final PetriT[] listT;
+    private final CompiledNet compiled; // null if the condition is checked by the transitions
+    private final int[][] dependent; // place -> transitions that read the place
+    private int[] priorities; // the priorities of transitions at the moment of building of buckets
+    private int[] levelOf; // transition -> bucket
+    private int[][] levelMembers; // bucket -> transitions in the order of the list of transitions
+    private int[] levelCount; // bucket -> quantity of enabled transitions
+    private final boolean[] enabled;
+    private int total;
+    private int[] top; // the indices of transitions in the list filled by fillTop()
+    private final int[] slots; // place -> slot in the marking of compiled net, null if there is no compiled net
+    private final boolean[] isChanged; // place -> the quantity of markers has been increased after the last refresh
+    private final int[] changed;
+    private int changedCount;
+    private boolean checked; // all transitions have been checked
+
+    /**
+     * @param listP array of places of Petri net
+     * @param listT array of transitions of Petri net
+     */
+    public EnabledTransitions(PetriP[] listP, PetriT[] listT) {
+        this(listP, listT, null);
+    }
+
+    /**
+     * @param listP array of places of Petri net
+     * @param listT array of transitions of Petri net
+     * @param compiled the compiled Petri net or null
+     */
+    public EnabledTransitions(PetriP[] listP, PetriT[] listT, CompiledNet compiled) {
+        this.listT = listT;
+        this.compiled = compiled;
+        enabled = new boolean[listT.length];
+        top = new int[listT.length];
+
+        int[] count = new int[listP.length];
+        for (PetriT transition : listT) {
+            for (int p : transition.getInP()) {
+                count[p]++;
+            }
+            for (int p : transition.getInPwithInf()) {
+                count[p]++;
+            }
+        }
+        dependent = new int[listP.length][];
+        for (int p = 0; p < listP.length; p++) {
+            dependent[p] = new int[count[p]];
+            count[p] = 0;
+        }
+        for (int j = 0; j < listT.length; j++) {
+            for (int p : listT[j].getInP()) {
+                addDependent(p, j, count);
+            }
+            for (int p : listT[j].getInPwithInf()) {
+                addDependent(p, j, count);
+            }
+        }
+        for (int p = 0; p < listP.length; p++) {
+            if (count[p] < dependent[p].length) {
+                dependent[p] = Arrays.copyOf(dependent[p], count[p]);
+            }
+        }
+        buildLevels();
+
+        isChanged = new boolean[listP.length];
+        changed = new int[listP.length];
+        if (compiled != null) {
+            slots = new int[listP.length];
+            for (int p = 0; p < listP.length; p++) {
+                slots[p] = listP[p].getSlot();
+                compiled.getMarking().watch(slots[p], this, p);
+            }
+        } else {
+            slots = null;
+        }
+    }
+
+    private void addDependent(int p, int j, int[] count) {
+        if (count[p] > 0 && dependent[p][count[p] - 1] == j) { // several arcs between the same place and transition
+            return;
+        }
+        dependent[p][count[p]++] = j;
+    }
+
+    private void buildLevels() {
+        int numT = listT.length;
+        priorities = new int[numT];
+        for (int j = 0; j < numT; j++) {
+            priorities[j] = listT[j].getPriority();
+        }
+        int[] distinct = Arrays.stream(priorities).distinct().sorted().toArray();
+        int numLevels = distinct.length;
+        int[] size = new int[numLevels];
+        levelOf = new int[numT];
+        for (int j = 0; j < numT; j++) {
+            levelOf[j] = numLevels - 1 - Arrays.binarySearch(distinct, priorities[j]); // descending order
+            size[levelOf[j]]++;
+        }
+        levelMembers = new int[numLevels][];
+        for (int k = 0; k < numLevels; k++) {
+            levelMembers[k] = new int[size[k]];
+            size[k] = 0;
+        }
+        for (int j = 0; j < numT; j++) {
+            levelMembers[levelOf[j]][size[levelOf[j]]++] = j;
+        }
+        levelCount = new int[numLevels];
+        Arrays.fill(enabled, false);
+        total = 0;
+    }
+
+    private boolean prioritiesChanged() {
+        for (int j = 0; j < listT.length; j++) {
+            if (priorities[j] != listT[j].getPriority()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks the firing condition of transitions after the marking could be
+     * changed outside (by the output of markers or by other Petri-objects
+     * through the shared places). Without the compiled net all transitions
+     * are checked.
+     *
+     * @param listP array of places of Petri net
+     */
+    public void refresh(PetriP[] listP) {
+        if (compiled == null || !checked) {
+            if (prioritiesChanged()) {
+                buildLevels();
+            }
+            for (int j = 0; j < listT.length; j++) {
+                check(j, listP);
+            }
+            clearChanged();
+            checked = true;
+            return;
+        }
+        if (total > 0) {
+            for (int k = 0; k < levelCount.length; k++) {
+                if (levelCount[k] > 0) {
+                    for (int j : levelMembers[k]) {
+                        if (enabled[j]) {
+                            check(j, listP);
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < changedCount; i++) {
+            for (int j : dependent[changed[i]]) {
+                check(j, listP);
+            }
+        }
+        clearChanged();
+    }
+
+    private void clearChanged() {
+        for (int i = 0; i < changedCount; i++) {
+            isChanged[changed[i]] = false;
+        }
+        changedCount = 0;
+    }
+
+    /**
+     * Is called by the marking when the quantity of markers of place has been
+     * increased
+     *
+     * @param p the index of place in the array of places of Petri net
+     */
+    void placeIncreased(int p) {
+        if (!isChanged[p]) {
+            isChanged[p] = true;
+            changed[changedCount++] = p;
+        }
+    }
+
+    /**
+     * Stops watching the places in the marking of compiled net. Is called when
+     * the set is not used any more.
+     */
+    void detach() {
+        if (slots != null) {
+            for (int slot : slots) {
+                compiled.getMarking().unwatch(slot, this);
+            }
+        }
+    }
+
+    /**
+     * Checks the firing condition of transitions that read the input places of
+     * the fired transition.
+     *
+     * @param fired the transition that has taken the markers from its input
+     * places
+     * @param listP array of places of Petri net
+     */
+    public void update(PetriT fired, PetriP[] listP) {
+        for (int p : fired.getInP()) {
+            for (int j : dependent[p]) {
+                check(j, listP);
+            }
+        }
+    }
+
+    private void check(int j, PetriP[] listP) {
+        PetriT transition = listT[j];
+        boolean a = (compiled != null ? compiled.condition(j) : transition.condition(listP))
+                && transition.getProbability() != 0;
+        if (a != enabled[j]) {
+            enabled[j] = a;
+            if (a) {
+                levelCount[levelOf[j]]++;
+                total++;
+            } else {
+                levelCount[levelOf[j]]--;
+                total--;
+            }
+        }
+    }
+
+    /**
+     * @param j the index of transition in the array of transitions of Petri net
+     * @return true if the transition is in the set
+     */
+    boolean isEnabled(int j) {
+        return enabled[j];
+    }
+
+    /**
+     * @return true if there is no transition with the true firing condition
+     */
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * Finds the enabled transitions with the highest priority. Only these
+     * transitions take part in the conflict resolution.
+     *
+     * @param activeT the list that is filled with the enabled transitions of the
+     * highest priority in the order of the list of transitions
+     */
+    public void fillTop(ArrayList<PetriT> activeT) {
+        activeT.clear();
+        for (int k = 0; k < levelCount.length; k++) {
+            if (levelCount[k] > 0) {
+                for (int j : levelMembers[k]) {
+                    if (enabled[j]) {
+                        top[activeT.size()] = j;
+                        activeT.add(listT[j]);
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param activeT the list filled by method fillTop()
+     * @param transition the transition from the list
+     * @return the index of transition in the array of transitions of Petri net
+     */
+    public int indexOfTop(ArrayList<PetriT> activeT, PetriT transition) {
+        for (int i = 0; i < activeT.size(); i++) {
+            if (activeT.get(i) == transition) {
+                return top[i];
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,187 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is the event calendar of Petri object model.<br>
+ * It is an indexed binary min-heap of Petri-objects keyed on the moment of
+ * their nearest event, so the nearest event of the model is found in O(1)
+ * and the key of one Petri-object is changed in O(log N).<br>
+ * The position of each Petri-object in the heap is stored in the object
+ * itself, therefore a Petri-object can belong only to one calendar at a time.
+ */
+public class EventCalendar {
+
+    private PetriSim[] heap;
+    private double[] keys;
+    private int size;
+    private int[] stack; // reused stack for collecting of conflicting objects
+
+    /**
+     * Constructs the event calendar for given list of Petri-objects. The keys
+     * are taken from the current values of getTimeMin().
+     *
+     * @param list the list of Petri-objects
+     */
+    public EventCalendar(List<PetriSim> list) {
+        int capacity = Math.max(list.size(), 1);
+        heap = new PetriSim[capacity];
+        keys = new double[capacity];
+        stack = new int[capacity];
+        for (PetriSim sim : list) {
+            add(sim);
+        }
+    }
+
+    /**
+     * Adds Petri-object to the calendar with the key equal to its moment of
+     * the nearest event.
+     *
+     * @param sim Petri-object
+     */
+    public void add(PetriSim sim) {
+        if (size == heap.length) {
+            int capacity = heap.length * 2;
+            heap = Arrays.copyOf(heap, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            stack = new int[capacity];
+        }
+        heap[size] = sim;
+        keys[size] = sim.getTimeMin();
+        sim.setCalendarIndex(size);
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Removes all Petri-objects from the calendar.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].setCalendarIndex(-1);
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Changes the position of Petri-object in the calendar in accordance with
+     * the current value of its moment of the nearest event.
+     *
+     * @param sim Petri-object which belongs to the calendar
+     */
+    public void update(PetriSim sim) {
+        int i = sim.getCalendarIndex();
+        if (i < 0 || i >= size || heap[i] != sim) {
+            return;
+        }
+        double key = sim.getTimeMin();
+        double old = keys[i];
+        if (key == old) {
+            return;
+        }
+        keys[i] = key;
+        if (key < old) {
+            siftUp(i);
+        } else {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * @return the moment of the nearest event among all Petri-objects of the
+     * calendar
+     */
+    public double getTimeMin() {
+        return size > 0 ? keys[0] : Double.MAX_VALUE;
+    }
+
+    /**
+     * @return the Petri-object with the nearest event
+     */
+    public PetriSim peek() {
+        return size > 0 ? heap[0] : null;
+    }
+
+    /**
+     * @return the number of Petri-objects in the calendar
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds all Petri-objects whose nearest event occurs at given moment. The
+     * moment must be equal to getTimeMin(), then only the subtree of heap with
+     * such keys is visited.
+     *
+     * @param time the moment of the nearest event of the model
+     * @param conflictObj the list to which the found Petri-objects are added
+     */
+    public void collect(double time, ArrayList<PetriSim> conflictObj) {
+        if (size == 0 || keys[0] != time) {
+            return;
+        }
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int i = stack[--top];
+            conflictObj.add(heap[i]);
+            int child = 2 * i + 1;
+            if (child < size && keys[child] == time) {
+                stack[top++] = child;
+            }
+            child++;
+            if (child < size && keys[child] == time) {
+                stack[top++] = child;
+            }
+        }
+    }
+
+    private void siftUp(int i) {
+        PetriSim sim = heap[i];
+        double key = keys[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        place(sim, key, i);
+    }
+
+    private void siftDown(int i) {
+        PetriSim sim = heap[i];
+        double key = keys[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && keys[right] < keys[child]) {
+                child = right;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        place(sim, key, i);
+    }
+
+    private void move(int from, int to) {
+        heap[to] = heap[from];
+        keys[to] = keys[from];
+        heap[to].setCalendarIndex(to);
+    }
+
+    private void place(PetriSim sim, double key, int i) {
+        heap[i] = sim;
+        keys[i] = key;
+        sim.setCalendarIndex(i);
+    }
+}
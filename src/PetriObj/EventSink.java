@@ -0,0 +1,70 @@
+package PetriObj;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.util.List;
+
+/**
+ * This interface receives the typed events of Petri-object model simulation:
+ * time advance, conflict set, selected object, transition input, transition
+ * output and marking delta.<br>
+ * Every event is the record (type, time, object, element, value):
+ * <ul>
+ * <li>TIME_ADVANCE - object is null, element is -1, value is 0;</li>
+ * <li>CONFLICT_SET - one record for each conflicting object, element is the
+ * position in the conflict set, value is the size of the conflict set;</li>
+ * <li>SELECTED_OBJECT - element is -1, value is the priority of object;</li>
+ * <li>TRANSITION_IN, TRANSITION_OUT - element is the index of transition in
+ * the array of transitions of object, value is the buffer of transition after
+ * the event;</li>
+ * <li>MARKING_DELTA - element is the number of place in the array of places
+ * of object, value is the change of the quantity of markers.</li>
+ * </ul>
+ * The sink is attached to the model by PetriObjModel.setEventSink().
+ */
+public interface EventSink extends SimTraceListener, Flushable, Closeable {
+
+    int TIME_ADVANCE = 0;
+    int CONFLICT_SET = 1;
+    int SELECTED_OBJECT = 2;
+    int TRANSITION_IN = 3;
+    int TRANSITION_OUT = 4;
+    int MARKING_DELTA = 5;
+
+    /**
+     * Is called once when simulation starts, before all other events
+     *
+     * @param listObj the list of Petri-objects of model
+     */
+    void start(List<PetriSim> listObj);
+
+    /**
+     * @param time the new current time of model
+     */
+    void timeAdvance(double time);
+
+    /**
+     * @param time the current time of model
+     * @param conflictObj the Petri-objects whose nearest event occurs at the
+     * current time
+     */
+    void conflictSet(double time, List<PetriSim> conflictObj);
+
+    /**
+     * @param time the current time of model
+     * @param sim the Petri-object that is launched
+     */
+    void selectedObject(double time, PetriSim sim);
+
+    /**
+     * Receives the event record. The typed methods and the trace methods are
+     * reduced to this method.
+     *
+     * @param type the type of event
+     * @param time the current time of model
+     * @param sim the Petri-object or null
+     * @param element the number of transition or place or -1
+     * @param value the value of event
+     */
+    void event(int type, double time, PetriSim sim, int element, int value);
+}
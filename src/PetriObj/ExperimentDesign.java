@@ -0,0 +1,288 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class is the design of experiment: the list of points, each point
+ * gives the values of factors (the parameters of model) for which the model
+ * is simulated (see ParameterSweep).<br>
+ * The design is built as the full grid of levels of factors or as the Latin
+ * hypercube: for n points the range of each factor is split into n intervals
+ * of equal length and each interval is used by one point, the intervals of
+ * different factors are combined at random. So the Latin hypercube covers the
+ * range of each factor with few points when the grid would be too large.
+ */
+public class ExperimentDesign {
+
+    /**
+     * The factor of experiment: the name of parameter and its levels (for the
+     * grid) or its range (for the Latin hypercube)
+     */
+    public static class Factor {
+
+        private final String name;
+        private final double[] levels;
+        private final double min;
+        private final double max;
+        private final boolean integer;
+
+        private Factor(String name, double[] levels, double min, double max, boolean integer) {
+            this.name = name;
+            this.levels = levels;
+            this.min = min;
+            this.max = max;
+            this.integer = integer;
+        }
+
+        /**
+         * @param name the name of parameter
+         * @param levels the values of parameter
+         * @return the factor with given levels, its range is from the least to
+         * the greatest level
+         */
+        public static Factor levels(String name, double... levels) {
+            if (levels.length == 0) {
+                throw new IllegalArgumentException("The factor " + name + " has no levels");
+            }
+            double[] sorted = levels.clone();
+            Arrays.sort(sorted);
+            return new Factor(name, levels.clone(), sorted[0], sorted[sorted.length - 1], false);
+        }
+
+        /**
+         * @param name the name of parameter
+         * @param min the least value
+         * @param max the greatest value
+         * @return the factor with continuous values from the range
+         */
+        public static Factor range(String name, double min, double max) {
+            return new Factor(name, new double[]{min, max}, min, max, false);
+        }
+
+        /**
+         * @param name the name of parameter
+         * @param min the least value
+         * @param max the greatest value
+         * @return the factor with integer values from the range, all of them
+         * are the levels for the grid
+         */
+        public static Factor integerRange(String name, int min, int max) {
+            double[] levels = new double[max - min + 1];
+            for (int i = 0; i < levels.length; i++) {
+                levels[i] = min + i;
+            }
+            return new Factor(name, levels, min, max, true);
+        }
+
+        /**
+         * @return the name of parameter
+         */
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * The point of design: the values of factors
+     */
+    public static class Point {
+
+        private final ExperimentDesign design;
+        private final int index;
+        private final double[] values;
+
+        private Point(ExperimentDesign design, int index, double[] values) {
+            this.design = design;
+            this.index = index;
+            this.values = values;
+        }
+
+        /**
+         * @return the index of point in the design
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the names of factors
+         */
+        public List<String> getNames() {
+            return design.names;
+        }
+
+        /**
+         * @param name the name of factor
+         * @return the value of factor
+         * @throws IllegalArgumentException if the design has no such factor
+         */
+        public double get(String name) {
+            int k = design.names.indexOf(name);
+            if (k < 0) {
+                throw new IllegalArgumentException("The design has no factor " + name);
+            }
+            return values[k];
+        }
+
+        /**
+         * @param name the name of factor
+         * @param defaultValue the value for the factor that is not in the
+         * design
+         * @return the value of factor or the default value
+         */
+        public double get(String name, double defaultValue) {
+            int k = design.names.indexOf(name);
+            return k >= 0 ? values[k] : defaultValue;
+        }
+
+        /**
+         * @param k the index of factor
+         * @return the value of factor
+         */
+        public double get(int k) {
+            return values[k];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder s = new StringBuilder();
+            for (int k = 0; k < values.length; k++) {
+                s.append(k > 0 ? ", " : "").append(design.names.get(k)).append(" = ").append(values[k]);
+            }
+            return s.toString();
+        }
+    }
+
+    private final List<String> names;
+    private final List<Point> points = new ArrayList<>();
+
+    /**
+     * Constructs the design without points
+     *
+     * @param names the names of factors
+     */
+    public ExperimentDesign(String... names) {
+        this.names = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(names)));
+    }
+
+    /**
+     * Adds the point to the design
+     *
+     * @param values the values of factors in the order of names
+     * @return the added point
+     */
+    public Point addPoint(double... values) {
+        if (values.length != names.size()) {
+            throw new IllegalArgumentException("The point must have " + names.size() + " values");
+        }
+        Point point = new Point(this, points.size(), values.clone());
+        points.add(point);
+        return point;
+    }
+
+    /**
+     * Builds the full grid: each combination of levels of factors is the
+     * point. The last factor changes fastest.
+     *
+     * @param factors the factors
+     * @return the design
+     */
+    public static ExperimentDesign grid(Factor... factors) {
+        ExperimentDesign design = new ExperimentDesign(names(factors));
+        int[] level = new int[factors.length];
+        double[] values = new double[factors.length];
+        while (true) {
+            for (int k = 0; k < factors.length; k++) {
+                values[k] = factors[k].levels[level[k]];
+            }
+            design.addPoint(values);
+            int k = factors.length - 1;
+            while (k >= 0 && ++level[k] == factors[k].levels.length) {
+                level[k] = 0;
+                k--;
+            }
+            if (k < 0) {
+                return design;
+            }
+        }
+    }
+
+    /**
+     * Builds the Latin hypercube. The values of factor with integer values
+     * are rounded, the range from min to max is split as the range from
+     * min - 0.5 to max + 0.5, so each integer value has equal chance.
+     *
+     * @param count the quantity of points
+     * @param seed the seed of generator that combines the intervals
+     * @param factors the factors
+     * @return the design
+     */
+    public static ExperimentDesign latinHypercube(int count, long seed, Factor... factors) {
+        ExperimentDesign design = new ExperimentDesign(names(factors));
+        ModelRandom r = new ModelRandom(seed);
+        double[][] values = new double[count][factors.length];
+        int[] order = new int[count];
+        for (int k = 0; k < factors.length; k++) {
+            Factor factor = factors[k];
+            double min = factor.integer ? factor.min - 0.5 : factor.min;
+            double max = factor.integer ? factor.max + 0.5 : factor.max;
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            for (int i = count - 1; i > 0; i--) {
+                int j = r.nextInt(i + 1);
+                int o = order[i];
+                order[i] = order[j];
+                order[j] = o;
+            }
+            for (int i = 0; i < count; i++) {
+                double value = min + (order[i] + r.nextDouble()) / count * (max - min);
+                values[i][k] = factor.integer ? Math.min(Math.max(Math.rint(value), factor.min), factor.max) : value;
+            }
+        }
+        for (double[] point : values) {
+            design.addPoint(point);
+        }
+        return design;
+    }
+
+    private static String[] names(Factor[] factors) {
+        String[] names = new String[factors.length];
+        for (int k = 0; k < factors.length; k++) {
+            names[k] = factors[k].name;
+        }
+        return names;
+    }
+
+    /**
+     * @return the names of factors
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * @return the points of design
+     */
+    public List<Point> getPoints() {
+        return Collections.unmodifiableList(points);
+    }
+
+    /**
+     * @param index the index of point
+     * @return the point
+     */
+    public Point getPoint(int index) {
+        return points.get(index);
+    }
+
+    /**
+     * @return the quantity of points
+     */
+    public int size() {
+        return points.size();
+    }
+}
@@ -0,0 +1,36 @@
+package PetriObj;
+
+/**
+ * This interface is the firing code of compiled Petri net: the firing
+ * condition and the input and output of markers for the transition with given
+ * index. The places are given by their slots in the marking. The
+ * implementation is generated for the concrete Petri net by
+ * FiringCodeGenerator.
+ */
+public interface FiringCode {
+
+    /**
+     * @param j the index of transition
+     * @param marks the quantities of markers in slots of marking
+     * @return true if the firing condition of transition is true
+     */
+    boolean condition(int j, int[] marks);
+
+    /**
+     * Takes the markers from the input places of transition
+     *
+     * @param j the index of transition
+     * @param marks the quantities of markers in slots of marking
+     * @param observedMin the observed minimal quantities of markers
+     */
+    void actIn(int j, int[] marks, int[] observedMin);
+
+    /**
+     * Puts the markers in the output places of transition
+     *
+     * @param j the index of transition
+     * @param marks the quantities of markers in slots of marking
+     * @param observedMax the observed maximal quantities of markers
+     */
+    void actOut(int j, int[] marks, int[] observedMax);
+}
@@ -0,0 +1,548 @@
+package PetriObj;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class generates the class of firing code for the compiled Petri nets.
+ * The generated methods have one branch of switch for each transition, the
+ * slots of places and the quantities of arcs are the constants of code, so
+ * there are no loops and no reading of arrays of arcs.<br>
+ * The class file is written directly (version 49, so no stack map frames are
+ * needed) and is defined by its own class loader, no compiler is used. If the
+ * code is too large or the class can not be defined the compiled net works by
+ * the arrays of arcs.<br>
+ * The generated code is kept in the cache by the structure of nets (the slots
+ * of places and the quantities of arcs), so the next runs of model, its
+ * copies and the instances of its template use the same code and no new class
+ * is defined. The cache keeps CACHE_SIZE last used classes.
+ */
+public final class FiringCodeGenerator {
+
+    /**
+     * The maximal length of generated method in bytes. The larger methods are
+     * not compiled by JIT, so the code is not generated for them.
+     */
+    public static final int MAX_CODE_LENGTH = 8000;
+
+    /**
+     * The maximal quantity of generated classes kept in the cache
+     */
+    public static final int CACHE_SIZE = 256;
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private static final Map<Key, FiringCode> CACHE = new LinkedHashMap<Key, FiringCode>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, FiringCode> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private static final int ICONST_0 = 0x03, ICONST_1 = 0x04, BIPUSH = 0x10, SIPUSH = 0x11, LDC_W = 0x13;
+    private static final int ILOAD = 0x15, ILOAD_1 = 0x1b, ALOAD_0 = 0x2a, ALOAD_2 = 0x2c, ALOAD_3 = 0x2d;
+    private static final int IALOAD = 0x2e, ISTORE = 0x36, IASTORE = 0x4f, DUP = 0x59, IADD = 0x60, ISUB = 0x64;
+    private static final int IF_ICMPLT = 0xa1, IF_ICMPGE = 0xa2, IF_ICMPLE = 0xa4, TABLESWITCH = 0xaa;
+    private static final int IRETURN = 0xac, RETURN = 0xb1, INVOKESPECIAL = 0xb7;
+
+    private static final int M = 4; // the local variable for the new quantity of markers
+
+    private FiringCodeGenerator() {
+    }
+
+    /**
+     * Generates the firing code for the compiled Petri nets with the same
+     * marking. The nets that follow one another are joined into one class
+     * while the estimated length of its methods is not greater than
+     * MAX_CODE_LENGTH, so the small nets of model use few classes and the big
+     * nets get their own classes. The transitions of each net get the indices
+     * of code from its offset. If the code of joined nets is too large, the
+     * code is generated for each net separately.
+     *
+     * @param nets the compiled Petri nets
+     * @return true if the code is generated for all nets
+     */
+    public static boolean generate(List<CompiledNet> nets) {
+        if (nets.isEmpty()) {
+            return false;
+        }
+        for (CompiledNet net : nets) {
+            if (net.getMarking() != nets.get(0).getMarking() || !net.isValid()) {
+                return false;
+            }
+        }
+        boolean all = true;
+        int from = 0;
+        while (from < nets.size()) {
+            int length = estimate(nets.get(from));
+            int to = from + 1;
+            while (to < nets.size() && length + estimate(nets.get(to)) <= MAX_CODE_LENGTH) {
+                length += estimate(nets.get(to++));
+            }
+            if (!attach(nets.subList(from, to))) {
+                if (to - from == 1) {
+                    all = false;
+                } else {
+                    for (int i = from; i < to; i++) {
+                        all &= attach(nets.subList(i, i + 1));
+                    }
+                }
+            }
+            from = to;
+        }
+        return all;
+    }
+
+    /**
+     * Generates the firing code for the compiled Petri net
+     *
+     * @param net the compiled Petri net
+     * @return true if the code is generated
+     */
+    public static boolean generate(CompiledNet net) {
+        return net.isValid() && attach(Collections.singletonList(net));
+    }
+
+    /**
+     * @return the greatest length in bytes that the net adds to the generated
+     * methods
+     */
+    private static int estimate(CompiledNet net) {
+        int condition = 8 * net.numT + 11 * (net.inPlace.length + net.infPlace.length);
+        int actIn = 5 * net.numT + 34 * net.inPlace.length;
+        int actOut = 5 * net.numT + 34 * net.outPlace.length;
+        return Math.max(condition, Math.max(actIn, actOut));
+    }
+
+    private static boolean attach(List<CompiledNet> nets) {
+        Key key = new Key(nets);
+        FiringCode code;
+        synchronized (CACHE) {
+            code = CACHE.get(key);
+        }
+        if (code == null) {
+            try {
+                String name = "PetriObj/generated/FiringCode" + COUNTER.incrementAndGet();
+                byte[] b = writeClass(name, nets);
+                Class<?> c = new Loader(FiringCode.class.getClassLoader()).define(name.replace('/', '.'), b);
+                code = (FiringCode) c.getDeclaredConstructor().newInstance();
+            } catch (IOException | ReflectiveOperationException | LinkageError | RuntimeException ex) {
+                return false;
+            }
+            synchronized (CACHE) {
+                CACHE.put(key, code);
+            }
+        }
+        int offset = 0;
+        for (CompiledNet net : nets) {
+            net.setCode(code, offset);
+            offset += net.numT;
+        }
+        return true;
+    }
+
+    private static byte[] writeClass(String name, List<CompiledNet> nets) throws IOException {
+        Pool pool = new Pool();
+        int thisClass = pool.classRef(name);
+        int superClass = pool.classRef("java/lang/Object");
+        int face = pool.classRef("PetriObj/FiringCode");
+        int init = pool.methodRef(superClass, "<init>", "()V");
+        int codeName = pool.utf8("Code");
+
+        Code constructor = new Code(pool);
+        constructor.op(ALOAD_0);
+        constructor.op(INVOKESPECIAL);
+        constructor.u2(init);
+        constructor.op(RETURN);
+
+        Code condition = condition(nets, new Code(pool));
+        Code actIn = act(nets, new Code(pool), true);
+        Code actOut = act(nets, new Code(pool), false);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(49);
+        int[] methodName = {pool.utf8("<init>"), pool.utf8("condition"), pool.utf8("actIn"), pool.utf8("actOut")};
+        int[] methodType = {pool.utf8("()V"), pool.utf8("(I[I)Z"), pool.utf8("(I[I[I)V"), pool.utf8("(I[I[I)V")};
+        pool.write(out);
+        out.writeShort(0x0031); // public final super
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(face);
+        out.writeShort(0); // fields
+        Code[] methods = {constructor, condition, actIn, actOut};
+        int[] maxLocals = {1, 3, 5, 5};
+        out.writeShort(methods.length);
+        for (int i = 0; i < methods.length; i++) {
+            out.writeShort(0x0001); // public
+            out.writeShort(methodName[i]);
+            out.writeShort(methodType[i]);
+            out.writeShort(1);
+            methods[i].write(out, codeName, 6, maxLocals[i]);
+        }
+        out.writeShort(0); // attributes
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * boolean condition(int j, int[] marks)
+     */
+    private static Code condition(List<CompiledNet> nets, Code c) {
+        c.op(ILOAD_1);
+        int[] branch = c.tableSwitch(numT(nets));
+        int i = 0;
+        for (CompiledNet net : nets) {
+            for (int j = 0; j < net.numT; j++) {
+                c.caseHere(branch, i++);
+                condition(net, j, c);
+            }
+        }
+        c.defaultHere(branch);
+        c.op(ICONST_0);
+        c.op(IRETURN);
+        return c;
+    }
+
+    // if (marks[place] < quant) for some input arc return false else return true
+    private static void condition(CompiledNet net, int j, Code c) {
+        int[] jumps = new int[net.inStart[j + 1] - net.inStart[j] + net.infStart[j + 1] - net.infStart[j]];
+        int n = 0;
+        for (int k = net.inStart[j]; k < net.inStart[j + 1]; k++) {
+            jumps[n++] = check(c, net.inPlace[k], net.inQuant[k]);
+        }
+        for (int k = net.infStart[j]; k < net.infStart[j + 1]; k++) {
+            jumps[n++] = check(c, net.infPlace[k], net.infQuant[k]);
+        }
+        c.op(ICONST_1);
+        c.op(IRETURN);
+        for (int jump : jumps) {
+            c.jumpHere(jump);
+        }
+        c.op(ICONST_0);
+        c.op(IRETURN);
+    }
+
+    private static int numT(List<CompiledNet> nets) {
+        int numT = 0;
+        for (CompiledNet net : nets) {
+            numT += net.numT;
+        }
+        return numT;
+    }
+
+    // if (marks[place] < quant) goto false
+    private static int check(Code c, int place, int quant) {
+        c.op(ALOAD_2);
+        c.pushInt(place);
+        c.op(IALOAD);
+        c.pushInt(quant);
+        return c.jump(IF_ICMPLT);
+    }
+
+    /**
+     * void actIn(int j, int[] marks, int[] observedMin) or void actOut(int j,
+     * int[] marks, int[] observedMax)
+     */
+    private static Code act(List<CompiledNet> nets, Code c, boolean input) {
+        c.op(ILOAD_1);
+        int[] branch = c.tableSwitch(numT(nets));
+        int i = 0;
+        for (CompiledNet net : nets) {
+            for (int j = 0; j < net.numT; j++) {
+                c.caseHere(branch, i++);
+                if (input) {
+                    act(c, net.inStart, net.inPlace, net.inQuant, j, ISUB, IF_ICMPLE);
+                } else {
+                    act(c, net.outStart, net.outPlace, net.outQuant, j, IADD, IF_ICMPGE);
+                }
+                c.op(RETURN);
+            }
+        }
+        c.defaultHere(branch);
+        c.op(RETURN);
+        return c;
+    }
+
+    // the input or output of markers for each arc of transition j
+    private static void act(Code c, int[] start, int[] place, int[] quant, int j, int operation, int skip) {
+        for (int k = start[j]; k < start[j + 1]; k++) {
+            // m = marks[p] -+ quant; marks[p] = m;
+            c.op(ALOAD_2);
+            c.pushInt(place[k]);
+            c.op(ALOAD_2);
+            c.pushInt(place[k]);
+            c.op(IALOAD);
+            c.pushInt(quant[k]);
+            c.op(operation);
+            c.op(DUP);
+            c.op(ISTORE);
+            c.u1(M);
+            c.op(IASTORE);
+            // if (observed[p] > m) (or < m for output) observed[p] = m;
+            c.op(ALOAD_3);
+            c.pushInt(place[k]);
+            c.op(IALOAD);
+            c.op(ILOAD);
+            c.u1(M);
+            int jump = c.jump(skip);
+            c.op(ALOAD_3);
+            c.pushInt(place[k]);
+            c.op(ILOAD);
+            c.u1(M);
+            c.op(IASTORE);
+            c.jumpHere(jump);
+        }
+    }
+
+    /**
+     * The constant pool of class
+     */
+    private static final class Pool {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final HashMap<String, Integer> index = new HashMap<>();
+        private int count = 1;
+
+        private int add(String key, int tag, int a, int b, String s) {
+            Integer i = index.get(key);
+            if (i != null) {
+                return i;
+            }
+            try {
+                out.writeByte(tag);
+                switch (tag) {
+                    case 1:
+                        out.writeUTF(s);
+                        break;
+                    case 3:
+                        out.writeInt(a);
+                        break;
+                    case 7:
+                        out.writeShort(a);
+                        break;
+                    default:
+                        out.writeShort(a);
+                        out.writeShort(b);
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+            index.put(key, count);
+            return count++;
+        }
+
+        int utf8(String s) {
+            return add("U" + s, 1, 0, 0, s);
+        }
+
+        int integer(int v) {
+            return add("I" + v, 3, v, 0, null);
+        }
+
+        int classRef(String name) {
+            return add("C" + name, 7, utf8(name), 0, null);
+        }
+
+        int methodRef(int owner, String name, String type) {
+            int nameAndType = add("N" + name + type, 12, utf8(name), utf8(type), null);
+            return add("M" + owner + "." + name + type, 10, owner, nameAndType, null);
+        }
+
+        void write(DataOutputStream to) throws IOException {
+            if (count > 0xFFFF) {
+                throw new IllegalStateException("Too many constants");
+            }
+            to.writeShort(count);
+            out.flush();
+            bytes.writeTo(to);
+        }
+    }
+
+    /**
+     * The bytecode of method
+     */
+    private static final class Code {
+
+        private final Pool pool;
+        private byte[] code = new byte[256];
+        private int length;
+
+        Code(Pool pool) {
+            this.pool = pool;
+        }
+
+        void u1(int v) {
+            if (length == code.length) {
+                code = java.util.Arrays.copyOf(code, code.length * 2);
+            }
+            code[length++] = (byte) v;
+        }
+
+        void op(int opcode) {
+            u1(opcode);
+        }
+
+        void u2(int v) {
+            u1(v >>> 8);
+            u1(v);
+        }
+
+        void u4(int v) {
+            u2(v >>> 16);
+            u2(v);
+        }
+
+        private void put2(int at, int v) {
+            code[at] = (byte) (v >>> 8);
+            code[at + 1] = (byte) v;
+        }
+
+        private void put4(int at, int v) {
+            put2(at, v >>> 16);
+            put2(at + 2, v);
+        }
+
+        void pushInt(int v) {
+            if (v >= -1 && v <= 5) {
+                op(ICONST_0 + v);
+            } else if (v >= Byte.MIN_VALUE && v <= Byte.MAX_VALUE) {
+                op(BIPUSH);
+                u1(v);
+            } else if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) {
+                op(SIPUSH);
+                u2(v);
+            } else {
+                op(LDC_W);
+                u2(pool.integer(v));
+            }
+        }
+
+        /**
+         * @return the position of branch instruction to patch by jumpHere()
+         */
+        int jump(int opcode) {
+            int at = length;
+            op(opcode);
+            u2(0);
+            return at;
+        }
+
+        void jumpHere(int at) {
+            int offset = length - at;
+            if (offset > Short.MAX_VALUE) {
+                throw new IllegalStateException("Branch is too long");
+            }
+            put2(at + 1, offset);
+        }
+
+        /**
+         * Writes tableswitch for the cases from 0 to n - 1. For n = 0 the
+         * switch has one case that is never chosen.
+         *
+         * @return {position of instruction, position of default offset,
+         * quantity of cases}
+         */
+        int[] tableSwitch(int n) {
+            int at = length;
+            op(TABLESWITCH);
+            while (length % 4 != 0) {
+                u1(0);
+            }
+            int defaultAt = length;
+            u4(0);
+            u4(0);
+            u4(Math.max(n, 1) - 1);
+            for (int j = 0; j < Math.max(n, 1); j++) {
+                u4(0);
+            }
+            return new int[]{at, defaultAt, n};
+        }
+
+        void caseHere(int[] branch, int j) {
+            put4(branch[1] + 12 + 4 * j, length - branch[0]);
+        }
+
+        void defaultHere(int[] branch) {
+            put4(branch[1], length - branch[0]);
+            if (branch[2] == 0) { // the switch without cases goes to default
+                put4(branch[1] + 12, length - branch[0]);
+            }
+        }
+
+        void write(DataOutputStream out, int codeName, int maxStack, int maxLocals) throws IOException {
+            if (length > MAX_CODE_LENGTH) {
+                throw new IllegalStateException("Method is too large");
+            }
+            out.writeShort(codeName);
+            out.writeInt(12 + length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(length);
+            out.write(code, 0, length);
+            out.writeShort(0); // exceptions
+            out.writeShort(0); // attributes
+        }
+    }
+
+    /**
+     * The structure of compiled nets: the quantities of transitions and the
+     * arrays of arcs
+     */
+    private static final class Key {
+
+        private final int[] data;
+        private final int hash;
+
+        Key(List<CompiledNet> nets) {
+            int length = 0;
+            for (CompiledNet net : nets) {
+                length += 1 + 3 * (net.numT + 1) + 2 * (net.inPlace.length + net.infPlace.length + net.outPlace.length);
+            }
+            data = new int[length];
+            int i = 0;
+            for (CompiledNet net : nets) {
+                data[i++] = net.numT;
+                for (int[] a : new int[][]{net.inStart, net.infStart, net.outStart, net.inPlace, net.inQuant,
+                    net.infPlace, net.infQuant, net.outPlace, net.outQuant}) {
+                    System.arraycopy(a, 0, data, i, a.length);
+                    i += a.length;
+                }
+            }
+            hash = Arrays.hashCode(data);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && hash == ((Key) o).hash && Arrays.equals(data, ((Key) o).data);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Loader extends ClassLoader {
+
+        Loader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] b) {
+            return defineClass(name, b, 0, b.length);
+        }
+    }
+}
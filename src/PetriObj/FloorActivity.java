@@ -64,7 +64,6 @@ public class FloorActivity extends PetriSim {
 
         PetriT exitTransition = new PetriT(String.format("Exit%dFloor", floorNumber), 0.0);
         exitTransition.setPriority(10);
-        exitTransition.setMoments(true);
         d_T.add(exitTransition);
         d_In.add(new ArcIn(elevatorAvailableOnFloorPlace, exitTransition, 1));
         d_Out.add(new ArcOut(exitTransition, elevatorAvailableOnFloorPlace, 1));
@@ -98,21 +97,18 @@ public class FloorActivity extends PetriSim {
 
                 PetriT readyToMoveDownTransition = new PetriT(String.format("ReadyToMoveDown%dFloor", floorNumber), 0.0);
                 readyToMoveDownTransition.setProbability(getProbabilityToMoveDownProbabilityForFloor(floorNumber, choose1FloorProbability, chooseOtherFloorProbability));
-                readyToMoveDownTransition.setMoments(true);
                 d_T.add(readyToMoveDownTransition);
                 d_In.add(new ArcIn(readyToLeavePlace, readyToMoveDownTransition, 1));
                 d_Out.add(new ArcOut(readyToMoveDownTransition, passengerWaitingOnThisFloorToMoveDown, 1));
                 d_Out.add(new ArcOut(readyToMoveDownTransition, passengerWaitingOnThisFloor, 1));
 
                 PetriT readyToMoveUpTransition = new PetriT(String.format("ReadyToMoveUp%dFloor", floorNumber), 0.0);
-                readyToMoveUpTransition.setMoments(true);
                 readyToMoveUpTransition.setProbability(getProbabilityToMoveUpProbabilityForFloor(floorNumber, chooseOtherFloorProbability));
                 d_T.add(readyToMoveUpTransition);
                 d_In.add(new ArcIn(readyToLeavePlace, readyToMoveUpTransition, 1));
                 d_Out.add(new ArcOut(readyToMoveUpTransition, passengerWaitingOnThisFloorToMoveUp, 1));
                 d_Out.add(new ArcOut(readyToMoveUpTransition, passengerWaitingOnThisFloor, 1));
             } else {
-                spendTimeTransition.setMoments(true);
                 d_Out.add(new ArcOut(spendTimeTransition, passengerWaitingOnThisFloorToMoveDown, 1));
                 d_Out.add(new ArcOut(spendTimeTransition, passengerWaitingOnThisFloor, 1));
             }
@@ -122,7 +118,6 @@ public class FloorActivity extends PetriSim {
 
             PetriT arriveTransition = new PetriT(String.format("Arrive%dFloor", floorNumber), firstFloorArrivalFrequency);
             arriveTransition.setDistribution("exp", arriveTransition.getTimeServ());
-            arriveTransition.setMoments(true);
             d_T.add(arriveTransition);
 
             d_In.add(new ArcIn(toArrivePlace, arriveTransition, 1));
@@ -136,7 +131,6 @@ public class FloorActivity extends PetriSim {
         if (!isLastFloor) {
             PetriT enterToMoveUpTransition = new PetriT(String.format("EnterToMoveUp%dFloor", floorNumber), 0);
             enterToMoveUpTransition.setPriority(5);
-            enterToMoveUpTransition.setMoments(true);
             d_T.add(enterToMoveUpTransition);
             d_In.add(new ArcIn(elevatorAvailableOnFloorPlace, enterToMoveUpTransition, 1));
             d_In.add(new ArcIn(availablePlacesPlace, enterToMoveUpTransition, 1));
@@ -162,7 +156,6 @@ public class FloorActivity extends PetriSim {
         if (!isFirstFloor) {
             PetriT enterToMoveDownTransition = new PetriT(String.format("EnterToMoveDown%dFloor", floorNumber), 0);
             enterToMoveDownTransition.setPriority(5);
-            enterToMoveDownTransition.setMoments(true);
             d_T.add(enterToMoveDownTransition);
             d_In.add(new ArcIn(elevatorAvailableOnFloorPlace, enterToMoveDownTransition, 1));
             d_In.add(new ArcIn(availablePlacesPlace, enterToMoveDownTransition, 1));
@@ -73,7 +73,6 @@ public class FloorDecisionMaker extends PetriSim {
             d_P.add(moveDownPlace);
             PetriT moveDownTransition = new PetriT(String.format("Move%dTo%d", floorNumber, floorNumber - 1), floorMoveTime);
             moveDownTransition.setPriority(2);
-            moveDownTransition.setMoments(true);
             d_T.add(moveDownTransition);
             d_In.add(new ArcIn(moveDownPlace, moveDownTransition, 1));
             d_In.add(new ArcIn(elevatorAvailableOnFloorPlace, moveDownTransition, 1));
@@ -114,7 +113,6 @@ public class FloorDecisionMaker extends PetriSim {
             d_P.add(moveUpPlace);
             PetriT moveUpTransition = new PetriT(String.format("Move%dTo%d", floorNumber, floorNumber + 1), floorMoveTime);
             moveUpTransition.setPriority(2);
-            moveUpTransition.setMoments(true);
             d_T.add(moveUpTransition);
             d_In.add(new ArcIn(moveUpPlace, moveUpTransition, 1));
             d_In.add(new ArcIn(elevatorAvailableOnFloorPlace, moveUpTransition, 1));
@@ -1,6 +1,7 @@
 package PetriObj;
 
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,6 +18,34 @@ import java.util.logging.Logger;
  */
 public  class FunRand {
 
+    private static final ThreadLocal<Random> stream = new ThreadLocal<>(); // the generator bound to the thread
+
+    /**
+     * Returns the generator of random numbers used by the current thread. If no
+     * generator has been bound by method setRandom(), the generator of
+     * ThreadLocalRandom is used, so the threads do not share the generator.
+     *
+     * @return the generator of random numbers of the current thread
+     */
+    public static Random getRandom() {
+        Random r = stream.get();
+        return r != null ? r : ThreadLocalRandom.current();
+    }
+
+    /**
+     * Binds the generator of random numbers to the current thread. It is used
+     * to give each replication of simulation its own stream of random numbers.
+     *
+     * @param r the generator or null to unbind the generator
+     */
+    public static void setRandom(Random r) {
+        if (r == null) {
+            stream.remove();
+        } else {
+            stream.set(r);
+        }
+    }
+
 
     /**
      * Generates random value according to an exponential distribution
@@ -25,9 +54,20 @@ public  class FunRand {
      * @return a random value according to an exponential distribution
      */
     public static double exp(double timeMean) {
+        return exp(getRandom(), timeMean);
+    }
+
+    /**
+     * Generates random value according to an exponential distribution
+     *
+     * @param r the generator of random numbers
+     * @param timeMean the mean value
+     * @return a random value according to an exponential distribution
+     */
+    public static double exp(Random r, double timeMean) {
         double a = 0;
         while (a == 0) {
-            a = Math.random();
+            a = r.nextDouble();
         }
         a = -timeMean * Math.log(a);
 
@@ -43,9 +83,22 @@ public  class FunRand {
      * @throws PetriObj.ExceptionInvalidTimeDelay the negative value of the delay time is excluded
      */
     public static double unif(double timeMin, double timeMax) throws ExceptionInvalidTimeDelay {
+        return unif(getRandom(), timeMin, timeMax);
+    }
+
+    /**
+     * Generates random value according to a uniform distribution
+     *
+     * @param r the generator of random numbers
+     * @param timeMin the minimum value of random value
+     * @param timeMax the maximum value of random value
+     * @return a random value according to a uniform distribution
+     * @throws PetriObj.ExceptionInvalidTimeDelay the negative value of the delay time is excluded
+     */
+    public static double unif(Random r, double timeMin, double timeMax) throws ExceptionInvalidTimeDelay {
         double a = 0;
         while (a == 0) {
-            a = Math.random();
+            a = r.nextDouble();
         }
         a = timeMin + a * (timeMax - timeMin);
         if (a<0)
@@ -62,8 +115,20 @@ public  class FunRand {
      * @throws PetriObj.ExceptionInvalidTimeDelay the negative value of the delay time is excluded
      */
     public static double norm(double timeMean, double timeDeviation) throws ExceptionInvalidTimeDelay {
+        return norm(getRandom(), timeMean, timeDeviation);
+    }
+
+    /**
+     * Generates random value according to a normal (Gauss) distribution
+     *
+     * @param r the generator of random numbers
+     * @param timeMean the mean of random value
+     * @param timeDeviation the deviation of random value
+     * @return a random value according to a normal (Gauss) distribution
+     * @throws PetriObj.ExceptionInvalidTimeDelay the negative value of the delay time is excluded
+     */
+    public static double norm(Random r, double timeMean, double timeDeviation) throws ExceptionInvalidTimeDelay {
         double a;
-        Random r = new Random();
         a = timeMean + timeDeviation * r.nextGaussian();
         if (a<0)
             throw new ExceptionInvalidTimeDelay("Negative time delay is generatated: Check parameters for time delay.");
@@ -79,11 +144,25 @@ public  class FunRand {
      * @throws java.lang.Exception if maximum of y array is bigger than 1.0
      */
     public static double empiric(double[] x, double[] y) throws Exception {
+        return empiric(getRandom(), x, y);
+    }
+
+    /**
+     * Generates random value according to the empiric distribution
+     * determined by the sequence of points (xi,yi), 
+     * where yi are from interval (0;1)
+     * @param rand the generator of random numbers
+     * @param x the array of x coordinates of points
+     * @param y the array of y coordinates of points
+     * @return a random value according to a empiric distribution
+     * @throws java.lang.Exception if maximum of y array is bigger than 1.0
+     */
+    public static double empiric(Random rand, double[] x, double[] y) throws Exception {
         int n = x.length;
         if(y[n-1]!=1.0)
              throw new Exception("Illegal array of points for empiric distribution");
         double a;
-        double r = Math.random();
+        double r = rand.nextDouble();
        
         for(int i=1;i<n-1;i++){
            if(r>y[i-1]&&r<=y[i]){
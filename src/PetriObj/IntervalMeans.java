@@ -0,0 +1,122 @@
+package PetriObj;
+
+import java.util.Arrays;
+
+/**
+ * This class calculates the time-weighted means of state metrics over the
+ * successive intervals of equal length during the simulation. The model
+ * passes each time interval during which its state did not change, the
+ * intervals are split at the bounds of observation intervals, and the
+ * subclass receives the means of metrics when each observation interval is
+ * finished.<br>
+ * The observation is used by the model when it is attached to the model (see
+ * PetriObjModel.setTruncation() and PetriObjModel.setStoppingRule()).
+ */
+public abstract class IntervalMeans {
+
+    private final StateMetric[] metrics;
+    private final double interval;
+    private final double[] sums; // the integrals of metrics over the current interval
+    private final double[] means;
+    private double origin; // the start of the first interval
+    private long finished; // the quantity of finished intervals
+
+    /**
+     * @param interval the length of observation interval
+     * @param metrics the observed metrics
+     */
+    protected IntervalMeans(double interval, StateMetric... metrics) {
+        if (!(interval > 0)) {
+            throw new IllegalArgumentException("The interval must be positive: " + interval);
+        }
+        if (metrics.length == 0) {
+            throw new IllegalArgumentException("No metric is observed");
+        }
+        this.interval = interval;
+        this.metrics = metrics.clone();
+        sums = new double[metrics.length];
+        means = new double[metrics.length];
+    }
+
+    /**
+     * Starts the observation anew from given moment
+     *
+     * @param time the start of the first interval
+     */
+    public void start(double time) {
+        origin = time;
+        finished = 0;
+        Arrays.fill(sums, 0);
+    }
+
+    /**
+     * Adds the current values of metrics observed from one moment to other.
+     * The state of model must not change between these moments.
+     *
+     * @param from the start of time interval
+     * @param to the end of time interval
+     */
+    public void observe(double from, double to) {
+        double t = Math.max(from, origin);
+        while (t < to) {
+            double end = origin + (finished + 1) * interval;
+            double dt = Math.min(to, end) - t;
+            for (int i = 0; i < metrics.length; i++) {
+                sums[i] += metrics[i].getValue() * dt;
+            }
+            if (to < end) {
+                break;
+            }
+            for (int i = 0; i < metrics.length; i++) {
+                means[i] = sums[i] / interval;
+                sums[i] = 0;
+            }
+            finished++;
+            t = end;
+            intervalFinished(means, end);
+        }
+    }
+
+    /**
+     * Is called when the observation interval is finished
+     *
+     * @param means the means of metrics over the interval, the array is reused
+     * @param end the end of interval
+     */
+    protected abstract void intervalFinished(double[] means, double end);
+
+    /**
+     * @return the observed metrics
+     */
+    public StateMetric[] getMetrics() {
+        return metrics.clone();
+    }
+
+    /**
+     * @return the quantity of metrics
+     */
+    public int getMetricCount() {
+        return metrics.length;
+    }
+
+    /**
+     * @return the length of observation interval
+     */
+    public double getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the start of the first interval
+     */
+    public double getOrigin() {
+        return origin;
+    }
+
+    /**
+     * @return the quantity of finished intervals
+     */
+    public long getFinished() {
+        return finished;
+    }
+}
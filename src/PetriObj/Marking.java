@@ -0,0 +1,229 @@
+package PetriObj;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This class keeps the marking of places in the array of int values. The
+ * place that is bound to the marking becomes the view of its slot: the
+ * methods getMark(), setMark(), increaseMark() and decreaseMark() of place
+ * work with the array. The shared place of several Petri-objects has one slot,
+ * so the compiled Petri nets of these objects change the same value.<br>
+ * The place can be bound to other marking later, then the compiled nets that
+ * use the old marking are not valid (the version of old marking is changed).
+ * <br>
+ * The marking remembers the slots in which the quantity of markers has been
+ * increased, so the model can find the Petri-objects whose transitions could
+ * become enabled. The sets of enabled transitions (see EnabledTransitions)
+ * that watch the slot are told about the increase too.
+ */
+public class Marking implements Serializable {
+
+    int[] marks; // the quantities of markers
+    int[] observedMin;
+    int[] observedMax;
+    private int size;
+    private int version; // is increased when a place leaves this marking
+    private boolean[] isChanged; // the quantity of markers in slot has been increased
+    private int[] changed; // the increased slots in order of the first increase
+    private int changedCount;
+    private transient EnabledTransitions[][] watchers; // slot -> the sets of enabled transitions that read the place
+    private transient int[][] watcherPlaces; // slot -> the indices of place in the nets of these sets
+
+    public Marking() {
+        this(16);
+    }
+
+    /**
+     * @param capacity the initial quantity of slots
+     */
+    public Marking(int capacity) {
+        capacity = Math.max(capacity, 1);
+        marks = new int[capacity];
+        observedMin = new int[capacity];
+        observedMax = new int[capacity];
+        isChanged = new boolean[capacity];
+        changed = new int[capacity];
+    }
+
+    /**
+     * Binds the place to this marking. If the place is already bound to this
+     * marking its slot is returned, otherwise the new slot is added and the
+     * current quantity of markers and the observed minimum and maximum of
+     * place are copied into it.
+     *
+     * @param place the place
+     * @return the slot of place
+     */
+    public int bind(PetriP place) {
+        if (place.getMarking() == this) {
+            return place.getSlot();
+        }
+        if (place.getMarking() != null) {
+            place.getMarking().version++;
+        }
+        if (size == marks.length) {
+            int capacity = marks.length * 2;
+            marks = Arrays.copyOf(marks, capacity);
+            observedMin = Arrays.copyOf(observedMin, capacity);
+            observedMax = Arrays.copyOf(observedMax, capacity);
+            isChanged = Arrays.copyOf(isChanged, capacity);
+            changed = Arrays.copyOf(changed, capacity);
+            if (watchers != null) {
+                watchers = Arrays.copyOf(watchers, capacity);
+                watcherPlaces = Arrays.copyOf(watcherPlaces, capacity);
+            }
+        }
+        int slot = size++;
+        marks[slot] = place.getMark();
+        observedMin[slot] = place.getObservedMin();
+        observedMax[slot] = place.getObservedMax();
+        place.bind(this, slot);
+        return slot;
+    }
+
+    /**
+     * @return the version of marking, it is changed when a place bound to
+     * this marking is bound to other marking
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the quantity of slots
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param slot the slot of place
+     * @return the quantity of markers
+     */
+    public int get(int slot) {
+        return marks[slot];
+    }
+
+    /**
+     * @param slot the slot of place
+     * @param mark the quantity of markers
+     */
+    public void set(int slot, int mark) {
+        if (mark > marks[slot]) {
+            touch(slot);
+        }
+        marks[slot] = mark;
+        if (observedMax[slot] < mark) {
+            observedMax[slot] = mark;
+        }
+        if (observedMin[slot] > mark) {
+            observedMin[slot] = mark;
+        }
+    }
+
+    /**
+     * @param slot the slot of place
+     * @param a the value on which the quantity of markers is changed
+     */
+    public void add(int slot, int a) {
+        set(slot, marks[slot] + a);
+    }
+
+    /**
+     * @return the copy of quantities of markers in slot order
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(marks, size);
+    }
+
+    /**
+     * Remembers that the quantity of markers in slot has been increased
+     *
+     * @param slot the slot of place
+     */
+    void touch(int slot) {
+        if (!isChanged[slot]) {
+            isChanged[slot] = true;
+            changed[changedCount++] = slot;
+        }
+        if (watchers != null && watchers[slot] != null) {
+            EnabledTransitions[] sets = watchers[slot];
+            int[] places = watcherPlaces[slot];
+            for (int i = 0; i < sets.length; i++) {
+                sets[i].placeIncreased(places[i]);
+            }
+        }
+    }
+
+    /**
+     * Tells the set of enabled transitions about each increase of the
+     * quantity of markers in slot
+     *
+     * @param slot the slot of place
+     * @param set the set of enabled transitions
+     * @param place the index of place in the array of places of the net of set
+     */
+    void watch(int slot, EnabledTransitions set, int place) {
+        if (watchers == null) {
+            watchers = new EnabledTransitions[marks.length][];
+            watcherPlaces = new int[marks.length][];
+        }
+        EnabledTransitions[] sets = watchers[slot];
+        int n = sets == null ? 0 : sets.length;
+        watchers[slot] = sets = sets == null ? new EnabledTransitions[1] : Arrays.copyOf(sets, n + 1);
+        watcherPlaces[slot] = watcherPlaces[slot] == null ? new int[1] : Arrays.copyOf(watcherPlaces[slot], n + 1);
+        sets[n] = set;
+        watcherPlaces[slot][n] = place;
+    }
+
+    /**
+     * Stops telling the set of enabled transitions about the increases in
+     * slot
+     *
+     * @param slot the slot of place
+     * @param set the set of enabled transitions
+     */
+    void unwatch(int slot, EnabledTransitions set) {
+        if (watchers == null || watchers[slot] == null) {
+            return;
+        }
+        EnabledTransitions[] sets = watchers[slot];
+        int[] places = watcherPlaces[slot];
+        int n = 0;
+        for (int i = 0; i < sets.length; i++) {
+            if (sets[i] != set) {
+                sets[n] = sets[i];
+                places[n++] = places[i];
+            }
+        }
+        watchers[slot] = n == 0 ? null : Arrays.copyOf(sets, n);
+        watcherPlaces[slot] = n == 0 ? null : Arrays.copyOf(places, n);
+    }
+
+    /**
+     * @return the quantity of slots in which the quantity of markers has been
+     * increased after the last call of clearChanged()
+     */
+    public int getChangedCount() {
+        return changedCount;
+    }
+
+    /**
+     * @param i the index from 0 to getChangedCount() - 1
+     * @return the slot in which the quantity of markers has been increased
+     */
+    public int getChanged(int i) {
+        return changed[i];
+    }
+
+    /**
+     * Forgets the increased slots
+     */
+    public void clearChanged() {
+        for (int i = 0; i < changedCount; i++) {
+            isChanged[changed[i]] = false;
+        }
+        changedCount = 0;
+    }
+}
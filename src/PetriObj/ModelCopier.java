@@ -0,0 +1,263 @@
+package PetriObj;
+
+import java.util.IdentityHashMap;
+
+/**
+ * This class makes the deep copy of Petri-object model. Each object of the
+ * original model is copied once: the identity map keeps the copies, so the
+ * place that is shared by several Petri-objects remains shared in the copy
+ * and the array that is used by several objects remains one array.<br>
+ * The copies have the same classes as the originals (the subclasses of
+ * PetriObjModel, PetriSim and PetriP are kept) and the same state: the
+ * quantities of markers, the buffers and the moments of markers output of
+ * transitions, the priorities, the statistics, the current time and the state
+ * of generator of random numbers. The compiled nets, the event calendar, the
+ * trace listener and the event sink are not copied, they are created at the
+ * start of simulation.<br>
+ * The subclass of PetriObjModel or PetriSim that has its own references to
+ * the elements of model overrides copyFields() and replaces them with their
+ * copies from this copier.
+ */
+public class ModelCopier {
+
+    private final IdentityHashMap<Object, Object> copies;
+    private final boolean shareStructure;
+
+    public ModelCopier() {
+        this(64);
+    }
+
+    /**
+     * @param expectedSize the expected quantity of copied objects
+     */
+    public ModelCopier(int expectedSize) {
+        this(expectedSize, false);
+    }
+
+    /**
+     * @param expectedSize the expected quantity of copied objects
+     * @param shareStructure if true the arcs of Petri nets are not copied,
+     * the copies use the arcs of original (the original must not change them)
+     * and the lists of arcs of transitions are copied only before the change
+     */
+    public ModelCopier(int expectedSize, boolean shareStructure) {
+        copies = new IdentityHashMap<>(expectedSize);
+        this.shareStructure = shareStructure;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T find(T original) {
+        return (T) copies.get(original);
+    }
+
+    /**
+     * @param <M> the class of model
+     * @param model Petri-object model
+     * @return the copy of model
+     */
+    @SuppressWarnings("unchecked")
+    public <M extends PetriObjModel> M copy(M model) {
+        if (model == null) {
+            return null;
+        }
+        M copy = find(model);
+        if (copy == null) {
+            copy = (M) model.shallowCopy();
+            copies.put(model, copy);
+            copy.copyFields(this);
+        }
+        return copy;
+    }
+
+    /**
+     * @param sim Petri-object
+     * @return the copy of Petri-object
+     */
+    public PetriSim copy(PetriSim sim) {
+        if (sim == null) {
+            return null;
+        }
+        PetriSim copy = find(sim);
+        if (copy == null) {
+            copy = sim.shallowCopy();
+            copies.put(sim, copy);
+            copy.copyFields(this);
+        }
+        return copy;
+    }
+
+    /**
+     * @param net Petri net
+     * @return the copy of Petri net
+     */
+    public PetriNet copy(PetriNet net) {
+        if (net == null) {
+            return null;
+        }
+        PetriNet copy = find(net);
+        if (copy == null) {
+            copy = net.shallowCopy();
+            copies.put(net, copy);
+            copy.copyFields(this);
+        }
+        return copy;
+    }
+
+    /**
+     * @param place the place
+     * @return the copy of place
+     */
+    public PetriP copy(PetriP place) {
+        if (place == null) {
+            return null;
+        }
+        PetriP copy = find(place);
+        if (copy == null) {
+            copy = place.shallowCopy();
+            copies.put(place, copy);
+            copy.copyFields();
+        }
+        return copy;
+    }
+
+    /**
+     * @param transition the transition
+     * @return the copy of transition
+     */
+    public PetriT copy(PetriT transition) {
+        if (transition == null) {
+            return null;
+        }
+        PetriT copy = find(transition);
+        if (copy == null) {
+            copy = transition.shallowCopy();
+            copies.put(transition, copy);
+            copy.copyFields(shareStructure);
+        }
+        return copy;
+    }
+
+    /**
+     * @param arc the arc
+     * @return the copy of arc
+     */
+    public ArcIn copy(ArcIn arc) {
+        if (arc == null || shareStructure) {
+            return arc;
+        }
+        ArcIn copy = find(arc);
+        if (copy == null) {
+            copy = arc.shallowCopy();
+            copies.put(arc, copy);
+        }
+        return copy;
+    }
+
+    /**
+     * @param arc the arc
+     * @return the copy of arc
+     */
+    public ArcOut copy(ArcOut arc) {
+        if (arc == null || shareStructure) {
+            return arc;
+        }
+        ArcOut copy = find(arc);
+        if (copy == null) {
+            copy = arc.shallowCopy();
+            copies.put(arc, copy);
+        }
+        return copy;
+    }
+
+    /**
+     * @param timeState the time state
+     * @return the copy of time state
+     */
+    public StateTime copy(StateTime timeState) {
+        if (timeState == null) {
+            return null;
+        }
+        StateTime copy = find(timeState);
+        if (copy == null) {
+            copy = new StateTime(timeState.getCurrentTime(), timeState.getSimulationTime());
+            copies.put(timeState, copy);
+        }
+        return copy;
+    }
+
+    /**
+     * @param places array of places
+     * @return the array of copies of places
+     */
+    public PetriP[] copy(PetriP[] places) {
+        if (places == null) {
+            return null;
+        }
+        PetriP[] copy = find(places);
+        if (copy == null) {
+            copy = new PetriP[places.length];
+            copies.put(places, copy);
+            for (int i = 0; i < places.length; i++) {
+                copy[i] = copy(places[i]);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * @param transitions array of transitions
+     * @return the array of copies of transitions
+     */
+    public PetriT[] copy(PetriT[] transitions) {
+        if (transitions == null) {
+            return null;
+        }
+        PetriT[] copy = find(transitions);
+        if (copy == null) {
+            copy = new PetriT[transitions.length];
+            copies.put(transitions, copy);
+            for (int i = 0; i < transitions.length; i++) {
+                copy[i] = copy(transitions[i]);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * @param arcs array of arcs
+     * @return the array of copies of arcs
+     */
+    public ArcIn[] copy(ArcIn[] arcs) {
+        if (arcs == null || shareStructure) {
+            return arcs;
+        }
+        ArcIn[] copy = find(arcs);
+        if (copy == null) {
+            copy = new ArcIn[arcs.length];
+            copies.put(arcs, copy);
+            for (int i = 0; i < arcs.length; i++) {
+                copy[i] = copy(arcs[i]);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * @param arcs array of arcs
+     * @return the array of copies of arcs
+     */
+    public ArcOut[] copy(ArcOut[] arcs) {
+        if (arcs == null || shareStructure) {
+            return arcs;
+        }
+        ArcOut[] copy = find(arcs);
+        if (copy == null) {
+            copy = new ArcOut[arcs.length];
+            copies.put(arcs, copy);
+            for (int i = 0; i < arcs.length; i++) {
+                copy[i] = copy(arcs[i]);
+            }
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,167 @@
+package PetriObj;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class is the generator of random numbers owned by Petri-object model.
+ * <br>
+ * The generator uses the SplitMix64 algorithm (the same as
+ * java.util.SplittableRandom): it is fast, is not synchronized and gives
+ * independent streams by method split(). It extends java.util.Random, so it
+ * can be passed wherever Random is expected. The generator with given seed
+ * always produces the same sequence, so the simulation run can be reproduced.
+ * <br>
+ * The generator is not thread-safe: each model (replication) must have its
+ * own generator.
+ */
+public class ModelRandom extends Random {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+    private long gamma; // odd increment of state
+
+    /**
+     * Constructs the generator with unpredictable seed
+     */
+    public ModelRandom() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @param seed the seed of generator
+     */
+    public ModelRandom(long seed) {
+        super(seed); // calls setSeed()
+    }
+
+    private ModelRandom(long state, long gamma) {
+        super(0L);
+        this.state = state;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Sets the seed, the generator starts the sequence anew
+     *
+     * @param seed the seed of generator
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed); // resets the cached Gaussian value
+        state = mix64(seed);
+        gamma = GOLDEN_GAMMA;
+    }
+
+    /**
+     * Constructs the new generator whose stream is independent of the stream
+     * of this generator. The state of this generator is advanced, so the
+     * sequence of split() calls is reproducible.
+     *
+     * @return the new generator
+     */
+    public ModelRandom split() {
+        return new ModelRandom(nextLong(), mixGamma(nextSeed()));
+    }
+
+    /**
+     * Constructs the generator with the same state as this generator, so it
+     * gives the same sequence (the cached value of nextGaussian() is not
+     * copied)
+     *
+     * @return the copy of generator
+     */
+    public ModelRandom copy() {
+        return new ModelRandom(state, gamma);
+    }
+
+    /**
+     * Constructs the generator of the substream with given key. The
+     * substream is determined by the current state of this generator and the
+     * key only, the state of this generator is not advanced. So the generators
+     * with the same state give the same substream for the same key, and the
+     * substreams of different keys are independent (see
+     * PetriObjModel.setTransitionStreams()).
+     *
+     * @param key the key of substream, for example the name of element
+     * @return the new generator
+     */
+    public ModelRandom substream(String key) {
+        long h = gamma;
+        for (int i = 0; i < key.length(); i++) {
+            h = mix64(h + key.charAt(i) + GOLDEN_GAMMA);
+        }
+        return new ModelRandom(mix64(state ^ h), mixGamma(h + state));
+    }
+
+    /**
+     * Writes the state of generator (see PetriObjModel.snapshot())
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeLong(state);
+        out.writeLong(gamma);
+    }
+
+    /**
+     * Replaces the state of generator with the state written by writeState(),
+     * so the generator continues the sequence of the written one
+     *
+     * @param in the input
+     * @throws IOException if the input fails
+     */
+    synchronized void readState(DataInput in) throws IOException {
+        super.setSeed(0L); // resets the cached Gaussian value
+        state = in.readLong();
+        gamma = in.readLong();
+    }
+
+    private long nextSeed() {
+        return state += gamma;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    @Override
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
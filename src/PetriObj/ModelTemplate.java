@@ -0,0 +1,76 @@
+package PetriObj;
+
+import java.util.ArrayList;
+
+/**
+ * This class is the template of Petri-object model for many replications.
+ * The template keeps its own copy of model (the prototype) which is never
+ * simulated. Each instance is the copy of prototype that shares the
+ * structure with it: the arcs of Petri nets, the lists of arcs of
+ * transitions and the names and parameters of elements are not copied, the
+ * instance has its own Petri-objects, places and transitions with the
+ * marking, the buffers, the statistics and the generator of random numbers.
+ * So the instance is created without the construction of Petri nets and its
+ * memory is determined by the state of model.<br>
+ * The lists of arcs of transition are copied on the first change (copy on
+ * write), so the change of structure of one instance does not change the
+ * template and other instances. The instances can be created concurrently.
+ *
+ * @param <M> the class of model
+ */
+public class ModelTemplate<M extends PetriObjModel> implements ReplicationRunner.ModelFactory {
+
+    private final M prototype;
+    private final int size; // the expected quantity of copied objects
+
+    /**
+     * Constructs the template from the current state of model. The later
+     * changes of model do not change the template.
+     *
+     * @param model Petri-object model
+     */
+    public ModelTemplate(M model) {
+        int elements = 16;
+        for (PetriSim sim : model.getListObj()) {
+            elements += 8 + sim.getNet().getListP().length + sim.getNet().getListT().length;
+        }
+        size = elements;
+        prototype = new ModelCopier(4 * elements).copy(model);
+        for (PetriSim sim : prototype.getListObj()) {
+            for (PetriT transition : sim.getNet().getListT()) {
+                transition.shareArcs();
+            }
+        }
+    }
+
+    /**
+     * @return the new instance of model
+     */
+    public M instance() {
+        return new ModelCopier(size, true).copy(prototype);
+    }
+
+    /**
+     * @param count the quantity of instances
+     * @return the list of new instances of model
+     */
+    public ArrayList<M> instances(int count) {
+        ArrayList<M> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(instance());
+        }
+        return list;
+    }
+
+    /**
+     * Creates the instance for the replication, so the template can be used
+     * as the factory of ReplicationRunner
+     *
+     * @param replication the number of replication
+     * @return the new instance of model
+     */
+    @Override
+    public PetriObjModel create(int replication) {
+        return instance();
+    }
+}
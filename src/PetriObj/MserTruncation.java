@@ -0,0 +1,172 @@
+package PetriObj;
+
+import java.util.Arrays;
+
+/**
+ * This class finds the end of initial transient period of simulation run by
+ * MSER-5 rule (Marginal Standard Error Rule with batches of five
+ * observations).<br>
+ * The observations are the time-weighted means of state metrics over the
+ * intervals of equal length (see IntervalMeans), each five observations give
+ * one batch mean. For the batch means Y(1), ..., Y(n) the truncation point
+ * d minimizes the statistic
+ * <pre>
+ *     MSER(d) = sum (Y(i) - mean(d))^2 / (n - d)^2,  i = d + 1, ..., n,
+ * </pre>
+ * where mean(d) is the mean value of the batch means after d. The point is
+ * searched in the first half of the batches (the statistic of few last
+ * batches is not reliable) and is accepted if it is not at the end of the
+ * first half, otherwise the run is still too short and the rule is checked
+ * again after the next batch. For
+ * several metrics the point is accepted when it is accepted for each of them.
+ * <br>
+ * The truncation is found during the run, so the model removes its
+ * statistics at the moment when the point is accepted (see
+ * PetriObjModel.setTruncation()). This moment is not earlier than the
+ * truncation point, the data of the transient period are not used.
+ */
+public class MserTruncation extends IntervalMeans {
+
+    /**
+     * The quantity of observations in one batch
+     */
+    public static final int BATCH = 5;
+
+    private final int minBatches;
+    private final double[] batchSums; // the sums of observations of the current batch
+    private int inBatch; // the quantity of observations in the current batch
+    private double[][] batchMeans; // [metric][batch]
+    private int batches;
+    private double truncation = Double.NaN; // the accepted truncation point
+    private double truncatedAt = Double.NaN; // the moment when the point has been accepted
+
+    /**
+     * @param interval the length of observation interval
+     * @param metrics the observed metrics
+     */
+    public MserTruncation(double interval, StateMetric... metrics) {
+        this(interval, 10, metrics);
+    }
+
+    /**
+     * @param interval the length of observation interval
+     * @param minBatches the least quantity of batches for which the rule is
+     * checked
+     * @param metrics the observed metrics
+     */
+    public MserTruncation(double interval, int minBatches, StateMetric... metrics) {
+        super(interval, metrics);
+        if (minBatches < 2) {
+            throw new IllegalArgumentException("At least two batches are needed: " + minBatches);
+        }
+        this.minBatches = minBatches;
+        batchSums = new double[metrics.length];
+        batchMeans = new double[metrics.length][Math.max(minBatches, 16)];
+    }
+
+    @Override
+    public void start(double time) {
+        super.start(time);
+        Arrays.fill(batchSums, 0);
+        inBatch = 0;
+        batches = 0;
+        truncation = Double.NaN;
+        truncatedAt = Double.NaN;
+    }
+
+    @Override
+    protected void intervalFinished(double[] means, double end) {
+        if (isTruncated()) {
+            return;
+        }
+        for (int i = 0; i < means.length; i++) {
+            batchSums[i] += means[i];
+        }
+        if (++inBatch < BATCH) {
+            return;
+        }
+        if (batches == batchMeans[0].length) {
+            for (int i = 0; i < batchMeans.length; i++) {
+                batchMeans[i] = Arrays.copyOf(batchMeans[i], batches * 2);
+            }
+        }
+        for (int i = 0; i < batchSums.length; i++) {
+            batchMeans[i][batches] = batchSums[i] / BATCH;
+            batchSums[i] = 0;
+        }
+        batches++;
+        inBatch = 0;
+        if (batches >= minBatches) {
+            int d = 0;
+            for (double[] y : batchMeans) {
+                d = Math.max(d, truncationPoint(y, batches));
+            }
+            if (d < batches) {
+                truncation = getOrigin() + d * BATCH * getInterval();
+                truncatedAt = end;
+            }
+        }
+    }
+
+    /**
+     * @param y the batch means
+     * @param n the quantity of batch means
+     * @return the quantity of batches from the start that minimizes MSER
+     * statistic among the first half of batches, or n if the minimum is at
+     * the end of the first half (the statistic could be less further, the
+     * run is too short)
+     */
+    static int truncationPoint(double[] y, int n) {
+        int half = n / 2;
+        double sum = 0;
+        double sumSq = 0;
+        for (int i = half; i < n; i++) {
+            sum += y[i];
+            sumSq += y[i] * y[i];
+        }
+        double best = Double.MAX_VALUE;
+        int point = n;
+        for (int d = half; d >= 0; d--) {
+            if (d < half) {
+                sum += y[d];
+                sumSq += y[d] * y[d];
+            }
+            int m = n - d;
+            double mser = Math.max(sumSq - sum * sum / m, 0) / ((double) m * m);
+            if (mser <= best) {
+                best = mser;
+                point = d;
+            }
+        }
+        return point < half ? point : n;
+    }
+
+    /**
+     * @return true if the truncation point has been accepted
+     */
+    public boolean isTruncated() {
+        return !Double.isNaN(truncatedAt);
+    }
+
+    /**
+     * @return the accepted truncation point (the end of transient period) or
+     * NaN if it has not been accepted yet
+     */
+    public double getTruncation() {
+        return truncation;
+    }
+
+    /**
+     * @return the moment when the truncation point has been accepted or NaN
+     */
+    public double getTruncatedAt() {
+        return truncatedAt;
+    }
+
+    /**
+     * @return the quantity of batches
+     */
+    public int getBatches() {
+        return batches;
+    }
+}
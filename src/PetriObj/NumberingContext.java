@@ -0,0 +1,123 @@
+package PetriObj;
+
+/**
+ * This class keeps the counters that give numbers to the created places,
+ * transitions, arcs and Petri-objects.<br>
+ * The counters belong to the thread that creates the elements, so the nets
+ * can be built in several threads at the same time. Within one thread the
+ * numbering is the same as before: the counters are set to zero by methods
+ * initNext() of PetriP, PetriT, ArcIn and ArcOut. Methods call() and run()
+ * execute a block of code, for example the building of one model, in the new
+ * context of thread and then restore the previous context.
+ */
+public class NumberingContext {
+
+    private static final ThreadLocal<NumberingContext> current = ThreadLocal.withInitial(NumberingContext::new);
+
+    private int nextP = 0;
+    private int nextT = 0;
+    private int nextIn = 0;
+    private int nextOut = 0;
+    private int nextObj = 1;
+
+    /**
+     * @return the context of the current thread
+     */
+    public static NumberingContext current() {
+        return current.get();
+    }
+
+    /**
+     * Builds the value in the new context of the current thread and restores
+     * the previous context
+     *
+     * @param <T> the type of value
+     * @param <E> the type of exception thrown by the task
+     * @param task the task that builds the value, for example the model
+     * @return the value built by the task
+     * @throws E if the task fails
+     */
+    public static <T, E extends Exception> T call(Task<T, E> task) throws E {
+        NumberingContext previous = current.get();
+        current.set(new NumberingContext());
+        try {
+            return task.call();
+        } finally {
+            current.set(previous);
+        }
+    }
+
+    /**
+     * Executes the action in the new context of the current thread and
+     * restores the previous context
+     *
+     * @param <E> the type of exception thrown by the action
+     * @param action the action, for example the building of nets
+     * @throws E if the action fails
+     */
+    public static <E extends Exception> void run(Action<E> action) throws E {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * The code executed by method call()
+     *
+     * @param <T> the type of value
+     * @param <E> the type of exception
+     */
+    @FunctionalInterface
+    public interface Task<T, E extends Exception> {
+
+        T call() throws E;
+    }
+
+    /**
+     * The code executed by method run()
+     *
+     * @param <E> the type of exception
+     */
+    @FunctionalInterface
+    public interface Action<E extends Exception> {
+
+        void run() throws E;
+    }
+
+    int nextPlace() {
+        return nextP++;
+    }
+
+    void setNextPlace(int n) {
+        nextP = n;
+    }
+
+    int nextTransition() {
+        return nextT++;
+    }
+
+    void setNextTransition(int n) {
+        nextT = n;
+    }
+
+    int nextArcIn() {
+        return nextIn++;
+    }
+
+    void setNextArcIn(int n) {
+        nextIn = n;
+    }
+
+    int nextArcOut() {
+        return nextOut++;
+    }
+
+    void setNextArcOut(int n) {
+        nextOut = n;
+    }
+
+    int nextObject() {
+        return nextObj++;
+    }
+}
@@ -0,0 +1,250 @@
+package PetriObj;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class gives the order in which the Petri-objects of model do the input
+ * of markers after the event. The objects with higher priority go first, the
+ * objects of equal priority go in random order, so the shared resource is
+ * taken by each of them with equal probability.<br>
+ * The objects are sorted by priority once and kept in the buckets of equal
+ * priority. The random order is obtained by the shuffle of each bucket, there
+ * is no sorting of the whole list on every event.<br>
+ * Only the scheduled objects do the input of markers. If the objects are
+ * compiled with one marking, the scheduler keeps the index of objects that
+ * have input arcs from each place (the subscribers of place), so after the
+ * event only the subscribers of places in which the quantity of markers has
+ * been increased are scheduled. The input of markers in other objects would
+ * not change anything: the firing condition of their transitions is false and
+ * remains false while the quantities of markers in their input places do not
+ * grow.
+ */
+public class ObjectScheduler {
+
+    private final PetriSim[] objects; // sorted by priority from the highest
+    private final int[] bucket; // the bucket of each object
+    private final int[] bucketStart; // the bucket b has the objects from bucketStart[b] to bucketStart[b + 1] - 1
+    private final IdentityHashMap<PetriSim, Integer> ids = new IdentityHashMap<>();
+
+    private final boolean[] pending; // the object is scheduled
+    private final int[] pendingCount; // the quantity of scheduled objects in each bucket
+    private final int[] pendingIds; // the scheduled objects of bucket b are in positions from bucketStart[b]
+    private final PetriSim[] order; // the current order of input
+    private int size;
+
+    private final Marking marking; // null if the objects are not compiled with one marking
+    private final int version;
+    private final int[][] subscribers; // the objects that have input arcs from the slot of marking
+
+    /**
+     * @param list the list of Petri-objects sorted by priority from the
+     * highest (see PetriSim.getComparatorByPriority())
+     */
+    public ObjectScheduler(List<PetriSim> list) {
+        objects = list.toArray(new PetriSim[0]);
+        int n = objects.length;
+        bucket = new int[n];
+        int buckets = 0;
+        int[] start = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || objects[i].getPriority() != objects[i - 1].getPriority()) {
+                if (i > 0 && objects[i].getPriority() > objects[i - 1].getPriority()) {
+                    throw new IllegalArgumentException("The list is not sorted by priority");
+                }
+                start[buckets++] = i;
+            }
+            bucket[i] = buckets - 1;
+            ids.put(objects[i], i);
+        }
+        start[buckets] = n;
+        bucketStart = Arrays.copyOf(start, buckets + 1);
+        pending = new boolean[n];
+        pendingCount = new int[buckets];
+        pendingIds = new int[n];
+        order = new PetriSim[n];
+
+        marking = findMarking();
+        if (marking != null) {
+            version = marking.getVersion();
+            subscribers = subscribe(marking.size());
+            marking.clearChanged();
+        } else {
+            version = 0;
+            subscribers = null;
+        }
+    }
+
+    /**
+     * @return the marking of all objects or null if the objects are not
+     * compiled with one marking
+     */
+    private Marking findMarking() {
+        Marking m = null;
+        for (PetriSim sim : objects) {
+            CompiledNet compiled = sim.getCompiled();
+            if (compiled == null || !compiled.isValid() || (m != null && compiled.getMarking() != m)) {
+                return null;
+            }
+            m = compiled.getMarking();
+        }
+        return m;
+    }
+
+    private int[][] subscribe(int slots) {
+        int[] count = new int[slots];
+        int[] last = new int[slots]; // the last object counted for the slot
+        Arrays.fill(last, -1);
+        for (int i = 0; i < objects.length; i++) {
+            CompiledNet compiled = objects[i].getCompiled();
+            count(compiled.inPlace, i, count, last);
+            count(compiled.infPlace, i, count, last);
+        }
+        int[][] result = new int[slots][];
+        for (int slot = 0; slot < slots; slot++) {
+            result[slot] = new int[count[slot]];
+            count[slot] = 0;
+        }
+        Arrays.fill(last, -1);
+        for (int i = 0; i < objects.length; i++) {
+            CompiledNet compiled = objects[i].getCompiled();
+            add(compiled.inPlace, i, result, count, last);
+            add(compiled.infPlace, i, result, count, last);
+        }
+        return result;
+    }
+
+    private static void count(int[] places, int i, int[] count, int[] last) {
+        for (int slot : places) {
+            if (last[slot] != i) {
+                last[slot] = i;
+                count[slot]++;
+            }
+        }
+    }
+
+    private static void add(int[] places, int i, int[][] result, int[] count, int[] last) {
+        for (int slot : places) {
+            if (last[slot] != i) {
+                last[slot] = i;
+                result[slot][count[slot]++] = i;
+            }
+        }
+    }
+
+    /**
+     * @return true if the subscribers of places are known, otherwise all
+     * objects are scheduled by scheduleChanged()
+     */
+    public boolean isSubscribed() {
+        return subscribers != null;
+    }
+
+    /**
+     * @return the quantity of Petri-objects
+     */
+    public int getObjects() {
+        return objects.length;
+    }
+
+    /**
+     * @return the quantity of groups of objects with equal priority
+     */
+    public int getBuckets() {
+        return bucketStart.length - 1;
+    }
+
+    /**
+     * Schedules the input of markers in Petri-object
+     *
+     * @param sim Petri-object of this scheduler
+     */
+    public void schedule(PetriSim sim) {
+        Integer i = ids.get(sim);
+        if (i != null) {
+            schedule(i);
+        }
+    }
+
+    private void schedule(int i) {
+        if (!pending[i]) {
+            pending[i] = true;
+            int b = bucket[i];
+            pendingIds[bucketStart[b] + pendingCount[b]++] = i;
+        }
+    }
+
+    /**
+     * Schedules the input of markers in all Petri-objects
+     */
+    public void scheduleAll() {
+        for (int i = 0; i < objects.length; i++) {
+            schedule(i);
+        }
+    }
+
+    /**
+     * Schedules the subscribers of places in which the quantity of markers
+     * has been increased and forgets these places. All objects are scheduled
+     * if the subscribers are not known or the marking has been changed.
+     */
+    public void scheduleChanged() {
+        if (subscribers == null || marking.getVersion() != version || marking.size() != subscribers.length) {
+            scheduleAll();
+            if (marking != null) {
+                marking.clearChanged();
+            }
+            return;
+        }
+        for (int k = 0, n = marking.getChangedCount(); k < n; k++) {
+            for (int i : subscribers[marking.getChanged(k)]) {
+                schedule(i);
+            }
+        }
+        marking.clearChanged();
+    }
+
+    /**
+     * Makes the order of input of markers from the scheduled objects: the
+     * groups of equal priority go in order of priority, the objects inside
+     * each group go in random order. The objects are not scheduled any more.
+     *
+     * @param r random numbers generator
+     */
+    public void shuffle(Random r) {
+        size = 0;
+        for (int b = 0; b < pendingCount.length; b++) {
+            int from = bucketStart[b];
+            int count = pendingCount[b];
+            for (int k = count - 1; k > 0; k--) {
+                int m = r.nextInt(k + 1);
+                int id = pendingIds[from + k];
+                pendingIds[from + k] = pendingIds[from + m];
+                pendingIds[from + m] = id;
+            }
+            for (int k = 0; k < count; k++) {
+                int i = pendingIds[from + k];
+                pending[i] = false;
+                order[size++] = objects[i];
+            }
+            pendingCount[b] = 0;
+        }
+    }
+
+    /**
+     * @return the quantity of objects in the current order of input
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i the position in the current order of input
+     * @return Petri-object
+     */
+    public PetriSim get(int i) {
+        return order[i];
+    }
+}
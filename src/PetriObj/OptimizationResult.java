@@ -0,0 +1,170 @@
+package PetriObj;
+
+import java.util.Arrays;
+
+/**
+ * This class contains the result of simulation-based optimization (see
+ * SimulationOptimizer): the values of objective in the replications of each
+ * candidate, the candidates eliminated by the comparison and the chosen
+ * candidate.<br>
+ * The replication r of each candidate uses the same stream of random
+ * numbers, so the values of different candidates with the same index are
+ * paired.
+ */
+public class OptimizationResult {
+
+    private final ExperimentDesign design;
+    private final double confidence;
+    private final double[][] values; // [candidate][replication]
+    private final int[] counts;
+    private final boolean[] eliminated;
+    private int best = -1;
+
+    /**
+     * @param design the candidates
+     * @param confidence the confidence level of intervals
+     */
+    public OptimizationResult(ExperimentDesign design, double confidence) {
+        this.design = design;
+        this.confidence = confidence;
+        values = new double[design.size()][0];
+        counts = new int[design.size()];
+        eliminated = new boolean[design.size()];
+    }
+
+    /**
+     * Adds the value of objective in the next replication of candidate
+     *
+     * @param candidate the index of candidate
+     * @param value the value of objective
+     */
+    public void add(int candidate, double value) {
+        if (counts[candidate] == values[candidate].length) {
+            values[candidate] = Arrays.copyOf(values[candidate], Math.max(8, 2 * counts[candidate]));
+        }
+        values[candidate][counts[candidate]++] = value;
+    }
+
+    /**
+     * @param candidate the index of candidate
+     * @return the statistics of objective over the replications of candidate
+     */
+    public SampleStatistics getStatistics(int candidate) {
+        SampleStatistics statistics = new SampleStatistics();
+        for (int r = 0; r < counts[candidate]; r++) {
+            statistics.add(values[candidate][r]);
+        }
+        return statistics;
+    }
+
+    /**
+     * @param first the index of candidate
+     * @param second the index of other candidate
+     * @return the statistics of differences of objective between the
+     * replications of candidates with the same index
+     */
+    public SampleStatistics getDifference(int first, int second) {
+        SampleStatistics statistics = new SampleStatistics();
+        int n = Math.min(counts[first], counts[second]);
+        for (int r = 0; r < n; r++) {
+            statistics.add(values[first][r] - values[second][r]);
+        }
+        return statistics;
+    }
+
+    /**
+     * @param candidate the index of candidate
+     * @param replication the index of replication
+     * @return the value of objective in the replication
+     */
+    public double getValue(int candidate, int replication) {
+        if (replication >= counts[candidate]) {
+            throw new IndexOutOfBoundsException("The candidate " + candidate + " has " + counts[candidate] + " replications");
+        }
+        return values[candidate][replication];
+    }
+
+    /**
+     * @param candidate the index of candidate
+     * @return the quantity of replications of candidate
+     */
+    public int getReplications(int candidate) {
+        return counts[candidate];
+    }
+
+    /**
+     * @return the quantity of replications of all candidates
+     */
+    public long getTotalReplications() {
+        long total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @param candidate the index of candidate
+     * @return true if the candidate is eliminated as worse than other one or
+     * as not meeting the target
+     */
+    public boolean isEliminated(int candidate) {
+        return eliminated[candidate];
+    }
+
+    void eliminate(int candidate) {
+        eliminated[candidate] = true;
+    }
+
+    void setBest(int best) {
+        this.best = best;
+    }
+
+    /**
+     * @return the index of chosen candidate or -1 if no candidate is chosen
+     */
+    public int getBestIndex() {
+        return best;
+    }
+
+    /**
+     * @return the chosen candidate or null
+     */
+    public ExperimentDesign.Point getBest() {
+        return best >= 0 ? design.getPoint(best) : null;
+    }
+
+    /**
+     * @return the candidates
+     */
+    public ExperimentDesign getDesign() {
+        return design;
+    }
+
+    /**
+     * @return the confidence level of intervals
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * Prints the mean value and the confidence interval of objective and the
+     * quantity of replications of each simulated candidate and the chosen
+     * candidate
+     */
+    public void print() {
+        for (ExperimentDesign.Point point : design.getPoints()) {
+            int i = point.getIndex();
+            if (counts[i] == 0) {
+                continue;
+            }
+            SampleStatistics s = getStatistics(i);
+            double h = s.getHalfWidth(confidence);
+            System.out.printf("Candidate %d (%s): mean = %f  CI = [%f; %f]  replications = %d%s%n", i, point,
+                    s.getMean(), s.getMean() - h, s.getMean() + h, counts[i], eliminated[i] ? "  eliminated" : "");
+        }
+        System.out.println("Total replications: " + getTotalReplications());
+        System.out.println("Chosen: " + (best >= 0 ? "candidate " + best + " (" + design.getPoint(best) + ")" : "none"));
+    }
+}
@@ -0,0 +1,419 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * This class binds the named parameters of Petri nets to their values. The
+ * parameters are the fields of elements marked by PetriP.setMarkParam(),
+ * PetriT.setParametrParam(), setDistributionParam(), setPriorityParam(),
+ * setProbabilityParam(), ArcIn.setKParam(), setInfParam() and
+ * ArcOut.setKParam(). After the binding the fields have the values from the
+ * map and are not parameters any more, so the net is ready for the
+ * simulation.<br>
+ * The places and transitions are changed in place. The arcs with parameters
+ * are replaced by their copies, the other arcs are not copied, so the
+ * binding of instance of ModelTemplate does not change the arcs shared with
+ * the template and other instances. The batch mode creates the bound
+ * instances of template for many bindings in parallel.<br>
+ * The value of parameter is a number (or the string with number), the
+ * distribution is the string "exp", "unif", "norm" or null, the flag of
+ * informational arc is boolean.
+ */
+public class ParameterBinding {
+
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    /**
+     * Constructs the binding without values
+     */
+    public ParameterBinding() {
+    }
+
+    /**
+     * @param values the values of parameters by their names
+     */
+    public ParameterBinding(Map<String, ?> values) {
+        this.values.putAll(values);
+    }
+
+    /**
+     * @param point the point of design of experiment, the factors are the
+     * parameters
+     */
+    public ParameterBinding(ExperimentDesign.Point point) {
+        List<String> names = point.getNames();
+        for (int k = 0; k < names.size(); k++) {
+            values.put(names.get(k), point.get(k));
+        }
+    }
+
+    /**
+     * @param name the name of parameter
+     * @param value the value of parameter
+     * @return this binding
+     */
+    public ParameterBinding set(String name, Object value) {
+        values.put(name, value);
+        return this;
+    }
+
+    /**
+     * @param name the name of parameter
+     * @return the value of parameter or null
+     */
+    public Object get(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * @return the values of parameters by their names
+     */
+    public Map<String, Object> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @param net Petri net
+     * @return the names of parameters of net that are not bound
+     */
+    public static Set<String> parameters(PetriNet net) {
+        Set<String> names = new LinkedHashSet<>();
+        for (PetriP place : net.getListP()) {
+            if (place.markIsParam()) {
+                names.add(place.getMarkParamName());
+            }
+        }
+        for (PetriT transition : net.getListT()) {
+            if (transition.parametrIsParam()) {
+                names.add(transition.getParametrParamName());
+            }
+            if (transition.distributionIsParam()) {
+                names.add(transition.getDistributionParamName());
+            }
+            if (transition.priorityIsParam()) {
+                names.add(transition.getPriorityParamName());
+            }
+            if (transition.probabilityIsParam()) {
+                names.add(transition.getProbabilityParamName());
+            }
+        }
+        for (ArcIn arc : net.getArcIn()) {
+            if (arc.kIsParam()) {
+                names.add(arc.getKParamName());
+            }
+            if (arc.infIsParam()) {
+                names.add(arc.getInfParamName());
+            }
+        }
+        for (ArcOut arc : net.getArcOut()) {
+            if (arc.kIsParam()) {
+                names.add(arc.getKParamName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @param model Petri-object model
+     * @return the names of parameters of all Petri nets of model that are not
+     * bound
+     */
+    public static Set<String> parameters(PetriObjModel model) {
+        Set<String> names = new LinkedHashSet<>();
+        for (PetriSim sim : model.getListObj()) {
+            names.addAll(parameters(sim.getNet()));
+        }
+        return names;
+    }
+
+    /**
+     * Binds the parameters of Petri net. Is used for the net that is not in
+     * Petri-object yet, otherwise bind(PetriSim) is used.
+     *
+     * @param net Petri net
+     * @throws IllegalArgumentException if a parameter has no value or the
+     * value has wrong type, then the net is not changed
+     */
+    public void bind(PetriNet net) {
+        check(net);
+        bindNet(net);
+    }
+
+    /**
+     * Binds the parameters of Petri net of Petri-object
+     *
+     * @param sim Petri-object
+     * @throws IllegalArgumentException if a parameter has no value or the
+     * value has wrong type, then the object is not changed
+     */
+    public void bind(PetriSim sim) {
+        check(sim.getNet());
+        if (bindNet(sim.getNet())) {
+            sim.netChanged();
+        }
+    }
+
+    /**
+     * Binds the parameters of all Petri nets of model
+     *
+     * @param <M> the class of model
+     * @param model Petri-object model
+     * @return the model
+     * @throws IllegalArgumentException if a parameter has no value or the
+     * value has wrong type, then the model is not changed
+     */
+    public <M extends PetriObjModel> M bind(M model) {
+        PetriNet[] nets = new PetriNet[model.getListObj().size()];
+        for (int i = 0; i < nets.length; i++) {
+            nets[i] = model.getListObj().get(i).getNet();
+        }
+        check(nets);
+        for (PetriSim sim : model.getListObj()) {
+            if (bindNet(sim.getNet())) {
+                sim.netChanged();
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Creates the instance of template and binds its parameters
+     *
+     * @param <M> the class of model
+     * @param template the template of model with parameters
+     * @return the bound instance
+     */
+    public <M extends PetriObjModel> M instance(ModelTemplate<M> template) {
+        return bind(template.instance());
+    }
+
+    /**
+     * Creates the bound instances of template for all bindings in parallel
+     *
+     * @param <M> the class of model
+     * @param template the template of model with parameters
+     * @param bindings the bindings
+     * @param parallelism the quantity of threads
+     * @return the bound instances in the order of bindings
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws ExecutionException if a binding fails
+     */
+    public static <M extends PetriObjModel> List<M> instances(ModelTemplate<M> template, List<ParameterBinding> bindings,
+            int parallelism) throws InterruptedException, ExecutionException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> bindings.parallelStream()
+                    .map(binding -> binding.instance(template))
+                    .collect(Collectors.toList())).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Creates the bound instances of template for all points of design in
+     * parallel
+     *
+     * @param <M> the class of model
+     * @param template the template of model with parameters
+     * @param design the design of experiment, the factors are the parameters
+     * @param parallelism the quantity of threads
+     * @return the bound instances in the order of points
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws ExecutionException if a binding fails
+     */
+    public static <M extends PetriObjModel> List<M> instances(ModelTemplate<M> template, ExperimentDesign design,
+            int parallelism) throws InterruptedException, ExecutionException {
+        List<ParameterBinding> bindings = new ArrayList<>(design.size());
+        for (ExperimentDesign.Point point : design.getPoints()) {
+            bindings.add(new ParameterBinding(point));
+        }
+        return instances(template, bindings, parallelism);
+    }
+
+    /**
+     * Gives the factory of models for ParameterSweep: the model of point is
+     * the instance of template bound to the factors of point
+     *
+     * @param <M> the class of model
+     * @param template the template of model with parameters
+     * @return the factory of models
+     */
+    public static <M extends PetriObjModel> ParameterSweep.PointFactory<M> factory(ModelTemplate<M> template) {
+        return point -> new ParameterBinding(point).instance(template);
+    }
+
+    /**
+     * Checks that all parameters of nets have the values of right type
+     */
+    private void check(PetriNet... nets) {
+        List<String> missing = new ArrayList<>();
+        for (PetriNet net : nets) {
+            for (String name : parameters(net)) {
+                if (!values.containsKey(name) && !missing.contains(name)) {
+                    missing.add(name);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("No value of parameters " + missing);
+        }
+        for (PetriNet net : nets) {
+            for (PetriP place : net.getListP()) {
+                if (place.markIsParam()) {
+                    intValue(place.getMarkParamName());
+                }
+            }
+            for (PetriT transition : net.getListT()) {
+                if (transition.parametrIsParam()) {
+                    doubleValue(transition.getParametrParamName());
+                }
+                if (transition.distributionIsParam()) {
+                    stringValue(transition.getDistributionParamName());
+                }
+                if (transition.priorityIsParam()) {
+                    intValue(transition.getPriorityParamName());
+                }
+                if (transition.probabilityIsParam()) {
+                    doubleValue(transition.getProbabilityParamName());
+                }
+            }
+            for (ArcIn arc : net.getArcIn()) {
+                if (arc.kIsParam()) {
+                    intValue(arc.getKParamName());
+                }
+                if (arc.infIsParam()) {
+                    booleanValue(arc.getInfParamName());
+                }
+            }
+            for (ArcOut arc : net.getArcOut()) {
+                if (arc.kIsParam()) {
+                    intValue(arc.getKParamName());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the arcs of net are replaced
+     */
+    private boolean bindNet(PetriNet net) {
+        for (PetriP place : net.getListP()) {
+            if (place.markIsParam()) {
+                int mark = intValue(place.getMarkParamName());
+                place.setMarkParam(null);
+                place.setMark(mark);
+            }
+        }
+        for (PetriT transition : net.getListT()) {
+            if (transition.parametrIsParam()) {
+                transition.setParametr(doubleValue(transition.getParametrParamName()));
+                transition.setParametrParam(null);
+            }
+            if (transition.distributionIsParam()) {
+                transition.setDistribution(stringValue(transition.getDistributionParamName()), transition.getParametr());
+                transition.setDistributionParam(null);
+            }
+            if (transition.priorityIsParam()) {
+                transition.setPriority(intValue(transition.getPriorityParamName()));
+                transition.setPriorityParam(null);
+            }
+            if (transition.probabilityIsParam()) {
+                transition.setProbability(doubleValue(transition.getProbabilityParamName()));
+                transition.setProbabilityParam(null);
+            }
+        }
+
+        ArcIn[] in = net.getArcIn();
+        for (int i = 0; i < in.length; i++) {
+            ArcIn arc = in[i];
+            if (arc.kIsParam() || arc.infIsParam()) {
+                if (in == net.getArcIn()) {
+                    in = in.clone(); // the array can be shared with other nets
+                }
+                ArcIn copy = arc.shallowCopy();
+                if (arc.kIsParam()) {
+                    copy.setKParam(null);
+                    copy.setQuantity(intValue(arc.getKParamName()));
+                }
+                if (arc.infIsParam()) {
+                    copy.setInfParam(null);
+                    copy.setInf(booleanValue(arc.getInfParamName()));
+                }
+                in[i] = copy;
+            }
+        }
+        ArcOut[] out = net.getArcOut();
+        for (int i = 0; i < out.length; i++) {
+            ArcOut arc = out[i];
+            if (arc.kIsParam()) {
+                if (out == net.getArcOut()) {
+                    out = out.clone();
+                }
+                ArcOut copy = arc.shallowCopy();
+                copy.setKParam(null);
+                copy.setQuantity(intValue(arc.getKParamName()));
+                out[i] = copy;
+            }
+        }
+        if (in == net.getArcIn() && out == net.getArcOut()) {
+            return false;
+        }
+        net.replaceArcs(in, out);
+        return true;
+    }
+
+    private double doubleValue(String name) {
+        Object value = values.get(name);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble(((String) value).trim());
+            } catch (NumberFormatException ex) {
+                // the message is below
+            }
+        }
+        throw new IllegalArgumentException("The value of parameter " + name + " is not a number: " + value);
+    }
+
+    private int intValue(String name) {
+        double value = doubleValue(name);
+        if (value != Math.rint(value) || Math.abs(value) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The value of parameter " + name + " is not an integer: " + value);
+        }
+        return (int) value;
+    }
+
+    private String stringValue(String name) {
+        Object value = values.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("The value of parameter " + name + " is not a distribution: " + value);
+        }
+        return (String) value;
+    }
+
+    private boolean booleanValue(String name) {
+        Object value = values.get(name);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if ("true".equals(value) || "false".equals(value)) {
+            return Boolean.parseBoolean((String) value);
+        }
+        if (value instanceof Number && (((Number) value).doubleValue() == 0 || ((Number) value).doubleValue() == 1)) {
+            return ((Number) value).doubleValue() == 1;
+        }
+        throw new IllegalArgumentException("The value of parameter " + name + " is not boolean: " + value);
+    }
+}
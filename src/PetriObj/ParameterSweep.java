@@ -0,0 +1,398 @@
+package PetriObj;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * This class simulates Petri-object model in all points of the design of
+ * experiment (see ExperimentDesign), with several replications in each point,
+ * in parallel.<br>
+ * The model of each point is built once by the factory and becomes the
+ * template (see ModelTemplate), the replications of point simulate the
+ * instances of template. The replication r of each point uses the same
+ * stream of random numbers (the common random numbers), so the difference
+ * between points is not hidden by the difference of streams. The streams are
+ * split from the generator with the seed of sweep.<br>
+ * The results are the values of outputs (the functions of simulated model),
+ * they are aggregated for each point and can be written as CSV table with
+ * one row for each replication and one column for each factor and output.
+ * The rows are written in the order of points and replications as soon as
+ * the replications are finished, so the table is not kept in memory.<br>
+ * The results can be written in the binary form too (see runBinary()). The
+ * stream starts with int MAGIC, int VERSION, int quantity of points, int
+ * quantity of replications, int quantity of factors and UTF names of
+ * factors, int quantity of outputs and UTF names of outputs. Then for each
+ * point in the order of design there is the block: int index of point,
+ * double values of factors and for each output the column of double values
+ * of all replications. So the values of one output are read without the
+ * other outputs, and each block is written when the replications of its
+ * point are finished.
+ *
+ * @param <M> the class of model
+ */
+public class ParameterSweep<M extends PetriObjModel> {
+
+    /**
+     * Builds the model for the point of design
+     *
+     * @param <M> the class of model
+     */
+    @FunctionalInterface
+    public interface PointFactory<M extends PetriObjModel> {
+
+        /**
+         * @param point the point of design
+         * @return the new model with the values of factors of point
+         * @throws Exception if the model can not be created
+         */
+        M create(ExperimentDesign.Point point) throws Exception;
+    }
+
+    public static final int MAGIC = 0x50535750; // "PSWP"
+    public static final int VERSION = 1;
+
+    private final PointFactory<M> factory;
+    private final ExperimentDesign design;
+    private final double timeModeling;
+    private final List<String> outputNames = new ArrayList<>();
+    private final List<ToDoubleFunction<? super M>> outputs = new ArrayList<>();
+    private Consumer<? super M> preparation;
+    private int replications = 1;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long seed = System.nanoTime();
+    private double confidence = 0.95;
+
+    /**
+     * @param factory the factory of models
+     * @param design the design of experiment
+     * @param timeModeling the simulation time of each replication
+     */
+    public ParameterSweep(PointFactory<M> factory, ExperimentDesign design, double timeModeling) {
+        this.factory = factory;
+        this.design = design;
+        this.timeModeling = timeModeling;
+    }
+
+    /**
+     * Adds the output of experiment
+     *
+     * @param name the name of output (the column of table)
+     * @param output the function that gives the value of output for the
+     * simulated model
+     * @return this sweep
+     */
+    public ParameterSweep<M> addOutput(String name, ToDoubleFunction<? super M> output) {
+        outputNames.add(name);
+        outputs.add(output);
+        return this;
+    }
+
+    /**
+     * Runs the sweep without writing of table
+     *
+     * @return the results of points
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws ExecutionException if the model can not be created or the
+     * simulation fails
+     */
+    public SweepResult run() throws InterruptedException, ExecutionException {
+        try {
+            return run(null, null);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // is not thrown without the writer
+        }
+    }
+
+    /**
+     * Runs the sweep and writes the table of results to the file
+     *
+     * @param fileName the name of CSV file
+     * @return the results of points
+     * @throws IOException if the file can not be written
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws ExecutionException if the model can not be created or the
+     * simulation fails
+     */
+    public SweepResult run(String fileName) throws IOException, InterruptedException, ExecutionException {
+        try (Writer out = new FileWriter(fileName)) {
+            return run(out);
+        }
+    }
+
+    /**
+     * Runs the replications of all points on the fork-join pool and writes
+     * the rows of table: point, replication, the factors and the outputs.
+     *
+     * @param out the writer for the table or null, it is not closed
+     * @return the results of points
+     * @throws IOException if the table can not be written
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws ExecutionException if the model can not be created or the
+     * simulation fails
+     */
+    public SweepResult run(Writer out) throws IOException, InterruptedException, ExecutionException {
+        return run(out != null ? new BufferedWriter(out) : null, null);
+    }
+
+    /**
+     * Runs the sweep and writes the results to the file in the binary form
+     * (see the description of class)
+     *
+     * @param fileName the name of file
+     * @return the results of points
+     * @throws IOException if the file can not be written
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws ExecutionException if the model can not be created or the
+     * simulation fails
+     */
+    public SweepResult runBinary(String fileName) throws IOException, InterruptedException, ExecutionException {
+        try (OutputStream out = new FileOutputStream(fileName)) {
+            return runBinary(out);
+        }
+    }
+
+    /**
+     * Runs the sweep and writes the results in the binary form: the block of
+     * columns of outputs for each point (see the description of class)
+     *
+     * @param out the stream for the results, it is not closed
+     * @return the results of points
+     * @throws IOException if the results can not be written
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws ExecutionException if the model can not be created or the
+     * simulation fails
+     */
+    public SweepResult runBinary(OutputStream out) throws IOException, InterruptedException, ExecutionException {
+        return run(null, new DataOutputStream(new BufferedOutputStream(out, 1 << 16)));
+    }
+
+    private SweepResult run(Writer writer, DataOutputStream data) throws IOException, InterruptedException, ExecutionException {
+        if (outputs.isEmpty()) {
+            throw new IllegalStateException("No output of experiment is added");
+        }
+        ModelRandom root = new ModelRandom(seed);
+        ModelRandom[] streams = new ModelRandom[replications];
+        for (int r = 0; r < replications; r++) {
+            streams[r] = root.split();
+        }
+        if (writer != null) {
+            writeHeader(writer);
+        }
+        if (data != null) {
+            writeHeader(data);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<CompletableFuture<double[]>> futures = new ArrayList<>();
+            for (ExperimentDesign.Point point : design.getPoints()) {
+                CompletableFuture<ModelTemplate<M>> template = CompletableFuture.supplyAsync(() -> build(point), pool);
+                for (int r = 0; r < replications; r++) {
+                    ModelRandom stream = streams[r];
+                    futures.add(template.thenApplyAsync(t -> simulate(t.instance(), stream.copy()), pool));
+                }
+            }
+            SweepResult result = new SweepResult(design, outputNames, confidence);
+            double[][] block = new double[replications][];
+            int k = 0;
+            for (ExperimentDesign.Point point : design.getPoints()) {
+                for (int r = 0; r < replications; r++) {
+                    double[] values = get(futures.get(k));
+                    futures.set(k++, null);
+                    result.add(point.getIndex(), values);
+                    block[r] = values;
+                    if (writer != null) {
+                        writeRow(writer, point, r, values);
+                    }
+                }
+                if (writer != null) {
+                    writer.flush();
+                }
+                if (data != null) {
+                    writeBlock(data, point, block);
+                    data.flush();
+                }
+            }
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    static <T> T get(CompletableFuture<T> future) throws InterruptedException, ExecutionException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                throw new ExecutionException(cause.getCause());
+            }
+            throw ex;
+        }
+    }
+
+    ModelTemplate<M> build(ExperimentDesign.Point point) {
+        try {
+            return NumberingContext.call(() -> new ModelTemplate<>(factory.create(point)));
+        } catch (Exception ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    double[] simulate(M model, ModelRandom stream) {
+        FunRand.setRandom(stream); // for the random numbers used out of the model
+        try {
+            model.setTimeState(new StateTime());
+            model.setRandom(stream);
+            if (preparation != null) {
+                preparation.accept(model);
+            }
+            model.goWithoutPrintCheck(timeModeling);
+            double[] values = new double[outputs.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = outputs.get(i).applyAsDouble(model);
+            }
+            return values;
+        } finally {
+            FunRand.setRandom(null);
+        }
+    }
+
+    private void writeHeader(Writer writer) throws IOException {
+        StringBuilder line = new StringBuilder("point,replication");
+        for (String name : design.getNames()) {
+            line.append(',').append(name);
+        }
+        for (String name : outputNames) {
+            line.append(',').append(name);
+        }
+        writer.append(line).append('\n');
+    }
+
+    private void writeHeader(DataOutputStream data) throws IOException {
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(design.size());
+        data.writeInt(replications);
+        data.writeInt(design.getNames().size());
+        for (String name : design.getNames()) {
+            data.writeUTF(name);
+        }
+        data.writeInt(outputNames.size());
+        for (String name : outputNames) {
+            data.writeUTF(name);
+        }
+    }
+
+    private void writeBlock(DataOutputStream data, ExperimentDesign.Point point, double[][] block) throws IOException {
+        data.writeInt(point.getIndex());
+        for (int k = 0; k < design.getNames().size(); k++) {
+            data.writeDouble(point.get(k));
+        }
+        for (int i = 0; i < outputNames.size(); i++) {
+            for (double[] values : block) {
+                data.writeDouble(values[i]);
+            }
+        }
+    }
+
+    private void writeRow(Writer writer, ExperimentDesign.Point point, int replication, double[] values) throws IOException {
+        StringBuilder line = new StringBuilder();
+        line.append(point.getIndex()).append(',').append(replication);
+        for (int k = 0; k < design.getNames().size(); k++) {
+            line.append(',').append(point.get(k));
+        }
+        for (double value : values) {
+            line.append(',').append(value);
+        }
+        writer.append(line).append('\n');
+    }
+
+    /**
+     * Sets the action that is done with each model before the simulation,
+     * for example the setting of warm-up time or of stopping rule
+     *
+     * @param preparation the action or null
+     * @return this sweep
+     */
+    public ParameterSweep<M> setPreparation(Consumer<? super M> preparation) {
+        this.preparation = preparation;
+        return this;
+    }
+
+    /**
+     * @return the design of experiment
+     */
+    public ExperimentDesign getDesign() {
+        return design;
+    }
+
+    /**
+     * @return the quantity of replications in each point
+     */
+    public int getReplications() {
+        return replications;
+    }
+
+    /**
+     * @param replications the quantity of replications in each point
+     */
+    public void setReplications(int replications) {
+        this.replications = replications;
+    }
+
+    /**
+     * @return the quantity of threads that run replications
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param parallelism the quantity of threads that run replications
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the seed from which the streams of replications are derived
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param seed the seed from which the streams of replications are derived
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return the confidence level of intervals
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * @param confidence the confidence level of intervals, for example 0.95
+     */
+    public void setConfidence(double confidence) {
+        this.confidence = confidence;
+    }
+}
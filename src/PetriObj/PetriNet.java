@@ -302,6 +302,52 @@ public class PetriNet implements Cloneable, Serializable {
         System.out.println();
     }
     
+    /**
+     * @return the copy of this Petri net with the same fields (see
+     * ModelCopier)
+     */
+    PetriNet shallowCopy() {
+        try {
+            return (PetriNet) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Is called on the copy of Petri net, replaces the elements of net with
+     * their copies
+     *
+     * @param copier the copier of model
+     */
+    void copyFields(ModelCopier copier) {
+        ListP = copier.copy(ListP);
+        ListT = copier.copy(ListT);
+        ListIn = copier.copy(ListIn);
+        ListOut = copier.copy(ListOut);
+    }
+
+    /**
+     * Replaces the arrays of arcs and rebuilds the lists of arcs of
+     * transitions (see ParameterBinding). The arrays must have the arcs
+     * between the same places and transitions.
+     *
+     * @param in the arcs directed from place to transition
+     * @param out the arcs directed from transition to place
+     */
+    void replaceArcs(ArcIn[] in, ArcOut[] out) {
+        ListIn = in;
+        ListOut = out;
+        for (PetriT transition : ListT) {
+            try {
+                transition.createInP(ListIn);
+                transition.createOutP(ListOut);
+            } catch (ExceptionInvalidTimeDelay ex) {
+                throw new IllegalStateException(ex); // the structure is not changed
+            }
+        }
+    }
+
     @Override
     public PetriNet clone() throws CloneNotSupportedException //14.11.2012
     {
@@ -4,10 +4,24 @@
  */
 package PetriObj;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import javax.swing.JTextArea;
 
 /**
@@ -27,8 +41,27 @@ public class PetriObjModel implements Serializable, Cloneable  {
     private boolean statistics = true;
     private ArrayList<LinkByPlaces> links; //added 29.11.2017 by Inna
     private StateTime timeState;
+    private boolean eventCalendar = false;
+    private transient EventCalendar calendar; // is used if eventCalendar is true
+    private transient ObjectScheduler scheduler; // the order of input of markers after the event
+    private boolean codeGeneration = false;
+    private transient SimTraceListener traceListener; // the trace of Petri-objects functioning
+    private transient EventSink eventSink; // the typed events of simulation
+    private ModelRandom random; // the generator of random numbers of model
+    private boolean transitionStreams = false;
+    private transient IdentityHashMap<PetriT, ModelRandom> streams; // the substreams of transitions of the current run
+    private long eventCount; // the quantity of events of the last simulation run
+    private double statisticsTime; // the moment until which the statistics are collected
+    private double statisticsStart; // the moment from which the statistics are collected
+    private double warmUpTime; // the statistics are removed at this moment
+    private transient MserTruncation truncation; // finds the end of transient period if it is not null
+    private transient BatchMeans stoppingRule; // stops the run when the precision is reached if it is not null
+    private transient PetriP[] statisticsP; // the places of model without repetition of shared places
+    private transient PetriT[] statisticsT; // the transitions of model
     
     private String id; // unique number for server
+
+    private static final int SNAPSHOT_FORMAT = 0x504F4D03; // "POM" and the version of format
     
     
     public PetriObjModel(ArrayList<PetriSim> listObj) {
@@ -51,31 +84,303 @@ public class PetriObjModel implements Serializable, Cloneable  {
     
     
     
+    /**
+     * @return the deep copy of model, see copy()
+     * @throws CloneNotSupportedException is not thrown
+     */
     @Override
     public PetriObjModel clone() throws CloneNotSupportedException {  //added 29.11.2017 by Inna
-        super.clone();
-        ArrayList<PetriSim> copyList = new ArrayList<>();
+        return copy();
+    }
 
-        for (PetriSim sim : this.listObj) {
-            copyList.add(sim.clone());  //  error: we must reproduce shared places
+    /**
+     * Makes the deep copy of model. The copy has the same class, the shared
+     * places of Petri-objects remain shared, the Petri-objects keep their
+     * classes and priorities, the places keep the quantities of markers and
+     * the transitions keep the buffers and the moments of markers output.
+     * The trace listener and the event sink are not copied.
+     *
+     * @return the copy of model
+     */
+    public PetriObjModel copy() {
+        int size = 16;
+        for (PetriSim sim : listObj) {
+            PetriNet net = sim.getNet();
+            size += 8 + net.getListP().length + net.getListT().length + net.getArcIn().length + net.getArcOut().length;
         }
-        PetriObjModel clone = new PetriObjModel(copyList);
-        //  reproduce combine places
- 
-        for (LinkByPlaces li : links) {
-            int one = this.getNumInList(li.getOne());
-            int other = this.getNumInList(li.getOther());
- 
-            if (one >= 0 && other >= 0) {
-                PetriSim oneClone = clone.getListObj().get(one);
-                PetriSim otherClone = clone.getListObj().get(other);
-                clone.linkObjectsCombiningPlaces(oneClone, li.getNumPlaceOne(),
-                        otherClone, li.getNumPlaceOther());
-            }
+        return new ModelCopier(size).copy(this);
+    }
+
+    /**
+     * @return the copy of this model with the same fields (see ModelCopier)
+     */
+    PetriObjModel shallowCopy() {
+        try {
+            return (PetriObjModel) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex);
         }
-        return clone;
+    }
+
+    /**
+     * Is called on the copy of model, replaces the Petri-objects, the links
+     * by places, the time state and the generator with their copies. The
+     * subclass that has its own references to the elements of model
+     * overrides this method and replaces them too.
+     *
+     * @param copier the copier of model
+     */
+    protected void copyFields(ModelCopier copier) {
+        timeState = copier.copy(timeState);
+        ArrayList<PetriSim> objects = new ArrayList<>(listObj.size());
+        for (PetriSim sim : listObj) {
+            objects.add(copier.copy(sim));
+        }
+        listObj = objects;
+        ArrayList<LinkByPlaces> originalLinks = links;
+        links = new ArrayList<>(originalLinks.size());
+        for (LinkByPlaces li : originalLinks) {
+            links.add(new LinkByPlaces(copier.copy(li.getOne()), li.getNumPlaceOne(),
+                    copier.copy(li.getOther()), li.getNumPlaceOther()));
+        }
+        random = random != null ? random.copy() : null;
+        streams = null;
+        calendar = null;
+        scheduler = null;
+        traceListener = null;
+        eventSink = null;
+        statisticsP = null;
+        statisticsT = null;
+        truncation = null;
+        stoppingRule = null;
     }
     
+    /**
+     * Saves the state of simulation in the compact binary form: the current
+     * time and the time modeling, the quantities of markers in places, the
+     * buffers of transitions and the moments of markers output of their
+     * channels, the nearest events of Petri-objects, the statistics, the
+     * quantity of events and the state of generator of random numbers (and
+     * of substreams of transitions, see setTransitionStreams()). The
+     * structure of model (Petri nets and their parameters) is not saved.<br>
+     * The snapshot keeps the fingerprint of structure (the names of objects,
+     * places and transitions and the quantities of arcs), which is checked
+     * by restore().<br>
+     * The snapshot is taken between the simulation runs. Restored into this
+     * model or into the copy of this model (see copy() and ModelTemplate) and
+     * continued by resume(), it gives the same events as this model, so the
+     * model that has passed the warm-up period can be continued in many
+     * variants without the repetition of warm-up.
+     *
+     * @return the snapshot of state of model
+     */
+    public byte[] snapshot() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            ArrayList<PetriSim> objects = objectsByNum();
+            List<PetriP> places = new ArrayList<>();
+            List<PetriT> transitions = new ArrayList<>();
+            collectElements(objects, places, transitions);
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeInt(objects.size());
+            out.writeInt(places.size());
+            out.writeInt(transitions.size());
+            out.writeLong(fingerprint(objects, places, transitions));
+            out.writeDouble(getCurrentTime());
+            out.writeDouble(getSimulationTime());
+            out.writeDouble(statisticsTime);
+            out.writeDouble(statisticsStart);
+            out.writeLong(eventCount);
+            out.writeBoolean(random != null);
+            if (random != null) {
+                random.writeState(out);
+            }
+            out.writeBoolean(streams != null);
+            if (streams != null) {
+                for (PetriT t : transitions) {
+                    streams.get(t).writeState(out);
+                }
+            }
+            for (PetriP p : places) {
+                p.writeState(out);
+            }
+            for (PetriT t : transitions) {
+                t.writeState(out);
+            }
+            for (PetriSim sim : objects) {
+                sim.writeState(out);
+            }
+            writeState(out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores the state of simulation saved by snapshot(). The model must
+     * have the same structure as the model whose snapshot is restored: the
+     * same Petri-objects, places and transitions in the same order. The
+     * parameters of transitions (for example the mean time of service) can
+     * differ, so the variants of model can be continued from one state. The
+     * structure is checked before the state of model is changed.
+     *
+     * @param snapshot the snapshot of state of model
+     * @throws IllegalArgumentException if the snapshot is not the snapshot of
+     * model with the same structure
+     */
+    public void restore(byte[] snapshot) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot))) {
+            ArrayList<PetriSim> objects = objectsByNum();
+            List<PetriP> places = new ArrayList<>();
+            List<PetriT> transitions = new ArrayList<>();
+            collectElements(objects, places, transitions);
+            if (in.readInt() != SNAPSHOT_FORMAT) {
+                throw new IllegalArgumentException("The data is not the snapshot of model");
+            }
+            if (in.readInt() != objects.size() || in.readInt() != places.size() || in.readInt() != transitions.size()
+                    || in.readLong() != fingerprint(objects, places, transitions)) {
+                throw new IllegalArgumentException("The snapshot is taken from the model with other structure");
+            }
+            double currentTime = in.readDouble();
+            setSimulationTime(in.readDouble());
+            setCurrentTime(currentTime);
+            statisticsTime = in.readDouble();
+            statisticsStart = in.readDouble();
+            eventCount = in.readLong();
+            if (in.readBoolean()) {
+                getRandom().readState(in);
+            }
+            if (in.readBoolean()) {
+                streams = createStreams(objects);
+                for (PetriT t : transitions) {
+                    streams.get(t).readState(in);
+                }
+            } else {
+                streams = null;
+            }
+            for (PetriP p : places) {
+                p.readState(in);
+            }
+            for (PetriT t : transitions) {
+                t.readState(in);
+            }
+            for (PetriSim sim : objects) {
+                sim.readState(in);
+            }
+            readState(in);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("The snapshot is damaged", ex);
+        }
+    }
+
+    /**
+     * Writes the state of model that is not kept in Petri-objects (see
+     * snapshot()). The subclass that collects its own statistics overrides
+     * this method and readState() and writes the statistics too.
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    protected void writeState(DataOutput out) throws IOException {
+    }
+
+    /**
+     * Replaces the state of model with the state written by writeState()
+     *
+     * @param in the input
+     * @throws IOException if the input fails
+     */
+    protected void readState(DataInput in) throws IOException {
+    }
+
+    /**
+     * @return the Petri-objects in order of their numbers, which does not
+     * depend on the order of list during the simulation
+     */
+    private ArrayList<PetriSim> objectsByNum() {
+        ArrayList<PetriSim> objects = new ArrayList<>(listObj);
+        objects.sort(PetriSim.getComparatorByNum());
+        return objects;
+    }
+
+    /**
+     * Creates the substreams of transitions from the current state of
+     * generator of model. The key of substream is the name of Petri-object
+     * and the name of transition in its Petri net, the repeated names get
+     * the number of repetition, so the variants of model with the same names
+     * have the same substreams.
+     */
+    private IdentityHashMap<PetriT, ModelRandom> createStreams(List<PetriSim> objects) {
+        ModelRandom r = getRandom();
+        IdentityHashMap<PetriT, ModelRandom> map = new IdentityHashMap<>();
+        Map<String, Integer> objectNames = new HashMap<>();
+        for (PetriSim sim : objects) {
+            String object = streamKey(sim.getName(), objectNames);
+            Map<String, Integer> names = new HashMap<>();
+            for (PetriT t : sim.getNet().getListT()) {
+                if (!map.containsKey(t)) {
+                    map.put(t, r.substream(object + "/" + streamKey(t.getName(), names)));
+                }
+            }
+        }
+        return map;
+    }
+
+    private static String streamKey(String name, Map<String, Integer> names) {
+        int repetition = names.merge(name, 1, Integer::sum) - 1;
+        return repetition == 0 ? name : name + "#" + repetition;
+    }
+
+    /**
+     * Calculates the fingerprint of structure of model, which does not
+     * depend on the parameters of transitions: the names of objects, places
+     * and transitions and the quantities of input and output arcs of
+     * transitions
+     */
+    private static long fingerprint(List<PetriSim> objects, List<PetriP> places, List<PetriT> transitions) {
+        long h = 1125899906842597L;
+        for (PetriSim sim : objects) {
+            h = fingerprint(h, sim.getName());
+        }
+        for (PetriP p : places) {
+            h = fingerprint(h, p.getName());
+        }
+        for (PetriT t : transitions) {
+            h = fingerprint(h, t.getName());
+            h = 31 * h + t.getInP().size();
+            h = 31 * h + t.getOutP().size();
+        }
+        return h;
+    }
+
+    private static long fingerprint(long h, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + name.charAt(i);
+        }
+        return 31 * h + name.length();
+    }
+
+    /**
+     * Collects the places and transitions of Petri-objects, each shared place
+     * is taken once
+     */
+    private static void collectElements(List<PetriSim> objects, List<PetriP> places, List<PetriT> transitions) {
+        Set<Object> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PetriSim sim : objects) {
+            for (PetriP p : sim.getNet().getListP()) {
+                if (found.add(p)) {
+                    places.add(p);
+                }
+            }
+            for (PetriT t : sim.getNet().getListT()) {
+                if (found.add(t)) {
+                    transitions.add(t);
+                }
+            }
+        }
+    }
+
     public int getNumInList(PetriSim sim){
        int num=-1;
         for(int j=0;j<listObj.size();j++){
@@ -139,61 +444,43 @@ public class PetriObjModel implements Serializable, Cloneable  {
         this.setSimulationTime(timeModeling);   
         this.setCurrentTime(0.0); 
       
-        getListObj().sort(PetriSim.getComparatorByPriority()); //edited 9.11.2015, 12.10.2017
-        for (PetriSim e : getListObj()) { //edited 9.11.2015, 18.07.2018
-            e.input();
-        }
+        start(traceListener != null || !isProtocolPrint() ? traceListener : new ConsoleTraceListener(), false);
         if (isProtocolPrint()) {
             for (PetriSim e : getListObj()) {
                 e.printMark();
             }
         }
         ArrayList<PetriSim> conflictObj = new ArrayList<>();
-        Random r = new Random();
+        Random r = getRandom();
 
-        while (this.getCurrentTime() < this.getSimulationTime()) { // edited 18.07.2018
+        while (this.getCurrentTime() < this.getSimulationTime() && !isPrecise()) { // edited 18.07.2018
 
             conflictObj.clear();
 
-            min = getListObj().get(0).getTimeMin();  //пошук найближчої події
-
-            for (PetriSim e : getListObj()) {
-                if (e.getTimeMin() < min) {
-                    min = e.getTimeMin();
-                }
-            }
+            min = findTimeMin();  //пошук найближчої події
             /*  if(min_t<t){ // added 24.06.2013   !!!!Подумать...при отрицательных задержках висит!!!!
              JOptionPane.showMessageDialog(null, "Negative time delay was generated! Check parameters, please/");
              return;
             
              }*/
             if (isStatistics()) {
-                for (PetriSim e : getListObj()) {
-                   if (min > 0) {
-                        if(min<this.getSimulationTime())
-                            e.doStatistics((min - this.getCurrentTime()) / min); //статистика за час "дельта т", для спільних позицій потрібно статистику збирати тільки один раз!!!
-                        else
-                            e.doStatistics((this.getSimulationTime() - this.getCurrentTime()) / this.getSimulationTime()); 
-                    }
-
-                }
+                doStatistics(Math.min(min, this.getSimulationTime())); //статистика за час "дельта т", для спільних позицій збирається тільки один раз
             }
 
            this.setCurrentTime(min); // просування часу //3.12.2015
+            if (eventSink != null) {
+                eventSink.timeAdvance(min);
+            }
             
             if (isProtocolPrint()) {
                 System.out.println(" Time progress: time = " + this.getCurrentTime() + "\n");
             }
             if (this.getCurrentTime() <= this.getSimulationTime()) {
 
-                for (PetriSim sim : getListObj()) {
-                    if (this.getCurrentTime() == sim.getTimeMin()) // розв'язання конфлікту об'єктів рівноймовірнісним способом
-                    {
-                        conflictObj.add(sim);                           //список конфліктних обєктів
-                    }
+                findConflictObj(conflictObj, r); // розв'язання конфлікту об'єктів рівноймовірнісним способом
+                if (eventSink != null) {
+                    eventSink.conflictSet(min, conflictObj);
                 }
-                int num;
-                int max;
                 if (isProtocolPrint()) {
                     System.out.println(" List of conflicting objects  " + "\n");
                     for (int ii = 0; ii < conflictObj.size(); ii++) {
@@ -201,40 +488,20 @@ public class PetriObjModel implements Serializable, Cloneable  {
                     }
                 }
 
-                if (conflictObj.size() > 1) { //вибір об'єкта, що запускається
-                    max = conflictObj.size();
-                    conflictObj.sort(PetriSim.getComparatorByPriority());
-                    for (int i = 1; i < conflictObj.size(); i++) { //System.out.println("  "+conflictObj.get(i).getPriority()+"  "+conflictObj.get(i-1).getPriority());
-                        if (conflictObj.get(i).getPriority() < conflictObj.get(i - 1).getPriority()) {
-                            max = i - 1;
-                            //System.out.println("max=  "+max);
-                            break;
-                        }
-
-                    }
-                    if (max == 0) {
-                        num = 0;
-                    } else {
-                        num = r.nextInt(max);
-                    }
-                } else {
-                    num = 0;
+                PetriSim selected = conflictObj.get(chooseConflictObj(conflictObj, r)); //вибір об'єкта, що запускається
+                if (eventSink != null) {
+                    eventSink.selectedObject(min, selected);
                 }
 
                 if (isProtocolPrint() == true) {
-                    System.out.println(" Selected object  " + conflictObj.get(num).getName() + "\n" + " NextEvent " + "\n");
-                }
-
-                for (PetriSim sim: getListObj()) {
-                    if (sim.getNumObj() == conflictObj.get(num).getNumObj()) {
-                        if (isProtocolPrint() == true) {
-                            System.out.println(" time =   " + this.getCurrentTime() + "   Event '" + sim.getEventMin().getName() + "'\n"
-                                    + "                       is occuring for the object   " + sim.getName() + "\n");
-                        }
-                        sim.doT();
-                        sim.output(); // added by Inna 11.07.2018
-                    }
+                    System.out.println(" Selected object  " + selected.getName() + "\n" + " NextEvent " + "\n");
+                    System.out.println(" time =   " + this.getCurrentTime() + "   Event '" + selected.getEventMin().getName() + "'\n"
+                            + "                       is occuring for the object   " + selected.getName() + "\n");
                 }
+                selected.doT();
+                selected.output(); // added by Inna 11.07.2018
+                eventCount++;
+                updateEventCalendar(selected);
                 if (isProtocolPrint() == true) {
                     System.out.println("Markers output:");
                     for (PetriSim sim : getListObj()) //ДРУК поточного маркірування
@@ -243,14 +510,14 @@ public class PetriObjModel implements Serializable, Cloneable  {
                     }
                 }
                 
-                Collections.shuffle(getListObj()); // added by Inna 11.07.2018, need for correct functioning of Petri object's shared resource 
-                
-                getListObj().sort(PetriSim.getComparatorByPriority());
-                
-                for (PetriSim e : getListObj()) {
+                scheduler.schedule(selected); // the conditions could change only for the selected object and the subscribers of increased places
+                scheduler.scheduleChanged();
+                scheduler.shuffle(r); // need for correct functioning of Petri object's shared resource
+                for (int i = 0; i < scheduler.size(); i++) {
                     //можливо змінились умови для інших обєктів
+                    PetriSim e = scheduler.get(i);
                     e.input(); //вхід маркерів в переходи Петрі-об'єкта
-
+                    updateEventCalendar(e);
                 }
                 if (isProtocolPrint() == true) {
                     System.out.println("\n->>>>>Markers input:");
@@ -261,97 +528,388 @@ public class PetriObjModel implements Serializable, Cloneable  {
             }
         }
         getListObj().sort(PetriSim.getComparatorByNum()); // return the initial order in the list for a correct output of the results (in SMO test)
+        flushEventSink();
     }
 
 
     public void goWithoutPrintCheck(double timeModeling) {
-        double min;
         this.setSimulationTime(timeModeling);
         this.setCurrentTime(0.0);
+        start(traceListener, false);
+        run();
+    }
 
-        getListObj().sort(PetriSim.getComparatorByPriority());
-        for (PetriSim e : getListObj()) {
+    /**
+     * Continues the simulation from the current state until the time equal
+     * time modeling. The current time, the marking, the buffers of
+     * transitions, the statistics and the generator are not reset, so the
+     * run that is continued gives the same events as one run until the time
+     * modeling. The state can be restored from the snapshot before, see
+     * snapshot().<br>
+     * Simulation protocol is not printed.
+     *
+     * @param timeModeling time modeling, it is not less than current time
+     */
+    public void resume(double timeModeling) {
+        this.setSimulationTime(timeModeling);
+        start(traceListener, true);
+        run();
+    }
+
+    /**
+     * Prepares the run of simulation: sorts Petri-objects by priority,
+     * compiles them, starts the trace and the statistics and does the input of
+     * markers in all Petri-objects. When the run is continued the input of
+     * markers changes nothing, because after each event the input of markers
+     * is done while it is possible.
+     *
+     * @param listener the trace listener or null
+     * @param continued if true the run is continued from the current state,
+     * otherwise the statistics and the quantity of events are reset
+     */
+    private void start(SimTraceListener listener, boolean continued) {
+        getListObj().sort(PetriSim.getComparatorByPriority()); //edited 9.11.2015, 12.10.2017
+        startTrace(listener, continued);
+        scheduler = new ObjectScheduler(getListObj());
+        startStatistics(continued);
+        for (PetriSim e : getListObj()) { //edited 9.11.2015, 18.07.2018
             e.input();
         }
+        buildEventCalendar();
+    }
+
+    /**
+     * Simulates until the time modeling without printing of protocol
+     */
+    private void run() {
+        double min;
         ArrayList<PetriSim> conflictObj = new ArrayList<>();
-        Random r = new Random();
+        Random r = getRandom();
 
-        while (this.getCurrentTime() < this.getSimulationTime()) {
+        while (this.getCurrentTime() < this.getSimulationTime() && !isPrecise()) {
 
             conflictObj.clear();
 
-            min = getListObj().get(0).getTimeMin();
-
-            for (PetriSim e : getListObj()) {
-                if (e.getTimeMin() < min) {
-                    min = e.getTimeMin();
-                }
-            }
+            min = findTimeMin();
 
             if (isStatistics()) {
-                for (PetriSim e : getListObj()) {
-                    if (min > 0) {
-                        if(min<this.getSimulationTime())
-                            e.doStatistics((min - this.getCurrentTime()) / min); //статистика за час "дельта т", для спільних позицій потрібно статистику збирати тільки один раз!!!
-                        else
-                            e.doStatistics((this.getSimulationTime() - this.getCurrentTime()) / this.getSimulationTime());
-                    }
-
-                }
+                doStatistics(Math.min(min, this.getSimulationTime())); //статистика за час "дельта т", для спільних позицій збирається тільки один раз
             }
 
             this.setCurrentTime(min);
+            if (eventSink != null) {
+                eventSink.timeAdvance(min);
+            }
 
             if (this.getCurrentTime() <= this.getSimulationTime()) {
 
-                for (PetriSim sim : getListObj()) {
-                    if (this.getCurrentTime() == sim.getTimeMin())
-                    {
-                        conflictObj.add(sim);
-                    }
+                findConflictObj(conflictObj, r);
+                if (eventSink != null) {
+                    eventSink.conflictSet(min, conflictObj);
+                }
+                PetriSim selected = conflictObj.get(chooseConflictObj(conflictObj, r));
+                if (eventSink != null) {
+                    eventSink.selectedObject(min, selected);
                 }
-                int num;
-                int max;
-
-                if (conflictObj.size() > 1) {
-                    max = conflictObj.size();
-                    conflictObj.sort(PetriSim.getComparatorByPriority());
-                    for (int i = 1; i < conflictObj.size(); i++) {
-                        if (conflictObj.get(i).getPriority() < conflictObj.get(i - 1).getPriority()) {
-                            max = i - 1;
-                            break;
-                        }
+                selected.doT();
+                selected.output();
+                eventCount++;
+                updateEventCalendar(selected);
 
-                    }
-                    if (max == 0) {
-                        num = 0;
-                    } else {
-                        num = r.nextInt(max);
-                    }
-                } else {
-                    num = 0;
+                scheduler.schedule(selected);
+                scheduler.scheduleChanged();
+                scheduler.shuffle(r);
+                for (int i = 0; i < scheduler.size(); i++) {
+                    PetriSim e = scheduler.get(i);
+                    e.input();
+                    updateEventCalendar(e);
                 }
+            }
+        }
+        getListObj().sort(PetriSim.getComparatorByNum()); // return the initial order in the list for a correct output of the results (in SMO test)
+        flushEventSink();
+    }
 
-                for (PetriSim sim: getListObj()) {
-                    if (sim.getNumObj() == conflictObj.get(num).getNumObj()) {
-                        sim.doT();
-                        sim.output();
-                    }
+    /**
+     * Compiles Petri nets of all Petri-objects with one marking (so the shared
+     * places have one value), attaches the generator of model, the trace
+     * listener and the event sink to all Petri-objects of model and starts the
+     * event sink
+     *
+     * @param listener the trace listener or null
+     * @param continued if true the quantity of events is not reset and the
+     * statistics listener of model is not reset
+     */
+    private void startTrace(SimTraceListener listener, boolean continued) {
+        if (!continued) {
+            eventCount = 0;
+        }
+        ModelRandom r = getRandom();
+        Marking marking = new Marking();
+        for (PetriSim sim : getListObj()) {
+            sim.setRandom(r);
+            sim.compile(marking);
+        }
+        if (transitionStreams) {
+            if (streams == null || !continued) {
+                streams = createStreams(objectsByNum());
+            }
+            for (PetriSim sim : getListObj()) {
+                for (PetriT t : sim.getNet().getListT()) {
+                    t.setRandom(streams.get(t));
                 }
+            }
+        }
+        if (codeGeneration) {
+            List<CompiledNet> nets = new ArrayList<>();
+            for (PetriSim sim : getListObj()) {
+                nets.add(sim.getCompiled());
+            }
+            FiringCodeGenerator.generate(nets);
+        }
+        listener = TraceListenerPair.combine(listener, continued ? resumeStatisticsListener() : startStatisticsListener());
+        if (eventSink != null) {
+            eventSink.start(getListObj());
+            listener = TraceListenerPair.combine(listener, eventSink);
+        }
+        for (PetriSim sim : getListObj()) {
+            sim.setModelTraceListener(listener);
+        }
+    }
 
-                Collections.shuffle(getListObj());
-                getListObj().sort(PetriSim.getComparatorByPriority());
+    /**
+     * Is called at the start of each simulation run. The subclass can return
+     * the listener that collects the statistics of model during the run (the
+     * listener must reset its state here). The listener is attached to all
+     * Petri-objects together with the trace listener and the event sink.
+     *
+     * @return the listener or null if the model has no its own statistics
+     */
+    protected SimTraceListener startStatisticsListener() {
+        return null;
+    }
 
-                for (PetriSim e : getListObj()) {
-                    e.input();
+    /**
+     * Is called when the simulation run is continued (see resume()). The
+     * subclass whose listener keeps its state in the snapshot (see
+     * writeState()) overrides this method and returns the listener without
+     * reset. By default the listener is started anew.
+     *
+     * @return the listener or null if the model has no its own statistics
+     */
+    protected SimTraceListener resumeStatisticsListener() {
+        return startStatisticsListener();
+    }
+
+    /**
+     * Collects the places and transitions of model for the statistics (each
+     * shared place is taken once) and removes the statistics of previous run.
+     * The subclass that runs its own loop of simulation calls this method at
+     * the start of run and doStatistics() before each advance of time.
+     *
+     * @param continued if true the statistics are kept
+     */
+    protected void startStatistics(boolean continued) {
+        Set<PetriP> places = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayList<PetriT> transitions = new ArrayList<>();
+        for (PetriSim sim : getListObj()) {
+            places.addAll(sim.getListPositionsForStatistica());
+            transitions.addAll(Arrays.asList(sim.getNet().getListT()));
+        }
+        statisticsP = places.toArray(new PetriP[0]);
+        statisticsT = transitions.toArray(new PetriT[0]);
+        if (continued) {
+            return;
+        }
+        statisticsTime = getCurrentTime();
+        statisticsStart = statisticsTime;
+        for (PetriP p : statisticsP) {
+            p.resetStatistics();
+        }
+        for (PetriT t : statisticsT) {
+            t.resetStatistics();
+        }
+        if (truncation != null) {
+            truncation.start(statisticsTime);
+        }
+        if (stoppingRule != null) {
+            stoppingRule.start(statisticsTime);
+        }
+    }
+
+    /**
+     * @return true if the run is stopped by the stopping rule
+     */
+    private boolean isPrecise() {
+        return stoppingRule != null && stoppingRule.isPrecise();
+    }
+
+    /**
+     * Removes the statistics collected before given moment during the run:
+     * the statistics of places and transitions and the statistics of model
+     * (see resetStatisticsListener())
+     *
+     * @param time the moment from which the statistics are collected
+     */
+    private void removeStatistics(double time) {
+        for (PetriP p : statisticsP) {
+            p.resetStatistics();
+        }
+        for (PetriT t : statisticsT) {
+            t.resetStatistics();
+        }
+        statisticsStart = time;
+        if (stoppingRule != null) {
+            stoppingRule.start(time);
+        }
+        resetStatisticsListener();
+    }
+
+    /**
+     * Is called when the statistics are removed during the run at the end of
+     * warm-up period (see setWarmUpTime() and setTruncation()). The subclass
+     * that collects its own statistics overrides this method and removes them.
+     */
+    protected void resetStatisticsListener() {
+    }
+
+    /**
+     * Adds the current marking and buffers of transitions of model to the
+     * time-weighted statistics
+     *
+     * @param time the moment until which the state of model did not change,
+     * the statistics are collected from the previous such moment
+     */
+    protected void doStatistics(double time) {
+        double from = statisticsTime;
+        if (from < warmUpTime && warmUpTime <= time) {
+            from = warmUpTime;
+            removeStatistics(warmUpTime);
+        }
+        double dt = time - from;
+        statisticsTime = time;
+        if (dt > 0) {
+            for (PetriP p : statisticsP) {
+                p.updateStatistics(dt);
+            }
+            for (PetriT t : statisticsT) {
+                t.updateStatistics(dt);
+            }
+        }
+        if (truncation != null && !truncation.isTruncated()) {
+            truncation.observe(from, time);
+            if (truncation.isTruncated()) {
+                removeStatistics(time);
+            }
+        }
+        if (stoppingRule != null) {
+            stoppingRule.observe(from, time);
+        }
+    }
+
+    private void flushEventSink() {
+        if (eventSink != null) {
+            try {
+                eventSink.flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * Builds the event calendar of model if the event calendar mode is on.
+     * Must be called after the Petri-objects have determined their nearest
+     * events.
+     */
+    private void buildEventCalendar() {
+        if (isEventCalendar()) {
+            if (calendar != null) {
+                calendar.clear();
+            }
+            calendar = new EventCalendar(getListObj());
+        } else {
+            calendar = null;
+        }
+    }
+
+    private void updateEventCalendar(PetriSim sim) {
+        if (calendar != null) {
+            calendar.update(sim);
+        }
+    }
+
+    /**
+     * @return the moment of the nearest event of model
+     */
+    private double findTimeMin() {
+        if (calendar != null) {
+            return calendar.getTimeMin();
+        }
+        double min = getListObj().get(0).getTimeMin();
+        for (PetriSim e : getListObj()) {
+            if (e.getTimeMin() < min) {
+                min = e.getTimeMin();
+            }
+        }
+        return min;
+    }
 
+    /**
+     * Finds the Petri-objects whose nearest event occurs at the current moment.
+     * <br>
+     * The objects are shuffled, so the objects of equal priority are in random
+     * order. In the event calendar mode the objects are taken from the
+     * calendar.
+     *
+     * @param conflictObj the list for the conflicting objects
+     * @param r random numbers generator
+     */
+    private void findConflictObj(ArrayList<PetriSim> conflictObj, Random r) {
+        if (calendar != null) {
+            calendar.collect(this.getCurrentTime(), conflictObj);
+        } else {
+            for (PetriSim sim : getListObj()) {
+                if (this.getCurrentTime() == sim.getTimeMin()) {
+                    conflictObj.add(sim); //список конфліктних обєктів
                 }
             }
         }
-        getListObj().sort(PetriSim.getComparatorByNum()); // return the initial order in the list for a correct output of the results (in SMO test)
+        if (conflictObj.size() > 1) {
+            Collections.shuffle(conflictObj, r);
+        }
+    }
+
+    /**
+     * Chooses the Petri-object that is launched from the conflicting objects
+     * taking into account the priority of objects.
+     *
+     * @param conflictObj the list of conflicting objects
+     * @param r random numbers generator
+     * @return the index of chosen object in the list of conflicting objects
+     */
+    private int chooseConflictObj(ArrayList<PetriSim> conflictObj, Random r) {
+        int num;
+        int max;
+        if (conflictObj.size() > 1) {
+            max = conflictObj.size();
+            conflictObj.sort(PetriSim.getComparatorByPriority());
+            for (int i = 1; i < conflictObj.size(); i++) {
+                if (conflictObj.get(i).getPriority() < conflictObj.get(i - 1).getPriority()) {
+                    max = i - 1;
+                    break;
+                }
+            }
+            if (max == 0) {
+                num = 0;
+            } else {
+                num = r.nextInt(max);
+            }
+        } else {
+            num = 0;
+        }
+        return num;
     }
-    
-    
      
     /**
      * Prints the string in given JTextArea object
@@ -396,12 +954,12 @@ public class PetriObjModel implements Serializable, Cloneable  {
        
         if (this.isStatistics() == true) {
             for (PetriSim e : listObj) {
-               System.out.println("\nMean value of markers in places and mean value of buffers in transitions for "+e.getName()+" object");
+               System.out.println("\nTime-weighted statistics of markers in places and buffers in transitions for "+e.getName()+" object");
                 for(PetriP p: e.getNet().getListP()) {
-                   System.out.println(p.getName()+"  "+p.getMean());
+                   System.out.println(p.getName()+"  "+p.getStatistics());
                }
                 for(PetriT tr: e.getNet().getListT()) {
-                   System.out.println(tr.getName()+"  "+tr.getMean());
+                   System.out.println(tr.getName()+"  "+tr.getStatistics());
                }
                
             }
@@ -463,6 +1021,219 @@ public class PetriObjModel implements Serializable, Cloneable  {
         this.protocolPrint = protocolPrint;
     }
 
+    /**
+     * @return the listener of the trace of Petri-objects functioning
+     */
+    public SimTraceListener getTraceListener() {
+        return traceListener;
+    }
+
+    /**
+     * Sets the listener of the trace of Petri-objects functioning. The listener
+     * is attached to all Petri-objects of model when simulation starts. If the
+     * listener is null, the trace is printed on console only if the protocol
+     * is needed, otherwise Petri-objects function silently. The listener of
+     * Petri-object set by PetriSim.setTraceListener() is kept and is called
+     * after the listener of model.
+     *
+     * @param traceListener the listener to set or null
+     */
+    public void setTraceListener(SimTraceListener traceListener) {
+        this.traceListener = traceListener;
+    }
+
+    /**
+     * Returns the generator of random numbers of model. It is used for the
+     * service time of transitions and for the conflict resolution between
+     * transitions and between Petri-objects. If the generator has not been set
+     * the generator with unpredictable seed is created.
+     *
+     * @return the generator of random numbers of model
+     */
+    public ModelRandom getRandom() {
+        if (random == null) {
+            random = new ModelRandom();
+        }
+        return random;
+    }
+
+    /**
+     * @param random the generator of random numbers of model
+     */
+    public void setRandom(ModelRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * @return true if each transition has its own substream of random numbers
+     */
+    public boolean isTransitionStreams() {
+        return transitionStreams;
+    }
+
+    /**
+     * Gives each transition its own substream of random numbers for the
+     * service time. The substreams are derived at the start of simulation
+     * from the generator of model and the names of Petri-object and
+     * transition, so the transition with the same name in two variants of
+     * model (for example with different capacity) gets the same sequence of
+     * service times in the replications with the same generator. This is the
+     * common random numbers: the difference between variants is not hidden by
+     * the difference of random numbers. The conflicts are resolved by the
+     * generator of model.
+     *
+     * @param transitionStreams true if each transition has its own substream
+     */
+    public void setTransitionStreams(boolean transitionStreams) {
+        this.transitionStreams = transitionStreams;
+        streams = null;
+    }
+
+    /**
+     * Sets the generator of random numbers of model with given seed, so the
+     * simulation run can be reproduced.
+     *
+     * @param seed the seed of generator
+     */
+    public void setSeed(long seed) {
+        this.random = new ModelRandom(seed);
+    }
+
+    /**
+     * @return the quantity of events (outputs of markers by the selected
+     * Petri-objects) that have occurred in the last simulation run
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return the sink of the typed events of simulation
+     */
+    public EventSink getEventSink() {
+        return eventSink;
+    }
+
+    /**
+     * Sets the sink of the typed events of simulation. The sink is started
+     * when simulation starts and is flushed when simulation finishes, it is
+     * closed by the user.
+     *
+     * @param eventSink the sink to set or null if the events are not needed
+     */
+    public void setEventSink(EventSink eventSink) {
+        this.eventSink = eventSink;
+    }
+
+    /**
+     * @return true if the nearest event is found by the event calendar
+     */
+    public boolean isEventCalendar() {
+        return eventCalendar;
+    }
+
+    /**
+     * Set the event calendar mode. In this mode the Petri-objects are kept in
+     * the indexed binary heap keyed on the moment of their nearest event, so
+     * the nearest event of model is found in O(log N) instead of the scan of
+     * all objects. The rules of conflict resolution between objects remain the
+     * same.
+     *
+     * @param eventCalendar is true if the event calendar is needed
+     */
+    public void setEventCalendar(boolean eventCalendar) {
+        this.eventCalendar = eventCalendar;
+    }
+
+    /**
+     * @return true if the firing code is generated for Petri nets of objects
+     */
+    public boolean isCodeGeneration() {
+        return codeGeneration;
+    }
+
+    /**
+     * Set the generation of firing code. In this mode the classes with the
+     * firing condition and the input and output of markers are generated for
+     * Petri nets of objects at the start of simulation (see
+     * FiringCodeGenerator), the next runs use the same classes. If the code
+     * of net is too large, the net is simulated without the generated code.
+     *
+     * @param codeGeneration is true if the firing code is needed
+     */
+    public void setCodeGeneration(boolean codeGeneration) {
+        this.codeGeneration = codeGeneration;
+    }
+
+    /**
+     * @return the moment at which the statistics are removed, or 0 if the
+     * statistics are collected from the start of run
+     */
+    public double getWarmUpTime() {
+        return warmUpTime;
+    }
+
+    /**
+     * Sets the warm-up period. At the end of this period the statistics of
+     * places and transitions and the statistics of model are removed, the run
+     * continues, so the results do not depend on the initial state of model.
+     *
+     * @param warmUpTime the length of warm-up period from the start of run
+     */
+    public void setWarmUpTime(double warmUpTime) {
+        this.warmUpTime = warmUpTime;
+    }
+
+    /**
+     * @return the detector of transient period or null
+     */
+    public MserTruncation getTruncation() {
+        return truncation;
+    }
+
+    /**
+     * Sets the detector of transient period. The detector observes the
+     * metrics from the start of run, the statistics are removed at the moment
+     * when it accepts the truncation point and the run continues. The state of
+     * detector is not saved in the snapshot of model.
+     *
+     * @param truncation the detector or null if the transient period is not
+     * detected
+     */
+    public void setTruncation(MserTruncation truncation) {
+        this.truncation = truncation;
+    }
+
+    /**
+     * @return the stopping rule or null
+     */
+    public BatchMeans getStoppingRule() {
+        return stoppingRule;
+    }
+
+    /**
+     * Sets the sequential stopping rule. The rule collects the batch means of
+     * its metrics from the start of statistics (after the warm-up period, if
+     * it is set) and the run is stopped after the event at which the precision
+     * of all metrics is reached, so the time modeling is the longest time of
+     * run. The statistics must be on. The state of rule is not saved in the
+     * snapshot of model.
+     *
+     * @param stoppingRule the rule or null if the run goes until the time
+     * modeling
+     */
+    public void setStoppingRule(BatchMeans stoppingRule) {
+        this.stoppingRule = stoppingRule;
+    }
+
+    /**
+     * @return the moment from which the statistics of the last run are
+     * collected (the start of run or the end of warm-up period)
+     */
+    public double getStatisticsStart() {
+        return statisticsStart;
+    }
+
     /**
      * @return the statistics
      */
@@ -1,5 +1,8 @@
 package PetriObj;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 
 /*
@@ -17,9 +20,11 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
     private String name;
     private int number;
     private double mean;
-    private static int next = 0;//додано 1.10.2012, лічильник об"єктів
+    private TimeWeightedStatistics statistics = new TimeWeightedStatistics();
     private int observedMax;
     private int observedMin;
+    private Marking marking; // if it is not null the quantity of markers is kept in the marking
+    private int slot; // the slot of place in the marking
     // whether mark is a parameter; added by Katya 08.12.2016
     private boolean markIsParam = false;
     // param name
@@ -37,8 +42,7 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
         name = n;
         mark = m;
         mean = 0;
-        number = next; //додано 1.10.2012
-        next++;
+        number = NumberingContext.current().nextPlace(); //додано 1.10.2012
         observedMax = m;
         observedMin = m;
         id=null;
@@ -83,8 +87,7 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
         name = placeName;
         
         mean = 0;
-        number = next; //додано 1.10.2012
-        next++;
+        number = NumberingContext.current().nextPlace(); //додано 1.10.2012
         
         id=null;
         this.setMarkParam(marksParameterName);
@@ -92,8 +95,7 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
 
     public PetriP(PetriP position) {
         this(position.getName(), position.getMark());
-        number = next;
-        next++;
+        number = NumberingContext.current().nextPlace();
     }
  
     
@@ -112,7 +114,7 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
         } else {
             markIsParam = true;
             markParamName = paramName;
-            mark = 0;
+            setMark(0);
         }
     }
     /**
@@ -120,18 +122,20 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
      */
     public static void initNext(){ //ініціалізація лічильника нульовим значенням
     
-        next = 0;
+        NumberingContext.current().setNextPlace(0);
     }
 
     /**
-     * /**
      * Recalculates the mean value
      *
      * @param a value for recalculate of mean value (value equals product of
      * marking and time divided by time modeling)
+     * @deprecated the weights of intervals are not the time-weighted mean and
+     * the result is overwritten by updateStatistics(), use updateStatistics()
      */
+    @Deprecated
     public void changeMean(double a) {
-        mean = mean + (mark - mean) * a;
+        mean = mean + (getMark() - mean) * a;
     }
 
     /**
@@ -142,11 +146,41 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
         return mean;
     }
 
+    /**
+     * Adds the current quantity of markers in place to the time-weighted
+     * statistics and recalculates the mean value
+     *
+     * @param dt the time interval during which the quantity did not change
+     */
+    public void updateStatistics(double dt) {
+        statistics.add(getMark(), dt);
+        mean = statistics.getMean();
+    }
+
+    /**
+     * Removes the collected statistics
+     */
+    public void resetStatistics() {
+        statistics.reset();
+        mean = 0;
+    }
+
+    /**
+     * @return the time-weighted statistics of quantity of markers in place
+     */
+    public TimeWeightedStatistics getStatistics() {
+        return statistics;
+    }
+
     /**
      *
      * @param a value on which increase the quantity of markers
      */
     public void increaseMark(int a) {
+        if (marking != null) {
+            marking.add(slot, a);
+            return;
+        }
         mark += a;
         if (observedMax < mark) {
             observedMax = mark;
@@ -162,6 +196,10 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
      * @param a value on which decrease the quantity of markers
      */
     public void decreaseMark(int a) {
+        if (marking != null) {
+            marking.add(slot, -a);
+            return;
+        }
         mark -= a;
         if (observedMax < mark) {
             observedMax = mark;
@@ -176,7 +214,7 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
      * @return current quantity of markers
      */
     public int getMark() {
-        return mark;
+        return marking != null ? marking.marks[slot] : mark;
     }
  /**
      * Set quantity of markers
@@ -184,6 +222,10 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
      * @param a quantity of markers
      */
     public void setMark(int a) {
+        if (marking != null) {
+            marking.set(slot, a);
+            return;
+        }
         mark = a;
         if (observedMax < mark) {
             observedMax = mark;
@@ -192,14 +234,41 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
             observedMin = mark;
         }
     }
+
+    /**
+     * Makes this place the view of slot of marking. Is used by
+     * Marking.bind().
+     *
+     * @param marking the marking
+     * @param slot the slot of place
+     */
+    void bind(Marking marking, int slot) {
+        this.marking = marking;
+        this.slot = slot;
+    }
+
+    /**
+     * @return the marking that keeps the quantity of markers of this place or
+     * null if the quantity is kept in the place
+     */
+    public Marking getMarking() {
+        return marking;
+    }
+
+    /**
+     * @return the slot of place in the marking
+     */
+    public int getSlot() {
+        return slot;
+    }
     
     
     public int getObservedMax() {
-        return observedMax;
+        return marking != null ? marking.observedMax[slot] : observedMax;
     }
 
     public int getObservedMin() {
-        return observedMin;
+        return marking != null ? marking.observedMin[slot] : observedMin;
     }
 
     /**
@@ -235,7 +304,7 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
     }
 
     public static void setNext(int n) {
-        next = n;
+        NumberingContext.current().setNextPlace(n);
     }
 
 
@@ -254,9 +323,76 @@ public class PetriP extends PetriMainElement implements Cloneable, Serializable
         return P;
     }
 
+    /**
+     * @return the copy of this place with the same fields (see ModelCopier)
+     */
+    PetriP shallowCopy() {
+        try {
+            return (PetriP) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Is called on the copy of place. The quantity of markers and its observed
+     * minimum and maximum are taken from the marking, the copy is not bound
+     * to the marking.
+     */
+    void copyFields() {
+        if (marking != null) {
+            mark = marking.get(slot);
+            observedMin = marking.observedMin[slot];
+            observedMax = marking.observedMax[slot];
+            marking = null;
+            slot = 0;
+        }
+        statistics = new TimeWeightedStatistics(statistics);
+    }
+
+    /**
+     * Writes the quantity of markers, its observed minimum and maximum and the
+     * statistics of place (see PetriObjModel.snapshot())
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(getMark());
+        out.writeInt(getObservedMin());
+        out.writeInt(getObservedMax());
+        out.writeDouble(mean);
+        statistics.writeState(out);
+    }
+
+    /**
+     * Replaces the state of place with the state written by writeState(). If
+     * the place is bound to the marking, the values are put into the marking.
+     *
+     * @param in the input
+     * @throws IOException if the input fails
+     */
+    void readState(DataInput in) throws IOException {
+        int m = in.readInt();
+        int min = in.readInt();
+        int max = in.readInt();
+        if (marking != null) {
+            marking.marks[slot] = m;
+            marking.observedMin[slot] = min;
+            marking.observedMax[slot] = max;
+            marking.touch(slot);
+        } else {
+            mark = m;
+            observedMin = min;
+            observedMax = max;
+        }
+        mean = in.readDouble();
+        statistics.readState(in);
+    }
+
     public void printParameters() {
         System.out.println("Place " + name + "has such parametrs: \n"
-                + " number " + number + ", mark " + mark);
+                + " number " + number + ", mark " + getMark());
     }
 
     /**
@@ -5,6 +5,9 @@ package PetriObj;
  * and open the template in the editor.
  */
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 import javax.swing.JSlider;
@@ -23,7 +26,6 @@ public class PetriSim implements Cloneable, Serializable {
 
     private String name;
     private int numObj; //поточний номер створюваного об"єкта   //додано 6 серпня
-    private static int next = 1; //лічильник створених об"єктів  //додано 6 серпня
     private int priority;
     protected double timeMin; // modefier is edited on protected for the subclass access
 
@@ -41,6 +43,16 @@ public class PetriSim implements Cloneable, Serializable {
     //..... з таким списком статистика спільних позицій працює правильно...
 
     private String id;//unique number of object for server
+    private transient int calendarIndex = -1; // position in the event calendar of model
+    private transient CompiledNet compiled; // the compiled Petri net which is used by the simulation
+    private transient int eventMinIndex = -1; // the index of eventMin in the array of transitions
+    private transient EnabledTransitions enabledT; // live set of transitions with the true firing condition
+    private transient ArrayList<PetriT> activeT; // reused list of candidates for the conflict resolution
+    private transient SimTraceListener traceListener; // is null if the trace is not needed
+    private transient SimTraceListener ownTraceListener; // the listener set by setTraceListener()
+    private transient SimTraceListener modelTraceListener; // the listener attached by the model
+    private transient int[] markBefore; // reused snapshot of marking for the trace listener
+    private transient Random random; // the generator of model, if it is null the generator of FunRand is used
 
     /**
      * Constructs the Petri simulator with given Petri net and time modeling
@@ -65,8 +77,7 @@ public class PetriSim implements Cloneable, Serializable {
         this.net = net;
         this.timeState = timeState;
         name = net.getName();
-        numObj = next;
-        next++;
+        numObj = NumberingContext.current().nextObject();
         timeMin = Double.MAX_VALUE;
 
         listP = net.getListP();
@@ -100,12 +111,107 @@ public class PetriSim implements Cloneable, Serializable {
 
     }
 
+    /**
+     * @return the deep copy of this Petri-object with the same class, priority,
+     * marking and buffers of transitions (see ModelCopier)
+     * @throws CloneNotSupportedException is not thrown
+     */
     @Override
     public PetriSim clone() throws CloneNotSupportedException { //added 29.11.2017 by Inna
+        return new ModelCopier().copy(this);
+    }
+
+    /**
+     * @return the copy of this Petri-object with the same fields (see
+     * ModelCopier)
+     */
+    PetriSim shallowCopy() {
+        try {
+            return (PetriSim) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Is called on the copy of Petri-object, replaces the Petri net, the
+     * places and transitions and the time state with their copies. The
+     * compiled net, the trace listener and the generator are not copied. The
+     * subclass that has its own references to the elements of model
+     * overrides this method and replaces them too.
+     *
+     * @param copier the copier of model
+     */
+    protected void copyFields(ModelCopier copier) {
+        timeState = copier.copy(timeState);
+        net = copier.copy(net);
+        listP = copier.copy(listP);
+        listT = copier.copy(listT);
+        listIn = copier.copy(listIn);
+        listOut = copier.copy(listOut);
+        eventMin = copier.copy(eventMin);
+        ArrayList<PetriP> places = new ArrayList<>(listPositionsForStatistica.size());
+        for (PetriP p : listPositionsForStatistica) {
+            places.add(copier.copy(p));
+        }
+        listPositionsForStatistica = places;
+        calendarIndex = -1;
+        compiled = null;
+        eventMinIndex = -1;
+        enabledT = null;
+        activeT = null;
+        traceListener = null;
+        ownTraceListener = null;
+        modelTraceListener = null;
+        markBefore = null;
+        random = null;
+    }
+
+    /**
+     * Writes the nearest event of Petri-object (see PetriObjModel.snapshot()). The
+     * places and transitions are written by the model. The subclass that has
+     * its own state changing during the simulation overrides this method and
+     * readState() and writes this state too.
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    protected void writeState(DataOutput out) throws IOException {
+        out.writeDouble(timeMin);
+        out.writeInt(eventMinIndex());
+    }
+
+    /**
+     * Replaces the nearest event of Petri-object with the event written by
+     * writeState()
+     *
+     * @param in the input
+     * @throws IOException if the input fails
+     */
+    protected void readState(DataInput in) throws IOException {
+        timeMin = in.readDouble();
+        int j = in.readInt();
+        eventMinIndex = j >= 0 && j < listT.length ? j : -1;
+        eventMin = eventMinIndex >= 0 ? listT[j] : null;
+    }
 
-        super.clone();
+    /**
+     * Takes the arcs of Petri net again after the parameters of net are
+     * bound (see ParameterBinding), the net is compiled again on the next
+     * input of markers
+     */
+    void netChanged() {
+        listIn = net.getArcIn();
+        listOut = net.getArcOut();
+        compiled = null;
+        detachEnabledT();
+    }
 
-        return new PetriSim(this.getNet().clone());
+    private void detachEnabledT() {
+        if (enabledT != null) {
+            enabledT.detach();
+            enabledT = null;
+        }
     }
 
     /**
@@ -173,14 +279,30 @@ public class PetriSim implements Cloneable, Serializable {
         // якщо усі переходи порожні, то це означає зупинку імітації, 
         // отже за null значенням eventMin можна відслідковувати зупинку імітації
         double min = Double.MAX_VALUE;
-        for (PetriT transition : listT) {
-            if (transition.getMinTime() < min) {
-                event = transition;
-                min = transition.getMinTime();
+        int index = -1;
+        for (int j = 0; j < listT.length; j++) {
+            if (listT[j].getMinTime() < min) {
+                event = listT[j];
+                index = j;
+                min = event.getMinTime();
             }
         }
         timeMin = min;
         eventMin = event;
+        eventMinIndex = index;
+    }
+
+    /**
+     * @param transition the transition of Petri net
+     * @return the index of transition in the array of transitions
+     */
+    private int indexOfT(PetriT transition) {
+        for (int j = 0; j < listT.length; j++) {
+            if (listT[j] == transition) {
+                return j;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -223,6 +345,118 @@ public class PetriSim implements Cloneable, Serializable {
         return aT;
     }
 
+    /**
+     * Checks the firing condition of transitions of Petri net that could be
+     * changed after the last call and returns the live set of enabled
+     * transitions. The set is built and all transitions are checked on the
+     * first call.
+     *
+     * @return the set of transitions with the true firing condition
+     */
+    protected EnabledTransitions refreshEnabledT() {
+        if (compiled == null || !compiled.isValid()) {
+            compile(findMarking(), compiled != null && compiled.getCode() != null);
+        }
+        if (enabledT == null) {
+            enabledT = new EnabledTransitions(listP, listT, compiled);
+            activeT = new ArrayList<>();
+        }
+        enabledT.refresh(listP);
+        return enabledT;
+    }
+
+    /**
+     * Solves the conflict between the enabled transitions of the highest
+     * priority, does the input of markers into the winner and checks again only
+     * the transitions that depend on the input places of the winner.
+     *
+     * @param enabled the set of transitions with the true firing condition
+     * @return the fired transition
+     */
+    protected PetriT fireEnabledT(EnabledTransitions enabled) {
+        enabled.fillTop(activeT);
+        PetriT transition = this.doConflikt(activeT);
+        compiled.actIn(enabled.indexOfTop(activeT, transition), this.getCurrentTime());
+        enabled.update(transition, listP);
+        return transition;
+    }
+
+    /**
+     * Compiles Petri net of this object. The places are bound to the marking,
+     * so the shared places of Petri-objects compiled with the same marking
+     * have one value. If a place is bound to other marking later, this object
+     * is compiled again on the next input of markers.
+     *
+     * @param marking the marking which keeps the quantities of markers
+     */
+    public void compile(Marking marking) {
+        compile(marking, false);
+    }
+
+    /**
+     * Compiles Petri net of this object, see compile(Marking).
+     *
+     * @param marking the marking which keeps the quantities of markers
+     * @param generateCode if true the firing code is generated for Petri net
+     * of this object
+     */
+    public void compile(Marking marking, boolean generateCode) {
+        compiled = new CompiledNet(listP, listT, marking);
+        detachEnabledT();
+        if (generateCode) {
+            FiringCodeGenerator.generate(compiled);
+        }
+    }
+
+    /**
+     * @return the compiled Petri net or null if the object has not been
+     * compiled yet
+     */
+    public CompiledNet getCompiled() {
+        return compiled;
+    }
+
+    /**
+     * Finds the marking for the compilation: the greatest marking which the
+     * places of this object are already bound to, or the new marking. So the
+     * objects with shared places that are compiled separately come to one
+     * marking.
+     *
+     * @return the marking
+     */
+    private Marking findMarking() {
+        Marking marking = null;
+        for (PetriP p : listP) {
+            Marking m = p.getMarking();
+            if (m != null && (marking == null || m.size() > marking.size())) {
+                marking = m;
+            }
+        }
+        return marking != null ? marking : new Marking(listP.length);
+    }
+
+    /**
+     * @return the index of transition eventMin in the array of transitions
+     */
+    private int eventMinIndex() {
+        int j = eventMinIndex;
+        return j >= 0 && j < listT.length && listT[j] == eventMin ? j : indexOfT(eventMin);
+    }
+
+    /**
+     * Does the output of markers from the channel of transition with the
+     * nearest moment of output
+     *
+     * @param j the index of transition
+     */
+    private void actOut(int j) {
+        if (compiled != null && compiled.isValid()) {
+            compiled.actOut(j, this.getCurrentTime());
+        } else {
+            listT[j].actOut(listP, this.getCurrentTime());
+        }
+    }
+
     /**
      * @return the timeCurr
      */
@@ -290,47 +524,34 @@ public class PetriSim implements Cloneable, Serializable {
         System.out.println("Next Step  " + "time=" + this.getCurrentTime());
 
         this.printMark();//друкувати поточне маркування
-        ArrayList<PetriT> activeT = this.findActiveT();     //формування списку активних переходів
+        EnabledTransitions enabled = this.refreshEnabledT();     //формування множини активних переходів
 
-        if ((activeT.isEmpty() && isBufferEmpty() == true) || this.getCurrentTime() >= getSimulationTime()) { //зупинка імітації за умови, що
+        if ((enabled.isEmpty() && isBufferEmpty() == true) || this.getCurrentTime() >= getSimulationTime()) { //зупинка імітації за умови, що
             //немає переходів, які запускаються,
             //   stop = true;                              // і немає маркерів у переходах, або вичерпаний час моделювання
             System.out.println("STOP in Net  " + this.getName());
             timeMin = getSimulationTime();
-            for (PetriP p : listP) {
-                p.changeMean((timeMin - this.getCurrentTime()) / getSimulationTime());
-            }
-
-            for (PetriT transition : listT) {
-                transition.changeMean((timeMin - this.getCurrentTime()) / getSimulationTime());
-            }
+            doStatistics();
 
             setTimeCurr(timeMin);         //просування часу
         } else {
-            while (activeT.size() > 0) { //вхід маркерів в переходи доки можливо
-
-                this.doConflikt(activeT).actIn(listP, this.getCurrentTime()); //розв'язання конфліктів
+            while (!enabled.isEmpty()) { //вхід маркерів в переходи доки можливо
 
-                activeT = this.findActiveT(); //оновлення списку активних переходів
+                fireEnabledT(enabled); //розв'язання конфліктів та оновлення множини активних переходів
 
             }
 
             this.eventMin();//знайти найближчу подію та ії час
 
-            for (PetriP position : listP) {
-                position.changeMean((timeMin - this.getCurrentTime()) / getSimulationTime());
-            }
-
-            for (PetriT transition : listT) {
-                transition.changeMean((timeMin - this.getCurrentTime()) / getSimulationTime());
-            }
+            doStatistics();
 
             setTimeCurr(timeMin);         //просування часу
 
             if (this.getCurrentTime() <= getSimulationTime()) {
 
                 //Вихід маркерів
-                eventMin.actOut(listP, this.getCurrentTime());//Вихід маркерів з переходу, що відповідає найближчому моменту часу
+                int e = eventMinIndex();
+                actOut(e);//Вихід маркерів з переходу, що відповідає найближчому моменту часу
 
                 if (eventMin.getBuffer() > 0) {
                     boolean u = true;
@@ -338,7 +559,7 @@ public class PetriSim implements Cloneable, Serializable {
                         eventMin.minEvent();
                         if (eventMin.getMinTime() == this.getCurrentTime()) {
 
-                            eventMin.actOut(listP, this.getCurrentTime());
+                            actOut(e);
                             // this.printMark();//друкувати поточне маркування
                         } else {
                             u = false;
@@ -348,10 +569,11 @@ public class PetriSim implements Cloneable, Serializable {
                     // this.printMark();//друкувати поточне маркування
                 }
                 //Додано 6.08.2011!!!
-                for (PetriT transition : listT) {//ВАЖЛИВО!!Вихід з усіх переходів, що час виходу маркерів == поточний момент час.
+                for (int j = 0; j < listT.length; j++) { //ВАЖЛИВО!!Вихід з усіх переходів, що час виходу маркерів == поточний момент час.
+                    PetriT transition = listT[j];
 
                     if (transition.getBuffer() > 0 && transition.getMinTime() == this.getCurrentTime()) {
-                        transition.actOut(listP, this.getCurrentTime());//Вихід маркерів з переходу, що відповідає найближчому моменту часу
+                        actOut(j);//Вихід маркерів з переходу, що відповідає найближчому моменту часу
 
                         // this.printMark();//друкувати поточне маркування
                         if (transition.getBuffer() > 0) {
@@ -359,7 +581,7 @@ public class PetriSim implements Cloneable, Serializable {
                             while (u == true) {
                                 transition.minEvent();
                                 if (transition.getMinTime() == this.getCurrentTime()) {
-                                    transition.actOut(listP, this.getCurrentTime());
+                                    actOut(j);
                                     // this.printMark();//друкувати поточне маркування
                                 } else {
                                     u = false;
@@ -380,39 +602,28 @@ public class PetriSim implements Cloneable, Serializable {
      * It does the transitions input markers
      */
     public void input() {//вхід маркерів в переходи Петрі-об'єкта
-        ArrayList<PetriT> activeT = this.findActiveT();//формування списку активних переходів
+        EnabledTransitions enabled = this.refreshEnabledT();//формування множини активних переходів
 
-        if (activeT.isEmpty() && isBufferEmpty()) { //зупинка імітації за умови, що
+        if (enabled.isEmpty() && isBufferEmpty()) { //зупинка імітації за умови, що
             //не має переходів, які запускаються,і не має маркерів у переходах
             timeMin = Double.MAX_VALUE;
             //eventMin = null;  // 19.07.2018 by Sasha animation
         } else {
-            System.out.printf("\n----INPUT %s, current time: %f%n", this.getName(), this.getCurrentTime());
-            printMark();
-            Vector<Integer> beforeMarkers = new Vector<>();
-            for (PetriP p : listP) {
-                beforeMarkers.add(p.getMark());
-            }
-            for (PetriT aT : activeT) {
-                System.out.println(aT.getName());
+            if (traceListener != null) {
+                traceListener.inputStarted(this);
+                saveMark();
             }
-            while (!activeT.isEmpty()) {//запуск переходів доки можливо
+            while (!enabled.isEmpty()) {//запуск переходів доки можливо
 
-                this.doConflikt(activeT).actIn(listP, this.getCurrentTime()); //розв'язання конфліктів
-                activeT = this.findActiveT(); //оновлення списку активних переходів
+                PetriT transition = fireEnabledT(enabled); //розв'язання конфліктів та оновлення множини активних переходів
+                if (traceListener != null) {
+                    traceListener.transitionIn(this, transition);
+                }
             }
-            this.eventMin();
-            printMark();
-            Vector<Integer> afterMarkers = new Vector<>();
-            for (PetriP p : listP) {
-                afterMarkers.add(p.getMark());
+            this.eventMin();//знайти найближчу подію та ії час
+            if (traceListener != null) {
+                traceListener.inputFinished(this, markBefore);
             }
-
-            for (int i = 0; i < afterMarkers.size(); i++) {
-                if (!afterMarkers.get(i).equals(beforeMarkers.get(i))) {
-                    System.out.println(listP[i].getName() + " diff: " + (afterMarkers.get(i) - beforeMarkers.get(i)));
-                }
-            }//знайти найближчу подію та ії час
         }
     }
 
@@ -421,47 +632,48 @@ public class PetriSim implements Cloneable, Serializable {
      */
 
     public void output() {
-        System.out.println("\n----OUTPUT current time: " + this.getCurrentTime());
-        System.out.println("event: " + eventMin.getName());
-        System.out.println("before: ");
-        printMark();
-
-        Vector<Integer> beforeMarkers = new Vector<>();
-        for (PetriP p : listP) {
-            beforeMarkers.add(p.getMark());
+        if (traceListener != null) {
+            traceListener.outputStarted(this, eventMin);
+            saveMark();
         }
 
-
         if (this.getCurrentTime() <= this.getSimulationTime()) {
-            if (eventMin.getCountPassengersOverflowTransition()) {
-
+            int e = eventMinIndex();
+            actOut(e);//здійснення події
+            if (traceListener != null) {
+                traceListener.transitionOut(this, eventMin);
             }
-            eventMin.actOut(listP, this.getCurrentTime());//здійснення події
             if (eventMin.getBuffer() > 0) {
                 boolean u = true;
                 while (u == true) {
                     eventMin.minEvent();
                     if (eventMin.getMinTime() == this.getCurrentTime()) {
-                        eventMin.actOut(listP, this.getCurrentTime());
+                        actOut(e);
+                        if (traceListener != null) {
+                            traceListener.transitionOut(this, eventMin);
+                        }
                     } else {
                         u = false;
                     }
                 }
             }
-            for (PetriT transition : listT) { //ВАЖЛИВО!!Вихід з усіх переходів, що час виходу маркерів == поточний момент час.
+            for (int j = 0; j < listT.length; j++) { //ВАЖЛИВО!!Вихід з усіх переходів, що час виходу маркерів == поточний момент час.
+                PetriT transition = listT[j];
 
                 if (transition.getBuffer() > 0 && transition.getMinTime() == this.getCurrentTime()) {
-                    System.out.println("extra out: " + transition.getName());
-                    transition.actOut(listP, this.getCurrentTime());//Вихід маркерів з переходу, що відповідає найближчому моменту часу
+                    actOut(j);//Вихід маркерів з переходу, що відповідає найближчому моменту часу
+                    if (traceListener != null) {
+                        traceListener.transitionOut(this, transition);
+                    }
                     if (transition.getBuffer() > 0) {
                         boolean u = true;
                         while (u == true) {
                             transition.minEvent();
                             if (transition.getMinTime() == this.getCurrentTime()) {
-                                if (Objects.equals(transition.getName(), "Arrival")) {
-                                    System.out.println("arrival");
+                                actOut(j);
+                                if (traceListener != null) {
+                                    traceListener.transitionOut(this, transition);
                                 }
-                                transition.actOut(listP, this.getCurrentTime());
                             } else {
                                 u = false;
                             }
@@ -472,20 +684,85 @@ public class PetriSim implements Cloneable, Serializable {
 
         }
 
-        System.out.println("after: ");
-        printMark();
+        if (traceListener != null) {
+            traceListener.outputFinished(this, markBefore);
+        }
+    }
 
-        Vector<Integer> afterMarkers = new Vector<>();
-        for (PetriP p : listP) {
-            afterMarkers.add(p.getMark());
+    /**
+     * Saves the current marking of places in the reused array
+     */
+    private void saveMark() {
+        if (markBefore == null || markBefore.length != listP.length) {
+            markBefore = new int[listP.length];
         }
+        for (int i = 0; i < listP.length; i++) {
+            markBefore[i] = listP[i].getMark();
+        }
+    }
 
-        for (int i = 0; i < afterMarkers.size(); i++) {
-            if (!afterMarkers.get(i).equals(beforeMarkers.get(i))) {
-                System.out.println(listP[i].getName() + " diff: " + (afterMarkers.get(i) - beforeMarkers.get(i)));
-            }
+    /**
+     * @return the generator of random numbers used for the conflict resolution
+     * between transitions
+     */
+    public Random getRandom() {
+        return random != null ? random : FunRand.getRandom();
+    }
+
+    /**
+     * Sets the generator of random numbers for the conflict resolution and for
+     * the service time of all transitions of Petri net.
+     *
+     * @param random the generator or null to use the generator of FunRand
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+        for (PetriT transition : listT) {
+            transition.setRandom(random);
         }
+    }
+
+    /**
+     * @return the listener of the trace of Petri-object functioning set by
+     * setTraceListener() or null
+     */
+    public SimTraceListener getTraceListener() {
+        return ownTraceListener;
+    }
 
+    /**
+     * Sets the listener of the trace of Petri-object functioning. The
+     * ConsoleTraceListener prints the trace on console. If the Petri-object
+     * belongs to the model, this listener is called after the listener
+     * attached by the model (see PetriObjModel.setTraceListener()). If there
+     * is no listener the input and output of markers are done silently, no
+     * trace information is built.
+     *
+     * @param traceListener the listener to set or null
+     */
+    public void setTraceListener(SimTraceListener traceListener) {
+        ownTraceListener = traceListener;
+        this.traceListener = TraceListenerPair.combine(modelTraceListener, ownTraceListener);
+    }
+
+    /**
+     * Attaches the listener of model: the trace listener, the statistics
+     * listener and the event sink. Is called when the simulation of model
+     * starts.
+     *
+     * @param listener the listener of model or null
+     */
+    void setModelTraceListener(SimTraceListener listener) {
+        modelTraceListener = listener;
+        traceListener = TraceListenerPair.combine(modelTraceListener, ownTraceListener);
+    }
+
+    /**
+     * @return the listener which is called during the input and output of
+     * markers or null if no trace information is built
+     */
+    SimTraceListener getActiveTraceListener() {
+        return traceListener;
     }
 
 
@@ -503,21 +780,41 @@ public class PetriSim implements Cloneable, Serializable {
     }
 
     /**
-     * Calculates mean value of quantity of markers in places and quantity of
-     * active channels of transitions
+     * Calculates the time-weighted statistics of quantity of markers in places
+     * and quantity of active channels of transitions for the time interval
+     * from current time to the time of nearest event (but not further than
+     * the simulation time)
      */
     public void doStatistics() {
-        for (PetriP position : listP) {
-            position.changeMean((timeMin - this.getCurrentTime()) / getSimulationTime());
-        }
-        for (PetriT transition : listT) {
-            transition.changeMean((timeMin - this.getCurrentTime()) / getSimulationTime());
+        updateStatistics(Math.min(timeMin, getSimulationTime()) - this.getCurrentTime());
+    }
+
+    /**
+     * Adds the current marking and buffers of transitions to the time-weighted
+     * statistics
+     *
+     * @param dt the time interval during which the marking did not change
+     */
+    public void updateStatistics(double dt) {
+        if (dt > 0) {
+            for (PetriP position : listPositionsForStatistica) {
+                position.updateStatistics(dt);
+            }
+            for (PetriT transition : listT) {
+                transition.updateStatistics(dt);
+            }
         }
     }
 
     /**
-     * @param dt - the time interval
+     * Recalculates the mean values by the weights of time intervals, the
+     * time-weighted statistics are not changed
+     *
+     * @param dt - the time interval divided by the current time
+     * @deprecated the mean values are overwritten by updateStatistics(), use
+     * updateStatistics() or doStatistics()
      */
+    @Deprecated
     public void doStatistics(double dt) {
         if (dt > 0) {
             for (PetriP position : listPositionsForStatistica) {
@@ -634,7 +931,7 @@ public class PetriSim implements Cloneable, Serializable {
             if (i == 1)
                 ;
             else {
-                double r = Math.random();
+                double r = getRandom().nextDouble();
                 int j = 0;
                 double sum = 0;
                 double prob;
@@ -706,6 +1003,14 @@ public class PetriSim implements Cloneable, Serializable {
     }
 
 
+    int getCalendarIndex() {
+        return calendarIndex;
+    }
+
+    void setCalendarIndex(int index) {
+        calendarIndex = index;
+    }
+
     public int getOverflowPassengers() {
         return overflowPassengers;
     }
@@ -5,6 +5,9 @@ package PetriObj;
  * and open the template in the editor.
  */
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.*;
 import java.util.logging.Level;
@@ -33,24 +36,33 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
     private double parametr; //середнє значення часу обслуговування
     private double paramDeviation; //середнє квадратичне відхилення часу обслуговування
     private String distribution;
-    private ArrayList<Double> timeOut = new ArrayList<>();
+    private transient Random random; // the generator of model, if it is null the generator of FunRand is used
+    private DoubleMinHeap timeOut = new DoubleMinHeap(); // moments of markers output of the channels
     private ArrayList<Integer> inP = new ArrayList<>();
     private ArrayList<Integer> inPwithInf = new ArrayList<>();
     private ArrayList<Integer> quantIn = new ArrayList<>();
     private ArrayList<Integer> quantInwithInf = new ArrayList<>();
     private ArrayList<Integer> outP = new ArrayList<>();
     private ArrayList<Integer> quantOut = new ArrayList<>();
+    private transient List<Integer> inPView; // the unmodifiable views of lists of arcs, see getInP()
+    private transient List<Integer> inPwithInfView;
+    private transient List<Integer> quantInView;
+    private transient List<Integer> quantInwithInfView;
+    private transient List<Integer> outPView;
+    private transient List<Integer> quantOutView;
 
     private int num;  // номер каналу багатоканального переходу, що відповідає найближчий події
     private int number; // номер переходу за списком
     private double mean;  // спостережуване середнє значення кількості активних каналів переходу
+    private TimeWeightedStatistics statistics = new TimeWeightedStatistics();
     private int observedMax;
     private int observedMin;
-    private static int next = 0; //додано 1.10.2012
 
     private ArrayList<Double> inMoments = new ArrayList<>();
     private ArrayList<Double> outMoments = new ArrayList<>();
     private boolean moments = false;
+    private SojournTracker sojourn; // the statistics of time between input and output of markers, if it is not null
+    private transient boolean arcsShared; // the lists of arcs are shared with other copies of transition (see ModelTemplate)
 
     // whether parametr, distribution, priority & probability are parameters; added by Katya 08.12.2016
     private boolean parametrIsParam = false;
@@ -84,9 +96,8 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
         priority = 0;
         probability = 1.0;
         distribution = null;
-        number = next;
-        next++;
-        timeOut.add(Double.MAX_VALUE); // не очікується вихід маркерів з каналів переходу
+        number = NumberingContext.current().nextTransition();
+        // порожня купа: не очікується вихід маркерів з каналів переходу
         this.minEvent();
     }
 
@@ -148,8 +159,7 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
         setDistribution(transition.getDistribution(), transition.getParametr());
         priority = transition.getPriority();
         probability = transition.getProbability();
-        number = next;
-        next++;
+        number = NumberingContext.current().nextTransition();
         buffer = transition.getBuffer();
         paramDeviation = transition.getParamDeviation();
     }
@@ -256,7 +266,7 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
      * Set the counter of transitions to zero.
      */
     public static void initNext() { //ініціалізація лічильника нульовим значенням
-        next = 0;
+        NumberingContext.current().setNextTransition(0);
     }
 
     /**
@@ -264,17 +274,21 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
      *
      * @param a value for recalculate of mean value (value equals product of
      *          buffer and time divided by time modeling)
+     * @deprecated the weights of intervals are not the time-weighted mean and
+     * the result is overwritten by updateStatistics(), use updateStatistics()
      */
+    @Deprecated
     public void changeMean(double a) {//if(buffer>0)
         // mean=mean+buffer*a;
         mean = mean + (buffer - mean) * a;
     }
 
     /**
-     * @return the timeOut
+     * @return the list view of the moments of markers output of the transition
+     * channels (in the heap order, not sorted)
      */
-    public ArrayList<Double> getTimeOut() {
-        return timeOut;
+    public List<Double> getTimeOut() {
+        return timeOut.asList();
     }
 
     /**
@@ -284,6 +298,36 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
         return mean;
     }
 
+    /**
+     * Adds the current quantity of active channels of transition to the time-weighted
+     * statistics and recalculates the mean value
+     *
+     * @param dt the time interval during which the quantity did not change
+     */
+    public void updateStatistics(double dt) {
+        statistics.add(buffer, dt);
+        mean = statistics.getMean();
+    }
+
+    /**
+     * Removes the collected statistics (including the statistics of sojourn
+     * time, if it is on)
+     */
+    public void resetStatistics() {
+        statistics.reset();
+        mean = 0;
+        if (sojourn != null) {
+            sojourn.resetStatistics();
+        }
+    }
+
+    /**
+     * @return the time-weighted statistics of quantity of active channels of transition
+     */
+    public TimeWeightedStatistics getStatistics() {
+        return statistics;
+    }
+
     public double getObservedMax() {
         return observedMax;
     }
@@ -388,13 +432,14 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
     public double generateTimeServ() {
         try {
             if (distribution != null) {
+                Random r = getRandom();
                 if (distribution.equalsIgnoreCase("exp")) {
-                    timeServ = FunRand.exp(parametr);
+                    timeServ = FunRand.exp(r, parametr);
                 } else if (distribution.equalsIgnoreCase("unif")) {
-                    timeServ = FunRand.unif(parametr - paramDeviation, parametr + paramDeviation);// 18.01.2013
+                    timeServ = FunRand.unif(r, parametr - paramDeviation, parametr + paramDeviation);// 18.01.2013
                 } else if (distribution.equalsIgnoreCase("norm")) {
 
-                    timeServ = FunRand.norm(parametr, paramDeviation);// added 18.01.2013
+                    timeServ = FunRand.norm(r, parametr, paramDeviation);// added 18.01.2013
 
                 } else ;
             } else {
@@ -406,6 +451,23 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
         return timeServ;
     }
 
+    /**
+     * @return the generator of random numbers used for the service time
+     */
+    public Random getRandom() {
+        return random != null ? random : FunRand.getRandom();
+    }
+
+    /**
+     * Sets the generator of random numbers used for the service time. As a
+     * rule it is the generator of model that is set by Petri-object.
+     *
+     * @param random the generator or null to use the generator of FunRand
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
     /**
      * @return the name of transition
      */
@@ -447,6 +509,7 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
      *          transition
      */
     public void addInP(int n) {
+        ownArcs();
         inP.add(n);
     }
 
@@ -455,7 +518,8 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
      *          transition
      */
     public void addOutP(int n) {
-        getOutP().add(n);
+        ownArcs();
+        outP.add(n);
     }
 
     /**
@@ -468,6 +532,7 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
      * @throws PetriObj.ExceptionInvalidTimeDelay if Petri net has invalid structure
      */
     public void createInP(ArcIn[] arcs) throws ExceptionInvalidTimeDelay {
+        ownArcs();
         inPwithInf.clear();    //додано 28.11.2012  список має бути порожнім!!!
         quantInwithInf.clear(); //додано 28.11.2012
         inP.clear();            //додано 28.11.2012
@@ -502,11 +567,12 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
      * @throws PetriObj.ExceptionInvalidTimeDelay if Petri net has invalid structure
      */
     public void createOutP(ArcOut[] arcs) throws ExceptionInvalidTimeDelay {
-        getOutP().clear(); //додано 28.11.2012
+        ownArcs();
+        outP.clear(); //додано 28.11.2012
         quantOut.clear();   //додано 28.11.2012
         for (ArcOut arc : arcs) {
             if (arc.getNumT() == this.getNumber()) {
-                getOutP().add(arc.getNumP());
+                outP.add(arc.getNumP());
                 quantOut.add(arc.getQuantity());
             }
         }
@@ -572,26 +638,39 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
             for (int i = 0; i < inP.size(); i++) {
                 places[inP.get(i)].decreaseMark(quantIn.get(i));
             }
-            if (buffer == 0) {
-                timeOut.set(0, currentTime + this.getTimeServ());
-            } else {
-                timeOut.add(currentTime + this.getTimeServ());
-            }
-            if (moments) {
-                inMoments.add(currentTime);
-            }
-            buffer++;
-            if (observedMax < buffer) {
-                observedMax = buffer;
-            }
-
-            this.minEvent();
+            startChannel(currentTime);
 
         } else {
             //  System.out.println("Condition not true");
         }
     }
 
+    /**
+     * Takes the new channel of transition after the markers have been taken
+     * from its input places: plans the moment of markers output and increases
+     * the buffer.
+     *
+     * @param currentTime current time
+     */
+    void startChannel(double currentTime) {
+        if (buffer == 0) {
+            timeOut.clear();
+        }
+        timeOut.add(currentTime + this.getTimeServ());
+        if (moments) {
+            inMoments.add(currentTime);
+        }
+        if (sojourn != null) {
+            sojourn.in(currentTime);
+        }
+        buffer++;
+        if (observedMax < buffer) {
+            observedMax = buffer;
+        }
+
+        this.minEvent();
+    }
+
     /**
      * The firing transition consists of two actions - tokens input and
      * output.<br>
@@ -605,18 +684,7 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
             for (int j = 0; j < getOutP().size(); j++) {
                 pp[getOutP().get(j)].increaseMark(quantOut.get(j));
             }
-            if (num == 0 && (timeOut.size() == 1)) {
-                timeOut.set(0, Double.MAX_VALUE);
-            } else {
-                timeOut.remove(num);
-            }
-            if (moments) {
-                outMoments.add(currentTime);
-            }
-            buffer--;
-            if (observedMin > buffer) {
-                observedMin = buffer;
-            }
+            finishChannel(currentTime);
         } else {
             // System.out.println("Buffer is null");
         }
@@ -624,28 +692,42 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
     }
 
     /**
-     * Determines the transition nearest event among the events of its tokens
-     * outputs. and the number of transition channel
+     * Releases the channel of transition with the nearest moment of markers
+     * output after the markers have been put in its output places.
+     *
+     * @param currentTime current time
      */
-    public final void minEvent() {
-        minTime = Double.MAX_VALUE;
-        if (timeOut.size() > 0) {
-            for (int i = 0; i < timeOut.size(); i++) {
-                if (timeOut.get(i) < minTime) {
-                    minTime = timeOut.get(i);
-                    num = i;
-                }
-            }
+    void finishChannel(double currentTime) {
+        timeOut.poll(); // the nearest moment of markers output
+        if (moments) {
+            outMoments.add(currentTime);
+        }
+        if (sojourn != null) {
+            sojourn.out(currentTime);
         }
+        buffer--;
+        if (observedMin > buffer) {
+            observedMin = buffer;
+        }
+    }
 
+    /**
+     * Determines the transition nearest event among the events of its tokens
+     * outputs. and the number of transition channel.<br>
+     * The nearest moment is always at the top of heap, so the channel number
+     * is 0.
+     */
+    public final void minEvent() {
+        minTime = timeOut.peek();
+        num = 0;
     }
 
     /**
      *
      */
     public void print() {
-        for (double time : timeOut) {
-            System.out.println(time + "   " + this.getName());
+        for (int i = 0; i < timeOut.size(); i++) {
+            System.out.println(timeOut.get(i) + "   " + this.getName());
         }
     }
 
@@ -666,17 +748,67 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
     }
 
     /**
+     * The lists of arcs can be shared with the copies of transition (see
+     * ModelTemplate), so they are returned as the unmodifiable views. The arcs
+     * are changed by addInP(), createInP() and the similar methods.
+     *
      * @return list of transition input places
      */
-    public ArrayList<Integer> getInP() {
-        return inP;
+    public List<Integer> getInP() {
+        if (inPView == null) {
+            inPView = Collections.unmodifiableList(inP);
+        }
+        return inPView;
+    }
+
+    /**
+     * @return list of transition input places connected by informational arcs
+     */
+    public List<Integer> getInPwithInf() {
+        if (inPwithInfView == null) {
+            inPwithInfView = Collections.unmodifiableList(inPwithInf);
+        }
+        return inPwithInfView;
     }
 
     /**
      * @return list of transition output places
      */
-    public ArrayList<Integer> getOutP() {
-        return outP;
+    public List<Integer> getOutP() {
+        if (outPView == null) {
+            outPView = Collections.unmodifiableList(outP);
+        }
+        return outPView;
+    }
+
+    /**
+     * @return list of quantities of arcs from the input places
+     */
+    public List<Integer> getQuantIn() {
+        if (quantInView == null) {
+            quantInView = Collections.unmodifiableList(quantIn);
+        }
+        return quantInView;
+    }
+
+    /**
+     * @return list of quantities of informational arcs from the input places
+     */
+    public List<Integer> getQuantInwithInf() {
+        if (quantInwithInfView == null) {
+            quantInwithInfView = Collections.unmodifiableList(quantInwithInf);
+        }
+        return quantInwithInfView;
+    }
+
+    /**
+     * @return list of quantities of arcs to the output places
+     */
+    public List<Integer> getQuantOut() {
+        if (quantOutView == null) {
+            quantOutView = Collections.unmodifiableList(quantOut);
+        }
+        return quantOutView;
     }
 
     /**
@@ -714,6 +846,134 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
 
     }
 
+    /**
+     * @return the copy of this transition with the same fields (see
+     * ModelCopier)
+     */
+    PetriT shallowCopy() {
+        try {
+            return (PetriT) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Is called on the copy of transition. The moments of markers output and
+     * the statistics are copied, the generator of model is attached at the
+     * start of simulation.
+     *
+     * @param shareArcs if true the lists of arcs are shared with the original
+     * transition until one of them changes its arcs, otherwise the lists are
+     * copied
+     */
+    void copyFields(boolean shareArcs) {
+        random = null;
+        timeOut = new DoubleMinHeap(timeOut);
+        arcsShared = true; // the lists are the lists of original
+        if (!shareArcs) {
+            ownArcs();
+        }
+        statistics = new TimeWeightedStatistics(statistics);
+        inMoments = new ArrayList<>(inMoments);
+        outMoments = new ArrayList<>(outMoments);
+        if (sojourn != null) {
+            sojourn = new SojournTracker(sojourn);
+        }
+    }
+
+    /**
+     * Writes the buffer, the moments of markers output of the channels and
+     * the statistics of transition (see PetriObjModel.snapshot())
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(buffer);
+        out.writeDouble(minTime);
+        out.writeInt(num);
+        out.writeDouble(timeServ);
+        out.writeDouble(mean);
+        out.writeInt(observedMin);
+        out.writeInt(observedMax);
+        timeOut.writeState(out);
+        statistics.writeState(out);
+        out.writeBoolean(sojourn != null);
+        if (sojourn != null) {
+            sojourn.writeState(out);
+        }
+        writeMoments(out, inMoments);
+        writeMoments(out, outMoments);
+    }
+
+    private static void writeMoments(DataOutput out, ArrayList<Double> list) throws IOException {
+        out.writeInt(list.size());
+        for (double moment : list) {
+            out.writeDouble(moment);
+        }
+    }
+
+    /**
+     * Replaces the state of transition with the state written by writeState()
+     *
+     * @param in the input
+     * @throws IOException if the input fails
+     */
+    void readState(DataInput in) throws IOException {
+        buffer = in.readInt();
+        minTime = in.readDouble();
+        num = in.readInt();
+        timeServ = in.readDouble();
+        mean = in.readDouble();
+        observedMin = in.readInt();
+        observedMax = in.readInt();
+        timeOut.readState(in);
+        statistics.readState(in);
+        if (in.readBoolean()) {
+            if (sojourn == null) {
+                sojourn = new SojournTracker();
+            }
+            sojourn.readState(in);
+        } else {
+            sojourn = null;
+        }
+        readMoments(in, inMoments);
+        readMoments(in, outMoments);
+    }
+
+    private static void readMoments(DataInput in, ArrayList<Double> list) throws IOException {
+        list.clear();
+        for (int k = in.readInt(); k > 0; k--) {
+            list.add(in.readDouble());
+        }
+    }
+
+    /**
+     * Marks the lists of arcs as shared, so they are copied before the change
+     */
+    void shareArcs() {
+        arcsShared = true;
+    }
+
+    private void ownArcs() {
+        if (arcsShared) {
+            inP = new ArrayList<>(inP);
+            inPwithInf = new ArrayList<>(inPwithInf);
+            quantIn = new ArrayList<>(quantIn);
+            quantInwithInf = new ArrayList<>(quantInwithInf);
+            outP = new ArrayList<>(outP);
+            quantOut = new ArrayList<>(quantOut);
+            inPView = null;
+            inPwithInfView = null;
+            quantInView = null;
+            quantInwithInfView = null;
+            outPView = null;
+            quantOutView = null;
+            arcsShared = false;
+        }
+    }
+
     public void setBuffer(int buff) {
         buffer = buff;
     }
@@ -772,6 +1032,25 @@ public class PetriT extends PetriMainElement implements Cloneable, Serializable
         this.moments = moments;
     }
 
+    /**
+     * Turns on the streaming statistics of time between the input and the
+     * output of markers. Unlike the lists of moments (setMoments), the memory
+     * does not grow with the length of simulation.
+     *
+     * @param b true to turn on, false to turn off and remove the statistics
+     */
+    public void setSojournTracking(boolean b) {
+        sojourn = b ? (sojourn != null ? sojourn : new SojournTracker()) : null;
+    }
+
+    /**
+     * @return the statistics of time between the input and the output of
+     * markers or null if the tracking is off
+     */
+    public SojournTracker getSojournTracker() {
+        return sojourn;
+    }
+
     public void setCountPassengersOverflowTransition(boolean countPassengersOverflowTransition) {
         this.countPassengersOverflowTransition = countPassengersOverflowTransition;
     }
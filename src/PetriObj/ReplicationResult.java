@@ -0,0 +1,111 @@
+package PetriObj;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class contains the results of independent replications of Petri-object
+ * model: the statistics of mean values of markers in places and of mean values
+ * of buffers in transitions.<br>
+ * The key of place is "object.place", the key of transition is
+ * "object.transition". If the same key occurs several times in the model (the
+ * objects with the same name), the key is supplemented with "#2", "#3" etc.
+ */
+public class ReplicationResult {
+
+    private final LinkedHashMap<String, SampleStatistics> places = new LinkedHashMap<>();
+    private final LinkedHashMap<String, SampleStatistics> transitions = new LinkedHashMap<>();
+    private final double confidence;
+    private int replications;
+
+    /**
+     * @param confidence the confidence level of intervals
+     */
+    public ReplicationResult(double confidence) {
+        this.confidence = confidence;
+    }
+
+    /**
+     * Adds the results of one replication
+     *
+     * @param placeMeans the mean values of markers in places
+     * @param transitionMeans the mean values of buffers in transitions
+     */
+    public void add(Map<String, Double> placeMeans, Map<String, Double> transitionMeans) {
+        addAll(places, placeMeans);
+        addAll(transitions, transitionMeans);
+        replications++;
+    }
+
+    private static void addAll(Map<String, SampleStatistics> target, Map<String, Double> values) {
+        for (Map.Entry<String, Double> e : values.entrySet()) {
+            target.computeIfAbsent(e.getKey(), k -> new SampleStatistics()).add(e.getValue());
+        }
+    }
+
+    /**
+     * @param key the key "object.place"
+     * @return the statistics of the mean value of markers in place or null
+     */
+    public SampleStatistics getPlace(String key) {
+        return places.get(key);
+    }
+
+    /**
+     * @param key the key "object.transition"
+     * @return the statistics of the mean value of buffer in transition or null
+     */
+    public SampleStatistics getTransition(String key) {
+        return transitions.get(key);
+    }
+
+    /**
+     * @return the statistics of places in the order of the model
+     */
+    public Map<String, SampleStatistics> getPlaces() {
+        return Collections.unmodifiableMap(places);
+    }
+
+    /**
+     * @return the statistics of transitions in the order of the model
+     */
+    public Map<String, SampleStatistics> getTransitions() {
+        return Collections.unmodifiableMap(transitions);
+    }
+
+    /**
+     * @return the quantity of replications
+     */
+    public int getReplications() {
+        return replications;
+    }
+
+    /**
+     * @return the confidence level of intervals
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * Prints the mean value, the variance and the confidence interval for each
+     * place and transition
+     */
+    public void print() {
+        System.out.println("Results of " + replications + " replications, confidence level " + confidence);
+        System.out.println("Mean value of markers in places:");
+        print(places);
+        System.out.println("Mean value of buffers in transitions:");
+        print(transitions);
+    }
+
+    private void print(Map<String, SampleStatistics> map) {
+        for (Map.Entry<String, SampleStatistics> e : map.entrySet()) {
+            SampleStatistics s = e.getValue();
+            double h = s.getHalfWidth(confidence);
+            System.out.printf("%s  mean = %f  variance = %f  CI = [%f; %f]%n",
+                    e.getKey(), s.getMean(), s.getVariance(), s.getMean() - h, s.getMean() + h);
+        }
+    }
+}
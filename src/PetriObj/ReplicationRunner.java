@@ -0,0 +1,183 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * This class runs independent replications of Petri-object model in parallel
+ * and aggregates the mean values of markers in places and of buffers in
+ * transitions.<br>
+ * Each replication gets the new model from the factory, its own StateTime and
+ * its own ModelRandom stream. The models are built concurrently, each in its
+ * own NumberingContext. The streams are split from the generator with the
+ * seed of the runner in the order of replications, so the results do not
+ * depend on the order of execution of replications.
+ */
+public class ReplicationRunner {
+
+    /**
+     * Creates the new model for each replication
+     */
+    @FunctionalInterface
+    public interface ModelFactory {
+
+        /**
+         * @param replication the number of replication, starting from 0
+         * @return the new model that does not share places or transitions with
+         * other models
+         * @throws Exception if the model can not be created
+         */
+        PetriObjModel create(int replication) throws Exception;
+    }
+
+    private final ModelFactory factory;
+    private final double timeModeling;
+    private int replications = 30;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long seed = System.nanoTime();
+    private double confidence = 0.95;
+
+    /**
+     * @param factory the factory of models
+     * @param timeModeling the simulation time of each replication
+     */
+    public ReplicationRunner(ModelFactory factory, double timeModeling) {
+        this.factory = factory;
+        this.timeModeling = timeModeling;
+    }
+
+    /**
+     * Runs the replications on the fork-join pool and waits for all of them.
+     *
+     * @return the aggregated results of replications
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws ExecutionException if the model can not be created or the
+     * simulation fails
+     */
+    public ReplicationResult run() throws InterruptedException, ExecutionException {
+        ModelRandom root = new ModelRandom(seed);
+        ModelRandom[] streams = new ModelRandom[replications];
+        for (int i = 0; i < replications; i++) {
+            streams[i] = root.split();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<Replication>> futures = new ArrayList<>();
+            for (int i = 0; i < replications; i++) {
+                final int number = i;
+                futures.add(pool.submit(() -> runReplication(number, streams[number])));
+            }
+            ReplicationResult result = new ReplicationResult(confidence);
+            for (Future<Replication> future : futures) { // in the order of replications
+                Replication replication = future.get();
+                result.add(replication.places, replication.transitions);
+            }
+            return result;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Replication runReplication(int number, ModelRandom stream) throws Exception {
+        FunRand.setRandom(stream); // for the random numbers used by the factory
+        try {
+            PetriObjModel model = NumberingContext.call(() -> factory.create(number));
+            model.setTimeState(new StateTime());
+            model.setRandom(stream);
+            model.goWithoutPrintCheck(timeModeling);
+            return new Replication(model);
+        } finally {
+            FunRand.setRandom(null);
+        }
+    }
+
+    /**
+     * The mean values of one replication
+     */
+    private static class Replication {
+
+        final LinkedHashMap<String, Double> places = new LinkedHashMap<>();
+        final LinkedHashMap<String, Double> transitions = new LinkedHashMap<>();
+
+        Replication(PetriObjModel model) {
+            for (PetriSim sim : model.getListObj()) {
+                for (PetriP position : sim.getNet().getListP()) {
+                    put(places, sim.getName() + "." + position.getName(), position.getMean());
+                }
+                for (PetriT transition : sim.getNet().getListT()) {
+                    put(transitions, sim.getName() + "." + transition.getName(), transition.getMean());
+                }
+            }
+        }
+
+        private static void put(Map<String, Double> map, String key, double value) {
+            String unique = key;
+            for (int k = 2; map.containsKey(unique); k++) {
+                unique = key + "#" + k;
+            }
+            map.put(unique, value);
+        }
+    }
+
+    /**
+     * @return the quantity of replications
+     */
+    public int getReplications() {
+        return replications;
+    }
+
+    /**
+     * @param replications the quantity of replications to set
+     */
+    public void setReplications(int replications) {
+        this.replications = replications;
+    }
+
+    /**
+     * @return the quantity of threads that run replications
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param parallelism the quantity of threads that run replications
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the seed from which the streams of replications are derived
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param seed the seed from which the streams of replications are derived
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return the confidence level of intervals
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * @param confidence the confidence level of intervals, for example 0.95
+     */
+    public void setConfidence(double confidence) {
+        this.confidence = confidence;
+    }
+}
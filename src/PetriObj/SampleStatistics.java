@@ -0,0 +1,223 @@
+package PetriObj;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * This class accumulates the sample of values (for example the results of
+ * independent replications) and calculates the mean value, the variance and
+ * the confidence interval. The values are not stored, the mean value and the
+ * variance are updated by Welford's method.
+ */
+public class SampleStatistics implements Serializable {
+
+    private long count;
+    private double mean;
+    private double m2; // the sum of squares of deviations from the mean value
+    private double min = Double.MAX_VALUE;
+    private double max = -Double.MAX_VALUE;
+
+    /**
+     * @param x the value to add to the sample
+     */
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+        if (x < min) {
+            min = x;
+        }
+        if (x > max) {
+            max = x;
+        }
+    }
+
+    /**
+     * @param other the sample that is added to this sample
+     */
+    public void add(SampleStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / n;
+        m2 += other.m2 + delta * delta * count * other.count / n;
+        count = n;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Removes all values of the sample
+     */
+    public void reset() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        min = Double.MAX_VALUE;
+        max = -Double.MAX_VALUE;
+    }
+
+    /**
+     * Writes the accumulated values (see PetriObjModel.snapshot())
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeLong(count);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+        out.writeDouble(min);
+        out.writeDouble(max);
+    }
+
+    /**
+     * Replaces the accumulated values with the values written by writeState()
+     *
+     * @param in the input
+     * @throws IOException if the input fails
+     */
+    void readState(DataInput in) throws IOException {
+        count = in.readLong();
+        mean = in.readDouble();
+        m2 = in.readDouble();
+        min = in.readDouble();
+        max = in.readDouble();
+    }
+
+    /**
+     * @return the quantity of values in the sample
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the mean value of the sample
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the unbiased estimation of variance or 0 if the sample has less
+     * than two values
+     */
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : 0;
+    }
+
+    /**
+     * @return the standard deviation of the sample
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * @return the minimal value of the sample
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return the maximal value of the sample
+     */
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Calculates the half-width of the confidence interval of the mean value
+     * using Student's distribution
+     *
+     * @param confidence the confidence level, for example 0.95
+     * @return the half-width of the confidence interval or Double.NaN if the
+     * sample has less than two values
+     */
+    public double getHalfWidth(double confidence) {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        return studentQuantile(1 - (1 - confidence) / 2, count - 1) * Math.sqrt(getVariance() / count);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mean = %f, variance = %f, 95%% CI = [%f; %f], n = %d",
+                getMean(), getVariance(), getMean() - getHalfWidth(0.95), getMean() + getHalfWidth(0.95), count);
+    }
+
+    /**
+     * Calculates the quantile of Student's distribution. The exact formulas
+     * are used for one and two degrees of freedom, the Cornish-Fisher expansion
+     * is used otherwise.
+     *
+     * @param p the probability, 0 &lt; p &lt; 1
+     * @param df the degrees of freedom
+     * @return the quantile of Student's distribution
+     */
+    public static double studentQuantile(double p, long df) {
+        if (df == 1) {
+            return Math.tan(Math.PI * (p - 0.5));
+        }
+        if (df == 2) {
+            return (2 * p - 1) / Math.sqrt(2 * p * (1 - p));
+        }
+        double z = normalQuantile(p);
+        double z2 = z * z;
+        double v = df;
+        double g1 = (z2 + 1) * z / 4;
+        double g2 = ((5 * z2 + 16) * z2 + 3) * z / 96;
+        double g3 = (((3 * z2 + 19) * z2 + 17) * z2 - 15) * z / 384;
+        double g4 = ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945) * z / 92160;
+        return z + g1 / v + g2 / (v * v) + g3 / (v * v * v) + g4 / (v * v * v * v);
+    }
+
+    /**
+     * Calculates the quantile of the standard normal distribution by Acklam's
+     * rational approximation
+     *
+     * @param p the probability, 0 &lt; p &lt; 1
+     * @return the quantile of the standard normal distribution
+     */
+    public static double normalQuantile(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+            1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+            6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+            -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+            3.754408661907416e+00};
+        double pLow = 0.02425;
+        if (p < pLow) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - pLow) {
+            double q = Math.sqrt(-2 * Math.log(1 - p));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
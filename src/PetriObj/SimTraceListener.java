@@ -0,0 +1,62 @@
+package PetriObj;
+
+/**
+ * This interface receives the trace of Petri-object functioning: the input
+ * and output of markers in transitions and the change of marking.<br>
+ * The listener is attached to Petri-object by method setTraceListener(). If
+ * the listener is not attached the Petri-object does not build any trace
+ * information.
+ */
+public interface SimTraceListener {
+
+    /**
+     * Is called before the input of markers in transitions of Petri-object
+     *
+     * @param sim the Petri-object
+     */
+    void inputStarted(PetriSim sim);
+
+    /**
+     * Is called after the transition has taken markers from its input places
+     *
+     * @param sim the Petri-object
+     * @param transition the launched transition
+     */
+    void transitionIn(PetriSim sim, PetriT transition);
+
+    /**
+     * Is called after the input of markers in transitions of Petri-object
+     *
+     * @param sim the Petri-object
+     * @param markBefore the marking of places before the input. The array is
+     * reused by Petri-object, it must not be stored.
+     */
+    void inputFinished(PetriSim sim, int[] markBefore);
+
+    /**
+     * Is called before the output of markers from transitions of Petri-object
+     *
+     * @param sim the Petri-object
+     * @param event the transition which the nearest event is occurring for
+     */
+    void outputStarted(PetriSim sim, PetriT event);
+
+    /**
+     * Is called after the transition has put markers in its output places
+     *
+     * @param sim the Petri-object
+     * @param transition the transition which has put markers, it is the
+     * transition of the nearest event or other transition with the same moment
+     * of output
+     */
+    void transitionOut(PetriSim sim, PetriT transition);
+
+    /**
+     * Is called after the output of markers from transitions of Petri-object
+     *
+     * @param sim the Petri-object
+     * @param markBefore the marking of places before the output. The array is
+     * reused by Petri-object, it must not be stored.
+     */
+    void outputFinished(PetriSim sim, int[] markBefore);
+}
@@ -0,0 +1,389 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * This class searches the best candidate among the points of design (see
+ * ExperimentDesign) by the simulation of Petri-object model. The value of
+ * objective is the function of simulated model, for example the mean waiting
+ * time.<br>
+ * The candidates are simulated in stages: each candidate that is still
+ * considered gets the same quantity of replications, and the replication r
+ * of each candidate uses the same stream of random numbers (the common random
+ * numbers, as in ParameterSweep with the same seed). So the candidates are
+ * compared by the paired differences, whose variance is much less than the
+ * variance of objective. The candidate that is clearly worse than other one
+ * is not simulated any more, so the replications are spent on the close
+ * candidates only.<br>
+ * Two searches are available:
+ * <ul>
+ * <li>select() is the ranking and selection: the best candidate by the mean
+ * value of objective;</li>
+ * <li>findFirstFeasible() is the search of the first candidate for which the
+ * mean value of objective meets the target, when the objective improves
+ * along the order of candidates (for example the smallest capacity or the
+ * smallest quantity of channels for which the mean waiting time is less than
+ * the target). The candidates are tested by the bisection, each test adds
+ * replications until the confidence interval is on one side of the
+ * target.</li>
+ * </ul>
+ * The replications of stage are run in parallel, the model of each candidate
+ * is built once and becomes the template (see ModelTemplate).
+ *
+ * @param <M> the class of model
+ */
+public class SimulationOptimizer<M extends PetriObjModel> {
+
+    private final ParameterSweep<M> sweep; // builds and simulates the models
+    private final ExperimentDesign candidates;
+    private boolean minimize = true;
+    private int initialReplications = 10;
+    private int stageReplications = 5;
+    private int maxReplications = 100;
+    private double indifference = 0;
+
+    /**
+     * @param factory the factory of models
+     * @param candidates the candidates, the points of design
+     * @param timeModeling the simulation time of each replication
+     * @param objective the function that gives the value of objective for the
+     * simulated model
+     */
+    public SimulationOptimizer(ParameterSweep.PointFactory<M> factory, ExperimentDesign candidates,
+            double timeModeling, ToDoubleFunction<? super M> objective) {
+        sweep = new ParameterSweep<>(factory, candidates, timeModeling);
+        sweep.addOutput("objective", objective);
+        this.candidates = candidates;
+    }
+
+    /**
+     * Finds the candidate with the least (or the greatest, see
+     * setMinimize()) mean value of objective. After each stage the candidate
+     * i is eliminated if for some other candidate j the mean of differences
+     * of objective between i and j exceeds the half-width of confidence
+     * interval of differences (reduced by the indifference zone). The
+     * confidence of each comparison is corrected by Bonferroni rule for the
+     * quantity of candidates. The search stops when one candidate remains or
+     * the candidates have the maximal quantity of replications, then the
+     * candidate with the best mean is chosen.
+     *
+     * @return the result with the chosen candidate
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws ExecutionException if the model can not be created or the
+     * simulation fails
+     */
+    public OptimizationResult select() throws InterruptedException, ExecutionException {
+        Run run = new Run();
+        try {
+            List<Integer> alive = new ArrayList<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                alive.add(i);
+            }
+            double alpha = (1 - getConfidence()) / Math.max(1, candidates.size() - 1);
+            int n = Math.min(initialReplications, maxReplications);
+            run.simulate(alive, n);
+            while (alive.size() > 1) {
+                double q = SampleStatistics.studentQuantile(1 - alpha, n - 1);
+                List<Integer> eliminated = new ArrayList<>();
+                for (int i : alive) {
+                    for (int j : alive) {
+                        if (i != j && isWorse(run.result.getDifference(i, j), q)) {
+                            eliminated.add(i);
+                            break;
+                        }
+                    }
+                }
+                for (int i : eliminated) {
+                    run.result.eliminate(i);
+                }
+                alive.removeAll(eliminated);
+                if (alive.size() <= 1 || n >= maxReplications) {
+                    break;
+                }
+                n = Math.min(n + stageReplications, maxReplications);
+                run.simulate(alive, n);
+            }
+            int best = alive.get(0);
+            for (int i : alive) {
+                if (isBetter(run.result.getStatistics(i).getMean(), run.result.getStatistics(best).getMean())) {
+                    best = i;
+                }
+            }
+            run.result.setBest(best);
+            return run.result;
+        } finally {
+            run.close();
+        }
+    }
+
+    /**
+     * @param difference the statistics of paired differences of the objective
+     * of candidate i and candidate j
+     * @param q the quantile of Student's distribution
+     * @return true if i is clearly worse than j
+     */
+    private boolean isWorse(SampleStatistics difference, double q) {
+        double mean = minimize ? difference.getMean() : -difference.getMean();
+        double h = q * Math.sqrt(difference.getVariance() / difference.getCount());
+        return mean > Math.max(0, h - indifference);
+    }
+
+    private boolean isBetter(double value, double other) {
+        return minimize ? value < other : value > other;
+    }
+
+    /**
+     * Finds the first candidate in the order of design for which the mean
+     * value of objective is not greater than the target (not less if the
+     * objective is maximized). The objective must improve along the order of
+     * candidates, then the candidates are tested by the bisection. The test
+     * of candidate adds replications until the confidence interval of mean
+     * is on one side of the target or the candidate has the maximal quantity
+     * of replications, then the mean is compared with the target.
+     *
+     * @param target the target value of objective
+     * @return the result with the chosen candidate, the result has no
+     * chosen candidate if all tested candidates do not meet the target
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws ExecutionException if the model can not be created or the
+     * simulation fails
+     */
+    public OptimizationResult findFirstFeasible(double target) throws InterruptedException, ExecutionException {
+        Run run = new Run();
+        try {
+            int low = 0;
+            int high = candidates.size() - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (isFeasible(run, middle, target)) {
+                    run.result.setBest(middle);
+                    high = middle - 1;
+                } else {
+                    run.result.eliminate(middle);
+                    low = middle + 1;
+                }
+            }
+            return run.result;
+        } finally {
+            run.close();
+        }
+    }
+
+    private boolean isFeasible(Run run, int candidate, double target) throws InterruptedException, ExecutionException {
+        List<Integer> list = new ArrayList<>();
+        list.add(candidate);
+        int n = Math.min(initialReplications, maxReplications);
+        while (true) {
+            run.simulate(list, n);
+            SampleStatistics s = run.result.getStatistics(candidate);
+            double h = s.getHalfWidth(getConfidence());
+            double mean = minimize ? s.getMean() : -s.getMean();
+            double bound = minimize ? target : -target;
+            if (mean + h <= bound) {
+                return true;
+            }
+            if (mean - h > bound || n >= maxReplications) {
+                return mean <= bound;
+            }
+            n = Math.min(n + stageReplications, maxReplications);
+        }
+    }
+
+    /**
+     * The state of one search: the pool, the templates of candidates, the
+     * streams of replications and the values of objective
+     */
+    private class Run {
+
+        private final ForkJoinPool pool = new ForkJoinPool(sweep.getParallelism());
+        private final ModelRandom root = new ModelRandom(sweep.getSeed());
+        private final List<ModelRandom> streams = new ArrayList<>();
+        private final List<CompletableFuture<ModelTemplate<M>>> templates = new ArrayList<>();
+        private final OptimizationResult result = new OptimizationResult(candidates, getConfidence());
+
+        Run() {
+            for (int i = 0; i < candidates.size(); i++) {
+                templates.add(null);
+            }
+        }
+
+        /**
+         * Simulates the replications of candidates until each candidate has
+         * the given quantity of replications
+         */
+        void simulate(List<Integer> list, int replications) throws InterruptedException, ExecutionException {
+            while (streams.size() < replications) {
+                streams.add(root.split());
+            }
+            List<CompletableFuture<double[]>> futures = new ArrayList<>();
+            for (int i : list) {
+                CompletableFuture<ModelTemplate<M>> template = templates.get(i);
+                if (template == null) {
+                    ExperimentDesign.Point point = candidates.getPoint(i);
+                    template = CompletableFuture.supplyAsync(() -> sweep.build(point), pool);
+                    templates.set(i, template);
+                }
+                for (int r = result.getReplications(i); r < replications; r++) {
+                    ModelRandom stream = streams.get(r);
+                    futures.add(template.thenApplyAsync(t -> sweep.simulate(t.instance(), stream.copy()), pool));
+                }
+            }
+            int k = 0;
+            for (int i : list) {
+                while (result.getReplications(i) < replications) {
+                    result.add(i, ParameterSweep.get(futures.get(k++))[0]);
+                }
+            }
+        }
+
+        void close() {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Sets the action that is done with each model before the simulation,
+     * for example the setting of warm-up time
+     *
+     * @param preparation the action or null
+     * @return this optimizer
+     */
+    public SimulationOptimizer<M> setPreparation(Consumer<? super M> preparation) {
+        sweep.setPreparation(preparation);
+        return this;
+    }
+
+    /**
+     * @return the candidates
+     */
+    public ExperimentDesign getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * @return true if the least value of objective is the best
+     */
+    public boolean isMinimize() {
+        return minimize;
+    }
+
+    /**
+     * @param minimize true if the least value of objective is the best, false
+     * if the greatest one
+     */
+    public void setMinimize(boolean minimize) {
+        this.minimize = minimize;
+    }
+
+    /**
+     * @return the quantity of replications of the first stage
+     */
+    public int getInitialReplications() {
+        return initialReplications;
+    }
+
+    /**
+     * @param initialReplications the quantity of replications of the first
+     * stage, at least 2
+     */
+    public void setInitialReplications(int initialReplications) {
+        if (initialReplications < 2) {
+            throw new IllegalArgumentException("At least two replications are needed for the comparison");
+        }
+        this.initialReplications = initialReplications;
+    }
+
+    /**
+     * @return the quantity of replications added by each next stage
+     */
+    public int getStageReplications() {
+        return stageReplications;
+    }
+
+    /**
+     * @param stageReplications the quantity of replications added by each
+     * next stage
+     */
+    public void setStageReplications(int stageReplications) {
+        this.stageReplications = Math.max(1, stageReplications);
+    }
+
+    /**
+     * @return the maximal quantity of replications of candidate
+     */
+    public int getMaxReplications() {
+        return maxReplications;
+    }
+
+    /**
+     * @param maxReplications the maximal quantity of replications of
+     * candidate
+     */
+    public void setMaxReplications(int maxReplications) {
+        this.maxReplications = Math.max(2, maxReplications);
+    }
+
+    /**
+     * @return the indifference zone
+     */
+    public double getIndifference() {
+        return indifference;
+    }
+
+    /**
+     * @param indifference the difference of objective that is not important,
+     * the candidate that is worse by less than this value can be eliminated
+     * earlier
+     */
+    public void setIndifference(double indifference) {
+        this.indifference = indifference;
+    }
+
+    /**
+     * @return the quantity of threads that run replications
+     */
+    public int getParallelism() {
+        return sweep.getParallelism();
+    }
+
+    /**
+     * @param parallelism the quantity of threads that run replications
+     */
+    public void setParallelism(int parallelism) {
+        sweep.setParallelism(parallelism);
+    }
+
+    /**
+     * @return the seed from which the streams of replications are derived
+     */
+    public long getSeed() {
+        return sweep.getSeed();
+    }
+
+    /**
+     * @param seed the seed from which the streams of replications are derived
+     */
+    public void setSeed(long seed) {
+        sweep.setSeed(seed);
+    }
+
+    /**
+     * @return the confidence level of intervals
+     */
+    public double getConfidence() {
+        return sweep.getConfidence();
+    }
+
+    /**
+     * @param confidence the confidence level of intervals, for example 0.95
+     */
+    public void setConfidence(double confidence) {
+        sweep.setConfidence(confidence);
+    }
+}
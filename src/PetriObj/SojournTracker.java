@@ -0,0 +1,169 @@
+package PetriObj;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This class calculates the statistics of sojourn time (the time between the
+ * input and the output of marker) during the simulation.<br>
+ * The moments of input are kept in the ring buffer of primitive doubles, each
+ * output is paired with the earliest input (FIFO) and the difference is added
+ * to the statistics. So the memory depends on the quantity of markers that
+ * are inside and not on the length of simulation.
+ */
+public class SojournTracker implements Serializable {
+
+    private double[] moments; // the ring buffer of moments of input
+    private int head; // the index of earliest moment
+    private int size;
+    private final SampleStatistics statistics = new SampleStatistics();
+    private long unpaired; // the quantity of outputs without input
+
+    public SojournTracker() {
+        this(16);
+    }
+
+    /**
+     * @param capacity the initial capacity of buffer of moments
+     */
+    public SojournTracker(int capacity) {
+        moments = new double[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Constructs the copy of given tracker
+     *
+     * @param other the tracker to copy
+     */
+    public SojournTracker(SojournTracker other) {
+        moments = new double[Math.max(other.size, 1)];
+        for (int i = 0; i < other.size; i++) {
+            moments[i] = other.moments[(other.head + i) % other.moments.length];
+        }
+        size = other.size;
+        statistics.add(other.statistics);
+        unpaired = other.unpaired;
+    }
+
+    /**
+     * Registers the input of marker
+     *
+     * @param currentTime the moment of input
+     */
+    public void in(double currentTime) {
+        if (size == moments.length) {
+            double[] a = new double[moments.length * 2];
+            for (int i = 0; i < size; i++) {
+                a[i] = moments[(head + i) % moments.length];
+            }
+            moments = a;
+            head = 0;
+        }
+        moments[(head + size) % moments.length] = currentTime;
+        size++;
+    }
+
+    /**
+     * Registers the output of marker, which is paired with the earliest input
+     *
+     * @param currentTime the moment of output
+     * @return the sojourn time or NaN if there is no input for pairing
+     */
+    public double out(double currentTime) {
+        if (size == 0) {
+            unpaired++;
+            return Double.NaN;
+        }
+        double sojourn = currentTime - moments[head];
+        head = (head + 1) % moments.length;
+        size--;
+        statistics.add(sojourn);
+        return sojourn;
+    }
+
+    /**
+     * @return the quantity of markers that are inside (the inputs without
+     * output)
+     */
+    public int getInside() {
+        return size;
+    }
+
+    /**
+     * @return the quantity of outputs that had no input for pairing
+     */
+    public long getUnpaired() {
+        return unpaired;
+    }
+
+    /**
+     * @return the statistics of sojourn time of markers that have left
+     */
+    public SampleStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Removes the collected statistics. The markers that are inside are kept,
+     * so their sojourn time is counted when they leave.
+     */
+    public void resetStatistics() {
+        statistics.reset();
+        unpaired = 0;
+    }
+
+    /**
+     * Removes the collected statistics and the moments of input
+     */
+    public void clear() {
+        resetStatistics();
+        Arrays.fill(moments, 0);
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Writes the moments of input of markers that are inside and the
+     * statistics (see PetriObjModel.snapshot())
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeDouble(moments[(head + i) % moments.length]);
+        }
+        out.writeLong(unpaired);
+        statistics.writeState(out);
+    }
+
+    /**
+     * Replaces the moments and the statistics with the values written by
+     * writeState()
+     *
+     * @param in the input
+     * @throws IOException if the input fails
+     */
+    void readState(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (moments.length < n) {
+            moments = new double[n];
+        }
+        for (int i = 0; i < n; i++) {
+            moments[i] = in.readDouble();
+        }
+        head = 0;
+        size = n;
+        unpaired = in.readLong();
+        statistics.readState(in);
+    }
+
+    @Override
+    public String toString() {
+        return statistics + ", inside " + size;
+    }
+}
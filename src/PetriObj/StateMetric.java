@@ -0,0 +1,57 @@
+package PetriObj;
+
+/**
+ * This interface gives the value of state of model that is observed during
+ * the simulation, for example the quantity of markers in place or the
+ * quantity of active channels of transition. The value does not change
+ * between the events of model, so its time-weighted mean over an interval is
+ * calculated exactly (see IntervalMeans).
+ */
+public interface StateMetric {
+
+    /**
+     * @return the name of metric
+     */
+    String getName();
+
+    /**
+     * @return the current value
+     */
+    double getValue();
+
+    /**
+     * @param place the place
+     * @return the metric of quantity of markers in place
+     */
+    static StateMetric of(PetriP place) {
+        return new StateMetric() {
+            @Override
+            public String getName() {
+                return place.getName();
+            }
+
+            @Override
+            public double getValue() {
+                return place.getMark();
+            }
+        };
+    }
+
+    /**
+     * @param transition the transition
+     * @return the metric of quantity of active channels of transition
+     */
+    static StateMetric of(PetriT transition) {
+        return new StateMetric() {
+            @Override
+            public String getName() {
+                return transition.getName();
+            }
+
+            @Override
+            public double getValue() {
+                return transition.getBuffer();
+            }
+        };
+    }
+}
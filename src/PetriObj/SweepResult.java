@@ -0,0 +1,106 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class contains the results of parameter sweep (see ParameterSweep):
+ * the statistics of each output over the replications of each point of the
+ * design of experiment.
+ */
+public class SweepResult {
+
+    private final ExperimentDesign design;
+    private final List<String> outputs;
+    private final double confidence;
+    private final SampleStatistics[][] statistics; // [point][output]
+
+    /**
+     * @param design the design of experiment
+     * @param outputs the names of outputs
+     * @param confidence the confidence level of intervals
+     */
+    public SweepResult(ExperimentDesign design, List<String> outputs, double confidence) {
+        this.design = design;
+        this.outputs = Collections.unmodifiableList(new ArrayList<>(outputs));
+        this.confidence = confidence;
+        statistics = new SampleStatistics[design.size()][outputs.size()];
+        for (SampleStatistics[] point : statistics) {
+            for (int i = 0; i < point.length; i++) {
+                point[i] = new SampleStatistics();
+            }
+        }
+    }
+
+    /**
+     * Adds the results of one replication
+     *
+     * @param point the index of point
+     * @param values the values of outputs in the order of names
+     */
+    public void add(int point, double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            statistics[point][i].add(values[i]);
+        }
+    }
+
+    /**
+     * @param point the index of point
+     * @param output the name of output
+     * @return the statistics of output over the replications of point
+     * @throws IllegalArgumentException if there is no such output
+     */
+    public SampleStatistics get(int point, String output) {
+        int i = outputs.indexOf(output);
+        if (i < 0) {
+            throw new IllegalArgumentException("No output " + output);
+        }
+        return statistics[point][i];
+    }
+
+    /**
+     * @param point the index of point
+     * @param output the index of output
+     * @return the statistics of output over the replications of point
+     */
+    public SampleStatistics get(int point, int output) {
+        return statistics[point][output];
+    }
+
+    /**
+     * @return the design of experiment
+     */
+    public ExperimentDesign getDesign() {
+        return design;
+    }
+
+    /**
+     * @return the names of outputs
+     */
+    public List<String> getOutputs() {
+        return outputs;
+    }
+
+    /**
+     * @return the confidence level of intervals
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * Prints the point and the mean value and the confidence interval of each
+     * output
+     */
+    public void print() {
+        for (ExperimentDesign.Point point : design.getPoints()) {
+            System.out.println("Point " + point.getIndex() + ": " + point);
+            for (int i = 0; i < outputs.size(); i++) {
+                SampleStatistics s = statistics[point.getIndex()][i];
+                double h = s.getHalfWidth(confidence);
+                System.out.printf("  %s  mean = %f  CI = [%f; %f]%n", outputs.get(i), s.getMean(), s.getMean() - h, s.getMean() + h);
+            }
+        }
+    }
+}
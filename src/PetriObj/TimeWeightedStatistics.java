@@ -0,0 +1,280 @@
+package PetriObj;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * This class collects the time-weighted statistics of integer value (the
+ * quantity of markers in place or the quantity of active channels of
+ * transition): mean value, variance, minimal and maximal values, the fraction
+ * of time at each value and the percentiles.<br>
+ * Each value is added together with the time interval during which it was
+ * observed. The update takes O(1), the memory does not depend on the length
+ * of simulation: the values from 0 to 31 are counted exactly, the greater
+ * values are counted in the histogram with four intervals per each power of
+ * two. The histogram is created by the first value, so the statistics of
+ * element that has not been simulated takes little memory.
+ */
+public class TimeWeightedStatistics implements Serializable {
+
+    private static final int EXACT = 32; // the values that have their own interval of histogram
+    private static final int SUB = 4; // the intervals per power of two for values from EXACT
+    private static final int BINS = EXACT + (30 - 5 + 1) * SUB;
+
+    private double[] histogram; // the time at value (or interval of values), is created by the first value
+    private double totalTime;
+    private double mean;
+    private double sumSq; // the weighted sum of squared deviations from mean value
+    private int min;
+    private int max;
+
+    public TimeWeightedStatistics() {
+        reset();
+    }
+
+    /**
+     * Constructs the copy of given statistics
+     *
+     * @param other the statistics to copy
+     */
+    public TimeWeightedStatistics(TimeWeightedStatistics other) {
+        histogram = other.histogram != null ? other.histogram.clone() : null;
+        totalTime = other.totalTime;
+        mean = other.mean;
+        sumSq = other.sumSq;
+        min = other.min;
+        max = other.max;
+    }
+
+    /**
+     * Removes all collected values
+     */
+    public final void reset() {
+        if (histogram != null) {
+            Arrays.fill(histogram, 0);
+        }
+        totalTime = 0;
+        mean = 0;
+        sumSq = 0;
+        min = Integer.MAX_VALUE;
+        max = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Adds the value observed during the time interval
+     *
+     * @param value the observed value
+     * @param dt the time interval, the value is ignored if the interval is not
+     * positive
+     */
+    public void add(int value, double dt) {
+        if (!(dt > 0)) {
+            return;
+        }
+        totalTime += dt;
+        double delta = value - mean;
+        mean += delta * dt / totalTime;
+        sumSq += dt * delta * (value - mean);
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        if (histogram == null) {
+            histogram = new double[BINS];
+        }
+        histogram[bin(value)] += dt;
+    }
+
+    /**
+     * Writes the accumulated values (see PetriObjModel.snapshot()). Only the nonempty
+     * intervals of histogram are written.
+     *
+     * @param out the output
+     * @throws IOException if the output fails
+     */
+    void writeState(DataOutput out) throws IOException {
+        out.writeDouble(totalTime);
+        out.writeDouble(mean);
+        out.writeDouble(sumSq);
+        out.writeInt(min);
+        out.writeInt(max);
+        if (histogram == null) {
+            out.writeShort(-1);
+            return;
+        }
+        int count = 0;
+        for (double time : histogram) {
+            if (time != 0) {
+                count++;
+            }
+        }
+        out.writeShort(count);
+        for (int i = 0; i < BINS; i++) {
+            if (histogram[i] != 0) {
+                out.writeByte(i);
+                out.writeDouble(histogram[i]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the accumulated values with the values written by writeState()
+     *
+     * @param in the input
+     * @throws IOException if the input fails
+     */
+    void readState(DataInput in) throws IOException {
+        totalTime = in.readDouble();
+        mean = in.readDouble();
+        sumSq = in.readDouble();
+        min = in.readInt();
+        max = in.readInt();
+        int count = in.readShort();
+        if (count < 0) {
+            histogram = null;
+            return;
+        }
+        if (histogram == null) {
+            histogram = new double[BINS];
+        } else {
+            Arrays.fill(histogram, 0);
+        }
+        for (int k = 0; k < count; k++) {
+            int i = in.readUnsignedByte();
+            histogram[i] = in.readDouble();
+        }
+    }
+
+    private static int bin(int value) {
+        if (value < EXACT) {
+            return value > 0 ? value : 0;
+        }
+        int e = 31 - Integer.numberOfLeadingZeros(value); // 5..30
+        return EXACT + (e - 5) * SUB + ((value >>> (e - 2)) & (SUB - 1));
+    }
+
+    private static long lowerBound(int i) {
+        if (i < EXACT) {
+            return i;
+        }
+        int e = 5 + (i - EXACT) / SUB;
+        return (long) (SUB + (i - EXACT) % SUB) << (e - 2);
+    }
+
+    /**
+     * @return the total time of observation
+     */
+    public double getTotalTime() {
+        return totalTime;
+    }
+
+    /**
+     * @return time-weighted mean value
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return time-weighted variance
+     */
+    public double getVariance() {
+        return totalTime > 0 ? sumSq / totalTime : 0;
+    }
+
+    /**
+     * @return time-weighted standard deviation
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * @return minimal observed value or 0 if nothing was observed
+     */
+    public int getMin() {
+        return totalTime > 0 ? min : 0;
+    }
+
+    /**
+     * @return maximal observed value or 0 if nothing was observed
+     */
+    public int getMax() {
+        return totalTime > 0 ? max : 0;
+    }
+
+    /**
+     * @param value the value
+     * @return the fraction of time at the value. For values from 32 it is the
+     * fraction of time at the interval of histogram containing the value.
+     */
+    public double getFraction(int value) {
+        return totalTime > 0 ? histogram[bin(value)] / totalTime : 0;
+    }
+
+    /**
+     * Estimates the percentile of time-weighted distribution. The percentiles
+     * of values less than 32 are exact, for the greater values the linear
+     * interpolation inside the interval of histogram is used.
+     *
+     * @param q the probability from 0 to 1
+     * @return the least value such that the fraction of time at values not
+     * greater than it is not less than q
+     */
+    public double getPercentile(double q) {
+        if (totalTime <= 0) {
+            return 0;
+        }
+        double target = q * totalTime;
+        double cumulative = 0;
+        int last = 0;
+        for (int i = 0; i < BINS; i++) {
+            if (histogram[i] <= 0) {
+                continue;
+            }
+            last = i;
+            if (cumulative + histogram[i] >= target) {
+                if (i < EXACT) {
+                    return i;
+                }
+                long lower = Math.max(lowerBound(i), min);
+                long upper = Math.min(lowerBound(i + 1) - 1, max);
+                return lower + (upper - lower) * (target - cumulative) / histogram[i];
+            }
+            cumulative += histogram[i];
+        }
+        return last < EXACT ? last : max;
+    }
+
+    /**
+     * @return the median
+     */
+    public double getP50() {
+        return getPercentile(0.5);
+    }
+
+    /**
+     * @return the 95th percentile
+     */
+    public double getP95() {
+        return getPercentile(0.95);
+    }
+
+    /**
+     * @return the 99th percentile
+     */
+    public double getP99() {
+        return getPercentile(0.99);
+    }
+
+    @Override
+    public String toString() {
+        return "mean " + mean + ", std " + getStandardDeviation() + ", min " + getMin() + ", max " + getMax()
+                + ", P50 " + getP50() + ", P95 " + getP95() + ", P99 " + getP99();
+    }
+}
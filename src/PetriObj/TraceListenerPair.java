@@ -0,0 +1,64 @@
+package PetriObj;
+
+/**
+ * This class passes the trace of Petri-object functioning to two listeners,
+ * for example to the trace listener and the statistics listener of model.
+ */
+final class TraceListenerPair implements SimTraceListener {
+
+    private final SimTraceListener first, second;
+
+    /**
+     * @param first the listener or null
+     * @param second the listener or null
+     * @return the listener that calls the first listener and then the second
+     * one, or the listener that is not null, or null
+     */
+    static SimTraceListener combine(SimTraceListener first, SimTraceListener second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null ? first : new TraceListenerPair(first, second);
+    }
+
+    private TraceListenerPair(SimTraceListener first, SimTraceListener second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public void inputStarted(PetriSim sim) {
+        first.inputStarted(sim);
+        second.inputStarted(sim);
+    }
+
+    @Override
+    public void transitionIn(PetriSim sim, PetriT transition) {
+        first.transitionIn(sim, transition);
+        second.transitionIn(sim, transition);
+    }
+
+    @Override
+    public void inputFinished(PetriSim sim, int[] markBefore) {
+        first.inputFinished(sim, markBefore);
+        second.inputFinished(sim, markBefore);
+    }
+
+    @Override
+    public void outputStarted(PetriSim sim, PetriT event) {
+        first.outputStarted(sim, event);
+        second.outputStarted(sim, event);
+    }
+
+    @Override
+    public void transitionOut(PetriSim sim, PetriT transition) {
+        first.transitionOut(sim, transition);
+        second.transitionOut(sim, transition);
+    }
+
+    @Override
+    public void outputFinished(PetriSim sim, int[] markBefore) {
+        first.outputFinished(sim, markBefore);
+        second.outputFinished(sim, markBefore);
+    }
+}
@@ -66,6 +66,7 @@ public class AnimRunPetriObjModel extends PetriObjModel{  // added 07.2018
         super.setCurrentTime(0.0);
         double min;
         super.getListObj().sort(PetriSim.getComparatorByPriority()); //виправлено 9.11.2015, 12.10.2017
+        startStatistics(false); // the statistics of previous run are removed
         for (AnimRunPetriSim e : getRunlist()) {
             e.input();
             /* support for early termination of the simulation */
@@ -88,15 +89,7 @@ public class AnimRunPetriObjModel extends PetriObjModel{  // added 07.2018
                 }
             }
             if (super.isStatistics() == true) {
-                for (AnimRunPetriSim e : getRunlist()) {
-                    if (min > 0) {
-                        if (min < super.getSimulationTime()) {
-                            e.doStatistics((min - super.getCurrentTime()) / min); //статистика за час "дельта т", для спільних позицій потрібно статистику збирати тільки один раз!!!
-                        } else {
-                            e.doStatistics((timeModeling - super.getCurrentTime()) / super.getSimulationTime());
-                        }
-                    }
-                }
+                doStatistics(Math.min(min, super.getSimulationTime())); //статистика за час "дельта т", для спільних позицій збирається тільки один раз
             }
 
             super.setCurrentTime(min); // просування часу
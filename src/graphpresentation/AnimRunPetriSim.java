@@ -206,13 +206,7 @@ public class AnimRunPetriSim extends PetriSim {
           //  stop = true;                              // і не має фішок в переходах або вичерпаний час моделювання
             area.append("\n STOP, there are no active transitions / transitions with a fulfilled activation condition " + this.getName());
             timeMin = getSimulationTime();
-            for (PetriP position : super.getNet().getListP()) {
-                position.changeMean((timeMin - getCurrentTime()) / getSimulationTime());
-            }
-
-            for (PetriT transition : super.getNet().getListT()) {
-                transition.changeMean((timeMin - getCurrentTime()) / getSimulationTime());
-            }
+            doStatistics();
 
             setTimeCurr(timeMin);         //просування часу
         } else {
@@ -232,13 +226,7 @@ public class AnimRunPetriSim extends PetriSim {
             this.printMark(area);//друкувати поточне маркування
 
             this.eventMin();//знайти найближчу подію та ії час
-            for (PetriP position : super.getNet().getListP()) {
-                position.changeMean((timeMin - getCurrentTime()) / getSimulationTime());
-            }
-
-            for (PetriT transition : super.getNet().getListT()) {
-                transition.changeMean((timeMin - getCurrentTime()) / getSimulationTime());
-            }
+            doStatistics();
 
             setTimeCurr(timeMin);         //просування часу
 
@@ -992,7 +992,7 @@ public class PetriNetsPanel extends javax.swing.JPanel {
         animTransitions(list,100,5,Color.BLACK);
 
     }
-    public void animateP(ArrayList<Integer> inP) {  //Саша 05.17
+    public void animateP(List<Integer> inP) {  //Саша 05.17
         ArrayList<GraphPetriPlace> list = new ArrayList<>();
         for (GraphPetriPlace p : graphNet.getGraphPetriPlaceList()) {
             for (Integer inp : inP) {
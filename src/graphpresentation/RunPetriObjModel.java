@@ -43,6 +43,7 @@ public class RunPetriObjModel extends PetriObjModel{
         super.setCurrentTime(0.0);
         double min;
         super.getListObj().sort(PetriSim.getComparatorByPriority()); //виправлено 9.11.2015, 12.10.2017
+        startStatistics(false); // the statistics of previous run are removed
         for (PetriSim e : getListObj()) { 
             e.input();
         }
@@ -62,14 +63,7 @@ public class RunPetriObjModel extends PetriObjModel{
                 }
             }
             if (super.isStatistics() == true) {
-                for (PetriSim e : getListObj()) {
-                    if (min > 0) {
-                        if(min<super.getSimulationTime())
-                            e.doStatistics((min - super.getCurrentTime()) / min); //статистика за час "дельта т", для спільних позицій потрібно статистику збирати тільки один раз!!!
-                        else
-                            e.doStatistics((super.getSimulationTime() - super.getCurrentTime()) / super.getSimulationTime()); 
-                    }
-                }
+                doStatistics(Math.min(min, super.getSimulationTime())); //статистика за час "дельта т", для спільних позицій збирається тільки один раз
             }
 
            super.setCurrentTime(min); // просування часу
@@ -169,6 +163,7 @@ public class RunPetriObjModel extends PetriObjModel{
         super.setCurrentTime(0.0);
         double min;
         super.getListObj().sort(PetriSim.getComparatorByPriority()); //виправлено 9.11.2015, 12.10.2017
+        startStatistics(false); // the statistics of previous run are removed
         for (PetriSim e : super.getListObj()) {
             e.input();
         }
@@ -188,15 +183,7 @@ public class RunPetriObjModel extends PetriObjModel{
                 }
             }
             if (super.isStatistics() == true) {
-                for (PetriSim e : super.getListObj()) {
-                    if (min > 0) {
-                        if (min < super.getSimulationTime()) {
-                            e.doStatistics((min - super.getCurrentTime()) / min); //статистика за час "дельта т", для спільних позицій потрібно статистику збирати тільки один раз!!!
-                        } else {
-                            e.doStatistics((timeModeling - super.getCurrentTime()) / super.getSimulationTime());
-                        }
-                    }
-                }
+                doStatistics(Math.min(min, super.getSimulationTime())); //статистика за час "дельта т", для спільних позицій збирається тільки один раз
             }
 
             super.setCurrentTime(min); // просування часу
@@ -0,0 +1,83 @@
+package PetriObj;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BatchMeansTest {
+
+    private static class Value implements StateMetric {
+
+        double value;
+
+        @Override
+        public String getName() {
+            return "value";
+        }
+
+        @Override
+        public double getValue() {
+            return value;
+        }
+    }
+
+    @Test
+    public void testBatchesAreMergedWhenLimitIsReached() {
+        Value metric = new Value();
+        BatchMeans rule = new BatchMeans(1.0, 8, metric);
+        rule.start(0);
+        for (int i = 0; i < 8; i++) {
+            metric.value = i;
+            rule.observe(i, i + 0.25); // the interval is split between two calls
+            rule.observe(i + 0.25, i + 1);
+        }
+        assertEquals(4, rule.getBatches());
+        assertEquals(2.0, rule.getBatchLength(), 0);
+        assertEquals(3.5, rule.getMean(0), 1e-12);
+        assertEquals(0.5, rule.getSample(0).getMin(), 0); // the first two intervals are merged
+        assertEquals(6.5, rule.getSample(0).getMax(), 0);
+
+        metric.value = 100;
+        rule.observe(8, 9); // the half of the next batch is not counted yet
+        assertEquals(4, rule.getBatches());
+    }
+
+    @Test
+    public void testRuleNeedsPrecisionOfAllMetrics() {
+        Value steady = new Value();
+        Value noisy = new Value();
+        BatchMeans rule = new BatchMeans(1.0, steady, noisy);
+        rule.setTargetHalfWidth(0.1);
+        rule.start(0);
+        java.util.Random r = new java.util.Random(3);
+        for (int i = 0; i < 20; i++) {
+            steady.value = 5;
+            noisy.value = 5 + 10 * r.nextGaussian();
+            rule.observe(i, i + 1);
+        }
+        assertFalse(rule.isPrecise());
+        assertTrue(rule.getHalfWidth(0) <= 0.1);
+
+        rule.setRelativeHalfWidth(10);
+        rule.observe(20, 21);
+        assertTrue(rule.isPrecise());
+    }
+
+    @Test
+    public void testModelStopsWhenPrecisionIsReached() throws ExceptionInvalidTimeDelay {
+        ElevatorObjModel model = ElevatorFixtures.createElevator();
+        PetriP available = ElevatorFixtures.findPlace(model, "AvailablePlaces");
+        model.setSeed(4);
+        model.setWarmUpTime(500);
+        BatchMeans rule = new BatchMeans(100, StateMetric.of(available));
+        rule.setRelativeHalfWidth(0.05);
+        model.setStoppingRule(rule);
+        model.goWithoutPrintCheck(1e7);
+
+        assertTrue(rule.isPrecise());
+        assertTrue(model.getCurrentTime() < 1e7);
+        assertTrue(rule.getHalfWidth(0) <= 0.05 * rule.getMean(0));
+        assertEquals(model.getCurrentTime() - 500, available.getStatistics().getTotalTime(), 1e-6);
+        assertEquals(available.getStatistics().getMean(), rule.getMean(0), 0.05 * rule.getMean(0));
+    }
+}
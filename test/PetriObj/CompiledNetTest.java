@@ -0,0 +1,70 @@
+package PetriObj;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompiledNetTest {
+
+    @Test
+    public void testConditionAndFiringWorkOnMarking() throws ExceptionInvalidTimeDelay {
+        PetriP[] places = new PetriP[3];
+        PetriT transition = NumberingContext.call(() -> {
+            PetriT t = new PetriT("T", 1.0);
+            places[0] = new PetriP("P1", 2);
+            places[1] = new PetriP("Info", 0);
+            places[2] = new PetriP("P2", 0);
+            t.createInP(new ArcIn[]{
+                new ArcIn(places[0], t, 2),
+                new ArcIn(places[1], t, 1, true)});
+            t.createOutP(new ArcOut[]{new ArcOut(t, places[2], 3)});
+            return t;
+        });
+
+        Marking marking = new Marking(1);
+        CompiledNet compiled = new CompiledNet(places, new PetriT[]{transition}, marking);
+        assertFalse(compiled.condition(0)); // no marker in the place of informational arc
+        assertEquals(transition.condition(places), compiled.condition(0));
+
+        places[1].setMark(1);
+        assertTrue(compiled.condition(0));
+        compiled.actIn(0, 0.0);
+        assertEquals(0, places[0].getMark());
+        assertEquals(1, places[1].getMark()); // informational arc does not take markers
+        assertEquals(1, transition.getBuffer());
+        assertEquals(0, places[0].getObservedMin());
+
+        compiled.actOut(0, 1.0);
+        assertEquals(3, places[2].getMark());
+        assertEquals(3, places[2].getObservedMax());
+        assertEquals(0, transition.getBuffer());
+    }
+
+    @Test
+    public void testSharedPlaceHasOneSlot() throws ExceptionInvalidTimeDelay {
+        PetriP shared = new PetriP("Shared", 5);
+        PetriT first = new PetriT("T1", 1.0);
+        PetriT second = new PetriT("T2", 1.0);
+        PetriP[] placesOfFirst = {shared, new PetriP("Out1", 0)};
+        PetriP[] placesOfSecond = {new PetriP("Out2", 0), shared};
+        first.createInP(new ArcIn[]{new ArcIn(0, first.getNumber(), 1)});
+        first.createOutP(new ArcOut[]{new ArcOut(first.getNumber(), 1, 1)});
+        second.createInP(new ArcIn[]{new ArcIn(1, second.getNumber(), 1)});
+        second.createOutP(new ArcOut[]{new ArcOut(second.getNumber(), 0, 1)});
+
+        Marking marking = new Marking();
+        CompiledNet compiledFirst = new CompiledNet(placesOfFirst, new PetriT[]{first}, marking);
+        CompiledNet compiledSecond = new CompiledNet(placesOfSecond, new PetriT[]{second}, marking);
+        assertEquals(3, marking.size());
+
+        compiledFirst.actIn(0, 0.0);
+        compiledSecond.actIn(0, 0.0);
+        assertEquals(3, shared.getMark());
+        assertTrue(compiledFirst.isValid());
+
+        new Marking().bind(shared); // the shared place leaves the marking
+        assertEquals(3, shared.getMark());
+        assertFalse(compiledFirst.isValid());
+        assertFalse(compiledSecond.isValid());
+    }
+}
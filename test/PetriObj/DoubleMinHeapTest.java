@@ -0,0 +1,68 @@
+package PetriObj;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DoubleMinHeapTest {
+
+    @Test
+    public void testPollReturnsValuesInAscendingOrder() {
+        DoubleMinHeap heap = new DoubleMinHeap(1);
+        Random r = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            heap.add(r.nextDouble());
+        }
+        assertEquals(1000, heap.size());
+
+        double previous = -1;
+        while (!heap.isEmpty()) {
+            double value = heap.poll();
+            assertTrue(previous <= value);
+            previous = value;
+        }
+        assertEquals(Double.MAX_VALUE, heap.peek(), 0.0);
+    }
+
+    @Test
+    public void testRemoveAtKeepsHeapOrder() {
+        DoubleMinHeap heap = new DoubleMinHeap();
+        for (double value : new double[]{5, 3, 8, 1, 9, 2, 7}) {
+            heap.add(value);
+        }
+        heap.removeAt(3);
+        heap.removeAt(1);
+        assertEquals(5, heap.size());
+
+        double previous = -1;
+        while (!heap.isEmpty()) {
+            double value = heap.poll();
+            assertTrue(previous <= value);
+            previous = value;
+        }
+    }
+
+    @Test
+    public void testTransitionTimeOutView() throws ExceptionInvalidTimeDelay {
+        PetriT transition = new PetriT("T", 2.0);
+        PetriP[] places = {new PetriP("P1", 2), new PetriP("P2", 0)};
+        transition.createInP(new ArcIn[]{new ArcIn(0, transition.getNumber(), 1)});
+        transition.createOutP(new ArcOut[]{new ArcOut(transition.getNumber(), 1, 1)});
+
+        transition.actIn(places, 0.0);
+        transition.actIn(places, 1.0);
+        assertEquals(2, transition.getBuffer());
+        assertEquals(2.0, transition.getMinTime(), 0.0);
+
+        List<Double> timeOut = transition.getTimeOut();
+        assertEquals(2, timeOut.size());
+
+        // the way FileUse clears the buffers
+        timeOut.clear();
+        timeOut.add(Double.MAX_VALUE);
+        transition.setBuffer(0);
+        assertEquals(Double.MAX_VALUE, transition.getMinTime(), 0.0);
+    }
+}
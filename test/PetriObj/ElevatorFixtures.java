@@ -0,0 +1,55 @@
+package PetriObj;
+
+import java.util.ArrayList;
+
+/**
+ * The elevator model and the helpers used by the tests of copying, templates,
+ * snapshots and warm-up
+ */
+final class ElevatorFixtures {
+
+    private ElevatorFixtures() {
+    }
+
+    /**
+     * @return the elevator with capacity 6 built with its own numbering
+     */
+    static ElevatorObjModel createElevator() throws ExceptionInvalidTimeDelay {
+        return NumberingContext.call(() -> new ElevatorObjModel(1, 15, 120, 0.7, 0.1, 0.4, 6));
+    }
+
+    /**
+     * @return the first place of model with given name
+     */
+    static PetriP findPlace(PetriObjModel model, String name) {
+        for (PetriSim sim : model.getListObj()) {
+            for (PetriP p : sim.getNet().getListP()) {
+                if (p.getName().equals(name)) {
+                    return p;
+                }
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    /**
+     * @return the quantities of markers in places and the buffers of
+     * transitions of all objects
+     */
+    static int[] marks(PetriObjModel model) {
+        ArrayList<Integer> marks = new ArrayList<>();
+        for (PetriSim sim : model.getListObj()) {
+            for (PetriP p : sim.getNet().getListP()) {
+                marks.add(p.getMark());
+            }
+            for (PetriT t : sim.getNet().getListT()) {
+                marks.add(t.getBuffer());
+            }
+        }
+        int[] result = new int[marks.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = marks.get(i);
+        }
+        return result;
+    }
+}
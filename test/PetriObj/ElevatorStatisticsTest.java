@@ -0,0 +1,214 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static PetriObj.ElevatorFixtures.*;
+import static org.junit.Assert.*;
+
+public class ElevatorStatisticsTest {
+
+    /**
+     * Calculates the indicators of elevator by the quantities of markers in
+     * places after each input and output, without knowing the roles of
+     * transitions
+     */
+    private static class ReferenceListener implements SimTraceListener {
+
+        final int capacity;
+        final PetriP available;
+        final PetriP[] waiting = new PetriP[5];
+        final PetriP[] queues = new PetriP[10]; // up and down for each floor
+        final int[] last = new int[10];
+        final int[] initial = new int[10];
+        final List<List<Double>> starts = new ArrayList<>();
+        final double[] finishSum = new double[10];
+        final int[] finished = new int[10];
+        final List<PetriT> moves = new ArrayList<>();
+        long overflow;
+        int maxPassengers;
+        double passengersTime;
+        double moveWith;
+        double moveWithout;
+        double lastTime;
+        double moveStart;
+        int passengers;
+        int moving; // 0 stands, 1 moves without passengers, 2 moves with passengers
+
+        ReferenceListener(PetriObjModel model, int capacity) {
+            this.capacity = capacity;
+            available = findPlace(model, "AvailablePlaces");
+            for (int floor = 1; floor <= 5; floor++) {
+                waiting[floor - 1] = findPlace(model, "PassengersWaiting" + floor + "Floor");
+                queues[2 * floor - 2] = findPlace(model, "PassengersWaitingToMoveUp" + floor + "Floor");
+                queues[2 * floor - 1] = findPlace(model, "PassengersWaitingToMoveDown" + floor + "Floor");
+            }
+            for (int k = 0; k < queues.length; k++) {
+                last[k] = initial[k] = queues[k].getMark();
+                starts.add(new ArrayList<>());
+            }
+            for (PetriSim sim : model.getListObj()) {
+                for (PetriT t : sim.getNet().getListT()) {
+                    if (t.getName().matches("Move\\dTo\\d")) {
+                        moves.add(t);
+                    }
+                }
+            }
+            passengers = capacity - available.getMark();
+        }
+
+        /**
+         * @param floor the floor of waiting, from 1
+         * @param down the direction
+         * @return the mean waiting time of passengers that have entered,
+         * pairing the entrances with the earliest arrivals
+         */
+        double meanWaiting(int floor, boolean down) {
+            int k = 2 * floor - 2 + (down ? 1 : 0);
+            double sum = finishSum[k];
+            for (int i = 0; i < finished[k]; i++) {
+                sum -= starts.get(k).get(i);
+            }
+            return sum / finished[k];
+        }
+
+        void finish(double time) {
+            advance(time);
+            int total = 0;
+            for (PetriT t : moves) {
+                total += t.getBuffer();
+            }
+            int state = total == 0 ? 0 : passengers > 0 ? 2 : 1;
+            if (moving == 0 && state != 0) {
+                moveStart = time;
+            }
+            moving = state;
+        }
+
+        /**
+         * Finishes the calculation, the move that is not finished is not
+         * counted
+         */
+        void end(double time) {
+            advance(time);
+            if (moving == 2) {
+                moveWith -= time - moveStart;
+            } else if (moving == 1) {
+                moveWithout -= time - moveStart;
+            }
+        }
+
+        void advance(double time) {
+            double dt = time - lastTime;
+            passengersTime += passengers * dt;
+            if (moving == 2) {
+                moveWith += dt;
+            } else if (moving == 1) {
+                moveWithout += dt;
+            }
+            lastTime = time;
+        }
+
+        private void changed(double time) {
+            advance(time);
+            passengers = capacity - available.getMark();
+            maxPassengers = Math.max(maxPassengers, passengers);
+            for (int k = 0; k < queues.length; k++) {
+                int mark = queues[k].getMark();
+                for (int i = last[k]; i < mark; i++) {
+                    starts.get(k).add(time);
+                }
+                for (int i = mark; i < last[k]; i++) {
+                    if (initial[k] > 0) {
+                        initial[k]--;
+                    } else {
+                        finishSum[k] += time;
+                        finished[k]++;
+                    }
+                }
+                last[k] = mark;
+            }
+        }
+
+        @Override
+        public void inputStarted(PetriSim sim) {
+        }
+
+        @Override
+        public void transitionIn(PetriSim sim, PetriT transition) {
+            if (moves.contains(transition)) {
+                int floor = transition.getName().charAt(4) - '0';
+                if (available.getMark() == 0) {
+                    overflow += waiting[floor - 1].getMark();
+                }
+            }
+        }
+
+        @Override
+        public void inputFinished(PetriSim sim, int[] markBefore) {
+            changed(sim.getCurrentTime());
+            finish(sim.getCurrentTime());
+        }
+
+        @Override
+        public void outputStarted(PetriSim sim, PetriT event) {
+        }
+
+        @Override
+        public void transitionOut(PetriSim sim, PetriT transition) {
+        }
+
+        @Override
+        public void outputFinished(PetriSim sim, int[] markBefore) {
+            changed(sim.getCurrentTime());
+            finish(sim.getCurrentTime());
+        }
+    }
+
+    @Test
+    public void testStatisticsOfSmallElevator() throws ExceptionInvalidTimeDelay {
+        int capacity = 2;
+        ElevatorObjModel model = NumberingContext.call(() -> new ElevatorObjModel(1, 15, 120, 0.7, 0.1, 0.4, capacity));
+        model.setSeed(5);
+        model.setIsProtokol(false);
+        ReferenceListener reference = new ReferenceListener(model, capacity);
+        model.setTraceListener(reference);
+        double time = 3000;
+        model.go(time);
+        reference.end(time);
+
+        ElevatorStatistics statistics = model.getStatistics();
+        assertEquals(5, statistics.getFloors());
+        long entered = 0;
+        for (int floor = 1; floor <= 5; floor++) {
+            if (floor != 5) {
+                assertEquals("up " + floor, reference.meanWaiting(floor, false),
+                        statistics.getWaitingTimeUp(floor).getMean(), 1e-9);
+                entered += statistics.getWaitingTimeUp(floor).getCount();
+            }
+            if (floor != 1) {
+                assertEquals("down " + floor, reference.meanWaiting(floor, true),
+                        statistics.getWaitingTimeDown(floor).getMean(), 1e-9);
+                entered += statistics.getWaitingTimeDown(floor).getCount();
+            }
+        }
+        assertTrue(entered > 100);
+        assertTrue(statistics.getEntered() >= entered);
+
+        assertEquals(reference.moveWith / time, statistics.getTimeMoveWithPassengers(), 1e-9);
+        assertEquals(reference.moveWithout / time, statistics.getTimeMoveWithoutPassengers(), 1e-9);
+        assertTrue(statistics.getTimeMoveWithPassengers() > 0);
+        assertTrue(statistics.getTimeMoveWithoutPassengers() > 0);
+        assertTrue(statistics.getTimeDoNotMove() > 0);
+
+        assertEquals(capacity, reference.maxPassengers);
+        assertEquals(reference.maxPassengers, statistics.getMaxPassengers());
+        assertEquals(reference.passengersTime / time, statistics.getMeanPassengers(), 1e-9);
+
+        assertTrue(reference.overflow > 0); // the small elevator leaves passengers on floors
+        assertEquals(reference.overflow, statistics.getOverflow());
+        assertEquals(reference.overflow / (double) (statistics.getEntered() + reference.overflow),
+                statistics.getOverflowFraction(), 1e-12);
+    }
+}
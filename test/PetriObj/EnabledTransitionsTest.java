@@ -0,0 +1,87 @@
+package PetriObj;
+
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EnabledTransitionsTest {
+
+    private static void assertSameAsFullCheck(EnabledTransitions set, PetriP[] listP, PetriT[] listT) {
+        for (int j = 0; j < listT.length; j++) {
+            boolean expected = listT[j].condition(listP) && listT[j].getProbability() != 0;
+            assertEquals(listT[j].getName(), expected, set.isEnabled(j));
+        }
+    }
+
+    @Test
+    public void testRefreshOfChangedPlacesEqualsFullCheck() throws ExceptionInvalidTimeDelay {
+        PetriP[][] places = new PetriP[2][];
+        PetriT[][] transitions = new PetriT[2][];
+        NumberingContext.run(() -> {
+            PetriP shared = new PetriP("S", 0);
+            places[0] = new PetriP[]{new PetriP("P1", 3), shared, new PetriP("I", 1)};
+            places[1] = new PetriP[]{new PetriP("Q", 1), shared};
+            PetriT t1 = new PetriT("T1", 1.0);
+            PetriT t2 = new PetriT("T2", 0.5);
+            PetriT t3 = new PetriT("T3", 2.0);
+            PetriT t4 = new PetriT("T4", 1.0);
+            PetriT t5 = new PetriT("T5", 1.0);
+            t1.createInP(new ArcIn[]{new ArcIn(0, t1.getNumber(), 1), new ArcIn(places[0][2], t1, 1, true)});
+            t1.createOutP(new ArcOut[]{new ArcOut(t1.getNumber(), 1, 1)});
+            t2.createInP(new ArcIn[]{new ArcIn(1, t2.getNumber(), 2)});
+            t2.createOutP(new ArcOut[]{new ArcOut(t2.getNumber(), 0, 2)});
+            t2.setPriority(1);
+            t3.createInP(new ArcIn[]{new ArcIn(1, t3.getNumber(), 1), new ArcIn(0, t3.getNumber(), 1)});
+            t3.createOutP(new ArcOut[]{new ArcOut(t3.getNumber(), 0, 1)});
+            t4.createInP(new ArcIn[]{new ArcIn(0, t4.getNumber(), 1)});
+            t4.createOutP(new ArcOut[]{new ArcOut(t4.getNumber(), 1, 2)});
+            t5.createInP(new ArcIn[]{new ArcIn(0, t5.getNumber(), 2)});
+            t5.createOutP(new ArcOut[]{new ArcOut(t5.getNumber(), 1, 1)});
+            t5.setProbability(0);
+            transitions[0] = new PetriT[]{t1, t2};
+            transitions[1] = new PetriT[]{t3, t4, t5};
+        });
+        Marking marking = new Marking(1);
+        CompiledNet[] compiled = new CompiledNet[2];
+        EnabledTransitions[] sets = new EnabledTransitions[2];
+        for (int n = 0; n < 2; n++) {
+            compiled[n] = new CompiledNet(places[n], transitions[n], marking);
+            sets[n] = new EnabledTransitions(places[n], transitions[n], compiled[n]);
+            sets[n].refresh(places[n]);
+            assertSameAsFullCheck(sets[n], places[n], transitions[n]);
+        }
+
+        Random random = new Random(1);
+        double time = 0;
+        for (int step = 0; step < 5000; step++) {
+            int n = random.nextInt(2);
+            int j = random.nextInt(transitions[n].length);
+            switch (random.nextInt(3)) {
+                case 0: // the input of markers into the enabled transition
+                    if (sets[n].isEnabled(j)) {
+                        compiled[n].actIn(j, time);
+                        sets[n].update(transitions[n][j], places[n]);
+                    }
+                    break;
+                case 1: // the output of markers
+                    time += 0.1;
+                    compiled[n].actOut(j, time);
+                    break;
+                default: // the change of marking outside
+                    PetriP place = places[n][random.nextInt(places[n].length)];
+                    place.setMark(random.nextInt(4));
+                    break;
+            }
+            for (int k = 0; k < 2; k++) {
+                sets[k].refresh(places[k]);
+                assertSameAsFullCheck(sets[k], places[k], transitions[k]);
+            }
+        }
+
+        sets[0].detach();
+        places[0][1].setMark(places[0][1].getMark() + 1); // only the second set is told
+        sets[1].refresh(places[1]);
+        assertSameAsFullCheck(sets[1], places[1], transitions[1]);
+    }
+}
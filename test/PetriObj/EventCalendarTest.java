@@ -0,0 +1,111 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EventCalendarTest {
+
+    /**
+     * Checks that the selected object has the highest priority in its
+     * conflict set and counts how often each object is selected first among
+     * the objects of equal priority
+     */
+    private static class PrioritySink extends AbstractEventSink {
+
+        final List<PetriSim> conflict = new ArrayList<>();
+        final Map<PetriSim, Integer> firstOfEqual = new IdentityHashMap<>();
+        int conflicts;
+
+        @Override
+        public void conflictSet(double time, List<PetriSim> conflictObj) {
+            conflict.clear();
+            conflict.addAll(conflictObj);
+            if (conflictObj.size() > 1) {
+                conflicts++;
+            }
+        }
+
+        @Override
+        public void selectedObject(double time, PetriSim sim) {
+            int equal = 0;
+            for (PetriSim other : conflict) {
+                assertTrue(sim.getName() + " is selected instead of " + other.getName(),
+                        other.getPriority() <= sim.getPriority());
+                if (other.getPriority() == sim.getPriority()) {
+                    equal++;
+                }
+            }
+            if (equal > 1) {
+                firstOfEqual.merge(sim, 1, Integer::sum);
+            }
+        }
+
+        @Override
+        public void event(int type, double time, PetriSim sim, int element, int value) {
+        }
+    }
+
+    /**
+     * Four objects with priorities 2, 1, 1, 0. Each object puts one marker in
+     * its place Out every time unit, so all objects have their events at the
+     * same moments.
+     */
+    private static PetriObjModel createModel() throws Exception {
+        return NumberingContext.call(() -> {
+            ArrayList<PetriSim> list = new ArrayList<>();
+            int[] priorities = {2, 1, 1, 0};
+            for (int i = 0; i < priorities.length; i++) {
+                PetriP.initNext(); // the arcs refer to the numbers of places in the net
+                PetriT.initNext();
+                PetriP loop = new PetriP("P", 1);
+                PetriP out = new PetriP("Out", 0);
+                PetriT transition = new PetriT("T", 1.0);
+                PetriSim sim = new PetriSim(new PetriNet("Object" + i, new PetriP[]{loop, out},
+                        new PetriT[]{transition}, new ArcIn[]{new ArcIn(loop, transition, 1)},
+                        new ArcOut[]{new ArcOut(transition, loop, 1), new ArcOut(transition, out, 1)}));
+                sim.setPriority(priorities[i]);
+                list.add(sim);
+            }
+            return new PetriObjModel(list);
+        });
+    }
+
+    private static int[] marks(PetriObjModel model) {
+        int[] marks = new int[model.getListObj().size()];
+        for (PetriSim sim : model.getListObj()) {
+            marks[sim.getNumObj() - 1] = sim.getNet().getListP()[1].getMark();
+        }
+        return marks;
+    }
+
+    @Test
+    public void testCalendarChoosesAsScan() throws Exception {
+        long[] events = new long[2];
+        int[][] marks = new int[2][];
+        for (int mode = 0; mode < 2; mode++) {
+            PetriObjModel model = createModel();
+            PrioritySink sink = new PrioritySink();
+            model.setEventCalendar(mode == 1);
+            model.setIsProtokol(false);
+            model.setSeed(3);
+            model.setEventSink(sink);
+            model.go(2000);
+            events[mode] = model.getEventCount();
+            marks[mode] = marks(model);
+
+            assertTrue(sink.conflicts > 3 * 1000);
+            int first = sink.firstOfEqual.getOrDefault(model.getListObj().get(1), 0);
+            int second = sink.firstOfEqual.getOrDefault(model.getListObj().get(2), 0);
+            assertEquals(2000, first + second, 2); // at each moment one of two objects with priority 1 goes first
+            assertTrue("the objects of equal priority are chosen " + first + " and " + second + " times",
+                    Math.abs(first - second) < 200);
+        }
+        assertEquals(events[0], events[1]);
+        assertArrayEquals(marks[0], marks[1]);
+    }
+}
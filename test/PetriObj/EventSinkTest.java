@@ -0,0 +1,165 @@
+package PetriObj;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EventSinkTest {
+
+    /**
+     * Keeps the events as the lines: type, time, object, element, value
+     */
+    private static class RecordingSink extends AbstractEventSink {
+
+        final List<String> records = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void event(int type, double time, PetriSim sim, int element, int value) {
+            records.add(record(type, time, sim == null ? "" : sim.getName(), element, value));
+        }
+    }
+
+    private static String record(int type, double time, String obj, int element, int value) {
+        return type + " " + time + " " + obj + " " + element + " " + value;
+    }
+
+    /**
+     * P1 (1 marker) --> T1 (delay 1) --> "P,2" --> T2 (delay 0.5) --> P1, the
+     * transitions are added in reverse order, so the numbers of transitions
+     * differ from their indexes
+     */
+    private static PetriObjModel createModel() throws ExceptionInvalidTimeDelay {
+        return NumberingContext.call(() -> {
+            ArrayList<PetriP> places = new ArrayList<>();
+            ArrayList<PetriT> transitions = new ArrayList<>();
+            ArrayList<ArcIn> in = new ArrayList<>();
+            ArrayList<ArcOut> out = new ArrayList<>();
+            places.add(new PetriP("P1", 1));
+            places.add(new PetriP("P,2", 0));
+            PetriT t2 = new PetriT("T2", 0.5);
+            PetriT t1 = new PetriT("T1", 1.0);
+            transitions.add(t1);
+            transitions.add(t2);
+            in.add(new ArcIn(places.get(0), t1, 1));
+            out.add(new ArcOut(t1, places.get(1), 1));
+            in.add(new ArcIn(places.get(1), t2, 1));
+            out.add(new ArcOut(t2, places.get(0), 1));
+            ArrayList<PetriSim> list = new ArrayList<>();
+            list.add(new PetriSim(new PetriNet("Net", places, transitions, in, out)));
+            PetriObjModel model = new PetriObjModel(list);
+            model.setIsProtokol(false);
+            model.setSeed(1);
+            return model;
+        });
+    }
+
+    private static List<String> recordedRun(double time) throws ExceptionInvalidTimeDelay {
+        PetriObjModel model = createModel();
+        RecordingSink sink = new RecordingSink();
+        model.setEventSink(sink);
+        model.go(time);
+        return sink.records;
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws Exception {
+        PetriObjModel model = createModel();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryEventSink sink = new BinaryEventSink(bytes);
+        model.setEventSink(sink);
+        model.go(10);
+        sink.close();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(BinaryEventSink.MAGIC, in.readInt());
+        assertEquals(BinaryEventSink.VERSION, in.readInt());
+        assertEquals(BinaryEventSink.DICTIONARY, in.readByte());
+        assertEquals(1, in.readInt());
+        Map<Integer, String> names = new HashMap<>();
+        names.put(in.readInt(), in.readUTF());
+        assertEquals(2, in.readInt());
+        assertEquals("P1", in.readUTF());
+        assertEquals("P,2", in.readUTF());
+        assertEquals(2, in.readInt());
+        assertEquals("T1", in.readUTF());
+        assertEquals("T2", in.readUTF());
+
+        int remaining = in.available();
+        assertEquals(0, remaining % 21);
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < remaining / 21; i++) {
+            int type = in.readByte();
+            double time = in.readDouble();
+            int obj = in.readInt();
+            records.add(record(type, time, obj < 0 ? "" : names.get(obj), in.readInt(), in.readInt()));
+        }
+        assertEquals(recordedRun(10), records);
+        assertTrue(records.contains(record(EventSink.TRANSITION_OUT, 1.0, "Net", 0, 0)));
+        assertTrue(records.contains(record(EventSink.TRANSITION_OUT, 1.5, "Net", 1, 0)));
+    }
+
+    @Test
+    public void testCsvLines() throws Exception {
+        PetriObjModel model = createModel();
+        StringWriter text = new StringWriter();
+        CsvEventSink sink = new CsvEventSink(text);
+        model.setEventSink(sink);
+        model.go(10);
+        sink.close();
+
+        String[] lines = text.toString().split("\n");
+        assertEquals("time,type,object,element,value", lines[0]);
+        List<String> records = recordedRun(10);
+        assertEquals(records.size() + 1, lines.length);
+        String[] elementNames = {"T1", "T2"};
+        String[] placeNames = {"P1", "\"P,2\""};
+        for (int i = 0; i < records.size(); i++) {
+            String[] r = records.get(i).split(" ", -1);
+            int type = Integer.parseInt(r[0]);
+            int element = Integer.parseInt(r[3]);
+            String name = type == EventSink.TRANSITION_IN || type == EventSink.TRANSITION_OUT ? elementNames[element]
+                    : type == EventSink.MARKING_DELTA ? placeNames[element]
+                    : type == EventSink.CONFLICT_SET ? r[3] : "";
+            assertEquals(r[1] + "," + AbstractEventSink.typeName(type) + "," + r[2] + "," + name + "," + r[4], lines[i + 1]);
+        }
+        assertTrue(text.toString().contains("\n1.0,MARKING_DELTA,Net,\"P,2\",1\n"));
+    }
+
+    @Test
+    public void testAsyncKeepsOrderWhenBufferWraps() throws IOException, ExceptionInvalidTimeDelay {
+        RecordingSink target = new RecordingSink();
+        AsyncEventSink sink = new AsyncEventSink(target, 4);
+        sink.start(new ArrayList<>());
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            sink.event(EventSink.TIME_ADVANCE, i, null, -1, i);
+            expected.add(record(EventSink.TIME_ADVANCE, i, "", -1, i));
+        }
+        sink.flush();
+        assertEquals(expected, new ArrayList<>(target.records));
+
+        target.records.clear();
+        PetriObjModel model = createModel();
+        model.setEventSink(sink);
+        model.go(100);
+        for (int i = 0; i < 100; i++) {
+            sink.event(EventSink.TIME_ADVANCE, 100 + i, null, -1, i);
+        }
+        sink.close();
+        expected = new ArrayList<>(recordedRun(100));
+        for (int i = 0; i < 100; i++) {
+            expected.add(record(EventSink.TIME_ADVANCE, 100 + i, "", -1, i));
+        }
+        assertEquals(expected, new ArrayList<>(target.records));
+    }
+}
@@ -0,0 +1,189 @@
+package PetriObj;
+
+import LibNet.NetLibrary;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FiringCodeGeneratorTest {
+
+    @Test
+    public void testGeneratedCodeIsSameAsArcs() throws ExceptionInvalidTimeDelay {
+        PetriP[] places = new PetriP[3];
+        PetriT transition = NumberingContext.call(() -> {
+            PetriT t = new PetriT("T", 1.0);
+            places[0] = new PetriP("P1", 200);
+            places[1] = new PetriP("Info", 0);
+            places[2] = new PetriP("P2", 0);
+            t.createInP(new ArcIn[]{
+                new ArcIn(places[0], t, 150),
+                new ArcIn(places[1], t, 1, true)});
+            t.createOutP(new ArcOut[]{new ArcOut(t, places[2], 70000)});
+            return t;
+        });
+
+        CompiledNet compiled = new CompiledNet(places, new PetriT[]{transition}, new Marking());
+        assertTrue(FiringCodeGenerator.generate(compiled));
+        FiringCode code = compiled.getCode();
+        assertNotNull(code);
+        assertFalse(compiled.condition(0));
+        assertFalse(code.condition(1, compiled.getMarking().marks)); // unknown transition
+
+        places[1].setMark(1);
+        assertTrue(compiled.condition(0));
+        compiled.actIn(0, 0.0);
+        assertEquals(50, places[0].getMark());
+        assertEquals(1, places[1].getMark());
+        assertEquals(50, places[0].getObservedMin());
+        assertFalse(compiled.condition(0));
+
+        compiled.actOut(0, 1.0);
+        assertEquals(70000, places[2].getMark());
+        assertEquals(70000, places[2].getObservedMax());
+        assertEquals(0, transition.getBuffer());
+    }
+
+    @Test
+    public void testNetWithoutTransitions() {
+        PetriP place = new PetriP("P", 1);
+        CompiledNet compiled = new CompiledNet(new PetriP[]{place}, new PetriT[0], new Marking());
+        assertTrue(FiringCodeGenerator.generate(compiled));
+        assertNotNull(compiled.getCode());
+        assertFalse(compiled.getCode().condition(0, compiled.getMarking().marks));
+    }
+
+    @Test
+    public void testLargeNetIsNotGenerated() throws ExceptionInvalidTimeDelay {
+        PetriP[] places = new PetriP[FiringCodeGenerator.MAX_CODE_LENGTH / 10];
+        PetriT transition = NumberingContext.call(() -> {
+            PetriT t = new PetriT("T", 1.0);
+            ArcOut[] arcs = new ArcOut[places.length];
+            for (int p = 0; p < places.length; p++) {
+                places[p] = new PetriP("P" + p, 0);
+                arcs[p] = new ArcOut(t, places[p], 1);
+            }
+            t.createOutP(arcs);
+            return t;
+        });
+        CompiledNet compiled = new CompiledNet(places, new PetriT[]{transition}, new Marking());
+        assertFalse(FiringCodeGenerator.generate(compiled));
+        assertNull(compiled.getCode());
+        compiled.actIn(0, 0.0);
+        compiled.actOut(0, 1.0); // the arrays of arcs are used
+        assertEquals(1, places[places.length - 1].getMark());
+    }
+
+    @Test
+    public void testNetsOfModelShareOneClass() throws ExceptionInvalidTimeDelay {
+        Marking marking = new Marking();
+        PetriP shared = new PetriP("Shared", 1);
+        List<CompiledNet> nets = new ArrayList<>();
+        for (int n = 0; n < 3; n++) {
+            PetriT transition = new PetriT("T" + n, 1.0);
+            PetriP[] places = {shared, new PetriP("Out" + n, 0)};
+            transition.createInP(new ArcIn[]{new ArcIn(0, transition.getNumber(), 1)});
+            transition.createOutP(new ArcOut[]{new ArcOut(transition.getNumber(), 1, n + 1)});
+            nets.add(new CompiledNet(places, new PetriT[]{transition}, marking));
+        }
+        assertTrue(FiringCodeGenerator.generate(nets));
+        assertSame(nets.get(0).getCode(), nets.get(2).getCode());
+
+        assertTrue(nets.get(2).condition(0));
+        nets.get(2).actIn(0, 0.0);
+        assertFalse(nets.get(0).condition(0)); // the shared place is empty
+        nets.get(2).actOut(0, 1.0);
+        assertEquals(3, marking.get(marking.size() - 1));
+        assertEquals(0, shared.getMark());
+    }
+
+    private static CompiledNet createNet(Marking marking, int outputs, int quantity) throws ExceptionInvalidTimeDelay {
+        PetriP[] places = new PetriP[outputs + 1];
+        PetriT transition = NumberingContext.call(() -> {
+            PetriT t = new PetriT("T", 1.0);
+            places[0] = new PetriP("In", 1);
+            ArcOut[] arcs = new ArcOut[outputs];
+            for (int p = 1; p <= outputs; p++) {
+                places[p] = new PetriP("Out" + p, 0);
+                arcs[p - 1] = new ArcOut(t, places[p], quantity);
+            }
+            t.createInP(new ArcIn[]{new ArcIn(places[0], t, 1)});
+            t.createOutP(arcs);
+            return t;
+        });
+        return new CompiledNet(places, new PetriT[]{transition}, marking);
+    }
+
+    @Test
+    public void testCodeIsReusedForSameStructure() throws ExceptionInvalidTimeDelay {
+        CompiledNet first = createNet(new Marking(), 2, 3);
+        CompiledNet second = createNet(new Marking(), 2, 3);
+        CompiledNet other = createNet(new Marking(), 2, 4);
+        assertTrue(FiringCodeGenerator.generate(first));
+        assertTrue(FiringCodeGenerator.generate(second));
+        assertTrue(FiringCodeGenerator.generate(other));
+        assertSame(first.getCode(), second.getCode());
+        assertNotSame(first.getCode(), other.getCode());
+
+        other.actIn(0, 0.0);
+        other.actOut(0, 1.0);
+        assertEquals(4, other.getMarking().get(2));
+    }
+
+    @Test
+    public void testLargeModelIsSplitIntoClasses() throws ExceptionInvalidTimeDelay {
+        Marking marking = new Marking();
+        List<CompiledNet> nets = new ArrayList<>();
+        for (int n = 0; n < 20; n++) {
+            nets.add(createNet(marking, 20, n + 1));
+        }
+        assertTrue(FiringCodeGenerator.generate(nets));
+        assertSame(nets.get(0).getCode(), nets.get(1).getCode());
+        assertNotSame(nets.get(0).getCode(), nets.get(19).getCode());
+        for (int n = 0; n < 20; n++) {
+            nets.get(n).actIn(0, 0.0);
+            nets.get(n).actOut(0, 1.0);
+            assertEquals(n + 1, marking.get(21 * n + 20));
+        }
+    }
+
+    @Test
+    public void testRunsOfModelUseSameCode() throws Exception {
+        ArrayList<PetriSim> list = new ArrayList<>();
+        list.add(NumberingContext.call(() -> new PetriSim(NetLibrary.CreateNetSMOgroup(4, 2, 1.0, "group"))));
+        PetriObjModel model = new PetriObjModel(list);
+        model.setIsProtokol(false);
+        model.setCodeGeneration(true);
+        model.go(10);
+        FiringCode code = list.get(0).getCompiled().getCode();
+        assertNotNull(code);
+        model.go(10);
+        assertSame(code, list.get(0).getCompiled().getCode());
+    }
+
+    @Test
+    public void testSimulationIsSameWithGeneratedCode() throws Exception {
+        int[] withoutCode = simulate(false);
+        int[] withCode = simulate(true);
+        assertArrayEquals(withoutCode, withCode);
+    }
+
+    private static int[] simulate(boolean codeGeneration) throws Exception {
+        ArrayList<PetriSim> list = new ArrayList<>();
+        list.add(NumberingContext.call(() -> new PetriSim(NetLibrary.CreateNetSMOgroup(4, 2, 1.0, "group"))));
+        PetriObjModel model = new PetriObjModel(list);
+        model.setIsProtokol(false);
+        model.setCodeGeneration(codeGeneration);
+        model.setSeed(7);
+        model.go(1000);
+        assertEquals(codeGeneration, list.get(0).getCompiled().getCode() != null);
+        PetriP[] places = list.get(0).getNet().getListP();
+        int[] result = new int[places.length + 1];
+        for (int p = 0; p < places.length; p++) {
+            result[p] = places[p].getMark();
+        }
+        result[places.length] = (int) model.getEventCount();
+        return result;
+    }
+}
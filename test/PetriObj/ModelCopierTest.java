@@ -0,0 +1,102 @@
+package PetriObj;
+
+import java.util.IdentityHashMap;
+import org.junit.Test;
+
+import static PetriObj.ElevatorFixtures.*;
+import static org.junit.Assert.*;
+
+public class ModelCopierTest {
+
+    @Test
+    public void testCopyKeepsClassesAndSharedPlaces() throws ExceptionInvalidTimeDelay {
+        ElevatorObjModel model = createElevator();
+        PetriObjModel copy = model.copy();
+        assertSame(ElevatorObjModel.class, copy.getClass());
+        assertEquals(model.getListObj().size(), copy.getListObj().size());
+
+        IdentityHashMap<PetriP, PetriP> places = new IdentityHashMap<>();
+        for (int i = 0; i < model.getListObj().size(); i++) {
+            PetriSim sim = model.getListObj().get(i);
+            PetriSim simCopy = copy.getListObj().get(i);
+            assertNotSame(sim, simCopy);
+            assertSame(sim.getClass(), simCopy.getClass());
+            assertEquals(sim.getPriority(), simCopy.getPriority());
+            PetriP[] listP = sim.getNet().getListP();
+            PetriP[] listPCopy = simCopy.getNet().getListP();
+            for (int p = 0; p < listP.length; p++) {
+                assertNotSame(listP[p], listPCopy[p]);
+                assertSame(listP[p].getClass(), listPCopy[p].getClass());
+                assertEquals(listP[p].getMark(), listPCopy[p].getMark());
+                PetriP known = places.put(listP[p], listPCopy[p]);
+                if (known != null) {
+                    assertSame(known, listPCopy[p]); // the shared place has one copy
+                }
+            }
+        }
+        assertTrue(places.size() < countPlaces(model)); // the model has shared places
+    }
+
+    private static int countPlaces(PetriObjModel model) {
+        int count = 0;
+        for (PetriSim sim : model.getListObj()) {
+            count += sim.getNet().getListP().length;
+        }
+        return count;
+    }
+
+    @Test
+    public void testCopySimulatesAsOriginal() throws ExceptionInvalidTimeDelay {
+        ElevatorObjModel model = createElevator();
+        ElevatorObjModel copy = new ModelCopier().copy(model);
+        model.setSeed(11);
+        model.setIsProtokol(false);
+        copy.setSeed(11);
+        copy.setIsProtokol(false);
+        model.go(2000);
+        copy.go(2000);
+        assertEquals(model.getEventCount(), copy.getEventCount());
+        assertEquals(model.getStatistics().getEntered(), copy.getStatistics().getEntered());
+        assertNotSame(model.getStatistics(), copy.getStatistics());
+        for (int i = 0; i < model.getListObj().size(); i++) {
+            PetriP[] listP = model.getListObj().get(i).getNet().getListP();
+            PetriP[] listPCopy = copy.getListObj().get(i).getNet().getListP();
+            for (int p = 0; p < listP.length; p++) {
+                assertEquals(listP[p].getMark(), listPCopy[p].getMark());
+                assertEquals(listP[p].getMean(), listPCopy[p].getMean(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testCopyKeepsBuffersAndIsIndependent() throws ExceptionInvalidTimeDelay {
+        PetriSim sim = NumberingContext.call(() -> {
+            PetriT t = new PetriT("T", 5.0);
+            t.setDistribution("exp", 5.0);
+            PetriP[] p = {new PetriP("In", 3), new PetriP("Out", 0)};
+            return new PetriSim(new PetriNet("Net", p, new PetriT[]{t},
+                    new ArcIn[]{new ArcIn(p[0], t, 1)}, new ArcOut[]{new ArcOut(t, p[1], 1)}));
+        });
+        PetriT transition = sim.getNet().getListT()[0];
+        PetriP[] places = sim.getNet().getListP();
+        transition.setSojournTracking(true);
+        transition.actIn(places, 0.0);
+        transition.actIn(places, 1.0);
+        sim.setPriority(4);
+        sim.compile(new Marking());
+
+        PetriSim copy = new ModelCopier().copy(sim);
+        PetriT transitionCopy = copy.getNet().getListT()[0];
+        assertEquals(4, copy.getPriority());
+        assertEquals(2, transitionCopy.getBuffer());
+        assertEquals(transition.getMinTime(), transitionCopy.getMinTime(), 0.0);
+        assertEquals(2, transitionCopy.getSojournTracker().getInside());
+        assertNull(copy.getNet().getListP()[0].getMarking());
+        assertEquals(1, copy.getNet().getListP()[0].getMark());
+
+        transitionCopy.actOut(copy.getNet().getListP(), transitionCopy.getMinTime());
+        assertEquals(1, transitionCopy.getBuffer());
+        assertEquals(2, transition.getBuffer());
+        assertEquals(0, places[1].getMark());
+    }
+}
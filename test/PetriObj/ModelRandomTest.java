@@ -0,0 +1,83 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ModelRandomTest {
+
+    @Test
+    public void testSameSeedGivesSameSequence() {
+        ModelRandom a = new ModelRandom(7);
+        ModelRandom b = new ModelRandom(7);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.nextLong(), b.nextLong());
+        }
+        a.setSeed(7);
+        assertEquals(new ModelRandom(7).nextDouble(), a.nextDouble(), 0.0);
+    }
+
+    @Test
+    public void testSplitIsReproducibleAndDiffers() {
+        ModelRandom a = new ModelRandom(1).split();
+        ModelRandom b = new ModelRandom(1).split();
+        ModelRandom root = new ModelRandom(1);
+        ModelRandom first = root.split();
+        ModelRandom second = root.split();
+        for (int i = 0; i < 100; i++) {
+            long x = first.nextLong();
+            assertEquals(a.nextLong(), b.nextLong());
+            assertTrue(x != second.nextLong());
+        }
+    }
+
+    @Test
+    public void testSubstreamDependsOnStateAndKey() {
+        ModelRandom root = new ModelRandom(5);
+        ModelRandom a = root.substream("SMO/T1");
+        ModelRandom b = new ModelRandom(5).substream("SMO/T1");
+        ModelRandom other = root.substream("SMO/T2");
+        assertEquals(new ModelRandom(5).nextLong(), root.nextLong()); // the root is not advanced
+        for (int i = 0; i < 100; i++) {
+            long x = a.nextLong();
+            assertEquals(x, b.nextLong());
+            assertTrue(x != other.nextLong());
+        }
+        assertTrue(root.substream("SMO/T1").nextLong() != new ModelRandom(5).substream("SMO/T1").nextLong());
+    }
+
+    @Test
+    public void testDoubleRange() {
+        ModelRandom r = new ModelRandom(3);
+        double sum = 0;
+        for (int i = 0; i < 10000; i++) {
+            double x = r.nextDouble();
+            assertTrue(x >= 0 && x < 1);
+            sum += x;
+        }
+        assertEquals(0.5, sum / 10000, 0.02);
+    }
+
+    @Test
+    public void testSeededModelIsReproducible() throws Exception {
+        assertEquals(runModel(11), runModel(11), 0.0);
+        assertTrue(runModel(11) != runModel(12));
+    }
+
+    private static double runModel(long seed) throws ExceptionInvalidTimeDelay {
+        return NumberingContext.call(() -> {
+            PetriP[] places = {new PetriP("P1", 1), new PetriP("P2", 0)};
+            PetriT[] transitions = {new PetriT("T1", 2.0)};
+            transitions[0].setDistribution("exp", 2.0);
+            ArcIn[] in = {new ArcIn(places[0], transitions[0], 1)};
+            ArcOut[] out = {new ArcOut(transitions[0], places[0], 1), new ArcOut(transitions[0], places[1], 1)};
+            ArrayList<PetriSim> list = new ArrayList<>();
+            list.add(new PetriSim(new PetriNet("Generator", places, transitions, in, out)));
+            PetriObjModel model = new PetriObjModel(list);
+            model.setSeed(seed);
+            model.goWithoutPrintCheck(100);
+            return places[1].getMark() + model.getCurrentTime();
+        });
+    }
+}
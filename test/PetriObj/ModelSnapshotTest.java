@@ -0,0 +1,98 @@
+package PetriObj;
+
+import LibNet.NetLibrary;
+import java.util.ArrayList;
+import org.junit.Test;
+
+import static PetriObj.ElevatorFixtures.*;
+import static org.junit.Assert.*;
+
+public class ModelSnapshotTest {
+
+    @Test
+    public void testContinuedRunEqualsOneRun() throws ExceptionInvalidTimeDelay {
+        ElevatorObjModel continued = createElevator();
+        ElevatorObjModel whole = createElevator();
+        continued.setSeed(11);
+        whole.setSeed(11);
+        continued.goWithoutPrintCheck(1000);
+        continued.resume(3000);
+        whole.goWithoutPrintCheck(3000);
+
+        assertEquals(whole.getEventCount(), continued.getEventCount());
+        assertArrayEquals(marks(whole), marks(continued));
+        assertEquals(whole.getStatistics().getEntered(), continued.getStatistics().getEntered());
+        PetriP place = whole.getListObj().get(0).getNet().getListP()[0];
+        PetriP other = continued.getListObj().get(0).getNet().getListP()[0];
+        assertEquals(place.getStatistics().getTotalTime(), other.getStatistics().getTotalTime(), 1e-9);
+        assertEquals(place.getMean(), other.getMean(), 1e-9);
+    }
+
+    @Test
+    public void testRestoredModelContinuesAsOriginal() throws ExceptionInvalidTimeDelay {
+        ElevatorObjModel model = createElevator();
+        ModelTemplate<ElevatorObjModel> template = new ModelTemplate<>(model);
+        model.setSeed(3);
+        model.goWithoutPrintCheck(1500);
+        byte[] snapshot = model.snapshot();
+
+        ElevatorObjModel first = template.instance();
+        ElevatorObjModel second = createElevator();
+        first.restore(snapshot);
+        second.restore(snapshot);
+        assertEquals(model.getCurrentTime(), first.getCurrentTime(), 0);
+        assertArrayEquals(marks(model), marks(second));
+
+        for (ElevatorObjModel m : new ElevatorObjModel[]{model, first, second}) {
+            m.resume(4000);
+        }
+        assertEquals(model.getEventCount(), first.getEventCount());
+        assertEquals(model.getEventCount(), second.getEventCount());
+        assertArrayEquals(marks(model), marks(first));
+        assertArrayEquals(marks(model), marks(second));
+        assertEquals(model.getStatistics().getEntered(), second.getStatistics().getEntered());
+        assertEquals(model.getStatistics().getWaitingTimeUp(1).getMean(),
+                first.getStatistics().getWaitingTimeUp(1).getMean(), 0);
+        assertEquals(model.getStatistics().getMeanPassengers(), second.getStatistics().getMeanPassengers(), 0);
+    }
+
+    @Test
+    public void testSnapshotOfOtherStructureIsRejected() throws Exception {
+        ElevatorObjModel model = createElevator();
+        model.setSeed(1);
+        model.goWithoutPrintCheck(100);
+        byte[] snapshot = model.snapshot();
+        PetriObjModel other = NumberingContext.call(() -> {
+            ArrayList<PetriSim> list = new ArrayList<>();
+            list.add(new PetriSim(NetLibrary.CreateNetSMOwithoutQueue(1, 1.0, "SMO")));
+            return new PetriObjModel(list);
+        });
+        try {
+            other.restore(snapshot);
+            fail("The snapshot of other model is restored");
+        } catch (IllegalArgumentException ex) {
+            assertEquals(0.0, other.getCurrentTime(), 0);
+        }
+        ElevatorObjModel renamed = createElevator();
+        findPlace(renamed, "AvailablePlaces").setName("FreePlaces"); // the same quantities of elements
+        int[] marks = marks(renamed);
+        try {
+            renamed.restore(snapshot);
+            fail("The snapshot of model with other names is restored");
+        } catch (IllegalArgumentException ex) {
+            assertEquals(0.0, renamed.getCurrentTime(), 0);
+            assertEquals(0, renamed.getEventCount());
+            assertArrayEquals(marks, marks(renamed));
+        }
+        ElevatorObjModel variant = NumberingContext.call(() -> new ElevatorObjModel(1, 15, 120, 0.7, 0.1, 0.5, 4));
+        variant.restore(snapshot); // the other parameters
+        assertEquals(model.getCurrentTime(), variant.getCurrentTime(), 0);
+        assertArrayEquals(marks(model), marks(variant));
+        try {
+            model.restore(new byte[]{1, 2, 3});
+            fail("The damaged snapshot is restored");
+        } catch (IllegalArgumentException ex) {
+            assertEquals(100.0, model.getSimulationTime(), 0);
+        }
+    }
+}
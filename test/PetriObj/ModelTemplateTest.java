@@ -0,0 +1,71 @@
+package PetriObj;
+
+import java.util.List;
+import org.junit.Test;
+
+import static PetriObj.ElevatorFixtures.*;
+import static org.junit.Assert.*;
+
+public class ModelTemplateTest {
+
+    @Test
+    public void testInstanceSimulatesAsModel() throws ExceptionInvalidTimeDelay {
+        ElevatorObjModel model = createElevator();
+        ModelTemplate<ElevatorObjModel> template = new ModelTemplate<>(model);
+        ElevatorObjModel first = template.instance();
+        ElevatorObjModel second = template.instance();
+        for (ElevatorObjModel m : new ElevatorObjModel[]{model, first, second}) {
+            m.setSeed(5);
+            m.setIsProtokol(false);
+            m.go(2000);
+        }
+        assertEquals(model.getEventCount(), first.getEventCount());
+        assertEquals(model.getEventCount(), second.getEventCount());
+        assertEquals(model.getStatistics().getEntered(), second.getStatistics().getEntered());
+
+        ElevatorObjModel third = template.instance(); // the template is not changed by the simulation of instances
+        third.setSeed(5);
+        third.setIsProtokol(false);
+        third.go(2000);
+        assertEquals(model.getEventCount(), third.getEventCount());
+    }
+
+    @Test
+    public void testInstancesShareStructureOnly() throws ExceptionInvalidTimeDelay {
+        ModelTemplate<ElevatorObjModel> template = new ModelTemplate<>(createElevator());
+        ElevatorObjModel first = template.instance();
+        ElevatorObjModel second = template.instance();
+        PetriNet net = first.getListObj().get(0).getNet();
+        PetriNet other = second.getListObj().get(0).getNet();
+        assertNotSame(net, other);
+        assertSame(net.getArcIn(), other.getArcIn());
+        assertEquals(net.getListT()[0].getInP(), other.getListT()[0].getInP());
+        assertNotSame(net.getListT()[0], other.getListT()[0]);
+        assertNotSame(net.getListP()[0], other.getListP()[0]);
+
+        net.getListP()[0].setMark(net.getListP()[0].getMark() + 7);
+        assertEquals(net.getListP()[0].getMark() - 7, other.getListP()[0].getMark());
+    }
+
+    @Test
+    public void testChangeOfArcsIsCopiedOnWrite() throws ExceptionInvalidTimeDelay {
+        ModelTemplate<ElevatorObjModel> template = new ModelTemplate<>(createElevator());
+        ElevatorObjModel first = template.instance();
+        ElevatorObjModel second = template.instance();
+        PetriT transition = first.getListObj().get(0).getNet().getListT()[0];
+        PetriT other = second.getListObj().get(0).getNet().getListT()[0];
+        int inputs = other.getInP().size();
+        List<Integer> view = other.getInP();
+        try {
+            transition.getInP().add(0);
+            fail("The shared list of arcs is changed");
+        } catch (UnsupportedOperationException ex) {
+            assertEquals(inputs, transition.getInP().size());
+        }
+        transition.addInP(0);
+        assertEquals(inputs + 1, transition.getInP().size());
+        assertEquals(inputs, other.getInP().size());
+        assertEquals(inputs, view.size());
+        assertEquals(inputs, template.instance().getListObj().get(0).getNet().getListT()[0].getInP().size());
+    }
+}
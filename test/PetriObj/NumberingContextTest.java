@@ -0,0 +1,60 @@
+package PetriObj;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class NumberingContextTest {
+
+    @Test
+    public void testThreadsBuildWithIndependentNumbering() throws Exception {
+        int n = 200;
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?>[] results = new Future<?>[2];
+            for (int k = 0; k < 2; k++) {
+                results[k] = pool.submit(() -> NumberingContext.call(() -> {
+                    int[] numbers = new int[2 * n];
+                    for (int i = 0; i < n; i++) {
+                        barrier.await(); // both threads create their elements at the same time
+                        numbers[2 * i] = new PetriP("P" + i, 0).getNumber();
+                        numbers[2 * i + 1] = new PetriT("T" + i, 1.0).getNumber();
+                    }
+                    return numbers;
+                }));
+            }
+            for (Future<?> result : results) {
+                int[] numbers = (int[]) result.get();
+                for (int i = 0; i < n; i++) {
+                    assertEquals(i, numbers[2 * i]);
+                    assertEquals(i, numbers[2 * i + 1]);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPreviousContextIsRestored() {
+        NumberingContext.run(() -> {
+            new PetriP("A", 0);
+            int inner = NumberingContext.call(() -> new PetriP("B", 0).getNumber());
+            assertEquals(0, inner);
+            try {
+                NumberingContext.run(() -> {
+                    new PetriP("C", 0);
+                    throw new IllegalStateException();
+                });
+                fail("The exception of action is lost");
+            } catch (IllegalStateException ex) {
+                assertEquals(1, new PetriP("D", 0).getNumber());
+            }
+        });
+    }
+}
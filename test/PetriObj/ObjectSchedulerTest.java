@@ -0,0 +1,110 @@
+package PetriObj;
+
+import LibNet.NetLibrary;
+import java.util.ArrayList;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ObjectSchedulerTest {
+
+    @Test
+    public void testPriorityOrderIsKept() throws Exception {
+        ArrayList<PetriSim> list = new ArrayList<>();
+        int[] priorities = {3, 3, 3, 1, 1, 0};
+        for (int priority : priorities) {
+            list.add(create(priority));
+        }
+        ObjectScheduler scheduler = new ObjectScheduler(list);
+        assertEquals(3, scheduler.getBuckets());
+        Random r = new Random(1);
+        for (int n = 0; n < 100; n++) {
+            scheduler.scheduleAll();
+            scheduler.shuffle(r);
+            assertEquals(priorities.length, scheduler.size());
+            for (int i = 0; i < priorities.length; i++) {
+                assertEquals(priorities[i], scheduler.get(i).getPriority());
+            }
+        }
+    }
+
+    @Test
+    public void testEqualPriorityOrderIsUniform() throws Exception {
+        ArrayList<PetriSim> list = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            list.add(create(0));
+        }
+        ObjectScheduler scheduler = new ObjectScheduler(list);
+        int[][] count = new int[3][3]; // object, position
+        Random r = new Random(2);
+        int n = 30000;
+        for (int k = 0; k < n; k++) {
+            scheduler.scheduleAll();
+            scheduler.shuffle(r);
+            for (int i = 0; i < 3; i++) {
+                count[list.indexOf(scheduler.get(i))][i]++;
+            }
+        }
+        for (int[] positions : count) {
+            for (int c : positions) {
+                assertEquals(n / 3.0, c, n * 0.02);
+            }
+        }
+    }
+
+    @Test
+    public void testOnlySubscribersOfIncreasedPlaceAreScheduled() throws Exception {
+        ArrayList<PetriSim> list = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            list.add(create(0));
+        }
+        PetriSim server = list.get(2);
+        PetriSim generator = list.get(0);
+        // the generator's output place becomes the input place of the server
+        PetriP shared = server.getNet().getListP()[0];
+        generator.getNet().getListP()[1] = shared;
+        Marking marking = new Marking();
+        for (PetriSim sim : list) {
+            sim.compile(marking);
+        }
+        ObjectScheduler scheduler = new ObjectScheduler(list);
+        assertTrue(scheduler.isSubscribed());
+
+        scheduler.scheduleChanged();
+        scheduler.shuffle(new Random(3));
+        assertEquals(0, scheduler.size());
+
+        shared.increaseMark(1);
+        scheduler.schedule(generator);
+        scheduler.scheduleChanged();
+        scheduler.shuffle(new Random(3));
+        assertEquals(2, scheduler.size());
+        assertTrue(scheduler.get(0) != list.get(1) && scheduler.get(1) != list.get(1));
+
+        shared.decreaseMark(1); // the decrease can not enable transitions
+        scheduler.scheduleChanged();
+        scheduler.shuffle(new Random(3));
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void testUnsortedListIsRejected() throws Exception {
+        ArrayList<PetriSim> list = new ArrayList<>();
+        for (int priority = 0; priority < 2; priority++) {
+            list.add(create(priority));
+        }
+        try {
+            new ObjectScheduler(list);
+            fail("The unsorted list is accepted");
+        } catch (IllegalArgumentException ex) {
+            // the list must be sorted by priority
+        }
+    }
+
+    private static PetriSim create(int priority) throws Exception {
+        PetriSim sim = NumberingContext.call(() -> new PetriSim(NetLibrary.CreateNetGenerator(1.0)));
+        sim.setPriority(priority);
+        return sim;
+    }
+}
@@ -0,0 +1,129 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ParameterBindingTest {
+
+    /**
+     * P1 (n markers) --k--> T1 (delay, dist) --out--> P2
+     */
+    private static PetriObjModel createModel() throws ExceptionInvalidTimeDelay {
+        return NumberingContext.call(() -> {
+            ArrayList<PetriP> places = new ArrayList<>();
+            ArrayList<PetriT> transitions = new ArrayList<>();
+            ArrayList<ArcIn> in = new ArrayList<>();
+            ArrayList<ArcOut> out = new ArrayList<>();
+            places.add(new PetriP("P1", 0));
+            places.add(new PetriP("P2", 0));
+            places.get(0).setMarkParam("n");
+            transitions.add(new PetriT("T1", 1.0));
+            transitions.get(0).setParametrParam("delay");
+            transitions.get(0).setDistributionParam("dist");
+            in.add(new ArcIn(places.get(0), transitions.get(0), 1));
+            in.get(0).setKParam("k");
+            out.add(new ArcOut(transitions.get(0), places.get(1), 1));
+            out.get(0).setKParam("out");
+            PetriNet net = new PetriNet("Net", places, transitions, in, out);
+            ArrayList<PetriSim> list = new ArrayList<>();
+            list.add(new PetriSim(net));
+            return new PetriObjModel(list);
+        });
+    }
+
+    private static ParameterBinding binding(int n, int k, int out) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("n", n);
+        values.put("k", k);
+        values.put("out", String.valueOf(out));
+        values.put("delay", 2.0);
+        values.put("dist", null);
+        return new ParameterBinding(values);
+    }
+
+    private static int mark(PetriObjModel model, int place) {
+        return model.getListObj().get(0).getNet().getListP()[place].getMark();
+    }
+
+    @Test
+    public void testBoundInstancesDoNotChangeTemplate() throws ExceptionInvalidTimeDelay {
+        ModelTemplate<PetriObjModel> template = new ModelTemplate<>(createModel());
+        assertEquals(Arrays.asList("n", "delay", "dist", "k", "out"),
+                new ArrayList<>(ParameterBinding.parameters(template.instance())));
+
+        PetriObjModel first = binding(5, 2, 3).instance(template);
+        PetriObjModel second = binding(4, 1, 1).instance(template);
+        assertTrue(ParameterBinding.parameters(first).isEmpty());
+        PetriT transition = first.getListObj().get(0).getNet().getListT()[0];
+        assertEquals(2.0, transition.getParametr(), 0);
+        assertNull(transition.getDistribution());
+        assertEquals(Arrays.asList(2), transition.getQuantIn());
+
+        for (PetriObjModel m : new PetriObjModel[]{first, second}) {
+            m.setIsProtokol(false);
+            m.go(10);
+        }
+        assertEquals(1, mark(first, 0));
+        assertEquals(6, mark(first, 1));
+        assertEquals(0, mark(second, 0));
+        assertEquals(4, mark(second, 1));
+
+        PetriObjModel third = template.instance();
+        assertEquals(5, ParameterBinding.parameters(third).size());
+        assertEquals(1, third.getListObj().get(0).getNet().getArcIn()[0].getQuantity());
+        assertNotSame(first.getListObj().get(0).getNet().getArcIn(), third.getListObj().get(0).getNet().getArcIn());
+    }
+
+    @Test
+    public void testMissingOrWrongValueDoesNotChangeModel() throws ExceptionInvalidTimeDelay {
+        PetriObjModel model = createModel();
+        ParameterBinding missing = binding(5, 2, 3);
+        Map<String, Object> values = new HashMap<>(missing.getValues());
+        values.remove("out");
+        try {
+            new ParameterBinding(values).bind(model);
+            fail("the parameter out has no value");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("out"));
+        }
+        try {
+            binding(5, 2, 3).set("k", 1.5).bind(model);
+            fail("the quantity of arc is not an integer");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("k"));
+        }
+        assertEquals(5, ParameterBinding.parameters(model).size());
+        assertEquals(0, mark(model, 0));
+    }
+
+    @Test
+    public void testBatchBindsEachPoint() throws Exception {
+        ModelTemplate<PetriObjModel> template = new ModelTemplate<>(createModel());
+        ExperimentDesign design = ExperimentDesign.grid(
+                ExperimentDesign.Factor.integerRange("n", 1, 20),
+                ExperimentDesign.Factor.integerRange("k", 1, 3),
+                ExperimentDesign.Factor.levels("out", 1, 2),
+                ExperimentDesign.Factor.levels("delay", 0.5));
+        List<ParameterBinding> bindings = new ArrayList<>();
+        for (ExperimentDesign.Point point : design.getPoints()) {
+            bindings.add(new ParameterBinding(point).set("dist", "exp"));
+        }
+        List<PetriObjModel> models = ParameterBinding.instances(template, bindings, 4);
+        assertEquals(design.size(), models.size());
+        for (int i = 0; i < models.size(); i++) {
+            ExperimentDesign.Point point = design.getPoint(i);
+            PetriObjModel model = models.get(i);
+            PetriNet net = model.getListObj().get(0).getNet();
+            assertEquals((int) point.get("n"), mark(model, 0));
+            assertEquals((int) point.get("k"), net.getArcIn()[0].getQuantity());
+            assertEquals((int) point.get("out"), (int) net.getListT()[0].getQuantOut().get(0));
+            assertEquals("exp", net.getListT()[0].getDistribution());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package PetriObj;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ParameterSweepTest {
+
+    @Test
+    public void testGridHasAllCombinations() {
+        ExperimentDesign design = ExperimentDesign.grid(
+                ExperimentDesign.Factor.levels("a", 1, 2),
+                ExperimentDesign.Factor.integerRange("b", 4, 6));
+        assertEquals(6, design.size());
+        assertEquals(1.0, design.getPoint(2).get("a"), 0);
+        assertEquals(6.0, design.getPoint(2).get("b"), 0);
+        assertEquals(2.0, design.getPoint(3).get("a"), 0);
+        assertEquals(4.0, design.getPoint(3).get("b"), 0);
+        assertEquals(7.5, design.getPoint(3).get("c", 7.5), 0);
+    }
+
+    @Test
+    public void testLatinHypercubeUsesEachInterval() {
+        int n = 10;
+        ExperimentDesign design = ExperimentDesign.latinHypercube(n, 5,
+                ExperimentDesign.Factor.range("x", 0, 1),
+                ExperimentDesign.Factor.integerRange("k", 1, 10));
+        double[] x = new double[n];
+        double[] k = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = design.getPoint(i).get("x");
+            k[i] = design.getPoint(i).get("k");
+        }
+        Arrays.sort(x);
+        Arrays.sort(k);
+        for (int i = 0; i < n; i++) {
+            assertTrue(x[i] >= i / (double) n && x[i] < (i + 1) / (double) n);
+            assertEquals(i + 1, k[i], 0);
+        }
+    }
+
+    @Test
+    public void testSweepIsReproducibleAndUsesCommonStreams() throws Exception {
+        ExperimentDesign design = ExperimentDesign.latinHypercube(3, 2,
+                ExperimentDesign.Factor.range("floorMoveTime", 0.3, 0.5),
+                ExperimentDesign.Factor.integerRange("liftCapacity", 4, 8));
+        ParameterSweep<ElevatorObjModel> sweep = new ParameterSweep<>(ElevatorObjModel::create, design, 500);
+        sweep.addOutput("events", PetriObjModel::getEventCount);
+        sweep.addOutput("entered", m -> m.getStatistics().getEntered());
+        sweep.setReplications(2);
+        sweep.setParallelism(3);
+        sweep.setSeed(9);
+
+        StringWriter first = new StringWriter();
+        SweepResult result = sweep.run(first);
+        StringWriter second = new StringWriter();
+        sweep.run(second);
+        assertEquals(first.toString(), second.toString());
+        String[] lines = first.toString().split("\n");
+        assertEquals(7, lines.length);
+        assertEquals("point,replication,floorMoveTime,liftCapacity,events,entered", lines[0]);
+
+        ElevatorObjModel model = NumberingContext.call(() -> ElevatorObjModel.create(design.getPoint(1)));
+        ModelRandom root = new ModelRandom(9);
+        root.split();
+        model.setRandom(root.split()); // the stream of the second replication
+        model.goWithoutPrintCheck(500);
+        assertTrue(lines[4].startsWith("1,1,"));
+        assertTrue(lines[4].endsWith("," + (double) model.getEventCount() + "," + (double) model.getStatistics().getEntered()));
+        assertEquals(2, result.get(1, "events").getCount());
+    }
+
+    @Test
+    public void testBinaryResultsAreColumnsOfPoints() throws Exception {
+        ExperimentDesign design = ExperimentDesign.grid(
+                ExperimentDesign.Factor.levels("floorMoveTime", 0.3, 0.5),
+                ExperimentDesign.Factor.integerRange("liftCapacity", 4, 5));
+        ParameterSweep<ElevatorObjModel> sweep = new ParameterSweep<>(ElevatorObjModel::create, design, 300);
+        sweep.addOutput("events", PetriObjModel::getEventCount);
+        sweep.addOutput("entered", m -> m.getStatistics().getEntered());
+        sweep.setReplications(3);
+        sweep.setParallelism(2);
+        sweep.setSeed(4);
+
+        StringWriter text = new StringWriter();
+        sweep.run(text);
+        String[] lines = text.toString().split("\n");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SweepResult result = sweep.runBinary(bytes);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(ParameterSweep.MAGIC, in.readInt());
+        assertEquals(ParameterSweep.VERSION, in.readInt());
+        assertEquals(4, in.readInt());
+        assertEquals(3, in.readInt());
+        assertEquals(2, in.readInt());
+        assertEquals("floorMoveTime", in.readUTF());
+        assertEquals("liftCapacity", in.readUTF());
+        assertEquals(2, in.readInt());
+        assertEquals("events", in.readUTF());
+        assertEquals("entered", in.readUTF());
+        for (int p = 0; p < 4; p++) {
+            assertEquals(p, in.readInt());
+            String[][] rows = new String[3][];
+            for (int r = 0; r < 3; r++) {
+                rows[r] = lines[1 + 3 * p + r].split(",");
+            }
+            assertEquals(Double.parseDouble(rows[0][2]), in.readDouble(), 0);
+            assertEquals(Double.parseDouble(rows[0][3]), in.readDouble(), 0);
+            for (int output = 0; output < 2; output++) {
+                double sum = 0;
+                for (int r = 0; r < 3; r++) {
+                    double value = in.readDouble();
+                    assertEquals(Double.parseDouble(rows[r][4 + output]), value, 0);
+                    sum += value;
+                }
+                assertEquals(sum / 3, result.get(p, output).getMean(), 1e-9);
+            }
+        }
+        assertEquals(-1, in.read());
+    }
+}
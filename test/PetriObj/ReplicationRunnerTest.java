@@ -0,0 +1,80 @@
+package PetriObj;
+
+import LibNet.NetLibrary;
+import java.util.ArrayList;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReplicationRunnerTest {
+
+    /**
+     * The generator with mean interval 1 and the server with 2 channels and
+     * mean service time 1.5
+     */
+    private static PetriObjModel createModel(int replication) throws Exception {
+        PetriSim generator = new PetriSim(NetLibrary.CreateNetGenerator(1.0));
+        PetriSim server = new PetriSim(NetLibrary.CreateNetSMOwithoutQueue(2, 1.5, "SMO"));
+        generator.getNet().getListP()[1] = server.getNet().getListP()[0];
+        ArrayList<PetriSim> list = new ArrayList<>();
+        list.add(generator);
+        list.add(server);
+        return new PetriObjModel(list);
+    }
+
+    private static ReplicationResult run(int parallelism, long seed) throws Exception {
+        ReplicationRunner runner = new ReplicationRunner(ReplicationRunnerTest::createModel, 200);
+        runner.setReplications(12);
+        runner.setParallelism(parallelism);
+        runner.setSeed(seed);
+        return runner.run();
+    }
+
+    private static void assertSameStatistics(Map<String, SampleStatistics> expected, Map<String, SampleStatistics> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String key : expected.keySet()) {
+            assertEquals(key, expected.get(key).getMean(), actual.get(key).getMean(), 0.0);
+            assertEquals(key, expected.get(key).getVariance(), actual.get(key).getVariance(), 0.0);
+        }
+    }
+
+    @Test
+    public void testResultDoesNotDependOnParallelism() throws Exception {
+        ReplicationResult sequential = run(1, 17);
+        ReplicationResult parallel = run(4, 17);
+        assertEquals(12, sequential.getReplications());
+        assertEquals(12, parallel.getReplications());
+        assertSameStatistics(sequential.getPlaces(), parallel.getPlaces());
+        assertSameStatistics(sequential.getTransitions(), parallel.getTransitions());
+
+        SampleStatistics busy = sequential.getTransition("SMOwithoutQueueSMO.T1");
+        assertNotNull(busy);
+        assertEquals(12, busy.getCount());
+        assertTrue(busy.getVariance() > 0); // the replications are different
+        assertTrue(busy.getMean() != run(4, 18).getTransition("SMOwithoutQueueSMO.T1").getMean());
+    }
+
+    @Test
+    public void testHalfWidthOfKnownSample() {
+        SampleStatistics statistics = new SampleStatistics();
+        for (double x : new double[]{2, 4, 4, 4, 5, 5, 7, 9}) {
+            statistics.add(x);
+        }
+        assertEquals(5.0, statistics.getMean(), 1e-12);
+        assertEquals(32.0 / 7, statistics.getVariance(), 1e-12);
+        // t(0.975; 7) = 2.364624
+        assertEquals(2.364624 * Math.sqrt(32.0 / 7 / 8), statistics.getHalfWidth(0.95), 1e-3);
+        // t(0.995; 7) = 3.499483
+        assertEquals(3.499483 * Math.sqrt(32.0 / 7 / 8), statistics.getHalfWidth(0.99), 1e-2);
+
+        SampleStatistics pair = new SampleStatistics();
+        pair.add(1);
+        pair.add(3);
+        assertEquals(12.706205, pair.getHalfWidth(0.95), 1e-6); // t(0.975; 1) * sqrt(2) / sqrt(2)
+
+        SampleStatistics one = new SampleStatistics();
+        one.add(1);
+        assertTrue(Double.isNaN(one.getHalfWidth(0.95)));
+    }
+}
@@ -0,0 +1,93 @@
+package PetriObj;
+
+import LibNet.NetLibrary;
+import java.util.ArrayList;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SimulationOptimizerTest {
+
+    /**
+     * The generator with mean interval 1 and the server with the given
+     * quantity of channels and mean service time 3
+     */
+    private static PetriObjModel createModel(ExperimentDesign.Point point) throws Exception {
+        PetriSim generator = new PetriSim(NetLibrary.CreateNetGenerator(1.0));
+        PetriSim server = new PetriSim(NetLibrary.CreateNetSMOwithoutQueue((int) point.get("numChannel"), 3.0, "SMO"));
+        generator.getNet().getListP()[1] = server.getNet().getListP()[0];
+        ArrayList<PetriSim> list = new ArrayList<>();
+        list.add(generator);
+        list.add(server);
+        return new PetriObjModel(list);
+    }
+
+    private static double queue(PetriObjModel model) {
+        return model.getListObj().get(1).getNet().getListP()[0].getMean();
+    }
+
+    private static SimulationOptimizer<PetriObjModel> createOptimizer() {
+        ExperimentDesign channels = ExperimentDesign.grid(ExperimentDesign.Factor.integerRange("numChannel", 1, 8));
+        SimulationOptimizer<PetriObjModel> optimizer = new SimulationOptimizer<>(SimulationOptimizerTest::createModel,
+                channels, 300, SimulationOptimizerTest::queue);
+        optimizer.setSeed(4);
+        optimizer.setParallelism(4);
+        optimizer.setInitialReplications(5);
+        optimizer.setMaxReplications(40);
+        return optimizer;
+    }
+
+    @Test
+    public void testFindFirstFeasibleCapacity() throws Exception {
+        SimulationOptimizer<PetriObjModel> optimizer = createOptimizer();
+        OptimizationResult result = optimizer.findFirstFeasible(1.0);
+        int best = result.getBestIndex();
+        assertTrue(best > 2); // the server with three channels or less is overloaded
+        assertTrue(result.getStatistics(best).getMean() <= 1.0);
+        assertTrue(result.isEliminated(best - 1));
+        assertTrue(result.getStatistics(best - 1).getMean() > 1.0);
+        assertTrue(result.getTotalReplications() < 8 * 40);
+
+        OptimizationResult again = createOptimizer().findFirstFeasible(1.0);
+        assertEquals(best, again.getBestIndex());
+        assertEquals(result.getStatistics(best).getMean(), again.getStatistics(best).getMean(), 0);
+    }
+
+    @Test
+    public void testSelectEliminatesDominatedCandidates() throws Exception {
+        SimulationOptimizer<PetriObjModel> optimizer = createOptimizer();
+        optimizer.setIndifference(0.05);
+        OptimizationResult result = optimizer.select();
+        int best = result.getBestIndex();
+        assertFalse(result.isEliminated(best));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(result.isEliminated(i)); // the overloaded servers
+        }
+        for (int i = 0; i < 8; i++) {
+            if (!result.isEliminated(i)) {
+                assertTrue(result.getStatistics(best).getMean() <= result.getStatistics(i).getMean());
+            }
+        }
+        assertTrue(best >= 5);
+        assertTrue(result.getTotalReplications() < 8 * 40 / 2); // the dominated candidates are dropped early
+
+        // the replication r of each candidate uses the same stream
+        ParameterSweep<PetriObjModel> sweep = new ParameterSweep<>(SimulationOptimizerTest::createModel,
+                optimizer.getCandidates(), 300);
+        sweep.addOutput("queue", SimulationOptimizerTest::queue);
+        sweep.setReplications(5);
+        sweep.setSeed(4);
+        SweepResult values = sweep.run();
+        for (int i = 0; i < 8; i++) {
+            assertEquals(values.get(i, 0).getMean(), mean5(result, i), 1e-9);
+        }
+    }
+
+    private static double mean5(OptimizationResult result, int candidate) {
+        double sum = 0;
+        for (int r = 0; r < 5; r++) {
+            sum += result.getValue(candidate, r);
+        }
+        return sum / 5;
+    }
+}
@@ -0,0 +1,50 @@
+package PetriObj;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SojournTrackerTest {
+
+    @Test
+    public void testOutputIsPairedWithEarliestInput() {
+        SojournTracker tracker = new SojournTracker(2);
+        tracker.in(1.0);
+        tracker.in(2.0);
+        tracker.in(4.0); // the buffer grows
+        assertEquals(3, tracker.getInside());
+
+        assertEquals(4.0, tracker.out(5.0), 0.0);
+        tracker.in(6.0);
+        assertEquals(4.0, tracker.out(6.0), 0.0);
+        assertEquals(3.0, tracker.out(7.0), 0.0);
+        assertEquals(4.0, tracker.out(10.0), 0.0);
+        assertTrue(Double.isNaN(tracker.out(11.0)));
+
+        assertEquals(0, tracker.getInside());
+        assertEquals(1, tracker.getUnpaired());
+        assertEquals(4, tracker.getStatistics().getCount());
+        assertEquals(3.75, tracker.getStatistics().getMean(), 1e-12);
+        assertEquals(3.0, tracker.getStatistics().getMin(), 0.0);
+        assertEquals(4.0, tracker.getStatistics().getMax(), 0.0);
+    }
+
+    @Test
+    public void testTransitionTracksServiceTime() throws ExceptionInvalidTimeDelay {
+        PetriT transition = new PetriT("T", 2.0);
+        PetriP[] places = {new PetriP("P1", 2), new PetriP("P2", 0)};
+        transition.createInP(new ArcIn[]{new ArcIn(0, transition.getNumber(), 1)});
+        transition.createOutP(new ArcOut[]{new ArcOut(transition.getNumber(), 1, 1)});
+        transition.setSojournTracking(true);
+
+        transition.actIn(places, 0.0);
+        transition.actIn(places, 1.0);
+        transition.actOut(places, 2.0);
+        transition.actOut(places, 3.0);
+
+        SojournTracker tracker = transition.getSojournTracker();
+        assertEquals(2, tracker.getStatistics().getCount());
+        assertEquals(2.0, tracker.getStatistics().getMean(), 1e-12);
+        assertEquals(0, tracker.getInside());
+    }
+}
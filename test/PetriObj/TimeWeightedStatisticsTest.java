@@ -0,0 +1,62 @@
+package PetriObj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimeWeightedStatisticsTest {
+
+    @Test
+    public void testMeanAndVarianceAreWeightedByTime() {
+        TimeWeightedStatistics statistics = new TimeWeightedStatistics();
+        statistics.add(0, 1.0);
+        statistics.add(4, 3.0);
+        statistics.add(7, 0.0); // zero interval is ignored
+
+        assertEquals(4.0, statistics.getTotalTime(), 1e-12);
+        assertEquals(3.0, statistics.getMean(), 1e-12);
+        assertEquals(3.0, statistics.getVariance(), 1e-12); // (1*9 + 3*1) / 4
+        assertEquals(0, statistics.getMin());
+        assertEquals(4, statistics.getMax());
+        assertEquals(0.25, statistics.getFraction(0), 1e-12);
+        assertEquals(0.75, statistics.getFraction(4), 1e-12);
+    }
+
+    @Test
+    public void testPercentiles() {
+        TimeWeightedStatistics statistics = new TimeWeightedStatistics();
+        for (int value = 0; value < 100; value++) {
+            statistics.add(value, 1.0);
+        }
+        assertEquals(0, statistics.getPercentile(0.0), 0.0);
+        assertEquals(31, statistics.getPercentile(0.32), 0.0);
+        assertEquals(49, statistics.getP50(), 1.0);
+        assertEquals(94, statistics.getP95(), 2.0);
+        assertEquals(98, statistics.getP99(), 2.0);
+        assertEquals(99, statistics.getPercentile(1.0), 0.0);
+    }
+
+    @Test
+    public void testModelMeanIsTimeWeighted() {
+        PetriObjModel model = NumberingContext.call(() -> {
+            PetriP place = new PetriP("P", 1);
+            PetriP p = new PetriP("Out", 0);
+            PetriT t = new PetriT("T", 2.0);
+            PetriNet net = new PetriNet("net", new PetriP[]{place, p}, new PetriT[]{t},
+                    new ArcIn[]{new ArcIn(place, t, 1)}, new ArcOut[]{new ArcOut(t, p, 1)});
+            return new PetriObjModel(new ArrayList<>(Arrays.asList(new PetriSim(net))));
+        });
+        PetriP out = model.getListObj().get(0).getNet().getListP()[1];
+        PetriT transition = model.getListObj().get(0).getNet().getListT()[0];
+        model.setIsProtokol(false);
+        model.go(8.0);
+
+        // the marker is in the transition during [0, 2] and in place Out during [2, 8]
+        assertEquals(0.25, transition.getMean(), 1e-12);
+        assertEquals(0.75, out.getMean(), 1e-12);
+        assertEquals(8.0, out.getStatistics().getTotalTime(), 1e-12);
+        assertEquals(1.0, out.getStatistics().getP50(), 0.0);
+    }
+}
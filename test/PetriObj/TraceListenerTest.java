@@ -0,0 +1,131 @@
+package PetriObj;
+
+import LibNet.NetLibrary;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TraceListenerTest {
+
+    /**
+     * Counts the outputs of markers of each Petri-object
+     */
+    private static class CountingListener implements SimTraceListener {
+
+        final Map<PetriSim, Integer> outputs = new IdentityHashMap<>();
+        int calls;
+
+        @Override
+        public void inputStarted(PetriSim sim) {
+            calls++;
+        }
+
+        @Override
+        public void transitionIn(PetriSim sim, PetriT transition) {
+            calls++;
+        }
+
+        @Override
+        public void inputFinished(PetriSim sim, int[] markBefore) {
+            calls++;
+        }
+
+        @Override
+        public void outputStarted(PetriSim sim, PetriT event) {
+            calls++;
+            outputs.merge(sim, 1, Integer::sum);
+        }
+
+        @Override
+        public void transitionOut(PetriSim sim, PetriT transition) {
+            calls++;
+        }
+
+        @Override
+        public void outputFinished(PetriSim sim, int[] markBefore) {
+            calls++;
+        }
+    }
+
+    private static PetriObjModel createModel() throws Exception {
+        return NumberingContext.call(() -> {
+            PetriSim generator = new PetriSim(NetLibrary.CreateNetGenerator(1.0));
+            PetriSim server = new PetriSim(NetLibrary.CreateNetSMOwithoutQueue(1, 0.5, "SMO"));
+            generator.getNet().getListP()[1] = server.getNet().getListP()[0];
+            ArrayList<PetriSim> list = new ArrayList<>();
+            list.add(generator);
+            list.add(server);
+            PetriObjModel model = new PetriObjModel(list);
+            model.setSeed(2);
+            return model;
+        });
+    }
+
+    private static String printed(PetriObjModel model, double time) {
+        PrintStream out = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true));
+        try {
+            model.go(time);
+        } finally {
+            System.setOut(out);
+        }
+        return bytes.toString();
+    }
+
+    @Test
+    public void testQuietModelHasNoListener() throws Exception {
+        PetriObjModel model = createModel();
+        model.setIsProtokol(false);
+        assertEquals("", printed(model, 50));
+        assertTrue(model.getEventCount() > 0);
+        for (PetriSim sim : model.getListObj()) {
+            assertNull(sim.getActiveTraceListener());
+        }
+    }
+
+    @Test
+    public void testConsoleTraceOnlyWithProtocol() throws Exception {
+        PetriObjModel model = createModel();
+        model.setIsProtokol(true);
+        String protocol = printed(model, 20);
+        assertTrue(protocol.contains("----OUTPUT"));
+        assertTrue(protocol.contains("----INPUT"));
+
+        model = createModel();
+        model.setIsProtokol(false);
+        CountingListener listener = new CountingListener();
+        model.setTraceListener(listener);
+        assertFalse(printed(model, 20).contains("----OUTPUT"));
+        assertTrue(listener.calls > 0);
+    }
+
+    @Test
+    public void testListenerOfObjectIsKept() throws Exception {
+        PetriObjModel model = createModel();
+        model.setIsProtokol(false);
+        PetriSim server = model.getListObj().get(1);
+        CountingListener own = new CountingListener();
+        server.setTraceListener(own);
+        model.go(50); // quiet model
+        assertSame(own, server.getTraceListener());
+        int outputs = own.outputs.get(server);
+        assertEquals(1, own.outputs.size());
+
+        CountingListener ofModel = new CountingListener();
+        model = createModel();
+        model.setIsProtokol(false);
+        server = model.getListObj().get(1);
+        server.setTraceListener(own = new CountingListener());
+        model.setTraceListener(ofModel);
+        model.go(50);
+        assertEquals(outputs, (int) own.outputs.get(server));
+        assertEquals(outputs, (int) ofModel.outputs.get(server));
+        assertEquals(model.getEventCount(), ofModel.outputs.values().stream().mapToInt(Integer::intValue).sum());
+    }
+}
@@ -0,0 +1,74 @@
+package PetriObj;
+
+import LibNet.NetLibrary;
+import java.util.ArrayList;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TransitionStreamsTest {
+
+    /**
+     * The generator with mean interval 1 and the server with the given
+     * quantity of channels and mean service time 3
+     */
+    private static PetriObjModel createModel(int channels) throws Exception {
+        return NumberingContext.call(() -> {
+            PetriSim generator = new PetriSim(NetLibrary.CreateNetGenerator(1.0));
+            PetriSim server = new PetriSim(NetLibrary.CreateNetSMOwithoutQueue(channels, 3.0, "SMO"));
+            generator.getNet().getListP()[1] = server.getNet().getListP()[0];
+            generator.getNet().getListT()[0].setMoments(true);
+            ArrayList<PetriSim> list = new ArrayList<>();
+            list.add(generator);
+            list.add(server);
+            return new PetriObjModel(list);
+        });
+    }
+
+    private static ArrayList<Double> arrivals(PetriObjModel model) {
+        return model.getListObj().get(0).getNet().getListT()[0].getOutMoments();
+    }
+
+    private static PetriObjModel run(int channels, boolean streams) throws Exception {
+        PetriObjModel model = createModel(channels);
+        model.setTransitionStreams(streams);
+        model.setSeed(8);
+        model.goWithoutPrintCheck(200);
+        return model;
+    }
+
+    @Test
+    public void testVariantsHaveSameArrivals() throws Exception {
+        PetriObjModel four = run(4, true);
+        PetriObjModel six = run(6, true);
+        assertTrue(arrivals(four).size() > 100);
+        assertEquals(arrivals(four), arrivals(six));
+
+        // the generator of model is shared by the transitions otherwise
+        assertFalse(arrivals(run(4, false)).equals(arrivals(run(6, false))));
+    }
+
+    @Test
+    public void testContinuedRunKeepsStreams() throws Exception {
+        PetriObjModel whole = createModel(4);
+        PetriObjModel continued = createModel(4);
+        for (PetriObjModel model : new PetriObjModel[]{whole, continued}) {
+            model.setTransitionStreams(true);
+            model.setSeed(2);
+        }
+        ModelTemplate<PetriObjModel> template = new ModelTemplate<>(continued);
+        whole.goWithoutPrintCheck(300);
+        continued.goWithoutPrintCheck(100);
+        byte[] snapshot = continued.snapshot();
+        continued.resume(300);
+        assertEquals(whole.getEventCount(), continued.getEventCount());
+        assertEquals(arrivals(whole), arrivals(continued));
+
+        PetriObjModel restored = template.instance();
+        restored.restore(snapshot);
+        restored.resume(300);
+        assertEquals(whole.getEventCount(), restored.getEventCount());
+        assertEquals(whole.getListObj().get(1).getNet().getListP()[2].getMark(),
+                restored.getListObj().get(1).getNet().getListP()[2].getMark());
+    }
+}
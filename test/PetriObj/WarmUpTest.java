@@ -0,0 +1,60 @@
+package PetriObj;
+
+import org.junit.Test;
+
+import static PetriObj.ElevatorFixtures.*;
+import static org.junit.Assert.*;
+
+public class WarmUpTest {
+
+    @Test
+    public void testWarmUpRemovesStatisticsWithoutChangeOfRun() throws ExceptionInvalidTimeDelay {
+        ElevatorObjModel model = createElevator();
+        ElevatorObjModel warmedUp = createElevator();
+        model.setSeed(7);
+        warmedUp.setSeed(7);
+        warmedUp.setWarmUpTime(1000);
+        model.goWithoutPrintCheck(5000);
+        warmedUp.goWithoutPrintCheck(5000);
+
+        assertEquals(model.getEventCount(), warmedUp.getEventCount());
+        assertEquals(0.0, model.getStatisticsStart(), 0);
+        assertEquals(1000.0, warmedUp.getStatisticsStart(), 0);
+        PetriP place = findPlace(warmedUp, "AvailablePlaces");
+        assertEquals(4000.0, place.getStatistics().getTotalTime(), 1e-6);
+        assertEquals(5000.0, findPlace(model, "AvailablePlaces").getStatistics().getTotalTime(), 1e-6);
+        assertTrue(warmedUp.getStatistics().getEntered() < model.getStatistics().getEntered());
+    }
+
+    @Test
+    public void testTruncationPointOfSeriesWithTransient() {
+        int n = 60;
+        double[] y = new double[n];
+        java.util.Random r = new java.util.Random(1);
+        for (int i = 0; i < n; i++) {
+            y[i] = 10 + r.nextGaussian() * 0.5 + (i < 12 ? 2.0 * (12 - i) : 0);
+        }
+        int d = MserTruncation.truncationPoint(y, n);
+        assertTrue("point " + d, d >= 9 && d <= 14);
+
+        for (int i = 0; i < n; i++) {
+            y[i] = 10 + r.nextGaussian() * 0.5;
+        }
+        assertTrue(MserTruncation.truncationPoint(y, n) < n / 2);
+    }
+
+    @Test
+    public void testTruncationRemovesStatisticsDuringRun() throws ExceptionInvalidTimeDelay {
+        ElevatorObjModel model = createElevator();
+        model.setSeed(2);
+        PetriP waiting = findPlace(model, "PassengersWaiting1Floor");
+        MserTruncation truncation = new MserTruncation(20, StateMetric.of(waiting));
+        model.setTruncation(truncation);
+        model.goWithoutPrintCheck(20000);
+
+        assertTrue(truncation.isTruncated());
+        assertTrue(truncation.getTruncation() <= truncation.getTruncatedAt());
+        assertTrue(model.getStatisticsStart() >= truncation.getTruncatedAt());
+        assertEquals(20000 - model.getStatisticsStart(), waiting.getStatistics().getTotalTime(), 1e-6);
+    }
+}
@@ -0,0 +1,41 @@
+package graphpresentation;
+
+import LibNet.NetLibrary;
+import PetriObj.NumberingContext;
+import PetriObj.PetriP;
+import PetriObj.PetriSim;
+import PetriObj.PetriT;
+import java.util.ArrayList;
+import javax.swing.JTextArea;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RunPetriObjModelTest {
+
+    @Test
+    public void testMeansAreTimeWeightedStatistics() throws Exception {
+        RunPetriObjModel model = NumberingContext.call(() -> {
+            PetriSim generator = new PetriSim(NetLibrary.CreateNetGenerator(1.0));
+            PetriSim server = new PetriSim(NetLibrary.CreateNetSMOwithoutQueue(2, 1.5, "SMO"));
+            generator.getNet().getListP()[1] = server.getNet().getListP()[0];
+            ArrayList<PetriSim> list = new ArrayList<>();
+            list.add(generator);
+            list.add(server);
+            return new RunPetriObjModel(list, new JTextArea());
+        });
+        model.go(200);
+        model.go(100); // the statistics of the first run are removed
+
+        for (PetriSim sim : model.getListObj()) {
+            for (PetriP p : sim.getNet().getListP()) {
+                assertEquals(p.getName(), 100.0, p.getStatistics().getTotalTime(), 1e-9);
+                assertEquals(p.getName(), p.getStatistics().getMean(), p.getMean(), 0);
+            }
+            for (PetriT t : sim.getNet().getListT()) {
+                assertEquals(t.getName(), 100.0, t.getStatistics().getTotalTime(), 1e-9);
+                assertEquals(t.getName(), t.getStatistics().getMean(), t.getMean(), 0);
+            }
+        }
+    }
+}